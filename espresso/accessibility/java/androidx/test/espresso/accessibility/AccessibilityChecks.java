@@ -60,16 +60,29 @@ public final class AccessibilityChecks {
           if (view == null) {
             throw new NullPointerException();
           }
+          long fingerprint = 0;
+          if (incrementalChecksEnabled) {
+            fingerprint = WindowFingerprints.fingerprint(view);
+            if (CHECKED_WINDOWS.isChecked(view, fingerprint)) {
+              return;
+            }
+          }
           StrictMode.ThreadPolicy originalPolicy = StrictMode.allowThreadDiskWrites();
           try {
             CHECK_EXECUTOR.checkAndReturnResults(view);
           } finally {
             StrictMode.setThreadPolicy(originalPolicy);
           }
+          if (incrementalChecksEnabled) {
+            CHECKED_WINDOWS.markChecked(view, fingerprint);
+          }
         }
       };
 
+  private static final WindowFingerprints CHECKED_WINDOWS = new WindowFingerprints();
+
   private static boolean checksEnabled = false;
+  private static boolean incrementalChecksEnabled = false;
   private static final String TAG = "AccessibilityChecks";
 
   private AccessibilityChecks() {}
@@ -103,6 +116,26 @@ public final class AccessibilityChecks {
     ViewActions.removeGlobalAssertion(ACCESSIBILITY_CHECK_ASSERTION);
   }
 
+  /**
+   * Enables or disables incremental accessibility checking.
+   *
+   * <p>When enabled, the accessibility assertion remembers the views that passed the checks,
+   * together with a fingerprint of every view in their window: class, screen bounds, visibility,
+   * alpha, focusability, clickability, text, content description, background and drawable state.
+   * A later check of the same view is skipped only if nothing in its window changed since; as soon
+   * as anything changed, the view is checked again with the scope the backing {@link
+   * AccessibilityValidator} is configured for, e.g. the whole window when it runs checks from the
+   * root view. A view that failed the checks is checked again every time. Changing the options of
+   * the backing {@link AccessibilityValidator} does not invalidate the remembered results, call
+   * this method again to forget them.
+   *
+   * <p>Disabled by default.
+   */
+  public static void setIncrementalChecksEnabled(boolean enabled) {
+    incrementalChecksEnabled = enabled;
+    CHECKED_WINDOWS.clear();
+  }
+
   /**
    * @return the backing {@link ViewAssertion} that can be used to explicitly check accessibility
    */
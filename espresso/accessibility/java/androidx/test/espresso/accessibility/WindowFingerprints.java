@@ -0,0 +1,142 @@
+/*
+ * Copyright (C) 2021 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.test.espresso.accessibility;
+
+import android.graphics.drawable.ColorDrawable;
+import android.graphics.drawable.Drawable;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.TextView;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+/**
+ * Remembers the views that passed accessibility checks together with a fingerprint of their whole
+ * window, so that {@link AccessibilityChecks} skips a check only when nothing in the window changed
+ * since.
+ *
+ * <p>The fingerprint of a window combines, for every view of its hierarchy, the class, screen
+ * bounds, visibility, alpha, focusability, clickability, content description, background and
+ * drawable state, for text views the text, hint, text size and text color, and for view groups the
+ * number of children. Must only be used on the main thread.
+ */
+final class WindowFingerprints {
+
+  private final Map<View, CheckedViews> checkedByRootView = new WeakHashMap<>();
+
+  /** The views that passed the checks while their window had a given fingerprint. */
+  private static final class CheckedViews {
+    private final long fingerprint;
+    private final Set<View> views = Collections.newSetFromMap(new WeakHashMap<View, Boolean>());
+
+    private CheckedViews(long fingerprint) {
+      this.fingerprint = fingerprint;
+    }
+  }
+
+  /** Fingerprints the whole hierarchy of the window the given view is attached to. */
+  static long fingerprint(View view) {
+    return fingerprint(view.getRootView(), new int[2]);
+  }
+
+  private static long fingerprint(View view, int[] location) {
+    long hash = ownFingerprint(view, location);
+    if (view instanceof ViewGroup) {
+      ViewGroup group = (ViewGroup) view;
+      for (int i = 0; i < group.getChildCount(); i++) {
+        hash = 31 * hash + fingerprint(group.getChildAt(i), location);
+      }
+    }
+    return hash;
+  }
+
+  private static long ownFingerprint(View view, int[] location) {
+    view.getLocationOnScreen(location);
+    long hash = view.getClass().getName().hashCode();
+    hash = 31 * hash + location[0];
+    hash = 31 * hash + location[1];
+    hash = 31 * hash + view.getWidth();
+    hash = 31 * hash + view.getHeight();
+    hash = 31 * hash + view.getVisibility();
+    hash = 31 * hash + Float.floatToIntBits(view.getAlpha());
+    hash = 31 * hash + (view.isFocusable() ? 1 : 0);
+    hash = 31 * hash + (view.isClickable() ? 1 : 0);
+    hash = 31 * hash + (view.isLongClickable() ? 1 : 0);
+    hash = 31 * hash + hashOf(view.getContentDescription());
+    hash = 31 * hash + hashOf(view.getBackground());
+    hash = 31 * hash + Arrays.hashCode(view.getDrawableState());
+    if (view instanceof TextView) {
+      TextView textView = (TextView) view;
+      hash = 31 * hash + hashOf(textView.getText());
+      hash = 31 * hash + hashOf(textView.getHint());
+      hash = 31 * hash + Float.floatToIntBits(textView.getTextSize());
+      hash = 31 * hash + textView.getCurrentTextColor();
+    }
+    if (view instanceof ViewGroup) {
+      hash = 31 * hash + ((ViewGroup) view).getChildCount();
+    }
+    return hash;
+  }
+
+  private static int hashOf(CharSequence text) {
+    return text == null ? 0 : text.toString().hashCode();
+  }
+
+  private static int hashOf(Drawable background) {
+    if (background == null) {
+      return 0;
+    }
+    // Drawables are mutable and compare by identity, so also cover the state they are drawn with.
+    int hash = System.identityHashCode(background);
+    hash = 31 * hash + Arrays.hashCode(background.getState());
+    if (background instanceof ColorDrawable) {
+      hash = 31 * hash + ((ColorDrawable) background).getColor();
+    }
+    return hash;
+  }
+
+  /**
+   * Returns whether the given view passed the checks while its window had the given fingerprint,
+   * as returned by {@link #fingerprint}.
+   */
+  boolean isChecked(View view, long fingerprint) {
+    CheckedViews checked = checkedByRootView.get(view.getRootView());
+    return checked != null && checked.fingerprint == fingerprint && checked.views.contains(view);
+  }
+
+  /**
+   * Records that the given view passed the checks while its window had the given fingerprint. Views
+   * recorded with another fingerprint of the same window are forgotten.
+   */
+  void markChecked(View view, long fingerprint) {
+    View rootView = view.getRootView();
+    CheckedViews checked = checkedByRootView.get(rootView);
+    if (checked == null || checked.fingerprint != fingerprint) {
+      checked = new CheckedViews(fingerprint);
+      checkedByRootView.put(rootView, checked);
+    }
+    checked.views.add(view);
+  }
+
+  /** Forgets every view that passed the accessibility checks. */
+  void clear() {
+    checkedByRootView.clear();
+  }
+}
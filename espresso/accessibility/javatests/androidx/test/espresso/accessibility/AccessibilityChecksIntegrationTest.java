@@ -42,6 +42,7 @@ import androidx.test.ui.app.LargeViewActivity;
 import androidx.test.ui.app.R;
 import com.google.android.apps.common.testing.accessibility.framework.integrations.AccessibilityViewCheckException;
 import org.hamcrest.Matcher;
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -75,6 +76,11 @@ public class AccessibilityChecksIntegrationTest {
             });
   }
 
+  @After
+  public void tearDown() {
+    AccessibilityChecks.setIncrementalChecksEnabled(false);
+  }
+
   @Test
   public void testRunAccessibilityChecks_viewWithOneError() {
     try {
@@ -123,6 +129,19 @@ public class AccessibilityChecksIntegrationTest {
     fail("Should have thrown an AccessibilityViewCheckException for a small touch target.");
   }
 
+  @Test
+  public void testIncrementalChecks_failedViewCheckedAgain() {
+    AccessibilityChecks.setIncrementalChecksEnabled(true);
+    for (int i = 0; i < 2; i++) {
+      try {
+        onView(withId(R.id.large_view)).check(accessibilityAssertion());
+        fail("Should have thrown an AccessibilityViewCheckException for a small touch target.");
+      } catch (AccessibilityViewCheckException e) {
+        assertEquals(1, e.getResults().size());
+      }
+    }
+  }
+
   @Test
   public void testCheckWithNonNullMatchingViewException_throwsNoMatchingViewException() {
     try {
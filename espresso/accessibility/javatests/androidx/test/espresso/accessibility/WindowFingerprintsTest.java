@@ -0,0 +1,137 @@
+/*
+ * Copyright (C) 2021 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.test.espresso.accessibility;
+
+import static androidx.test.core.app.ApplicationProvider.getApplicationContext;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import android.content.Context;
+import android.graphics.Color;
+import android.view.View;
+import android.widget.FrameLayout;
+import android.widget.TextView;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.filters.SmallTest;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/** Unit tests for {@link WindowFingerprints}. */
+@SmallTest
+@RunWith(AndroidJUnit4.class)
+public class WindowFingerprintsTest {
+
+  private final WindowFingerprints fingerprints = new WindowFingerprints();
+  private FrameLayout root;
+  private FrameLayout left;
+  private TextView leftText;
+  private FrameLayout right;
+  private TextView rightText;
+
+  @Before
+  public void setUp() {
+    Context context = getApplicationContext();
+    root = new FrameLayout(context);
+    left = new FrameLayout(context);
+    leftText = new TextView(context);
+    right = new FrameLayout(context);
+    rightText = new TextView(context);
+    left.addView(leftText);
+    right.addView(rightText);
+    root.addView(left);
+    root.addView(right);
+  }
+
+  @Test
+  public void neverChecked_notChecked() {
+    assertThat(isChecked(leftText), is(false));
+  }
+
+  @Test
+  public void unchanged_checked() {
+    markChecked(leftText);
+    assertThat(isChecked(leftText), is(true));
+  }
+
+  @Test
+  public void fingerprint_coversWholeWindow() {
+    assertThat(
+        WindowFingerprints.fingerprint(leftText), is(WindowFingerprints.fingerprint(rightText)));
+  }
+
+  @Test
+  public void textChangedElsewhereInWindow_notChecked() {
+    markChecked(leftText);
+    rightText.setText("changed");
+    assertThat(isChecked(leftText), is(false));
+  }
+
+  @Test
+  public void childAddedElsewhereInWindow_notChecked() {
+    markChecked(leftText);
+    right.addView(new View(getApplicationContext()));
+    assertThat(isChecked(leftText), is(false));
+  }
+
+  @Test
+  public void ancestorBackgroundChanged_notChecked() {
+    markChecked(leftText);
+    left.setBackgroundColor(Color.BLACK);
+    markChecked(leftText);
+    left.setBackgroundColor(Color.WHITE);
+    assertThat(isChecked(leftText), is(false));
+  }
+
+  @Test
+  public void drawableStateChanged_notChecked() {
+    markChecked(leftText);
+    rightText.setSelected(true);
+    assertThat(isChecked(leftText), is(false));
+  }
+
+  @Test
+  public void otherViewOfUncheckedWindow_notChecked() {
+    markChecked(leftText);
+    assertThat(isChecked(rightText), is(false));
+  }
+
+  @Test
+  public void windowChanged_forgetsViewsCheckedBefore() {
+    markChecked(leftText);
+    rightText.setText("changed");
+    markChecked(rightText);
+    rightText.setText("");
+    assertThat(isChecked(leftText), is(false));
+    assertThat(isChecked(rightText), is(false));
+  }
+
+  @Test
+  public void clear_forgetsCheckedViews() {
+    markChecked(leftText);
+    fingerprints.clear();
+    assertThat(isChecked(leftText), is(false));
+  }
+
+  private void markChecked(View view) {
+    fingerprints.markChecked(view, WindowFingerprints.fingerprint(view));
+  }
+
+  private boolean isChecked(View view) {
+    return fingerprints.isChecked(view, WindowFingerprints.fingerprint(view));
+  }
+}
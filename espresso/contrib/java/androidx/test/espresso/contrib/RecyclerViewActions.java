@@ -78,6 +78,25 @@ public final class RecyclerViewActions {
     public PositionableRecyclerViewAction atPosition(int position);
   }
 
+  /**
+   * Gives access to the data of the items of a {@link RecyclerView} adapter. This is similar in
+   * spirit to the {@code AdapterViewProtocol} used by {@link Espresso#onData(Matcher)}.
+   *
+   * <p>Actions that match items by their data, such as {@link #scrollToData(Matcher,
+   * ItemDataProtocol)}, ask the protocol for the data of each item instead of creating and binding
+   * a {@link ViewHolder} for it.
+   */
+  public interface ItemDataProtocol {
+
+    /**
+     * Returns the data of the item at the given adapter position.
+     *
+     * @param adapter the adapter of the {@link RecyclerView}
+     * @param position a position between 0 and {@code adapter.getItemCount() - 1}
+     */
+    Object getItemData(Adapter<?> adapter, int position);
+  }
+
   /**
    * Returns a {@link ViewAction} which scrolls {@link RecyclerView} to the view matched by
    * viewHolderMatcher.
@@ -118,6 +137,26 @@ public final class RecyclerViewActions {
     return new ScrollToViewAction<VH>(viewHolderMatcher);
   }
 
+  /**
+   * Returns a {@link ViewAction} which scrolls {@link RecyclerView} to the item whose data is
+   * matched by dataMatcher.
+   *
+   * <p>Unlike {@link #scrollTo(Matcher)}, this approach does not create or bind any {@link
+   * ViewHolder}. The data of each item is provided by itemDataProtocol, and items are matched in
+   * adapter order until enough matches are found.
+   *
+   * @param dataMatcher a <a
+   *     href="http://hamcrest.org/JavaHamcrest/javadoc/1.3/org/hamcrest/Matcher.html"><code>Matcher
+   *     </code></a> that matches the data of an item in {@link RecyclerView}
+   * @param itemDataProtocol provides the data of the items of the adapter
+   * @throws PerformException if there are more than one items matching given dataMatcher.
+   */
+  public static PositionableRecyclerViewAction scrollToData(
+      final Matcher<?> dataMatcher, final ItemDataProtocol itemDataProtocol) {
+    return new ScrollToViewAction<ViewHolder>(
+        new ItemDataMatcher<ViewHolder>(dataMatcher, itemDataProtocol));
+  }
+
   /**
    * Returns a {@link ViewAction} which scrolls {@link RecyclerView} to a position.
    *
@@ -169,6 +208,31 @@ public final class RecyclerViewActions {
     return new ActionOnItemViewAction<VH>(viewHolderMatcher, viewAction);
   }
 
+  /**
+   * Performs a {@link ViewAction} on the item whose data is matched by dataMatcher.
+   *
+   * <ol>
+   *   <li>Scroll Recycler View to the item matched by dataMatcher
+   *   <li>Perform an action on the view of the matched item
+   * </ol>
+   *
+   * <p>Items are matched by their data, see {@link #scrollToData(Matcher, ItemDataProtocol)}.
+   *
+   * @param dataMatcher a <a
+   *     href="http://hamcrest.org/JavaHamcrest/javadoc/1.3/org/hamcrest/Matcher.html"><code>Matcher
+   *     </code></a> that matches the data of an item in {@link RecyclerView}
+   * @param itemDataProtocol provides the data of the items of the adapter
+   * @param viewAction the action that is performed on the view of the item matched by dataMatcher
+   * @throws PerformException if there are more than one items matching given dataMatcher.
+   */
+  public static PositionableRecyclerViewAction actionOnData(
+      final Matcher<?> dataMatcher,
+      final ItemDataProtocol itemDataProtocol,
+      final ViewAction viewAction) {
+    return new ActionOnItemViewAction<ViewHolder>(
+        new ItemDataMatcher<ViewHolder>(dataMatcher, itemDataProtocol), viewAction);
+  }
+
   private static final class ActionOnItemViewAction<VH extends ViewHolder>
       implements PositionableRecyclerViewAction {
     private final Matcher<VH> viewHolderMatcher;
@@ -367,7 +431,13 @@ public final class RecyclerViewActions {
           ambiguousViewError.append(
               String.format("Found more than one sub-view matching %s", viewHolderMatcher));
           for (MatchedItem item : matchedItems) {
-            ambiguousViewError.append(item + "\n");
+            if (viewHolderMatcher instanceof ItemDataMatcher) {
+              ambiguousViewError.append(
+                  ((ItemDataMatcher<?>) viewHolderMatcher).describeItem(recyclerView, item.position)
+                      + "\n");
+            } else {
+              ambiguousViewError.append(describeItem(recyclerView, item.position) + "\n");
+            }
           }
           throw new RuntimeException(ambiguousViewError.toString());
         }
@@ -422,13 +492,17 @@ public final class RecyclerViewActions {
    * @param viewHolderMatcher a <a
    *     href="http://hamcrest.org/JavaHamcrest/javadoc/1.3/org/hamcrest/Matcher.html"><code>Matcher
    *     </code></a> that matches an item view in {@link RecyclerView}
-   * @return list of MatchedItem which contains position and description of items in recyclerView.
+   * @return list of MatchedItem which contains the position of items in recyclerView.
    * @throws RuntimeException if more than one item or item could not be found.
    */
   @SuppressWarnings("unchecked")
   private static <T extends VH, VH extends ViewHolder> List<MatchedItem> itemsMatching(
       final RecyclerView recyclerView, final Matcher<VH> viewHolderMatcher, int max) {
     final Adapter<T> adapter = recyclerView.getAdapter();
+    if (viewHolderMatcher instanceof ItemDataMatcher) {
+      // Match the data of the items, without creating and binding view holders.
+      return ((ItemDataMatcher<VH>) viewHolderMatcher).itemsMatching(adapter, max);
+    }
     SparseArray<VH> viewHolderCache = new SparseArray<VH>();
     List<MatchedItem> matchedItems = new ArrayList<MatchedItem>();
     for (int position = 0; position < adapter.getItemCount(); position++) {
@@ -442,14 +516,7 @@ public final class RecyclerViewActions {
       // Bind data to ViewHolder and apply matcher to view descendants.
       adapter.bindViewHolder((T) cachedViewHolder, position);
       if (viewHolderMatcher.matches(cachedViewHolder)) {
-        matchedItems.add(
-            new MatchedItem(
-                position,
-                HumanReadables.getViewHierarchyErrorMessage(
-                    cachedViewHolder.itemView,
-                    null,
-                    "\n\n*** Matched ViewHolder item at position: " + position + " ***",
-                    null)));
+        matchedItems.add(new MatchedItem(position));
         adapter.onViewRecycled((T) cachedViewHolder);
         if (matchedItems.size() == max) {
           break;
@@ -462,21 +529,84 @@ public final class RecyclerViewActions {
   }
 
   /**
-   * Wrapper for matched items in recycler view which contains position and description of matched
-   * view.
+   * Describes the hierarchy of the item at the given position. Only needed to report ambiguous
+   * matches, so it binds the item again rather than describing every matched item up front.
    */
-  private static class MatchedItem {
-    public final int position;
-    public final String description;
+  @SuppressWarnings("unchecked")
+  private static <T extends ViewHolder> String describeItem(
+      RecyclerView recyclerView, int position) {
+    final Adapter<T> adapter = recyclerView.getAdapter();
+    T viewHolder = adapter.createViewHolder(recyclerView, adapter.getItemViewType(position));
+    adapter.bindViewHolder(viewHolder, position);
+    String description =
+        HumanReadables.getViewHierarchyErrorMessage(
+            viewHolder.itemView,
+            null,
+            "\n\n*** Matched ViewHolder item at position: " + position + " ***",
+            null);
+    adapter.onViewRecycled(viewHolder);
+    return description;
+  }
 
-    private MatchedItem(int position, String description) {
-      this.position = position;
-      this.description = description;
+  /**
+   * Matches items by the data an {@link ItemDataProtocol} provides for them. {@link
+   * #itemsMatching(RecyclerView, Matcher, int)} matches the data of every item directly, view
+   * holders are only matched against the data of the item they are bound to.
+   */
+  private static final class ItemDataMatcher<VH extends ViewHolder> extends TypeSafeMatcher<VH> {
+    private final Matcher<?> dataMatcher;
+    private final ItemDataProtocol itemDataProtocol;
+
+    private ItemDataMatcher(Matcher<?> dataMatcher, ItemDataProtocol itemDataProtocol) {
+      this.dataMatcher = checkNotNull(dataMatcher);
+      this.itemDataProtocol = checkNotNull(itemDataProtocol);
+    }
+
+    private List<MatchedItem> itemsMatching(Adapter<?> adapter, int max) {
+      List<MatchedItem> matchedItems = new ArrayList<MatchedItem>();
+      for (int position = 0; position < adapter.getItemCount(); position++) {
+        if (dataMatcher.matches(itemDataProtocol.getItemData(adapter, position))) {
+          matchedItems.add(new MatchedItem(position));
+          if (matchedItems.size() == max) {
+            break;
+          }
+        }
+      }
+      return matchedItems;
+    }
+
+    private String describeItem(RecyclerView recyclerView, int position) {
+      return "\n\n*** Matched item data at position: "
+          + position
+          + " ***\n"
+          + itemDataProtocol.getItemData(recyclerView.getAdapter(), position);
     }
 
     @Override
-    public String toString() {
-      return description;
+    public boolean matchesSafely(VH viewHolder) {
+      if (!(viewHolder.itemView.getParent() instanceof RecyclerView)) {
+        return false;
+      }
+      Adapter<?> adapter = ((RecyclerView) viewHolder.itemView.getParent()).getAdapter();
+      int position = viewHolder.getAdapterPosition();
+      return adapter != null
+          && position != RecyclerView.NO_POSITION
+          && dataMatcher.matches(itemDataProtocol.getItemData(adapter, position));
+    }
+
+    @Override
+    public void describeTo(Description description) {
+      description.appendText("item with data: ");
+      dataMatcher.describeTo(description);
+    }
+  }
+
+  /** Wrapper for matched items in recycler view which contains the position of matched view. */
+  private static class MatchedItem {
+    public final int position;
+
+    private MatchedItem(int position) {
+      this.position = position;
     }
   }
 
@@ -20,10 +20,12 @@ import static androidx.test.espresso.Espresso.onView;
 import static androidx.test.espresso.action.ViewActions.click;
 import static androidx.test.espresso.assertion.ViewAssertions.doesNotExist;
 import static androidx.test.espresso.assertion.ViewAssertions.matches;
+import static androidx.test.espresso.contrib.RecyclerViewActions.actionOnData;
 import static androidx.test.espresso.contrib.RecyclerViewActions.actionOnHolderItem;
 import static androidx.test.espresso.contrib.RecyclerViewActions.actionOnItem;
 import static androidx.test.espresso.contrib.RecyclerViewActions.actionOnItemAtPosition;
 import static androidx.test.espresso.contrib.RecyclerViewActions.scrollTo;
+import static androidx.test.espresso.contrib.RecyclerViewActions.scrollToData;
 import static androidx.test.espresso.contrib.RecyclerViewActions.scrollToHolder;
 import static androidx.test.espresso.contrib.RecyclerViewActions.scrollToPosition;
 import static androidx.test.espresso.matcher.ViewMatchers.hasDescendant;
@@ -34,6 +36,7 @@ import static androidx.test.espresso.matcher.ViewMatchers.withText;
 import static com.google.common.base.Preconditions.checkArgument;
 import static org.hamcrest.Matchers.allOf;
 import static org.hamcrest.Matchers.any;
+import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.startsWith;
 import static org.junit.Assert.fail;
 
@@ -43,7 +46,9 @@ import android.view.View;
 import androidx.test.core.app.ActivityScenario;
 import androidx.test.core.app.ActivityScenario.ActivityAction;
 import androidx.test.espresso.PerformException;
+import androidx.test.espresso.contrib.RecyclerViewActions.ItemDataProtocol;
 import androidx.test.filters.Suppress;
+import androidx.test.ui.app.ItemListAdapter;
 import androidx.test.ui.app.ItemListAdapter.CustomViewHolder;
 import androidx.test.ui.app.R;
 import androidx.test.ui.app.RecyclerViewActivity;
@@ -66,6 +71,14 @@ public abstract class RecyclerViewIntegrationTest {
   private static final String ITEM_998 = "Item: 998";
   private static final String ITEM_10_PREFIX = "Item: 10";
 
+  private static final ItemDataProtocol ITEM_LIST_DATA =
+      new ItemDataProtocol() {
+        @Override
+        public Object getItemData(RecyclerView.Adapter<?> adapter, int position) {
+          return ((ItemListAdapter) adapter).getItem(position);
+        }
+      };
+
   private int rvLayoutId;
   private int selectedItemId;
 
@@ -122,6 +135,31 @@ public abstract class RecyclerViewIntegrationTest {
     onView(withText(ITEM_200)).check(matches(isDisplayed()));
   }
 
+  @Test
+  public void testScrolling_scrollToData() {
+    onView(withItemText(ITEM_64)).check(doesNotExist());
+    onView(withId(rvLayoutId)).perform(scrollToData(equalTo(ITEM_64), ITEM_LIST_DATA));
+    onView(withItemText(ITEM_64)).check(matches(isDisplayed()));
+  }
+
+  @Test
+  public void testScrolling_scrollToDataWithPosition() {
+    onView(withText(ITEM_100)).check(doesNotExist());
+    onView(withId(rvLayoutId))
+        .perform(scrollToData(startsWith(ITEM_10_PREFIX), ITEM_LIST_DATA).atPosition(1));
+    onView(withText(ITEM_100)).check(matches(isDisplayed()));
+  }
+
+  @Test
+  public void testScrolling_scrollToDataWithAmbiguousViewError() {
+    try {
+      onView(withId(rvLayoutId))
+          .perform(scrollToData(startsWith(ITEM_10_PREFIX), ITEM_LIST_DATA));
+      fail("PerformException expected.");
+    } catch (PerformException expected) {
+    }
+  }
+
   @Test
   public void testScrolling_scrollToMultipleViews() {
     onView(withId(rvLayoutId)).perform(scrollTo(hasDescendant(withText(ITEM_64))));
@@ -269,6 +307,13 @@ public abstract class RecyclerViewIntegrationTest {
     onView(withId(selectedItemId)).check(matches(withText(expectedItemText)));
   }
 
+  @Test
+  public void testActionOnData_clickOnItem() {
+    onView(withId(rvLayoutId)).perform(actionOnData(equalTo(ITEM_256), ITEM_LIST_DATA, click()));
+    String expectedItemText = "Selected: " + ITEM_256;
+    onView(withId(selectedItemId)).check(matches(withText(expectedItemText)));
+  }
+
   @Test
   public void testActionOnItem_clickOnItemWithViewHolderMatcher() {
     onView(withId(rvLayoutId))
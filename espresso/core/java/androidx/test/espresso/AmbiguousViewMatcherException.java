@@ -19,7 +19,7 @@ package androidx.test.espresso;
 import static com.google.common.base.Preconditions.checkNotNull;
 
 import android.view.View;
-import androidx.test.espresso.util.HumanReadables;
+import androidx.test.espresso.util.ViewHierarchyCapture;
 import androidx.test.internal.platform.util.TestOutputEmitter;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Lists;
@@ -47,42 +47,55 @@ public final class AmbiguousViewMatcherException extends RuntimeException
   private View view1;
   private View view2;
   private View[] others;
+  private boolean includeViewHierarchy = true;
+  // Formatting the view hierarchy is expensive and not needed when the exception is handled, so
+  // only the properties of the views are captured on creation, on the thread the views may be
+  // touched on, and the message is built on the first call to getMessage().
+  private transient ViewHierarchyCapture viewHierarchy;
+  private volatile String message;
 
   private AmbiguousViewMatcherException(String description) {
     super(description);
+    this.message = description;
     TestOutputEmitter.dumpThreadStates("ThreadState-AmbiguousViewMatcherException.txt");
   }
 
   private AmbiguousViewMatcherException(Builder builder) {
-    super(getErrorMessage(builder));
+    super((String) null);
     this.viewMatcher = builder.viewMatcher;
     this.rootView = builder.rootView;
     this.view1 = builder.view1;
     this.view2 = builder.view2;
     this.others = builder.others;
+    this.includeViewHierarchy = builder.includeViewHierarchy;
+    if (includeViewHierarchy) {
+      ImmutableSet<View> ambiguousViews =
+          ImmutableSet.<View>builder().add(view1, view2).add(others).build();
+      this.viewHierarchy = ViewHierarchyCapture.of(rootView, Lists.newArrayList(ambiguousViews));
+    }
+  }
+
+  @Override
+  public String getMessage() {
+    String message = this.message;
+    if (message == null) {
+      message = getErrorMessage();
+      this.message = message;
+    }
+    return message;
   }
 
-  private static String getErrorMessage(Builder builder) {
+  private String getErrorMessage() {
     String errorMessage = "";
-    if (builder.includeViewHierarchy) {
-      ImmutableSet<View> ambiguousViews =
-          ImmutableSet.<View>builder()
-              .add(builder.view1, builder.view2)
-              .add(builder.others)
-              .build();
+    if (viewHierarchy != null) {
       errorMessage =
-          HumanReadables.getViewHierarchyErrorMessage(
-              builder.rootView,
-              Lists.newArrayList(ambiguousViews),
+          viewHierarchy.getErrorMessage(
               String.format(
-                  Locale.ROOT,
-                  "'%s' matches multiple views in the hierarchy.",
-                  builder.viewMatcher),
+                  Locale.ROOT, "'%s' matches multiple views in the hierarchy.", viewMatcher),
               "****MATCHES****");
     } else {
       errorMessage =
-          String.format(
-              Locale.ROOT, "Multiple Ambiguous Views found for matcher %s", builder.viewMatcher);
+          String.format(Locale.ROOT, "Multiple Ambiguous Views found for matcher %s", viewMatcher);
     }
     return errorMessage;
   }
@@ -102,6 +115,7 @@ public final class AmbiguousViewMatcherException extends RuntimeException
       this.view1 = exception.view1;
       this.view2 = exception.view2;
       this.others = exception.others;
+      this.includeViewHierarchy = exception.includeViewHierarchy;
       return this;
     }
 
@@ -53,6 +53,12 @@ public final class IdlingPolicies {
           .logWarning()
           .build();
 
+  private static volatile boolean mainLooperIdleHandlerEnabled = false;
+
+  private static volatile boolean idleWaitProfilingEnabled = false;
+
+  private static volatile boolean asyncTaskCountingEnabled = false;
+
   /**
    * Updates the IdlingPolicy used in UiController.loopUntil to detect AppNotIdleExceptions.
    *
@@ -104,6 +110,63 @@ public final class IdlingPolicies {
             .build();
   }
 
+  /**
+   * Selects how Espresso detects that the main looper is idle.
+   *
+   * <p>By default the head of the main message queue is inspected before every message Espresso
+   * dispatches while waiting for the application to idle. When enabled, the queue is only inspected
+   * once it has drained, as reported by a {@link android.os.MessageQueue.IdleHandler}, which avoids
+   * re-checking the idle conditions while the application keeps the main thread busy.
+   *
+   * <p>Disabled by default.
+   */
+  public static void setMainLooperIdleHandlerEnabled(boolean enabled) {
+    mainLooperIdleHandlerEnabled = enabled;
+  }
+
+  public static boolean isMainLooperIdleHandlerEnabled() {
+    return mainLooperIdleHandlerEnabled;
+  }
+
+  /**
+   * Enables or disables profiling of the time Espresso spends waiting for the application to idle.
+   *
+   * <p>When enabled, every wait is attributed to what kept Espresso waiting: the idle conditions
+   * (async tasks, idling resources, event injection, ...), each busy {@link
+   * androidx.test.espresso.IdlingResource} and registered looper, and the main looper itself. The
+   * messages dispatched during the waits are recorded too. Add {@code
+   * androidx.test.espresso.base.IdleWaitProfileListener} to the instrumentation listeners to get
+   * the results of every test.
+   *
+   * <p>Disabled by default.
+   */
+  public static void setIdleWaitProfilingEnabled(boolean enabled) {
+    idleWaitProfilingEnabled = enabled;
+  }
+
+  public static boolean isIdleWaitProfilingEnabled() {
+    return idleWaitProfilingEnabled;
+  }
+
+  /**
+   * Selects how Espresso detects that no {@link android.os.AsyncTask} is running.
+   *
+   * <p>By default the thread pool of the async tasks is inspected, and Espresso waits for it to
+   * idle by occupying every thread of the pool with a blocking task. When enabled, the {@code
+   * THREAD_POOL_EXECUTOR} of {@link android.os.AsyncTask} and {@code ModernAsyncTask} is replaced
+   * with an executor that counts the tasks it runs, so idleness is a single read and Espresso
+   * resumes as soon as the last task finishes. Tasks submitted through a reference to the executor
+   * obtained before the replacement are not counted.
+   *
+   * <p>Takes effect when Espresso is first used in the process. Disabled by default.
+   */
+  public static void setAsyncTaskCountingEnabled(boolean enabled) {
+    asyncTaskCountingEnabled = enabled;
+  }
+
+  public static boolean isAsyncTaskCountingEnabled() {
+    return asyncTaskCountingEnabled;
+  }
 
   public static IdlingPolicy getMasterIdlingPolicy() {
     return masterIdlingPolicy;
@@ -0,0 +1,83 @@
+/*
+ * Copyright (C) 2021 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.test.espresso;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A sequence of actions and assertions to run against the view of a {@link ViewInteraction} with
+ * {@link ViewInteraction#perform(InteractionBatch)}.
+ *
+ * <p>Running a batch has the same outcome as calling {@link ViewInteraction#perform} and {@link
+ * ViewInteraction#check} for each step in turn, but all steps run in a single task on the main
+ * thread. Before every step, the main thread is looped until idle, and the root and the view are
+ * selected again, so each step sees the effects of the previous one. With {@link
+ * InteractionPolicies#setViewHierarchySnapshotEnabled view hierarchy snapshots} enabled, looking
+ * the view up again is cheap as long as its window is unchanged. For example:
+ *
+ * <pre>{@code
+ * onView(withId(R.id.counter))
+ *     .perform(
+ *         new InteractionBatch()
+ *             .perform(click())
+ *             .check(matches(withText("1")))
+ *             .perform(click())
+ *             .check(matches(withText("2"))));
+ * }</pre>
+ *
+ * <p>The batch stops at the first step that fails, which is reported to the failure handler of the
+ * interaction just like a failure of the equivalent {@code perform} or {@code check} call.
+ */
+public final class InteractionBatch {
+
+  private final List<Step> steps = new ArrayList<>();
+
+  /** Appends the given action(s) to this batch, to be performed in the order provided. */
+  public InteractionBatch perform(ViewAction... viewActions) {
+    checkNotNull(viewActions);
+    for (ViewAction viewAction : viewActions) {
+      steps.add(new Step(checkNotNull(viewAction), null));
+    }
+    return this;
+  }
+
+  /** Appends the given assertion to this batch. */
+  public InteractionBatch check(ViewAssertion viewAssert) {
+    steps.add(new Step(null, checkNotNull(viewAssert)));
+    return this;
+  }
+
+  /** Returns a copy of the steps of this batch, in order. */
+  List<Step> getSteps() {
+    return Collections.unmodifiableList(new ArrayList<>(steps));
+  }
+
+  /** Either an action or an assertion. */
+  static final class Step {
+    final ViewAction viewAction;
+    final ViewAssertion viewAssertion;
+
+    private Step(ViewAction viewAction, ViewAssertion viewAssertion) {
+      this.viewAction = viewAction;
+      this.viewAssertion = viewAssertion;
+    }
+  }
+}
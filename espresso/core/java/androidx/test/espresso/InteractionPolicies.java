@@ -0,0 +1,229 @@
+/*
+ * Copyright (C) 2021 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.test.espresso;
+
+import androidx.test.espresso.util.ViewHierarchyDumps;
+
+/**
+ * Allows users fine grain control over how Espresso locates and interacts with views.
+ *
+ * <p>Espresso's defaults favour predictability over speed. Suites that run against very large view
+ * hierarchies can use this class to opt into faster, but less conservative, strategies.
+ */
+public final class InteractionPolicies {
+
+  private InteractionPolicies() {}
+
+  private static volatile boolean viewHierarchySnapshotEnabled = false;
+  private static volatile boolean viewMatcherPlanningEnabled = false;
+  private static volatile boolean viewMatcherProfilingEnabled = false;
+  private static volatile boolean interactionTracingEnabled = false;
+  private static volatile boolean batchedTextEntryEnabled = false;
+  private static volatile boolean inputConnectionTextEntryEnabled = false;
+  private static volatile boolean adapterDataIndexEnabled = false;
+  private static volatile boolean viewGeometryIndexEnabled = false;
+
+  /**
+   * Enables or disables the indexed view hierarchy snapshot used by {@link ViewFinder}.
+   *
+   * <p>When enabled, the view hierarchy is captured in a single pass and indexed by view id, class
+   * and text. Consecutive lookups against an unchanged window (no layout or draw pass in between)
+   * reuse the snapshot instead of walking the hierarchy again. Lookups that find no matching view
+   * always re-capture the hierarchy before failing.
+   *
+   * <p>Disabled by default.
+   */
+  public static void setViewHierarchySnapshotEnabled(boolean enabled) {
+    viewHierarchySnapshotEnabled = enabled;
+  }
+
+  public static boolean isViewHierarchySnapshotEnabled() {
+    return viewHierarchySnapshotEnabled;
+  }
+
+  /**
+   * Enables or disables cost based planning of view matchers.
+   *
+   * <p>When enabled, the components of {@code allOf(...)} view matchers are evaluated cheapest
+   * first (for example {@code withId} before {@code isDisplayed}, and {@code isDisplayed} before
+   * {@code hasDescendant}) instead of in declaration order. Matchers that are not provided by
+   * {@link androidx.test.espresso.matcher.ViewMatchers} are never evaluated before the matchers
+   * declared ahead of them.
+   *
+   * <p>Disabled by default.
+   */
+  public static void setViewMatcherPlanningEnabled(boolean enabled) {
+    viewMatcherPlanningEnabled = enabled;
+  }
+
+  public static boolean isViewMatcherPlanningEnabled() {
+    return viewMatcherPlanningEnabled;
+  }
+
+  /**
+   * Enables or disables view matcher profiling.
+   *
+   * <p>When enabled, the number of evaluations, matches and the time spent in each component of a
+   * view matcher are logged after every view lookup. Profiling implies {@link
+   * #setViewMatcherPlanningEnabled(boolean) matcher planning}, so that the reported figures
+   * reflect the order in which matchers are evaluated.
+   *
+   * <p>Disabled by default.
+   */
+  public static void setViewMatcherProfilingEnabled(boolean enabled) {
+    viewMatcherProfilingEnabled = enabled;
+  }
+
+  public static boolean isViewMatcherProfilingEnabled() {
+    return viewMatcherProfilingEnabled;
+  }
+
+  /**
+   * Limits the size of the view hierarchy included in failure messages, such as the ones of {@link
+   * NoMatchingViewException} and {@link AmbiguousViewMatcherException}.
+   *
+   * <p>Once a message reaches {@code maxChars} characters, the remaining views are no longer
+   * described, only counted. Describing every view of a very large hierarchy can take seconds and
+   * produce messages of several megabytes.
+   *
+   * <p>Unlimited by default.
+   */
+  public static void setFailureMessageViewHierarchyLimit(int maxChars) {
+    ViewHierarchyDumps.setMessageLimit(maxChars);
+  }
+
+  public static int getFailureMessageViewHierarchyLimit() {
+    return ViewHierarchyDumps.getMessageLimit();
+  }
+
+  /**
+   * Enables or disables writing view hierarchies that do not fit in a failure message to test
+   * output files.
+   *
+   * <p>When enabled, a view hierarchy truncated because of {@link
+   * #setFailureMessageViewHierarchyLimit(int)} is written in full to a new file of the test
+   * storage service, and the failure message refers to that file. Requires the test services to be
+   * installed on the device.
+   *
+   * <p>Disabled by default.
+   */
+  public static void setViewHierarchyOutputFilesEnabled(boolean enabled) {
+    ViewHierarchyDumps.setOutputFilesEnabled(enabled);
+  }
+
+  public static boolean isViewHierarchyOutputFilesEnabled() {
+    return ViewHierarchyDumps.isOutputFilesEnabled();
+  }
+
+  /**
+   * Enables or disables the timeline of Espresso interactions.
+   *
+   * <p>When enabled, Espresso records when it picks roots, waits for the application to idle,
+   * finds views, checks action constraints, performs actions, injects events and checks
+   * assertions. The spans are kept in a fixed size buffer that is allocated once, so tracing is
+   * cheap enough to stay enabled on CI. Add {@code
+   * androidx.test.espresso.base.InteractionTraceListener} to the instrumentation listeners to write
+   * the timeline of every test to a test output file in the Chrome trace event format.
+   *
+   * <p>Disabled by default.
+   */
+  public static void setInteractionTracingEnabled(boolean enabled) {
+    interactionTracingEnabled = enabled;
+  }
+
+  public static boolean isInteractionTracingEnabled() {
+    return interactionTracingEnabled;
+  }
+
+  /**
+   * Enables or disables batched typing of text.
+   *
+   * <p>When enabled, {@link UiController#injectString(String)} injects the key events of the whole
+   * string in one go, instead of waiting for the application to idle after each event, and looks up
+   * the key events of each character only once. The application still receives every key event,
+   * in order.
+   *
+   * <p>Disabled by default.
+   */
+  public static void setBatchedTextEntryEnabled(boolean enabled) {
+    batchedTextEntryEnabled = enabled;
+  }
+
+  public static boolean isBatchedTextEntryEnabled() {
+    return batchedTextEntryEnabled;
+  }
+
+  /**
+   * Enables or disables typing text through the input connection of the focused view.
+   *
+   * <p>When enabled, {@link androidx.test.espresso.action.ViewActions#typeText(String)} and {@link
+   * androidx.test.espresso.action.ViewActions#typeTextIntoFocusedView(String)} commit the text in
+   * chunks through the {@link android.view.inputmethod.InputConnection} of the focused view, like
+   * an input method does, instead of injecting key events. Text watchers and input filters see
+   * every chunk. Since no key events are sent, characters such as a new line are inserted as text
+   * and do not trigger key listeners or editor actions. Views without an input connection, and
+   * all views before API 24, where the input connection cannot be closed, are still typed into
+   * with key events.
+   *
+   * <p>Disabled by default.
+   */
+  public static void setInputConnectionTextEntryEnabled(boolean enabled) {
+    inputConnectionTextEntryEnabled = enabled;
+  }
+
+  public static boolean isInputConnectionTextEntryEnabled() {
+    return inputConnectionTextEntryEnabled;
+  }
+
+  /**
+   * Enables or disables indexing the data of adapters for {@link
+   * Espresso#onData(org.hamcrest.Matcher)}.
+   *
+   * <p>When enabled, the data an {@link androidx.test.espresso.action.AdapterViewProtocol} adapts
+   * is kept per adapter until the adapter notifies a data set change. Data lookups on an unchanged
+   * adapter no longer ask the adapter for every item, and repeating a lookup with the same data
+   * matcher instance does not evaluate the matcher again. Data matchers are expected to be free of
+   * side effects and to match the same items as long as the adapter data does not change.
+   *
+   * <p>Disabled by default.
+   */
+  public static void setAdapterDataIndexEnabled(boolean enabled) {
+    adapterDataIndexEnabled = enabled;
+  }
+
+  public static boolean isAdapterDataIndexEnabled() {
+    return adapterDataIndexEnabled;
+  }
+
+  /**
+   * Enables or disables the geometry index used by position and layout assertions.
+   *
+   * <p>When enabled, {@link androidx.test.espresso.assertion.PositionAssertions} and {@link
+   * androidx.test.espresso.assertion.LayoutAssertions#noOverlaps} compute the screen bounds of each
+   * view at most once and find overlapping views through a spatial index. The index is reused by
+   * consecutive assertions against an unchanged window (no layout, draw or scroll pass in between).
+   *
+   * <p>Disabled by default.
+   */
+  public static void setViewGeometryIndexEnabled(boolean enabled) {
+    viewGeometryIndexEnabled = enabled;
+  }
+
+  public static boolean isViewGeometryIndexEnabled() {
+    return viewGeometryIndexEnabled;
+  }
+}
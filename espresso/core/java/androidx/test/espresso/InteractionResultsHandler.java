@@ -52,6 +52,23 @@ final class InteractionResultsHandler {
     return gatherAnyResult(tasks, MoreExecutors.directExecutor());
   }
 
+  /**
+   * Awaits the result of a single future. Behaves like {@link #gatherAnyResult(List)} called with a
+   * single task, without registering a listener or allocating a result queue.
+   */
+  static <T> T gatherResult(ListenableFuture<T> task) {
+    checkNotNull(task);
+    try {
+      return task.get();
+    } catch (ExecutionException ee) {
+      return finalResult(ExecutionResult.<T>error(ee));
+    } catch (InterruptedException ie) {
+      throw new RuntimeException("Interrupted while interacting", ie);
+    } finally {
+      task.cancel(true);
+    }
+  }
+
   @VisibleForTesting
   static <T> T gatherAnyResult(List<ListenableFuture<T>> tasks, Executor executor) {
     checkNotNull(tasks);
@@ -20,7 +20,7 @@ import static com.google.common.base.Preconditions.checkNotNull;
 
 import android.view.View;
 import androidx.test.espresso.util.EspressoOptional;
-import androidx.test.espresso.util.HumanReadables;
+import androidx.test.espresso.util.ViewHierarchyCapture;
 import com.google.common.collect.Lists;
 import java.util.List;
 import java.util.Locale;
@@ -45,18 +45,37 @@ public final class NoMatchingViewException extends RuntimeException implements E
   private List<View> adapterViews = Lists.newArrayList();
   private boolean includeViewHierarchy = true;
   private EspressoOptional<String> adapterViewWarning = EspressoOptional.<String>absent();
+  // Formatting the view hierarchy is expensive and not needed when the exception is handled, so
+  // only the properties of the views are captured on creation, on the thread the views may be
+  // touched on, and the message is built on the first call to getMessage().
+  private transient ViewHierarchyCapture viewHierarchy;
+  private volatile String message;
 
   private NoMatchingViewException(String description) {
     super(description);
+    this.message = description;
   }
 
   private NoMatchingViewException(Builder builder) {
-    super(getErrorMessage(builder), builder.cause);
+    super(null, builder.cause);
     this.viewMatcher = builder.viewMatcher;
     this.rootView = builder.rootView;
     this.adapterViews = builder.adapterViews;
     this.adapterViewWarning = builder.adapterViewWarning;
     this.includeViewHierarchy = builder.includeViewHierarchy;
+    if (includeViewHierarchy) {
+      this.viewHierarchy = ViewHierarchyCapture.of(rootView, null /* problemViews */);
+    }
+  }
+
+  @Override
+  public String getMessage() {
+    String message = this.message;
+    if (message == null) {
+      message = getErrorMessage();
+      this.message = message;
+    }
+    return message;
   }
 
   /**
@@ -70,21 +89,18 @@ public final class NoMatchingViewException extends RuntimeException implements E
     return viewMatcherDescription;
   }
 
-  private static String getErrorMessage(Builder builder) {
+  private String getErrorMessage() {
     String errorMessage = "";
-    if (builder.includeViewHierarchy) {
+    if (viewHierarchy != null) {
       String message =
-          String.format(
-              Locale.ROOT, "No views in hierarchy found matching: %s", builder.viewMatcher);
-      if (builder.adapterViewWarning.isPresent()) {
-        message = message + builder.adapterViewWarning.get();
+          String.format(Locale.ROOT, "No views in hierarchy found matching: %s", viewMatcher);
+      if (adapterViewWarning.isPresent()) {
+        message = message + adapterViewWarning.get();
       }
-      errorMessage =
-          HumanReadables.getViewHierarchyErrorMessage(
-              builder.rootView, null /* problemViews */, message, null /* problemViewSuffix */);
+      errorMessage = viewHierarchy.getErrorMessage(message, null /* problemViewSuffix */);
     } else {
       errorMessage =
-          String.format(Locale.ROOT, "Could not find a view that matches %s", builder.viewMatcher);
+          String.format(Locale.ROOT, "Could not find a view that matches %s", viewMatcher);
     }
     return errorMessage;
   }
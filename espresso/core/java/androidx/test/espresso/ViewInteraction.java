@@ -27,6 +27,8 @@ import android.util.Log;
 import android.view.View;
 import android.widget.AdapterView;
 import androidx.test.espresso.action.ScrollToAction;
+import androidx.test.espresso.base.InteractionTrace;
+import androidx.test.espresso.base.InteractionTrace.Phase;
 import androidx.test.espresso.base.InterruptableUiController;
 import androidx.test.espresso.base.MainThread;
 import androidx.test.espresso.matcher.RootMatchers;
@@ -164,7 +166,7 @@ public final class ViewInteraction {
 
     List<ListenableFuture<Void>> interactions = new ArrayList<>();
     interactions.add(postAsynchronouslyOnUiThread(performInteraction));
-    if (!remoteInteraction.isRemoteProcess()) {
+    if (shouldSubmitRemoteInteractions()) {
       // Only the original process should submit remote interactionsList;
       interactions.add(
           remoteExecutor.submit(
@@ -218,9 +220,17 @@ public final class ViewInteraction {
    */
   private void doPerform(final SingleExecutionViewAction viewAction) {
     checkNotNull(viewAction);
-    final Matcher<? extends View> constraints = checkNotNull(viewAction.getConstraints());
     uiController.loopMainThreadUntilIdle();
     View targetView = viewFinder.getView();
+    doPerform(viewAction, targetView);
+  }
+
+  /**
+   * Performs the given action on the given view, provided that it matches the constraints of the
+   * action. Should be executed on the main thread.
+   */
+  private void doPerform(final SingleExecutionViewAction viewAction, View targetView) {
+    final Matcher<? extends View> constraints = checkNotNull(viewAction.getConstraints());
     Log.i(
         TAG,
         String.format(
@@ -228,7 +238,10 @@ public final class ViewInteraction {
             "Performing '%s' action on view %s",
             viewAction.getDescription(),
             viewMatcher));
-    if (!constraints.matches(targetView)) {
+    long traceStart = InteractionTrace.begin();
+    boolean constraintsMatch = constraints.matches(targetView);
+    InteractionTrace.end(Phase.CONSTRAINT_CHECK, traceStart);
+    if (!constraintsMatch) {
       // TODO: update this to describeMismatch once hamcrest 1.4 is available
       StringDescription stringDescription =
           new StringDescription(
@@ -292,7 +305,7 @@ public final class ViewInteraction {
 
     List<ListenableFuture<Void>> interactions = new ArrayList<>();
     interactions.add(postAsynchronouslyOnUiThread(checkInteraction));
-    if (!remoteInteraction.isRemoteProcess()) {
+    if (shouldSubmitRemoteInteractions()) {
       // Only the original process should submit remote interactionsList;
       interactions.add(
           remoteExecutor.submit(
@@ -307,6 +320,114 @@ public final class ViewInteraction {
     return this;
   }
 
+  /**
+   * Runs the actions and assertions of the given batch, in order, on the view selected by the
+   * current view matcher. All steps run in a single task on the main thread. The root and the view
+   * are selected again before every step, since a step may open a new window such as a dialog.
+   * The batch stops at the first failing step, which is reported as if it had been run on its own.
+   *
+   * @param batch the actions and assertions to run.
+   * @return this interaction for further perform/verification calls.
+   */
+  public ViewInteraction perform(final InteractionBatch batch) {
+    checkNotNull(batch);
+    final boolean submitRemoteSteps = shouldSubmitRemoteInteractions();
+    // Holds SingleExecutionViewActions and SingleExecutionViewAssertions.
+    final List<Object> steps = new ArrayList<>();
+    final List<Callable<Void>> remoteSteps = new ArrayList<>();
+    for (InteractionBatch.Step step : batch.getSteps()) {
+      if (step.viewAction != null) {
+        SingleExecutionViewAction va = new SingleExecutionViewAction(step.viewAction, viewMatcher);
+        steps.add(va);
+        if (submitRemoteSteps) {
+          remoteSteps.add(
+              remoteInteraction.createRemotePerformCallable(
+                  rootMatcherRef.get(),
+                  viewMatcher,
+                  getIBindersFromViewActions(va, step.viewAction),
+                  step.viewAction));
+        }
+      } else {
+        SingleExecutionViewAssertion va = new SingleExecutionViewAssertion(step.viewAssertion);
+        steps.add(va);
+        if (submitRemoteSteps) {
+          remoteSteps.add(
+              remoteInteraction.createRemoteCheckCallable(
+                  rootMatcherRef.get(),
+                  viewMatcher,
+                  getIBindersFromViewAssertions(va, step.viewAssertion),
+                  step.viewAssertion));
+        }
+      }
+    }
+    if (steps.isEmpty()) {
+      return this;
+    }
+
+    Callable<Void> batchInteraction =
+        new Callable<Void>() {
+          @Override
+          public Void call() {
+            doPerformBatch(steps);
+            return null;
+          }
+        };
+
+    List<ListenableFuture<Void>> interactions = new ArrayList<>();
+    interactions.add(postAsynchronouslyOnUiThread(batchInteraction));
+    if (submitRemoteSteps) {
+      // Only the original process should submit remote interactionsList;
+      interactions.add(
+          remoteExecutor.submit(
+              new Callable<Void>() {
+                @Override
+                public Void call() throws Exception {
+                  for (Callable<Void> remoteStep : remoteSteps) {
+                    remoteStep.call();
+                  }
+                  return null;
+                }
+              }));
+    }
+
+    waitForAndHandleInteractionResults(interactions);
+    return this;
+  }
+
+  /**
+   * Runs the given steps on the view selected by the current view matcher. The view is looked up
+   * before every step, which is cheap when view hierarchy snapshots are enabled and the window is
+   * unchanged. Should be executed on the main thread.
+   */
+  private void doPerformBatch(List<Object> steps) {
+    for (Object step : steps) {
+      uiController.loopMainThreadUntilIdle();
+      View targetView = null;
+      NoMatchingViewException missingViewException = null;
+      try {
+        targetView = viewFinder.getView();
+      } catch (NoMatchingViewException nsve) {
+        if (step instanceof SingleExecutionViewAction) {
+          throw nsve;
+        }
+        missingViewException = nsve;
+      }
+      if (step instanceof SingleExecutionViewAction) {
+        doPerform((SingleExecutionViewAction) step, targetView);
+      } else {
+        SingleExecutionViewAssertion viewAssert = (SingleExecutionViewAssertion) step;
+        Log.i(
+            TAG,
+            String.format(
+                Locale.ROOT,
+                "Checking '%s' assertion on view %s",
+                viewAssert.viewAssertion,
+                viewMatcher));
+        viewAssert.check(targetView, missingViewException);
+      }
+    }
+  }
+
   private ListenableFuture<Void> postAsynchronouslyOnUiThread(Callable<Void> interaction) {
     ListenableFutureTask<Void> mainThreadInteraction = ListenableFutureTask.create(interaction);
     mainThreadExecutor.execute(mainThreadInteraction);
@@ -317,7 +438,11 @@ public final class ViewInteraction {
     try {
       controlledLooper.drainMainThreadUntilIdle();
       // Blocking call
-      InteractionResultsHandler.gatherAnyResult(interactions);
+      if (interactions.size() == 1) {
+        InteractionResultsHandler.gatherResult(interactions.get(0));
+      } else {
+        InteractionResultsHandler.gatherAnyResult(interactions);
+      }
     } catch (RuntimeException ee) {
       failureHandler.handle(ee, viewMatcher);
     } catch (Error error) {
@@ -363,7 +488,12 @@ public final class ViewInteraction {
     public void perform(UiController uiController, View view) {
       try {
         if (actionExecutionStatus.canExecute()) {
-          viewAction.perform(uiController, view);
+          long traceStart = InteractionTrace.begin();
+          try {
+            viewAction.perform(uiController, view);
+          } finally {
+            InteractionTrace.end(Phase.PERFORM, traceStart);
+          }
         } else {
           logDebugWithProcess(
               TAG, "Attempted to execute a Single Execution Action more then once: " + viewAction);
@@ -422,7 +552,12 @@ public final class ViewInteraction {
     public void check(View view, NoMatchingViewException noViewFoundException) {
       try {
         if (assertionExecutionStatus.canExecute()) {
-          viewAssertion.check(view, noViewFoundException);
+          long traceStart = InteractionTrace.begin();
+          try {
+            viewAssertion.check(view, noViewFoundException);
+          } finally {
+            InteractionTrace.end(Phase.ASSERT, traceStart);
+          }
         } else {
           logDebugWithProcess(
               TAG,
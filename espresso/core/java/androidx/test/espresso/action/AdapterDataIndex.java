@@ -0,0 +1,145 @@
+/*
+ * Copyright (C) 2021 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.test.espresso.action;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import android.database.DataSetObserver;
+import android.widget.Adapter;
+import android.widget.AdapterView;
+import androidx.annotation.Nullable;
+import androidx.test.espresso.action.AdapterViewProtocol.AdaptedData;
+import com.google.common.base.Equivalence;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import java.lang.ref.WeakReference;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import org.hamcrest.Matcher;
+
+/**
+ * The data of an adapter, as adapted by an {@link AdapterViewProtocol}, kept in between data
+ * lookups.
+ *
+ * <p>The index registers a {@link DataSetObserver} with the adapter. Until the adapter notifies a
+ * change, lookups reuse the adapted data instead of asking the protocol for every item again, and a
+ * lookup with a data matcher instance that was used before returns the items it matched without
+ * evaluating it again.
+ *
+ * <p>Must only be used on the main thread.
+ */
+final class AdapterDataIndex {
+  private static final int MAX_LOOKUPS = 16;
+
+  // The adapter keeps its index alive through the registered observer.
+  private static final Map<Adapter, WeakReference<AdapterDataIndex>> indexes =
+      new WeakHashMap<Adapter, WeakReference<AdapterDataIndex>>();
+
+  private final AdapterViewProtocol adapterViewProtocol;
+  private final Map<Equivalence.Wrapper<Matcher<?>>, List<AdaptedData>> lookups =
+      new LinkedHashMap<Equivalence.Wrapper<Matcher<?>>, List<AdaptedData>>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(
+            Map.Entry<Equivalence.Wrapper<Matcher<?>>, List<AdaptedData>> eldest) {
+          return size() > MAX_LOOKUPS;
+        }
+      };
+  private final DataSetObserver observer =
+      new DataSetObserver() {
+        @Override
+        public void onChanged() {
+          invalidate();
+        }
+
+        @Override
+        public void onInvalidated() {
+          invalidate();
+        }
+      };
+
+  @Nullable private List<AdaptedData> data;
+  private int count;
+
+  private AdapterDataIndex(AdapterViewProtocol adapterViewProtocol) {
+    this.adapterViewProtocol = adapterViewProtocol;
+  }
+
+  /**
+   * Returns the index of the adapter of the given adapter view, up to date with the data it holds,
+   * or {@code null} if the adapter view has no adapter.
+   */
+  @Nullable
+  static AdapterDataIndex obtain(
+      AdapterView<? extends Adapter> adapterView, AdapterViewProtocol adapterViewProtocol) {
+    checkNotNull(adapterViewProtocol);
+    Adapter adapter = adapterView.getAdapter();
+    if (adapter == null) {
+      return null;
+    }
+    WeakReference<AdapterDataIndex> indexRef = indexes.get(adapter);
+    AdapterDataIndex index = indexRef != null ? indexRef.get() : null;
+    if (index == null || index.adapterViewProtocol != adapterViewProtocol) {
+      if (index != null) {
+        adapter.unregisterDataSetObserver(index.observer);
+      }
+      index = new AdapterDataIndex(adapterViewProtocol);
+      adapter.registerDataSetObserver(index.observer);
+      indexes.put(adapter, new WeakReference<AdapterDataIndex>(index));
+    }
+    index.refresh(adapterView);
+    return index;
+  }
+
+  /** Returns the adapted data of every item, in adapter order. */
+  List<AdaptedData> getData() {
+    return checkNotNull(data);
+  }
+
+  /** Returns the adapted data of the items whose data matches the given matcher. */
+  List<AdaptedData> lookup(Matcher<? extends Object> dataMatcher) {
+    Equivalence.Wrapper<Matcher<?>> key = Equivalence.identity().wrap((Matcher<?>) dataMatcher);
+    List<AdaptedData> matched = lookups.get(key);
+    if (matched == null) {
+      List<AdaptedData> matching = Lists.newArrayList();
+      for (AdaptedData adaptedData : getData()) {
+        if (dataMatcher.matches(adaptedData.getData())) {
+          matching.add(adaptedData);
+        }
+      }
+      matched = ImmutableList.copyOf(matching);
+      lookups.put(key, matched);
+    }
+    return matched;
+  }
+
+  private void refresh(AdapterView<? extends Adapter> adapterView) {
+    // Header and footer views change the item count without notifying the adapter observers.
+    if (data != null && count == adapterView.getCount()) {
+      return;
+    }
+    invalidate();
+    data = ImmutableList.copyOf(adapterViewProtocol.getDataInAdapterView(adapterView));
+    count = adapterView.getCount();
+  }
+
+  private void invalidate() {
+    data = null;
+    lookups.clear();
+  }
+}
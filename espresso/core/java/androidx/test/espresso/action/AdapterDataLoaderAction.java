@@ -25,6 +25,7 @@ import static org.hamcrest.Matchers.allOf;
 import android.view.View;
 import android.widget.Adapter;
 import android.widget.AdapterView;
+import androidx.test.espresso.InteractionPolicies;
 import androidx.test.espresso.PerformException;
 import androidx.test.espresso.UiController;
 import androidx.test.espresso.ViewAction;
@@ -74,13 +75,22 @@ public final class AdapterDataLoaderAction implements ViewAction {
   @Override
   public void perform(UiController uiController, View view) {
     AdapterView<? extends Adapter> adapterView = (AdapterView<? extends Adapter>) view;
-    List<AdapterViewProtocol.AdaptedData> matchedDataItems = Lists.newArrayList();
+    AdapterDataIndex dataIndex =
+        InteractionPolicies.isAdapterDataIndexEnabled()
+            ? AdapterDataIndex.obtain(adapterView, adapterViewProtocol)
+            : null;
+    List<AdapterViewProtocol.AdaptedData> matchedDataItems;
 
-    for (AdapterViewProtocol.AdaptedData data :
-        adapterViewProtocol.getDataInAdapterView(adapterView)) {
+    if (dataIndex != null) {
+      matchedDataItems = dataIndex.lookup(dataToLoadMatcher);
+    } else {
+      matchedDataItems = Lists.newArrayList();
+      for (AdapterViewProtocol.AdaptedData data :
+          adapterViewProtocol.getDataInAdapterView(adapterView)) {
 
-      if (dataToLoadMatcher.matches(data.getData())) {
-        matchedDataItems.add(data);
+        if (dataToLoadMatcher.matches(data.getData())) {
+          matchedDataItems.add(data);
+        }
       }
     }
 
@@ -90,7 +100,10 @@ public final class AdapterDataLoaderAction implements ViewAction {
 
       if (matchedDataItems.isEmpty()) {
         dataMatcherDescription.appendText(" contained values: ");
-        dataMatcherDescription.appendValue(adapterViewProtocol.getDataInAdapterView(adapterView));
+        dataMatcherDescription.appendValue(
+            dataIndex != null
+                ? dataIndex.getData()
+                : adapterViewProtocol.getDataInAdapterView(adapterView));
         throw new PerformException.Builder()
             .withActionDescription(this.getDescription())
             .withViewDescription(HumanReadables.describe(view))
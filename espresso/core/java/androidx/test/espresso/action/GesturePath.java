@@ -0,0 +1,314 @@
+/*
+ * Copyright (C) 2021 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.test.espresso.action;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkElementIndex;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+import android.os.SystemClock;
+import android.view.InputDevice;
+import android.view.MotionEvent;
+import androidx.test.espresso.InjectEventSecurityException;
+import androidx.test.espresso.UiController;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * A gesture of one or more pointers, each moving along a straight line, injected as a single
+ * sequence of motion events.
+ *
+ * <p>The pointers go down one after the other, move together in evenly spaced steps and go up in
+ * reverse order, so that pinch and rotate gestures can be expressed with two pointers. The events
+ * are created as they are injected: the pointer arrays are allocated once per injection, and each
+ * event is recycled as soon as the next one is requested, so that a gesture keeps reusing the same
+ * pooled {@link MotionEvent}. The last event is recycled once the injection is over.
+ */
+public final class GesturePath {
+  private final float[][] startCoordinates;
+  private final float[][] endCoordinates;
+  private final float[] precision;
+  private final long durationMillis;
+  private final int moveCount;
+  private final int inputDevice;
+  private final int buttonState;
+
+  private GesturePath(Builder builder) {
+    this.startCoordinates = builder.startCoordinates.toArray(new float[0][]);
+    this.endCoordinates = builder.endCoordinates.toArray(new float[0][]);
+    this.precision = builder.precision;
+    this.durationMillis = builder.durationMillis;
+    this.moveCount = builder.moveCount;
+    this.inputDevice = builder.inputDevice;
+    this.buttonState = builder.buttonState;
+  }
+
+  /** Returns the number of pointers of the gesture. */
+  public int getPointerCount() {
+    return startCoordinates.length;
+  }
+
+  /**
+   * Injects the whole gesture with a single call to {@link
+   * UiController#injectMotionEventSequence(Iterable)}, starting now.
+   *
+   * @return true if all the events were injected, false otherwise
+   */
+  public boolean inject(UiController uiController) throws InjectEventSecurityException {
+    checkNotNull(uiController);
+    Events events = events(SystemClock.uptimeMillis());
+    try {
+      return uiController.injectMotionEventSequence(events);
+    } finally {
+      events.recycle();
+    }
+  }
+
+  /**
+   * Returns the events of the gesture, if the first pointer goes down at {@code downTime}.
+   *
+   * <p>An event returned by the iterators of the result is recycled when the next event is
+   * requested from the same iterator, it must not be used after that. The last event of every
+   * iterator is recycled by {@link Events#recycle()}.
+   */
+  public Events events(long downTime) {
+    return new Events(downTime);
+  }
+
+  /** The events of a gesture, created as they are iterated over. */
+  public final class Events implements Iterable<MotionEvent> {
+    private final long downTime;
+    private final List<EventIterator> iterators = new ArrayList<>();
+    private boolean recycled;
+
+    private Events(long downTime) {
+      this.downTime = downTime;
+    }
+
+    @Override
+    public synchronized Iterator<MotionEvent> iterator() {
+      checkState(!recycled, "The events were recycled");
+      EventIterator iterator = new EventIterator(this, downTime);
+      iterators.add(iterator);
+      return iterator;
+    }
+
+    /**
+     * Recycles the current event of every iterator. The events must not be iterated over
+     * afterwards.
+     */
+    public synchronized void recycle() {
+      recycled = true;
+      for (EventIterator iterator : iterators) {
+        iterator.recycleCurrent();
+      }
+      iterators.clear();
+    }
+  }
+
+  private final class EventIterator implements Iterator<MotionEvent> {
+    // guards current, the events may be recycled from another thread.
+    private final Events events;
+    private final long downTime;
+    private final long intervalMillis;
+    private final MotionEvent.PointerProperties[] pointerProperties;
+    private final MotionEvent.PointerCoords[] pointerCoords;
+    private final int eventCount;
+    private int nextEvent;
+    private MotionEvent current;
+
+    private EventIterator(Events events, long downTime) {
+      int pointerCount = getPointerCount();
+      this.events = events;
+      this.downTime = downTime;
+      // the pointers go up one interval after the last move.
+      this.intervalMillis = moveCount == 0 ? durationMillis : durationMillis / moveCount;
+      this.pointerProperties = new MotionEvent.PointerProperties[pointerCount];
+      this.pointerCoords = new MotionEvent.PointerCoords[pointerCount];
+      for (int i = 0; i < pointerCount; i++) {
+        pointerProperties[i] = new MotionEvent.PointerProperties();
+        pointerProperties[i].id = i;
+        pointerProperties[i].toolType = toolTypeOf(inputDevice);
+        pointerCoords[i] = new MotionEvent.PointerCoords();
+        pointerCoords[i].size = 1;
+      }
+      // every pointer goes down and up, the moves are shared.
+      this.eventCount = 2 * pointerCount + moveCount;
+    }
+
+    @Override
+    public boolean hasNext() {
+      return nextEvent < eventCount;
+    }
+
+    @Override
+    public MotionEvent next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      synchronized (events) {
+        checkState(!events.recycled, "The events were recycled");
+        recycleCurrent();
+        current = obtain(nextEvent++);
+        return current;
+      }
+    }
+
+    private void recycleCurrent() {
+      if (current != null) {
+        current.recycle();
+        current = null;
+      }
+    }
+
+    @Override
+    public void remove() {
+      throw new UnsupportedOperationException();
+    }
+
+    private MotionEvent obtain(int index) {
+      int pointerCount = getPointerCount();
+      if (index < pointerCount) {
+        // pointer #index goes down.
+        setCoordinates(index + 1, 0f);
+        int action =
+            index == 0
+                ? MotionEvent.ACTION_DOWN
+                : MotionEvent.ACTION_POINTER_DOWN
+                    | (index << MotionEvent.ACTION_POINTER_INDEX_SHIFT);
+        return obtain(downTime, action, index + 1);
+      }
+      int move = index - pointerCount + 1;
+      if (move <= moveCount) {
+        setCoordinates(pointerCount, move / (moveCount + 2f));
+        return obtain(downTime + move * intervalMillis, MotionEvent.ACTION_MOVE, pointerCount);
+      }
+      // the last pointer goes up first.
+      int pointer = pointerCount - 1 - (index - pointerCount - moveCount);
+      setCoordinates(pointer + 1, 1f);
+      int action =
+          pointer == 0
+              ? MotionEvent.ACTION_UP
+              : MotionEvent.ACTION_POINTER_UP
+                  | (pointer << MotionEvent.ACTION_POINTER_INDEX_SHIFT);
+      return obtain(downTime + (moveCount + 1) * intervalMillis, action, pointer + 1);
+    }
+
+    private void setCoordinates(int pointerCount, float fraction) {
+      for (int i = 0; i < pointerCount; i++) {
+        float[] start = startCoordinates[i];
+        float[] end = endCoordinates[i];
+        pointerCoords[i].x = start[0] + (end[0] - start[0]) * fraction;
+        pointerCoords[i].y = start[1] + (end[1] - start[1]) * fraction;
+      }
+    }
+
+    private MotionEvent obtain(long eventTime, int action, int pointerCount) {
+      return MotionEvent.obtain(
+          downTime,
+          eventTime,
+          action,
+          pointerCount,
+          pointerProperties,
+          pointerCoords,
+          0, // metaState
+          buttonState,
+          precision[0],
+          precision[1],
+          0, // deviceId
+          0, // edgeFlags
+          inputDevice,
+          0); // flags
+    }
+  }
+
+  private static int toolTypeOf(int inputDevice) {
+    switch (inputDevice) {
+      case InputDevice.SOURCE_MOUSE:
+        return MotionEvent.TOOL_TYPE_MOUSE;
+      case InputDevice.SOURCE_STYLUS:
+        return MotionEvent.TOOL_TYPE_STYLUS;
+      case InputDevice.SOURCE_TOUCHSCREEN:
+        return MotionEvent.TOOL_TYPE_FINGER;
+      default:
+        return MotionEvent.TOOL_TYPE_UNKNOWN;
+    }
+  }
+
+  /** Builder for the GesturePath class. */
+  public static class Builder {
+    private final List<float[]> startCoordinates = new ArrayList<>();
+    private final List<float[]> endCoordinates = new ArrayList<>();
+    private float[] precision = {1f, 1f};
+    private long durationMillis = 150;
+    private int moveCount = 10;
+    private int inputDevice = InputDevice.SOURCE_UNKNOWN;
+    private int buttonState = MotionEvent.BUTTON_PRIMARY;
+
+    /**
+     * Adds a pointer moving from {@code start} to {@code end}, both float[]s with x and y
+     * co-ordinates. Pointers go down in the order they are added.
+     */
+    public Builder addPointer(float[] start, float[] end) {
+      checkElementIndex(1, checkNotNull(start).length);
+      checkElementIndex(1, checkNotNull(end).length);
+      startCoordinates.add(start.clone());
+      endCoordinates.add(end.clone());
+      return this;
+    }
+
+    /** Sets the x and y precision of the events. */
+    public Builder withPrecision(float[] precision) {
+      checkElementIndex(1, checkNotNull(precision).length);
+      this.precision = precision.clone();
+      return this;
+    }
+
+    /** Sets the time between the pointers going down and the last move event. */
+    public Builder withDuration(long durationMillis) {
+      checkArgument(durationMillis >= 0, "negative duration: %s", durationMillis);
+      this.durationMillis = durationMillis;
+      return this;
+    }
+
+    /** Sets the number of move events sent in between the pointers going down and up. */
+    public Builder withMoveCount(int moveCount) {
+      checkArgument(moveCount >= 0, "negative move count: %s", moveCount);
+      this.moveCount = moveCount;
+      return this;
+    }
+
+    /** Sets the source of the events and the tool type of the pointers. */
+    public Builder withInputDevice(int inputDevice) {
+      this.inputDevice = inputDevice;
+      return this;
+    }
+
+    public Builder withButtonState(int buttonState) {
+      this.buttonState = buttonState;
+      return this;
+    }
+
+    public GesturePath build() {
+      checkState(!startCoordinates.isEmpty(), "A gesture needs at least one pointer");
+      return new GesturePath(this);
+    }
+  }
+}
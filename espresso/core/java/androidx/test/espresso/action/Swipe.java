@@ -16,13 +16,9 @@
 
 package androidx.test.espresso.action;
 
-import static com.google.common.base.Preconditions.checkElementIndex;
 import static com.google.common.base.Preconditions.checkNotNull;
 
-import android.view.MotionEvent;
 import androidx.test.espresso.UiController;
-import java.util.ArrayList;
-import java.util.List;
 
 /** Executes different swipe types to given positions. */
 public enum Swipe implements Swiper {
@@ -64,20 +60,6 @@ public enum Swipe implements Swiper {
   /** Length of time a "slow" swipe should last for, in milliseconds. */
   private static final int SWIPE_SLOW_DURATION_MS = 1500;
 
-  private static float[][] interpolate(float[] start, float[] end, int steps) {
-    checkElementIndex(1, start.length);
-    checkElementIndex(1, end.length);
-
-    float[][] res = new float[steps][2];
-
-    for (int i = 1; i < steps + 1; i++) {
-      res[i - 1][0] = start[0] + (end[0] - start[0]) * i / (steps + 2f);
-      res[i - 1][1] = start[1] + (end[1] - start[1]) * i / (steps + 2f);
-    }
-
-    return res;
-  }
-
   private static Swiper.Status sendLinearSwipe(
       UiController uiController,
       float[] startCoordinates,
@@ -89,35 +71,16 @@ public enum Swipe implements Swiper {
     checkNotNull(endCoordinates);
     checkNotNull(precision);
 
-    float[][] steps = interpolate(startCoordinates, endCoordinates, SWIPE_EVENT_COUNT);
-
-    List<MotionEvent> events = new ArrayList<>();
-    MotionEvent downEvent = MotionEvents.obtainDownEvent(startCoordinates, precision);
-    events.add(downEvent);
-
     try {
-      final long intervalMS = duration / steps.length;
-      long eventTime = downEvent.getDownTime();
-      for (float[] step : steps) {
-        eventTime += intervalMS;
-        events.add(MotionEvents.obtainMovement(downEvent.getDownTime(), eventTime, step));
-      }
-      eventTime += intervalMS;
-      events.add(
-          MotionEvent.obtain(
-              downEvent.getDownTime(),
-              eventTime,
-              MotionEvent.ACTION_UP,
-              endCoordinates[0],
-              endCoordinates[1],
-              0));
-      uiController.injectMotionEventSequence(events);
+      new GesturePath.Builder()
+          .addPointer(startCoordinates, endCoordinates)
+          .withPrecision(precision)
+          .withDuration(duration)
+          .withMoveCount(SWIPE_EVENT_COUNT)
+          .build()
+          .inject(uiController);
     } catch (Exception e) {
       return Swiper.Status.FAILURE;
-    } finally {
-      for (MotionEvent event : events) {
-        event.recycle();
-      }
     }
     return Swiper.Status.SUCCESS;
   }
@@ -29,8 +29,11 @@ import android.util.Log;
 import android.view.InputDevice;
 import android.view.MotionEvent;
 import android.view.View;
+import android.view.inputmethod.EditorInfo;
+import android.view.inputmethod.InputConnection;
 import android.widget.SearchView;
 import androidx.test.espresso.InjectEventSecurityException;
+import androidx.test.espresso.InteractionPolicies;
 import androidx.test.espresso.PerformException;
 import androidx.test.espresso.UiController;
 import androidx.test.espresso.ViewAction;
@@ -44,6 +47,7 @@ import org.hamcrest.Matcher;
 /** Enables typing text on views. */
 public final class TypeTextAction implements ViewAction {
   private static final String TAG = TypeTextAction.class.getSimpleName();
+  private static final int COMMIT_CHUNK_LENGTH = 64;
 
   @RemoteMsgField(order = 0)
   final String stringToBeTyped;
@@ -131,6 +135,11 @@ public final class TypeTextAction implements ViewAction {
       uiController.loopMainThreadUntilIdle();
     }
 
+    if (InteractionPolicies.isInputConnectionTextEntryEnabled()
+        && commitText(uiController, view)) {
+      return;
+    }
+
     try {
       if (!uiController.injectString(stringToBeTyped)) {
         Log.e(TAG, "Failed to type text: " + stringToBeTyped);
@@ -150,6 +159,49 @@ public final class TypeTextAction implements ViewAction {
     }
   }
 
+  /**
+   * Commits the text in chunks through an input connection created for the focused view, waiting
+   * for the application to idle after each chunk. Returns false, without typing anything, if there
+   * is no such input connection or it cannot be closed afterwards, before API 24.
+   */
+  private boolean commitText(UiController uiController, View view) {
+    if (Build.VERSION.SDK_INT < 24) {
+      return false;
+    }
+    View focusedView = view.findFocus();
+    if (focusedView == null) {
+      return false;
+    }
+    InputConnection inputConnection = focusedView.onCreateInputConnection(new EditorInfo());
+    if (inputConnection == null) {
+      return false;
+    }
+    try {
+      int start = 0;
+      while (start < stringToBeTyped.length()) {
+        int end = Math.min(start + COMMIT_CHUNK_LENGTH, stringToBeTyped.length());
+        if (Character.isHighSurrogate(stringToBeTyped.charAt(end - 1))
+            && end < stringToBeTyped.length()) {
+          // keep surrogate pairs together.
+          end++;
+        }
+        if (!inputConnection.commitText(stringToBeTyped.substring(start, end), 1)) {
+          throw new PerformException.Builder()
+              .withActionDescription(this.getDescription())
+              .withViewDescription(HumanReadables.describe(view))
+              .withCause(new RuntimeException("Failed to commit text: " + stringToBeTyped))
+              .build();
+        }
+        uiController.loopMainThreadUntilIdle();
+        start = end;
+      }
+    } finally {
+      // the connection is not the one of the IME, nothing else will close it.
+      inputConnection.closeConnection();
+    }
+    return true;
+  }
+
   @Override
   public String getDescription() {
     return String.format(Locale.ROOT, "type text(%s)", stringToBeTyped);
@@ -34,17 +34,21 @@ import android.view.View;
 import android.widget.Button;
 import android.widget.ImageView;
 import android.widget.TextView;
+import androidx.test.espresso.InteractionPolicies;
 import androidx.test.espresso.NoMatchingViewException;
 import androidx.test.espresso.ViewAssertion;
 import androidx.test.espresso.matcher.ViewMatchers.Visibility;
 import androidx.test.espresso.remote.annotation.RemoteMsgConstructor;
 import androidx.test.espresso.remote.annotation.RemoteMsgField;
+import androidx.test.espresso.util.ViewGeometryIndex;
 import com.google.common.base.Predicate;
 import com.google.common.collect.Iterables;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import junit.framework.AssertionFailedError;
 import org.hamcrest.Matcher;
 
@@ -99,6 +103,27 @@ public final class LayoutAssertions {
         coords[0], coords[1], coords[0] + view.getWidth() - 1, coords[1] + view.getHeight() - 1);
   }
 
+  private static Rect getRect(View view, ViewGeometryIndex index) {
+    Rect rect = new Rect();
+    index.getScreenBounds(view, rect);
+    rect.right--;
+    rect.bottom--;
+    return rect;
+  }
+
+  private static boolean isSkipped(View view, Rect viewRect) {
+    return viewRect.isEmpty()
+        || (view instanceof TextView && ((TextView) view).getText().length() == 0);
+  }
+
+  private static void appendOverlap(StringBuilder errorMessage, View view, View prevView) {
+    if (errorMessage.length() > 0) {
+      errorMessage.append(",\n\n");
+    }
+    errorMessage.append(
+        String.format(Locale.ROOT, "%s overlaps\n%s", describe(view), describe(prevView)));
+  }
+
   @VisibleForTesting
   static class NoOverlapsViewAssertion implements ViewAssertion {
     @RemoteMsgField(order = 0)
@@ -125,35 +150,32 @@ public final class LayoutAssertions {
         throw noViewException;
       }
 
-      Iterator<View> selectedViewIterator =
-          Iterables.filter(breadthFirstViewTraversal(view), viewPredicate).iterator();
-
-      List<View> prevViews = new LinkedList<>();
       StringBuilder errorMessage = new StringBuilder();
-      while (selectedViewIterator.hasNext()) {
-        View selectedView = selectedViewIterator.next();
-        Rect viewRect = getRect(selectedView);
-        if (!viewRect.isEmpty()
-            && !(selectedView instanceof TextView
-                && ((TextView) selectedView).getText().length() == 0)) {
-          for (View prevView : prevViews) {
-            // Mutual intersection of ImageViews is acceptable in most cases.
-            if (selectedView instanceof ImageView && prevView instanceof ImageView) {
-              continue;
-            }
-            Rect prevRect = getRect(prevView);
-            if (Rect.intersects(viewRect, prevRect)) {
-              // Overlap detected, add to the error message
-              if (errorMessage.length() > 0) {
-                errorMessage.append(",\n\n");
+      if (InteractionPolicies.isViewGeometryIndexEnabled()) {
+        checkIndexed(ViewGeometryIndex.obtain(view), viewPredicate, errorMessage);
+      } else {
+        Iterator<View> selectedViewIterator =
+            Iterables.filter(breadthFirstViewTraversal(view), viewPredicate).iterator();
+
+        List<View> prevViews = new LinkedList<>();
+        while (selectedViewIterator.hasNext()) {
+          View selectedView = selectedViewIterator.next();
+          Rect viewRect = getRect(selectedView);
+          if (!isSkipped(selectedView, viewRect)) {
+            for (View prevView : prevViews) {
+              // Mutual intersection of ImageViews is acceptable in most cases.
+              if (selectedView instanceof ImageView && prevView instanceof ImageView) {
+                continue;
+              }
+              Rect prevRect = getRect(prevView);
+              if (Rect.intersects(viewRect, prevRect)) {
+                // Overlap detected, add to the error message
+                appendOverlap(errorMessage, selectedView, prevView);
+                break;
               }
-              errorMessage.append(
-                  String.format(
-                      Locale.ROOT, "%s overlaps\n%s", describe(selectedView), describe(prevView)));
-              break;
             }
+            prevViews.add(selectedView);
           }
-          prevViews.add(selectedView);
         }
       }
 
@@ -162,6 +184,34 @@ public final class LayoutAssertions {
       }
     }
 
+    /**
+     * Same as the traversal in {@link #check}, but only compares each selected view against the
+     * previously selected views the geometry index reports as overlapping it.
+     */
+    private static void checkIndexed(
+        ViewGeometryIndex index, Predicate<View> viewPredicate, StringBuilder errorMessage) {
+      Map<View, Rect> prevRects = new IdentityHashMap<>();
+      for (View selectedView : Iterables.filter(index.allViews(), viewPredicate)) {
+        Rect viewRect = getRect(selectedView, index);
+        if (isSkipped(selectedView, viewRect)) {
+          continue;
+        }
+        // Candidates come in breadth-first order, like the previously selected views.
+        for (View candidate : index.viewsOverlapping(selectedView)) {
+          Rect prevRect = prevRects.get(candidate);
+          if (prevRect == null
+              || (selectedView instanceof ImageView && candidate instanceof ImageView)) {
+            continue;
+          }
+          if (Rect.intersects(viewRect, prevRect)) {
+            appendOverlap(errorMessage, selectedView, candidate);
+            break;
+          }
+        }
+        prevRects.put(selectedView, viewRect);
+      }
+    }
+
     @Override
     public String toString() {
       return String.format(Locale.ROOT, "NoOverlapsViewAssertion{selector=%s}", selector);
@@ -21,14 +21,17 @@ import static androidx.test.espresso.util.TreeIterables.breadthFirstViewTraversa
 import static com.google.common.base.Preconditions.checkNotNull;
 import static org.hamcrest.Matchers.is;
 
+import android.graphics.Rect;
 import android.util.Log;
 import android.view.View;
 import android.view.ViewGroup;
 import android.view.ViewParent;
 import androidx.test.espresso.AmbiguousViewMatcherException;
+import androidx.test.espresso.InteractionPolicies;
 import androidx.test.espresso.NoMatchingViewException;
 import androidx.test.espresso.ViewAssertion;
 import androidx.test.espresso.util.HumanReadables;
+import androidx.test.espresso.util.ViewGeometryIndex;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Predicate;
 import com.google.common.collect.Iterables;
@@ -285,11 +288,20 @@ public final class PositionAssertions {
               .appendText(position.toString())
               .appendText(" view ")
               .appendText(viewMatcher.toString());
-          assertThat(
-              description.toString(),
-              isRelativePosition(
-                  foundView, findView(viewMatcher, getTopViewGroup(foundView)), position),
-              is(true));
+          ViewGroup topViewGroup = getTopViewGroup(foundView);
+          boolean isRelativePosition;
+          if (topViewGroup != null && InteractionPolicies.isViewGeometryIndexEnabled()) {
+            ViewGeometryIndex index = ViewGeometryIndex.obtain(topViewGroup);
+            isRelativePosition =
+                isRelativePosition(
+                    screenBounds(foundView, index),
+                    screenBounds(findView(viewMatcher, index), index),
+                    position);
+          } else {
+            isRelativePosition =
+                isRelativePosition(foundView, findView(viewMatcher, topViewGroup), position);
+          }
+          assertThat(description.toString(), isRelativePosition, is(true));
         }
       }
     };
@@ -299,6 +311,15 @@ public final class PositionAssertions {
   static View findView(final Matcher<View> toView, View root) {
     Preconditions.checkNotNull(toView);
     Preconditions.checkNotNull(root);
+    return findView(toView, root, breadthFirstViewTraversal(root));
+  }
+
+  private static View findView(Matcher<View> toView, ViewGeometryIndex index) {
+    Preconditions.checkNotNull(toView);
+    return findView(toView, index.getRoot(), index.allViews());
+  }
+
+  private static View findView(final Matcher<View> toView, View root, Iterable<View> views) {
     final Predicate<View> viewPredicate =
         new Predicate<View>() {
           @Override
@@ -307,7 +328,7 @@ public final class PositionAssertions {
           }
         };
     Iterator<View> matchedViewIterator =
-        Iterables.filter(breadthFirstViewTraversal(root), viewPredicate).iterator();
+        Iterables.filter(views, viewPredicate).iterator();
     View matchedView = null;
     while (matchedViewIterator.hasNext()) {
       if (matchedView != null) {
@@ -344,37 +365,68 @@ public final class PositionAssertions {
     return topView;
   }
 
+  /**
+   * Returns the screen bounds of the given view, from the index if the view is part of the indexed
+   * hierarchy.
+   */
+  private static Rect screenBounds(View view, ViewGeometryIndex index) {
+    Rect bounds = new Rect();
+    if (index.contains(view)) {
+      index.getScreenBounds(view, bounds);
+    } else {
+      int[] location = new int[2];
+      view.getLocationOnScreen(location);
+      bounds.set(
+          location[0], location[1], location[0] + view.getWidth(), location[1] + view.getHeight());
+    }
+    return bounds;
+  }
+
   static boolean isRelativePosition(View view1, View view2, Position position) {
     int[] location1 = new int[2];
     int[] location2 = new int[2];
     view1.getLocationOnScreen(location1);
     view2.getLocationOnScreen(location2);
+    return isRelativePosition(
+        new Rect(
+            location1[0],
+            location1[1],
+            location1[0] + view1.getWidth(),
+            location1[1] + view1.getHeight()),
+        new Rect(
+            location2[0],
+            location2[1],
+            location2[0] + view2.getWidth(),
+            location2[1] + view2.getHeight()),
+        position);
+  }
 
+  private static boolean isRelativePosition(Rect bounds1, Rect bounds2, Position position) {
     switch (position) {
       case COMPLETELY_LEFT_OF:
-        return location1[0] + view1.getWidth() <= location2[0];
+        return bounds1.right <= bounds2.left;
       case COMPLETELY_RIGHT_OF:
-        return location2[0] + view2.getWidth() <= location1[0];
+        return bounds2.right <= bounds1.left;
       case COMPLETELY_ABOVE:
-        return location1[1] + view1.getHeight() <= location2[1];
+        return bounds1.bottom <= bounds2.top;
       case COMPLETELY_BELOW:
-        return location2[1] + view2.getHeight() <= location1[1];
+        return bounds2.bottom <= bounds1.top;
       case PARTIALLY_LEFT_OF:
-        return location1[0] < location2[0] && location2[0] < location1[0] + view1.getWidth();
+        return bounds1.left < bounds2.left && bounds2.left < bounds1.right;
       case PARTIALLY_RIGHT_OF:
-        return location2[0] < location1[0] && location1[0] < location2[0] + view2.getWidth();
+        return bounds2.left < bounds1.left && bounds1.left < bounds2.right;
       case PARTIALLY_ABOVE:
-        return location1[1] < location2[1] && location2[1] < location1[1] + view1.getHeight();
+        return bounds1.top < bounds2.top && bounds2.top < bounds1.bottom;
       case PARTIALLY_BELOW:
-        return location2[1] < location1[1] && location1[1] < location2[1] + view2.getHeight();
+        return bounds2.top < bounds1.top && bounds1.top < bounds2.bottom;
       case LEFT_ALIGNED:
-        return location1[0] == location2[0];
+        return bounds1.left == bounds2.left;
       case RIGHT_ALIGNED:
-        return location1[0] + view1.getWidth() == location2[0] + view2.getWidth();
+        return bounds1.right == bounds2.right;
       case TOP_ALIGNED:
-        return location1[1] == location2[1];
+        return bounds1.top == bounds2.top;
       case BOTTOM_ALIGNED:
-        return location1[1] + view1.getHeight() == location2[1] + view2.getHeight();
+        return bounds1.bottom == bounds2.bottom;
       default:
         return false;
     }
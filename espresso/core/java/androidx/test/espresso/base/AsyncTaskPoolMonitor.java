@@ -33,14 +33,28 @@ import java.util.concurrent.atomic.AtomicReference;
  * uses. That is currently possible and easy in Froyo to JB. If it ever becomes impossible, as long
  * as we know the max # of executor threads the AsyncTask framework allows we can still use this
  * interface, just need a different implementation.
+ *
+ * <p>When the tasks of the pool are submitted through a {@link CountingExecutor}, idleness is read
+ * from its task count instead, and idle notifications no longer block the threads of the pool,
+ * once the tasks submitted before the executor was installed have finished.
  */
 class AsyncTaskPoolMonitor {
   private final AtomicReference<IdleMonitor> monitor = new AtomicReference<IdleMonitor>(null);
   private final ThreadPoolExecutor pool;
   private final AtomicInteger activeBarrierChecks = new AtomicInteger(0);
+  private final CountingExecutor countingExecutor; // may be null
+  // whether the pool has been idle since countingExecutor was installed, from then on every task
+  // of the pool is counted.
+  private volatile boolean uncountedTasksDone;
 
   AsyncTaskPoolMonitor(ThreadPoolExecutor pool) {
     this.pool = checkNotNull(pool);
+    this.countingExecutor = null;
+  }
+
+  AsyncTaskPoolMonitor(CountingExecutor countingExecutor) {
+    this.pool = countingExecutor.getPool();
+    this.countingExecutor = countingExecutor;
   }
 
   IdleNotifier<Runnable> asIdleNotifier() {
@@ -68,6 +82,21 @@ class AsyncTaskPoolMonitor {
    * @return true if the pool is idle, false otherwise.
    */
   boolean isIdleNow() {
+    if (countingExecutor == null) {
+      return isPoolIdleNow();
+    }
+    if (countingExecutor.getPendingTaskCount() != 0) {
+      return false;
+    }
+    if (uncountedTasksDone) {
+      return true;
+    }
+    boolean idle = isPoolIdleNow();
+    uncountedTasksDone = idle;
+    return idle;
+  }
+
+  private boolean isPoolIdleNow() {
     if (!pool.getQueue().isEmpty()) {
       return false;
     } else {
@@ -98,6 +127,10 @@ class AsyncTaskPoolMonitor {
    */
   void notifyWhenIdle(final Runnable idleCallback) {
     checkNotNull(idleCallback);
+    if (countingExecutor != null && uncountedTasksDone) {
+      countingExecutor.notifyWhenIdle(idleCallback);
+      return;
+    }
     IdleMonitor myMonitor = new IdleMonitor(idleCallback);
     checkState(monitor.compareAndSet(null, myMonitor), "cannot monitor for idle recursively!");
     myMonitor.monitorForIdle();
@@ -111,6 +144,9 @@ class AsyncTaskPoolMonitor {
    * pool.
    */
   void cancelIdleMonitor() {
+    if (countingExecutor != null) {
+      countingExecutor.cancelIdleCallback();
+    }
     IdleMonitor myMonitor = monitor.getAndSet(null);
     if (null != myMonitor) {
       myMonitor.poison();
@@ -21,6 +21,7 @@ import android.os.Build;
 import android.os.Handler;
 import android.os.Looper;
 import androidx.test.espresso.FailureHandler;
+import androidx.test.espresso.IdlingPolicies;
 import androidx.test.espresso.IdlingRegistry;
 import androidx.test.espresso.base.IdlingResourceRegistry.IdleNotificationCallback;
 import androidx.test.espresso.internal.inject.TargetContext;
@@ -74,6 +75,13 @@ public class BaseLayerModule {
   public IdleNotifier<Runnable> provideCompatAsyncTaskMonitor(
       ThreadPoolExecutorExtractor extractor) {
     Optional<ThreadPoolExecutor> compatThreadPool = extractor.getCompatAsyncTaskThreadPool();
+    if (compatThreadPool.isPresent() && IdlingPolicies.isAsyncTaskCountingEnabled()) {
+      Optional<CountingExecutor> countingExecutor =
+          extractor.installCountingCompatAsyncTaskExecutor();
+      if (countingExecutor.isPresent()) {
+        return new AsyncTaskPoolMonitor(countingExecutor.get()).asIdleNotifier();
+      }
+    }
     if (compatThreadPool.isPresent()) {
       return new AsyncTaskPoolMonitor(compatThreadPool.get()).asIdleNotifier();
     } else {
@@ -108,7 +116,14 @@ public class BaseLayerModule {
   @Singleton
   @SdkAsyncTask
   public IdleNotifier<Runnable> provideSdkAsyncTaskMonitor(ThreadPoolExecutorExtractor extractor) {
-    return new AsyncTaskPoolMonitor(extractor.getAsyncTaskThreadPool()).asIdleNotifier();
+    ThreadPoolExecutor threadPool = extractor.getAsyncTaskThreadPool();
+    if (IdlingPolicies.isAsyncTaskCountingEnabled()) {
+      Optional<CountingExecutor> countingExecutor = extractor.installCountingAsyncTaskExecutor();
+      if (countingExecutor.isPresent()) {
+        return new AsyncTaskPoolMonitor(countingExecutor.get()).asIdleNotifier();
+      }
+    }
+    return new AsyncTaskPoolMonitor(threadPool).asIdleNotifier();
   }
 
   @Provides
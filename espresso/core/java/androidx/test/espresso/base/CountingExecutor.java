@@ -0,0 +1,152 @@
+/*
+ * Copyright (C) 2021 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.test.espresso.base;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+import com.google.common.base.Optional;
+import java.lang.reflect.Field;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * An {@link Executor} that counts the tasks it hands to a thread pool until they finish.
+ *
+ * <p>Knowing whether the tasks are done is a single read, and the idle callback runs as soon as the
+ * last task finishes, without placing blocking tasks on the pool like {@link AsyncTaskPoolMonitor}
+ * does. Only the tasks submitted through this executor are counted, see {@link #install(Field)}.
+ */
+final class CountingExecutor implements Executor {
+  private final ThreadPoolExecutor pool;
+  private final AtomicInteger pendingTasks = new AtomicInteger(0);
+  private final AtomicReference<Runnable> idleCallback = new AtomicReference<Runnable>(null);
+
+  CountingExecutor(ThreadPoolExecutor pool) {
+    this.pool = checkNotNull(pool);
+  }
+
+  /**
+   * Replaces the thread pool held by the given static field with a {@link CountingExecutor} of
+   * that pool, so that tasks submitted through the field from now on are counted.
+   *
+   * @return the executor now held by the field, or absent if the field does not hold a thread pool
+   *     or cannot be replaced
+   */
+  static Optional<CountingExecutor> install(Field field) {
+    try {
+      field.setAccessible(true);
+      Object executor = field.get(null);
+      if (executor instanceof CountingExecutor) {
+        return Optional.of((CountingExecutor) executor);
+      }
+      if (!(executor instanceof ThreadPoolExecutor)
+          || !field.getType().isAssignableFrom(CountingExecutor.class)
+          || discardsTasks((ThreadPoolExecutor) executor)) {
+        return Optional.absent();
+      }
+      CountingExecutor countingExecutor = new CountingExecutor((ThreadPoolExecutor) executor);
+      field.set(null, countingExecutor);
+      return field.get(null) == countingExecutor
+          ? Optional.of(countingExecutor)
+          : Optional.<CountingExecutor>absent();
+    } catch (IllegalAccessException | RuntimeException e) {
+      return Optional.absent();
+    }
+  }
+
+  /** Tasks silently dropped by the pool would never be counted as finished. */
+  private static boolean discardsTasks(ThreadPoolExecutor pool) {
+    RejectedExecutionHandler handler = pool.getRejectedExecutionHandler();
+    return handler instanceof ThreadPoolExecutor.DiscardPolicy
+        || handler instanceof ThreadPoolExecutor.DiscardOldestPolicy;
+  }
+
+  ThreadPoolExecutor getPool() {
+    return pool;
+  }
+
+  @Override
+  public void execute(final Runnable command) {
+    checkNotNull(command);
+    pendingTasks.incrementAndGet();
+    try {
+      pool.execute(
+          new Runnable() {
+            @Override
+            public void run() {
+              try {
+                command.run();
+              } finally {
+                taskFinished();
+              }
+            }
+
+            @Override
+            public String toString() {
+              return command.toString();
+            }
+          });
+    } catch (RuntimeException e) {
+      taskFinished();
+      throw e;
+    }
+  }
+
+  /** Returns the number of tasks submitted through this executor that have not finished yet. */
+  int getPendingTaskCount() {
+    return pendingTasks.get();
+  }
+
+  /**
+   * Runs the given callback once no task submitted through this executor is pending, immediately
+   * on the calling thread if there is none, otherwise on the thread that finishes the last task.
+   */
+  void notifyWhenIdle(Runnable callback) {
+    checkNotNull(callback);
+    checkState(idleCallback.compareAndSet(null, callback), "cannot monitor for idle recursively!");
+    if (pendingTasks.get() == 0) {
+      runIdleCallback();
+    }
+  }
+
+  /** Forgets the callback passed to {@link #notifyWhenIdle(Runnable)}, if it has not run yet. */
+  void cancelIdleCallback() {
+    idleCallback.set(null);
+  }
+
+  private void taskFinished() {
+    if (pendingTasks.decrementAndGet() == 0) {
+      runIdleCallback();
+    }
+  }
+
+  private void runIdleCallback() {
+    Runnable callback = idleCallback.getAndSet(null);
+    if (callback != null) {
+      callback.run();
+    }
+  }
+
+  @Override
+  public String toString() {
+    return pool.toString();
+  }
+}
@@ -23,6 +23,7 @@ import android.os.SystemClock;
 import android.view.KeyEvent;
 import android.view.MotionEvent;
 import androidx.test.espresso.InjectEventSecurityException;
+import androidx.test.espresso.base.InteractionTrace.Phase;
 
 /**
  * Responsible for selecting the proper strategy for injecting MotionEvents to the application under
@@ -85,14 +86,29 @@ final class EventInjector {
               source);
     }
 
-    return injectionStrategy.injectKeyEvent(newEvent);
+    long traceStart = InteractionTrace.begin();
+    try {
+      return injectionStrategy.injectKeyEvent(newEvent);
+    } finally {
+      InteractionTrace.end(Phase.INJECT_EVENT, traceStart);
+    }
   }
 
   boolean injectMotionEvent(MotionEvent event) throws InjectEventSecurityException {
-    return injectionStrategy.injectMotionEvent(event, true);
+    return injectMotionEvent(event, true);
   }
 
   boolean injectMotionEventAsync(MotionEvent event) throws InjectEventSecurityException {
-    return injectionStrategy.injectMotionEvent(event, false);
+    return injectMotionEvent(event, false);
+  }
+
+  private boolean injectMotionEvent(MotionEvent event, boolean sync)
+      throws InjectEventSecurityException {
+    long traceStart = InteractionTrace.begin();
+    try {
+      return injectionStrategy.injectMotionEvent(event, sync);
+    } finally {
+      InteractionTrace.end(Phase.INJECT_EVENT, traceStart);
+    }
   }
 }
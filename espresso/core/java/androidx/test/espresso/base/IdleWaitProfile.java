@@ -0,0 +1,338 @@
+/*
+ * Copyright (C) 2021 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.test.espresso.base;
+
+import android.os.Bundle;
+import android.os.Message;
+import com.google.common.primitives.Longs;
+import java.io.IOException;
+import java.io.Serializable;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Attributes the time Espresso spends waiting for the application to idle to what kept it waiting.
+ *
+ * <p>Every wait of {@link UiControllerImpl} for its idle conditions is recorded, along with the
+ * time each condition took to be met, the time each busy {@link
+ * androidx.test.espresso.IdlingResource} and registered looper stayed busy, and the time spent
+ * dispatching main looper messages once all conditions were met. The messages dispatched during
+ * the waits are totalled by target handler and callback class or {@code what}. The figures are
+ * accumulated until {@link #drain()} is called, which {@link IdleWaitProfileListener} does once per
+ * test.
+ *
+ * <p>Only recorded when {@link androidx.test.espresso.IdlingPolicies#setIdleWaitProfilingEnabled}
+ * is enabled.
+ *
+ * <p>This is not part of the public API.
+ *
+ * @hide
+ */
+public final class IdleWaitProfile {
+
+  static final String KEY_PREFIX = "espresso_idle_wait_";
+  static final String KEY_WAITS = KEY_PREFIX + "count";
+  static final String KEY_WAIT_MS = KEY_PREFIX + "ms";
+  static final String KEY_MAX_WAIT_MS = KEY_PREFIX + "max_ms";
+  static final String KEY_TOP_BLOCKERS = KEY_PREFIX + "top_blockers";
+
+  /** Blocker for the main looper messages dispatched after all idle conditions were met. */
+  static final String MAIN_LOOPER = "MAIN_LOOPER_HAS_IDLED";
+
+  private static final String IDLING_RESOURCE_PREFIX = "idling-resource:";
+  private static final String LOOPER_PREFIX = "looper:";
+  private static final int MAX_RECORDED_WAITS = 1000;
+  private static final int TOP_BLOCKER_COUNT = 5;
+
+  private static final IdleWaitProfile GLOBAL = new IdleWaitProfile();
+
+  private final long epochNanos = System.nanoTime();
+  private int waits;
+  private long waitNanos;
+  private long maxWaitNanos;
+  private Map<String, Total> blockers = new HashMap<>();
+  private Map<String, Total> messages = new HashMap<>();
+  private List<String> recordedWaits = new ArrayList<>();
+  private int droppedWaits;
+
+  // The wait in progress, main thread only.
+  private int waitDepth;
+  private long waitStartNanos;
+  private Map<String, Long> waitBlockers;
+  private String dispatching;
+  private long dispatchStartNanos;
+
+  IdleWaitProfile() {}
+
+  /** Returns the profile shared by all waits in this process. */
+  public static IdleWaitProfile global() {
+    return GLOBAL;
+  }
+
+  /** Returns the blocker name of the given idling resource. */
+  static String blockerName(String idlingResourceName, boolean isLooper) {
+    return (isLooper ? LOOPER_PREFIX : IDLING_RESOURCE_PREFIX) + idlingResourceName;
+  }
+
+  /** Called on the main thread when Espresso starts waiting for its idle conditions. */
+  synchronized void waitStarted() {
+    if (waitDepth++ > 0) {
+      // Waits are not expected to nest, attribute everything to the outer one.
+      return;
+    }
+    waitStartNanos = System.nanoTime();
+    waitBlockers = new LinkedHashMap<>();
+  }
+
+  /**
+   * Called on the main thread when the given blocker stopped keeping the current wait going.
+   * Ignored outside of a wait.
+   */
+  synchronized void blocked(String blocker, long nanos) {
+    if (waitDepth == 0) {
+      return;
+    }
+    add(blockers, blocker, nanos);
+    Long previous = waitBlockers.get(blocker);
+    waitBlockers.put(blocker, previous == null ? nanos : previous + nanos);
+  }
+
+  /**
+   * Like {@link #blocked(String, long)}, for a blocker that became busy at the given time. Only the
+   * part of that time that overlaps with the current wait is attributed.
+   */
+  synchronized void blockedSince(String blocker, long sinceNanos) {
+    if (waitDepth == 0) {
+      return;
+    }
+    blocked(blocker, System.nanoTime() - Math.max(sinceNanos, waitStartNanos));
+  }
+
+  /** Called on the main thread before the given message is dispatched during a wait. */
+  synchronized void dispatching(Message m) {
+    dispatched();
+    if (waitDepth == 0) {
+      return;
+    }
+    dispatching = describe(m);
+    dispatchStartNanos = System.nanoTime();
+  }
+
+  /** Called on the main thread once the message being dispatched, if any, has been handled. */
+  synchronized void dispatched() {
+    if (dispatching != null) {
+      add(messages, dispatching, System.nanoTime() - dispatchStartNanos);
+      dispatching = null;
+    }
+  }
+
+  /** Called on the main thread when Espresso stops waiting for its idle conditions. */
+  synchronized void waitFinished() {
+    if (waitDepth == 0 || --waitDepth > 0) {
+      return;
+    }
+    dispatched();
+    long nanos = System.nanoTime() - waitStartNanos;
+    waits++;
+    waitNanos += nanos;
+    maxWaitNanos = Math.max(maxWaitNanos, nanos);
+    if (recordedWaits.size() < MAX_RECORDED_WAITS) {
+      StringBuilder wait =
+          new StringBuilder(
+              String.format(
+                  Locale.ROOT,
+                  "at %.3fms waited %.3fms:",
+                  toMillis(waitStartNanos - epochNanos),
+                  toMillis(nanos)));
+      for (Map.Entry<String, Long> blocker : waitBlockers.entrySet()) {
+        wait.append(
+            String.format(
+                Locale.ROOT, " %s=%.3fms", blocker.getKey(), toMillis(blocker.getValue())));
+      }
+      recordedWaits.add(wait.toString());
+    } else {
+      droppedWaits++;
+    }
+    waitBlockers = null;
+  }
+
+  /** Returns a copy of the profile recorded so far and resets it. */
+  public synchronized IdleWaitProfile drain() {
+    IdleWaitProfile copy = new IdleWaitProfile();
+    copy.waits = waits;
+    copy.waitNanos = waitNanos;
+    copy.maxWaitNanos = maxWaitNanos;
+    copy.blockers = blockers;
+    copy.messages = messages;
+    copy.recordedWaits = recordedWaits;
+    copy.droppedWaits = droppedWaits;
+
+    waits = 0;
+    waitNanos = 0;
+    maxWaitNanos = 0;
+    blockers = new HashMap<>();
+    messages = new HashMap<>();
+    recordedWaits = new ArrayList<>();
+    droppedWaits = 0;
+    return copy;
+  }
+
+  public synchronized int getWaitCount() {
+    return waits;
+  }
+
+  public synchronized long getWaitNanos() {
+    return waitNanos;
+  }
+
+  public synchronized long getMaxWaitNanos() {
+    return maxWaitNanos;
+  }
+
+  /** Returns the time each blocker kept Espresso waiting, longest first. */
+  public synchronized Map<String, Long> getBlockerNanos() {
+    return sortedNanos(blockers);
+  }
+
+  /** Returns the time spent dispatching each kind of message during the waits, longest first. */
+  public synchronized Map<String, Long> getMessageNanos() {
+    return sortedNanos(messages);
+  }
+
+  /** Returns the summary of the profile as metric name to value pairs, in a stable order. */
+  public synchronized Map<String, Serializable> toMetrics() {
+    Map<String, Serializable> metrics = new LinkedHashMap<>();
+    metrics.put(KEY_WAITS, waits);
+    metrics.put(KEY_WAIT_MS, toMillis(waitNanos));
+    metrics.put(KEY_MAX_WAIT_MS, toMillis(maxWaitNanos));
+    StringBuilder topBlockers = new StringBuilder();
+    int count = 0;
+    for (Map.Entry<String, Long> blocker : getBlockerNanos().entrySet()) {
+      if (count++ == TOP_BLOCKER_COUNT) {
+        break;
+      }
+      if (topBlockers.length() > 0) {
+        topBlockers.append(", ");
+      }
+      topBlockers.append(
+          String.format(Locale.ROOT, "%s=%.3fms", blocker.getKey(), toMillis(blocker.getValue())));
+    }
+    metrics.put(KEY_TOP_BLOCKERS, topBlockers.toString());
+    return metrics;
+  }
+
+  /** Adds the summary of the profile to the given bundle, see {@link #toMetrics()}. */
+  public void writeTo(Bundle bundle) {
+    for (Map.Entry<String, Serializable> metric : toMetrics().entrySet()) {
+      bundle.putString(metric.getKey(), String.valueOf(metric.getValue()));
+    }
+  }
+
+  /** Writes the whole profile, including every recorded wait, as human readable text. */
+  public synchronized void writeReport(Writer writer) throws IOException {
+    writer.write(
+        String.format(
+            Locale.ROOT,
+            "%d idle waits, %.3fms in total, %.3fms at most\n",
+            waits,
+            toMillis(waitNanos),
+            toMillis(maxWaitNanos)));
+    writer.write("\nBlockers:\n");
+    writeTotals(writer, blockers);
+    writer.write("\nMessages dispatched while waiting:\n");
+    writeTotals(writer, messages);
+    writer.write("\nWaits:\n");
+    for (String wait : recordedWaits) {
+      writer.write(wait);
+      writer.write('\n');
+    }
+    if (droppedWaits > 0) {
+      writer.write(String.format(Locale.ROOT, "... %d more waits\n", droppedWaits));
+    }
+  }
+
+  private static void writeTotals(Writer writer, Map<String, Total> totals) throws IOException {
+    for (Map.Entry<String, Long> total : sortedNanos(totals).entrySet()) {
+      writer.write(
+          String.format(
+              Locale.ROOT,
+              "%10.3fms %6d  %s\n",
+              toMillis(total.getValue()),
+              totals.get(total.getKey()).count,
+              total.getKey()));
+    }
+  }
+
+  private static void add(Map<String, Total> totals, String key, long nanos) {
+    Total total = totals.get(key);
+    if (total == null) {
+      total = new Total();
+      totals.put(key, total);
+    }
+    total.count++;
+    total.nanos += nanos;
+  }
+
+  private static Map<String, Long> sortedNanos(Map<String, Total> totals) {
+    List<Map.Entry<String, Total>> entries = new ArrayList<>(totals.entrySet());
+    Collections.sort(
+        entries,
+        new Comparator<Map.Entry<String, Total>>() {
+          @Override
+          public int compare(Map.Entry<String, Total> a, Map.Entry<String, Total> b) {
+            return Longs.compare(b.getValue().nanos, a.getValue().nanos);
+          }
+        });
+    Map<String, Long> sorted = new LinkedHashMap<>();
+    for (Map.Entry<String, Total> entry : entries) {
+      sorted.put(entry.getKey(), entry.getValue().nanos);
+    }
+    return sorted;
+  }
+
+  private static String describe(Message m) {
+    StringBuilder description = new StringBuilder();
+    description.append(m.getTarget() == null ? "null" : m.getTarget().getClass().getName());
+    if (m.getCallback() != null) {
+      description.append(" callback=").append(m.getCallback().getClass().getName());
+    } else {
+      description.append(" what=").append(m.what);
+    }
+    return description.toString();
+  }
+
+  private static double toMillis(long nanos) {
+    return nanos / 1e6;
+  }
+
+  @Override
+  public synchronized String toString() {
+    return "IdleWaitProfile" + toMetrics();
+  }
+
+  private static final class Total {
+    int count;
+    long nanos;
+  }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright (C) 2021 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.test.espresso.base;
+
+import static androidx.test.internal.runner.listener.InstrumentationResultPrinter.REPORT_KEY_NAME_CLASS;
+import static androidx.test.internal.runner.listener.InstrumentationResultPrinter.REPORT_KEY_NAME_TEST;
+
+import android.os.Bundle;
+import androidx.test.espresso.util.TestOutputFiles;
+import androidx.test.internal.platform.util.TestOutputEmitter;
+import androidx.test.internal.runner.listener.InstrumentationRunListener;
+import org.junit.runner.Description;
+
+/**
+ * A <a href="http://junit.org/javadoc/latest/org/junit/runner/notification/RunListener.html"><code>
+ * RunListener</code></a> that reports where each test spent its time waiting for the application
+ * to idle.
+ *
+ * <p>After each test that waited at least once, the summary of its {@link IdleWaitProfile} is added
+ * to the test output properties, and the whole profile is written to the test output file {@code
+ * idle_wait_profile-<class>-<method>.txt}. The summary is also sent as an instrumentation status
+ * with code {@link #REPORT_VALUE_IDLE_WAIT_PROFILE}, alongside the class and method name of the
+ * test, but only if {@code -e newRunListenerMode true} is passed to the instrumentation as well. In
+ * the default order of listeners, the end of the test is already reported when this listener runs,
+ * so the status would be attributed to the next test.
+ *
+ * <p>Enable it by calling {@link androidx.test.espresso.IdlingPolicies#setIdleWaitProfilingEnabled}
+ * and passing {@code -e listener androidx.test.espresso.base.IdleWaitProfileListener} to the
+ * instrumentation.
+ */
+public class IdleWaitProfileListener extends InstrumentationRunListener {
+
+  /**
+   * Status code of the idle wait profile. Matches the "in progress" code, which instrumentation
+   * result parsers accept between the start and the end of a test, like {@link
+   * ViewLookupStatsListener#REPORT_VALUE_VIEW_LOOKUP_STATS}. The keys of the summary all start
+   * with {@code espresso_idle_wait_}, which tells both statuses apart.
+   */
+  public static final int REPORT_VALUE_IDLE_WAIT_PROFILE = 2;
+
+  @Override
+  public void testStarted(Description description) throws Exception {
+    // Discard the waits of anything that ran in between tests.
+    IdleWaitProfile.global().drain();
+  }
+
+  @Override
+  public void testFinished(Description description) throws Exception {
+    IdleWaitProfile profile = IdleWaitProfile.global().drain();
+    if (profile.getWaitCount() == 0) {
+      return;
+    }
+    Bundle status = new Bundle();
+    status.putString(REPORT_KEY_NAME_CLASS, description.getClassName());
+    status.putString(REPORT_KEY_NAME_TEST, description.getMethodName());
+    profile.writeTo(status);
+    TestFinishedStatus.send(this, REPORT_VALUE_IDLE_WAIT_PROFILE, status);
+    TestOutputEmitter.addOutputProperties(profile.toMetrics());
+    TestOutputFiles.write(
+        TestOutputFiles.fileName(
+            ".txt", "idle_wait_profile", description.getClassName(), description.getMethodName()),
+        profile::writeReport);
+  }
+}
@@ -32,9 +32,12 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.Callable;
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.ExecutionException;
@@ -70,7 +73,11 @@ public final class IdlingResourceRegistry {
       };
 
   // IdlingStates should only be accessed on main thread
-  private final List<IdlingState> idlingStates = new ArrayList<>();
+  // Registered resources by name, in registration order.
+  private final Map<String, IdlingState> idlingStates = new LinkedHashMap<>();
+  // The registered resources that are not known to be idle. Resources leave this set when they
+  // report a transition to idle, so they never need to be polled while in it.
+  private final Set<IdlingState> busyStates = new LinkedHashSet<>();
   private final Looper looper;
   private final Handler handler;
   private final Dispatcher dispatcher;
@@ -124,7 +131,7 @@ public final class IdlingResourceRegistry {
       // At the same time figure which resources are already registered and shouldn't be attempted
       // to register again.
       List<IdlingResource> resourcesToUnRegister = new ArrayList<>();
-      for (IdlingState oldState : idlingStates) {
+      for (IdlingState oldState : idlingStates.values()) {
         IdlingResource ir = resourcesToRegister.remove(oldState.resource.getName());
         if (null == ir) {
           resourcesToUnRegister.add(oldState.resource);
@@ -161,23 +168,19 @@ public final class IdlingResourceRegistry {
       for (IdlingResource resource : resourceList) {
         checkNotNull(resource.getName(), "IdlingResource.getName() should not be null");
 
-        boolean duplicate = false;
-        for (IdlingState oldState : idlingStates) {
-          if (resource.getName().equals(oldState.resource.getName())) {
-            // This does not throw an error to avoid leaving tests that register resource in test
-            // setup in an undeterministic state (we cannot assume that everyone clears vm state
-            // between each test run)
-            logDuplicateRegistrationError(resource, oldState.resource);
-            duplicate = true;
-            break;
-          }
-        }
-
-        if (!duplicate) {
+        IdlingState oldState = idlingStates.get(resource.getName());
+        if (oldState == null) {
           IdlingState is = new IdlingState(resource, handler);
-          idlingStates.add(is);
+          idlingStates.put(resource.getName(), is);
           is.registerSelf();
+          if (!is.idle) {
+            markBusy(is);
+          }
         } else {
+          // This does not throw an error to avoid leaving tests that register resource in test
+          // setup in an undeterministic state (we cannot assume that everyone clears vm state
+          // between each test run)
+          logDuplicateRegistrationError(resource, oldState.resource);
           allRegisteredSuccessfully = false;
         }
       }
@@ -203,16 +206,10 @@ public final class IdlingResourceRegistry {
     } else {
       boolean allUnregisteredSuccessfully = true;
       for (IdlingResource resource : resourceList) {
-        boolean found = false;
-        for (int i = 0; i < idlingStates.size(); i++) {
-          if (idlingStates.get(i).resource.getName().equals(resource.getName())) {
-            idlingStates.remove(i);
-            found = true;
-            break;
-          }
-        }
-
-        if (!found) {
+        IdlingState removed = idlingStates.remove(resource.getName());
+        if (removed != null) {
+          markNoLongerBusy(removed);
+        } else {
           allUnregisteredSuccessfully = false;
           Log.e(
               TAG,
@@ -253,7 +250,7 @@ public final class IdlingResourceRegistry {
           });
     } else {
       ImmutableList.Builder<IdlingResource> irs = ImmutableList.builder();
-      for (IdlingState is : idlingStates) {
+      for (IdlingState is : idlingStates.values()) {
         irs.add(is.resource);
       }
       return irs.build();
@@ -262,13 +259,15 @@ public final class IdlingResourceRegistry {
 
   boolean allResourcesAreIdle() {
     checkState(Looper.myLooper() == looper);
-    for (IdlingState is : idlingStates) {
-      if (is.idle) {
-        // ensure resource has not gone busy.
-        is.idle = is.resource.isIdleNow();
-      }
-
-      if (!is.idle) {
+    if (!busyStates.isEmpty()) {
+      // still waiting for a busy resource to transition to idle.
+      return false;
+    }
+    for (IdlingState is : idlingStates.values()) {
+      // ensure resource has not gone busy.
+      if (!is.resource.isIdleNow()) {
+        is.idle = false;
+        markBusy(is);
         return false;
       }
     }
@@ -278,6 +277,22 @@ public final class IdlingResourceRegistry {
     return true;
   }
 
+  private void markBusy(IdlingState is) {
+    is.busySinceNanos = System.nanoTime();
+    busyStates.add(is);
+  }
+
+  private void markNoLongerBusy(IdlingState is) {
+    if (busyStates.remove(is) && IdlingPolicies.isIdleWaitProfilingEnabled()) {
+      IdleWaitProfile.global()
+          .blockedSince(
+              IdleWaitProfile.blockerName(
+                  is.resource.getName(),
+                  is.resource instanceof LooperIdlingResourceInterrogationHandler),
+              is.busySinceNanos);
+    }
+  }
+
   interface IdleNotificationCallback {
     public void allResourcesIdle();
 
@@ -352,7 +367,7 @@ public final class IdlingResourceRegistry {
     List<String> busyResourceNames = Lists.newArrayList();
     List<IdlingState> racyResources = Lists.newArrayList();
 
-    for (IdlingState state : idlingStates) {
+    for (IdlingState state : busyStates) {
       if (!state.idle) {
         if (state.resource.isIdleNow()) {
           // We have not been notified of a BUSY -> IDLE transition, but the resource is telling us
@@ -382,6 +397,8 @@ public final class IdlingResourceRegistry {
     final Handler handler;
     // on main
     boolean idle;
+    // on main, when this resource was last found busy.
+    long busySinceNanos;
 
     private IdlingState(IdlingResource resource, Handler handler) {
       this.resource = resource;
@@ -429,24 +446,13 @@ public final class IdlingResourceRegistry {
     private void handleResourceIdled(Message m) {
       IdlingState is = (IdlingState) m.obj;
       is.idle = true;
-      boolean unknownResource = true;
-      boolean allIdle = true;
-      for (IdlingState state : idlingStates) {
-        allIdle = allIdle && state.idle;
-        if (!unknownResource && !allIdle) {
-          // we've made sure that we are actually monitoring this resource - and we've encountered
-          // a different resource that is currently not idle. Lets stop checking the others.
-          break;
-        }
-        if (unknownResource && state == is) {
-          unknownResource = false;
-        }
-      }
-      if (unknownResource) {
+      if (idlingStates.get(is.resource.getName()) != is) {
         Log.i(TAG, "Ignoring message from unregistered resource: " + is.resource);
         return;
       }
-      if (allIdle) {
+      markNoLongerBusy(is);
+      // idle resources may have gone busy without telling us, check them before notifying.
+      if (busyStates.isEmpty() && allResourcesAreIdle()) {
         try {
           idleNotificationCallback.allResourcesIdle();
         } finally {
@@ -0,0 +1,235 @@
+/*
+ * Copyright (C) 2021 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.test.espresso.base;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import androidx.test.espresso.InteractionPolicies;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Timeline of the phases of Espresso interactions, exported in the Chrome trace event format.
+ *
+ * <p>Spans are recorded into a ring buffer that is allocated once, so recording a span does not
+ * allocate and the oldest spans are overwritten once the buffer is full. Nothing is recorded
+ * unless {@link InteractionPolicies#setInteractionTracingEnabled(boolean)} is enabled. {@link
+ * InteractionTraceListener} writes the timeline of every test to a test output file, which can be
+ * opened in {@code chrome://tracing} or the Perfetto UI.
+ *
+ * <p>This is not part of the public API.
+ *
+ * @hide
+ */
+public final class InteractionTrace {
+
+  /** The phases of an interaction. */
+  public enum Phase {
+    ROOT_PICK("Pick root"),
+    IDLE_WAIT("Wait for idle"),
+    VIEW_FIND("Find view"),
+    CONSTRAINT_CHECK("Check constraints"),
+    PERFORM("Perform action"),
+    INJECT_EVENT("Inject event"),
+    ASSERT("Check assertion");
+
+    private final String displayName;
+
+    Phase(String displayName) {
+      this.displayName = displayName;
+    }
+
+    public String getDisplayName() {
+      return displayName;
+    }
+  }
+
+  static final int DEFAULT_CAPACITY = 1 << 14;
+  private static final Phase[] PHASES = Phase.values();
+  private static final InteractionTrace GLOBAL = new InteractionTrace(DEFAULT_CAPACITY);
+
+  private final int[] phases;
+  private final long[] startNanos;
+  private final long[] durationNanos;
+  private final long[] threadIds;
+  private int next;
+  private int size;
+  private long dropped;
+
+  InteractionTrace(int capacity) {
+    checkArgument(capacity > 0, "capacity must be positive: %s", capacity);
+    phases = new int[capacity];
+    startNanos = new long[capacity];
+    durationNanos = new long[capacity];
+    threadIds = new long[capacity];
+  }
+
+  /** Returns the timeline shared by all interactions in this process. */
+  public static InteractionTrace global() {
+    return GLOBAL;
+  }
+
+  /**
+   * Starts a span and returns its start time, to be passed to {@link #end(Phase, long)}. Returns 0
+   * if tracing is disabled.
+   */
+  public static long begin() {
+    return InteractionPolicies.isInteractionTracingEnabled() ? System.nanoTime() : 0;
+  }
+
+  /** Ends a span started by {@link #begin()}. Does nothing if tracing was disabled at the start. */
+  public static void end(Phase phase, long startNanos) {
+    if (startNanos != 0) {
+      GLOBAL.record(
+          phase, startNanos, System.nanoTime() - startNanos, Thread.currentThread().getId());
+    }
+  }
+
+  synchronized void record(Phase phase, long startNanos, long durationNanos, long threadId) {
+    phases[next] = phase.ordinal();
+    this.startNanos[next] = startNanos;
+    this.durationNanos[next] = durationNanos;
+    threadIds[next] = threadId;
+    next = (next + 1) % phases.length;
+    if (size < phases.length) {
+      size++;
+    } else {
+      dropped++;
+    }
+  }
+
+  /** Discards all recorded spans. */
+  public synchronized void clear() {
+    next = 0;
+    size = 0;
+    dropped = 0;
+  }
+
+  /** Returns the number of spans in the buffer. */
+  public synchronized int getSpanCount() {
+    return size;
+  }
+
+  /** Returns the number of spans overwritten since the last {@link #clear()}. */
+  public synchronized long getDroppedCount() {
+    return dropped;
+  }
+
+  /**
+   * Writes the recorded spans, oldest first, as a Chrome trace event JSON object.
+   *
+   * @param name the name of an additional span enclosing the timeline, typically the test name
+   * @param startNanos the start of the enclosing span, as returned by {@link System#nanoTime()}
+   * @param endNanos the end of the enclosing span
+   */
+  public synchronized void writeChromeTrace(
+      Writer writer, String name, long startNanos, long endNanos) throws IOException {
+    long pid = android.os.Process.myPid();
+    long tid = Thread.currentThread().getId();
+    writer.write("{\"traceEvents\":[\n");
+    writeEvent(writer, name, "test", startNanos, endNanos - startNanos, pid, tid);
+    Map<Long, String> threadNames = new HashMap<>();
+    threadNames.put(tid, Thread.currentThread().getName());
+    for (int i = 0; i < size; i++) {
+      int index = (next - size + i + phases.length) % phases.length;
+      writer.write(",\n");
+      writeEvent(
+          writer,
+          PHASES[phases[index]].getDisplayName(),
+          "espresso",
+          this.startNanos[index],
+          durationNanos[index],
+          pid,
+          threadIds[index]);
+      threadNames.put(threadIds[index], null);
+    }
+    for (Thread thread : Thread.getAllStackTraces().keySet()) {
+      if (threadNames.containsKey(thread.getId())) {
+        threadNames.put(thread.getId(), thread.getName());
+      }
+    }
+    for (Map.Entry<Long, String> thread : threadNames.entrySet()) {
+      if (thread.getValue() != null) {
+        writer.write(",\n{\"name\":\"thread_name\",\"ph\":\"M\",\"pid\":");
+        writer.write(Long.toString(pid));
+        writer.write(",\"tid\":");
+        writer.write(Long.toString(thread.getKey()));
+        writer.write(",\"args\":{\"name\":");
+        writeString(writer, thread.getValue());
+        writer.write("}}");
+      }
+    }
+    writer.write("\n],\"otherData\":{\"droppedSpans\":");
+    writer.write(Long.toString(dropped));
+    writer.write("}}\n");
+  }
+
+  private static void writeEvent(
+      Writer writer,
+      String name,
+      String category,
+      long startNanos,
+      long durationNanos,
+      long pid,
+      long tid)
+      throws IOException {
+    writer.write("{\"name\":");
+    writeString(writer, name);
+    writer.write(",\"cat\":\"");
+    writer.write(category);
+    writer.write("\",\"ph\":\"X\",\"ts\":");
+    writeMicros(writer, startNanos);
+    writer.write(",\"dur\":");
+    writeMicros(writer, durationNanos);
+    writer.write(",\"pid\":");
+    writer.write(Long.toString(pid));
+    writer.write(",\"tid\":");
+    writer.write(Long.toString(tid));
+    writer.write("}");
+  }
+
+  private static void writeMicros(Writer writer, long nanos) throws IOException {
+    writer.write(Long.toString(nanos / 1000));
+    writer.write('.');
+    long fraction = Math.abs(nanos % 1000);
+    if (fraction < 100) {
+      writer.write('0');
+    }
+    if (fraction < 10) {
+      writer.write('0');
+    }
+    writer.write(Long.toString(fraction));
+  }
+
+  private static void writeString(Writer writer, String value) throws IOException {
+    writer.write('"');
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      if (c == '"' || c == '\\') {
+        writer.write('\\');
+        writer.write(c);
+      } else if (c < 0x20) {
+        writer.write(String.format("\\u%04x", (int) c));
+      } else {
+        writer.write(c);
+      }
+    }
+    writer.write('"');
+  }
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright (C) 2021 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.test.espresso.base;
+
+import androidx.test.espresso.InteractionPolicies;
+import androidx.test.espresso.util.TestOutputFiles;
+import androidx.test.internal.runner.listener.InstrumentationRunListener;
+import org.junit.runner.Description;
+
+/**
+ * A <a href="http://junit.org/javadoc/latest/org/junit/runner/notification/RunListener.html"><code>
+ * RunListener</code></a> that writes the {@link InteractionTrace} of every test to a test output
+ * file.
+ *
+ * <p>After each test that recorded at least one span, the timeline of the test is written to the
+ * test output file {@code espresso_trace-<class>-<method>.json} in the Chrome trace event format.
+ *
+ * <p>Enable it by calling {@link InteractionPolicies#setInteractionTracingEnabled} and passing
+ * {@code -e listener androidx.test.espresso.base.InteractionTraceListener} to the instrumentation.
+ */
+public class InteractionTraceListener extends InstrumentationRunListener {
+
+  private long testStartNanos;
+
+  @Override
+  public void testStarted(Description description) throws Exception {
+    // Discard the spans of anything that ran in between tests.
+    InteractionTrace.global().clear();
+    testStartNanos = System.nanoTime();
+  }
+
+  @Override
+  public void testFinished(Description description) throws Exception {
+    long testEndNanos = System.nanoTime();
+    InteractionTrace trace = InteractionTrace.global();
+    if (trace.getSpanCount() == 0) {
+      return;
+    }
+    TestOutputFiles.write(
+        TestOutputFiles.fileName(
+            ".json", "espresso_trace", description.getClassName(), description.getMethodName()),
+        writer ->
+            trace.writeChromeTrace(
+                writer, description.getDisplayName(), testStartNanos, testEndNanos));
+  }
+}
@@ -21,6 +21,7 @@ import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.base.Throwables.throwIfUnchecked;
 
 import android.os.Binder;
+import android.os.Handler;
 import android.os.Looper;
 import android.os.Message;
 import android.os.MessageQueue;
@@ -151,27 +152,7 @@ final class Interrogator {
             return handler.get();
           }
           stillInterested = handler.beforeTaskDispatch();
-          handler.setMessage(m);
-          m.getTarget().dispatchMessage(m);
-
-          // ensure looper invariants
-          final long newIdentity = Binder.clearCallingIdentity();
-          // Detect binder id corruption.
-          if (newIdentity != threadIdentity) {
-            Log.wtf(
-                TAG,
-                "Thread identity changed from 0x"
-                    + Long.toHexString(threadIdentity)
-                    + " to 0x"
-                    + Long.toHexString(newIdentity)
-                    + " while dispatching to "
-                    + m.getTarget().getClass().getName()
-                    + " "
-                    + m.getCallback()
-                    + " what="
-                    + m.what);
-          }
-          recycle(m);
+          dispatch(m, handler, threadIdentity);
         }
       }
     } finally {
@@ -181,6 +162,103 @@ final class Interrogator {
     return handler.get();
   }
 
+  /**
+   * Loops the main thread like {@link #loopAndInterrogate(InterrogationHandler)}, but only
+   * interrogates the state of the queue when it has drained.
+   *
+   * <p>A {@link MessageQueue.IdleHandler} is informed by the queue whenever it runs out of messages
+   * that are due, which is the only time the queue state can change the handler's mind. While the
+   * application keeps the queue busy messages are dispatched without inspecting the queue at all.
+   * Sync barriers hold back the idle handler, since messages behind them are due. Once the handler
+   * is no longer interested, a wake up message is sent to the front of the queue to end the loop.
+   *
+   * @param handler an interrogation handler that controls whether to continue looping or not.
+   */
+  static <R> R loopAndInterrogateOnIdle(InterrogationHandler<R> handler) {
+    checkSanity();
+    interrogating.set(Boolean.TRUE);
+    MessageQueue q = Looper.myQueue();
+    DrainedQueueInterrogation drained = new DrainedQueueInterrogation(q, handler);
+    q.addIdleHandler(drained);
+    // We may have an identity when we're called - we want to restore it at the end of the fn.
+    final long entryIdentity = Binder.clearCallingIdentity();
+    try {
+      // this identity should not get changed by dispatching the loop until the observer is happy.
+      final long threadIdentity = Binder.clearCallingIdentity();
+      while (true) {
+        Message m = getNextMessage();
+        if (null == m) {
+          handler.quitting();
+          return handler.get();
+        }
+        if (drained.isWakeUp(m)) {
+          recycle(m);
+          return handler.get();
+        }
+        boolean stillInterested = handler.beforeTaskDispatch();
+        dispatch(m, handler, threadIdentity);
+        if (!stillInterested) {
+          return handler.get();
+        }
+      }
+    } finally {
+      q.removeIdleHandler(drained);
+      drained.wakeUp.removeCallbacksAndMessages(null);
+      Binder.restoreCallingIdentity(entryIdentity);
+      interrogating.set(Boolean.FALSE);
+    }
+  }
+
+  private static void dispatch(Message m, InterrogationHandler<?> handler, long threadIdentity) {
+    handler.setMessage(m);
+    m.getTarget().dispatchMessage(m);
+
+    // ensure looper invariants
+    final long newIdentity = Binder.clearCallingIdentity();
+    // Detect binder id corruption.
+    if (newIdentity != threadIdentity) {
+      Log.wtf(
+          TAG,
+          "Thread identity changed from 0x"
+              + Long.toHexString(threadIdentity)
+              + " to 0x"
+              + Long.toHexString(newIdentity)
+              + " while dispatching to "
+              + m.getTarget().getClass().getName()
+              + " "
+              + m.getCallback()
+              + " what="
+              + m.what);
+    }
+    recycle(m);
+  }
+
+  /** Interrogates the queue each time it drains, and wakes the loop up once done. */
+  private static final class DrainedQueueInterrogation implements MessageQueue.IdleHandler {
+    private final MessageQueue queue;
+    private final QueueInterrogationHandler<?> handler;
+    private final Handler wakeUp = new Handler(Looper.myLooper());
+    private boolean done;
+
+    DrainedQueueInterrogation(MessageQueue queue, QueueInterrogationHandler<?> handler) {
+      this.queue = queue;
+      this.handler = handler;
+    }
+
+    @Override
+    public boolean queueIdle() {
+      if (!done && !interrogateQueueState(queue, handler)) {
+        done = true;
+        wakeUp.sendMessageAtFrontOfQueue(wakeUp.obtainMessage());
+      }
+      return !done;
+    }
+
+    boolean isWakeUp(Message m) {
+      return done && m.getTarget() == wakeUp;
+    }
+  }
+
   private static void recycle(Message m) {
     if (recycleUncheckedMethod != null) {
       try {
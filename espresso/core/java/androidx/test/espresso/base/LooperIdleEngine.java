@@ -0,0 +1,41 @@
+/*
+ * Copyright (C) 2021 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.test.espresso.base;
+
+import androidx.test.espresso.base.Interrogator.InterrogationHandler;
+
+/** Strategies {@link UiControllerImpl} uses to loop the main thread until it is idle. */
+enum LooperIdleEngine {
+  /** Inspects the head of the message queue before dispatching every message. */
+  INTERROGATOR {
+    @Override
+    <R> R loopAndInterrogate(InterrogationHandler<R> handler) {
+      return Interrogator.loopAndInterrogate(handler);
+    }
+  },
+
+  /** Inspects the message queue only once it has drained. */
+  IDLE_HANDLER {
+    @Override
+    <R> R loopAndInterrogate(InterrogationHandler<R> handler) {
+      return Interrogator.loopAndInterrogateOnIdle(handler);
+    }
+  };
+
+  /** Loops the current thread until the given handler is no longer interested. */
+  abstract <R> R loopAndInterrogate(InterrogationHandler<R> handler);
+}
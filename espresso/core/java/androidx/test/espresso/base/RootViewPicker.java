@@ -19,17 +19,24 @@ package androidx.test.espresso.base;
 import static androidx.test.espresso.matcher.RootMatchers.isDialog;
 import static com.google.common.base.Preconditions.checkState;
 
+import android.annotation.TargetApi;
 import android.app.Activity;
+import android.os.Build;
 import android.os.Looper;
 import android.util.Log;
 import android.view.View;
+import android.view.ViewTreeObserver;
+import android.view.ViewTreeObserver.OnPreDrawListener;
+import android.view.ViewTreeObserver.OnWindowFocusChangeListener;
 import androidx.test.espresso.EspressoException;
 import androidx.test.espresso.NoActivityResumedException;
 import androidx.test.espresso.NoMatchingRootException;
 import androidx.test.espresso.Root;
 import androidx.test.espresso.UiController;
+import androidx.test.espresso.base.InteractionTrace.Phase;
 import androidx.test.internal.platform.os.ControlledLooper;
 import androidx.test.internal.util.LogUtil;
+import androidx.test.runner.lifecycle.ActivityLifecycleCallback;
 import androidx.test.runner.lifecycle.ActivityLifecycleMonitor;
 import androidx.test.runner.lifecycle.Stage;
 import com.google.common.collect.ImmutableList;
@@ -83,13 +90,18 @@ public final class RootViewPicker implements Provider<View> {
   public View get() {
     checkState(Looper.getMainLooper().equals(Looper.myLooper()), "must be called on main thread.");
 
-    // TODO(b/34663420): Move Activity waiting logic outside of this class. Not the responsibility
-    // of RVP.
-    if (needsActivity.get()) {
-      waitForAtLeastOneActivityToBeResumed();
-    }
+    long traceStart = InteractionTrace.begin();
+    try {
+      // TODO(b/34663420): Move Activity waiting logic outside of this class. Not the
+      // responsibility of RVP.
+      if (needsActivity.get()) {
+        waitForAtLeastOneActivityToBeResumed();
+      }
 
-    return pickRootView();
+      return pickRootView();
+    } finally {
+      InteractionTrace.end(Phase.ROOT_PICK, traceStart);
+    }
   }
 
   /**
@@ -99,13 +111,20 @@ public final class RootViewPicker implements Provider<View> {
   private Root waitForRootToBeReady(Root pickedRoot) {
     long timeout = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(10) /* 10 seconds */;
     BackOff rootReadyBackoff = new RootReadyBackoff();
-    while (System.currentTimeMillis() <= timeout) {
-      if (pickedRoot.isReady()) {
-        return pickedRoot;
-      } else {
-        controlledLooper.simulateWindowFocus(pickedRoot.getDecorView());
-        uiController.loopMainThreadForAtLeast(rootReadyBackoff.getNextBackoffInMillis());
+    RootEventWaker waker = new RootEventWaker();
+    try {
+      while (System.currentTimeMillis() <= timeout) {
+        if (pickedRoot.isReady()) {
+          return pickedRoot;
+        } else {
+          controlledLooper.simulateWindowFocus(pickedRoot.getDecorView());
+          // the root becomes ready when it gains focus or has been laid out.
+          waker.listenTo(pickedRoot.getDecorView());
+          waker.loopMainThreadForAtMost(rootReadyBackoff.getNextBackoffInMillis());
+        }
       }
+    } finally {
+      waker.stopListening();
     }
 
     throw new RootViewWithoutFocusException(
@@ -123,20 +142,31 @@ public final class RootViewPicker implements Provider<View> {
     RootResults rootResults = rootResultFetcher.fetch();
     BackOff noActiveRootsBackoff = new NoActiveRootsBackoff();
     BackOff noMatchingRootBackoff = new NoMatchingRootBackoff();
-    while (System.currentTimeMillis() <= timeout) {
-      switch (rootResults.getState()) {
-        case ROOTS_PICKED:
-          return rootResults.getPickedRoot();
-        case NO_ROOTS_PRESENT:
-          // no active roots yet, but should appear soon.
-          uiController.loopMainThreadForAtLeast(noActiveRootsBackoff.getNextBackoffInMillis());
-          break;
-        case NO_ROOTS_PICKED:
-          // a root which satisfies the matcher should show up eventually.
-          uiController.loopMainThreadForAtLeast(noMatchingRootBackoff.getNextBackoffInMillis());
-          break;
+    RootEventWaker waker = new RootEventWaker();
+    try {
+      while (System.currentTimeMillis() <= timeout) {
+        switch (rootResults.getState()) {
+          case ROOTS_PICKED:
+            return rootResults.getPickedRoot();
+          case NO_ROOTS_PRESENT:
+            // no active roots yet, but should appear soon.
+            waker.listenToActivities();
+            waker.loopMainThreadForAtMost(noActiveRootsBackoff.getNextBackoffInMillis());
+            break;
+          case NO_ROOTS_PICKED:
+            // a root which satisfies the matcher should show up eventually. Focusable windows take
+            // the focus away from the existing roots when they are added.
+            waker.listenToActivities();
+            for (Root root : rootResults.allRoots) {
+              waker.listenTo(root.getDecorView());
+            }
+            waker.loopMainThreadForAtMost(noMatchingRootBackoff.getNextBackoffInMillis());
+            break;
+        }
+        rootResults = rootResultFetcher.fetch();
       }
-      rootResults = rootResultFetcher.fetch();
+    } finally {
+      waker.stopListening();
     }
 
     if (RootResults.State.ROOTS_PICKED == rootResults.getState()) {
@@ -158,40 +188,50 @@ public final class RootViewPicker implements Provider<View> {
       resumedActivities = activityLifecycleMonitor.getActivitiesInStage(Stage.RESUMED);
     }
     if (resumedActivities.isEmpty()) {
-      List<Activity> activities = getAllActiveActivities();
-      if (activities.isEmpty()) {
-        for (long waitTime : CREATED_WAIT_TIMES) {
-          // wait for Activities to be scheduled by the platform before assuming there are none
-          // and failing the test.
-          Log.w(TAG, "No activities found - waiting: " + waitTime + "ms for one to appear.");
-          uiController.loopMainThreadForAtLeast(waitTime);
-          activities = getAllActiveActivities();
-          if (!activities.isEmpty()) {
-            // found at least one activity in the pipeline
-            break;
-          }
-        }
-      }
-      if (activities.isEmpty()) {
-        throw new NoActivityResumedException(
-            "No activities found. Did you forget to launch the activity "
-                + "by calling getActivity() or startActivitySync or similar?");
+      RootEventWaker waker = new RootEventWaker();
+      waker.listenToActivities();
+      try {
+        waitForActivityToBeResumed(waker);
+      } finally {
+        waker.stopListening();
       }
-      // well at least there are some activities in the pipeline - lets see if they resume.
-
-      for (long waitTime : RESUMED_WAIT_TIMES) {
-        Log.w(
-            TAG, "No activity currently resumed - waiting: " + waitTime + "ms for one to appear.");
-        uiController.loopMainThreadForAtLeast(waitTime);
-        resumedActivities = activityLifecycleMonitor.getActivitiesInStage(Stage.RESUMED);
-        if (!resumedActivities.isEmpty()) {
-          return; // one of the pending activities has resumed
+    }
+  }
+
+  private void waitForActivityToBeResumed(RootEventWaker waker) {
+    List<Activity> activities = getAllActiveActivities();
+    if (activities.isEmpty()) {
+      for (long waitTime : CREATED_WAIT_TIMES) {
+        // wait for Activities to be scheduled by the platform before assuming there are none
+        // and failing the test.
+        Log.w(TAG, "No activities found - waiting up to: " + waitTime + "ms for one to appear.");
+        waker.loopMainThreadForAtMost(waitTime);
+        activities = getAllActiveActivities();
+        if (!activities.isEmpty()) {
+          // found at least one activity in the pipeline
+          break;
         }
       }
+    }
+    if (activities.isEmpty()) {
       throw new NoActivityResumedException(
-          "No activities in stage RESUMED. Did you forget to "
-              + "launch the activity. (test.getActivity() or similar)?");
+          "No activities found. Did you forget to launch the activity "
+              + "by calling getActivity() or startActivitySync or similar?");
+    }
+    // well at least there are some activities in the pipeline - lets see if they resume.
+
+    for (long waitTime : RESUMED_WAIT_TIMES) {
+      Log.w(
+          TAG,
+          "No activity currently resumed - waiting up to: " + waitTime + "ms for one to appear.");
+      waker.loopMainThreadForAtMost(waitTime);
+      if (!activityLifecycleMonitor.getActivitiesInStage(Stage.RESUMED).isEmpty()) {
+        return; // one of the pending activities has resumed
+      }
     }
+    throw new NoActivityResumedException(
+        "No activities in stage RESUMED. Did you forget to "
+            + "launch the activity. (test.getActivity() or similar)?");
   }
 
   /** Returns the list of all non-destroyed activities. */
@@ -203,6 +243,96 @@ public final class RootViewPicker implements Provider<View> {
     return activities;
   }
 
+  /**
+   * Ends the waits of this picker as soon as an activity changes its lifecycle stage or a window it
+   * listens to changes focus or is laid out, rather than after the full backoff.
+   *
+   * <p>The backoff remains the upper bound of every wait, for events which are not observed (e.g. a
+   * non focusable popup window being added). Waits are only ended early if the {@link UiController}
+   * is a {@link WakeableUiController}.
+   */
+  private final class RootEventWaker implements ActivityLifecycleCallback, OnPreDrawListener {
+    private final List<ViewTreeObserver> observers = Lists.newArrayList();
+    private final FocusChangeWaker focusChangeWaker =
+        Build.VERSION.SDK_INT >= 18 ? new FocusChangeWaker(this) : null;
+    private boolean listeningToActivities;
+
+    void listenToActivities() {
+      if (!listeningToActivities && uiController instanceof WakeableUiController) {
+        activityLifecycleMonitor.addLifecycleCallback(this);
+        listeningToActivities = true;
+      }
+    }
+
+    void listenTo(View decorView) {
+      ViewTreeObserver observer = decorView.getViewTreeObserver();
+      if (!(uiController instanceof WakeableUiController)
+          || !observer.isAlive()
+          || observers.contains(observer)) {
+        return;
+      }
+      observer.addOnPreDrawListener(this);
+      if (focusChangeWaker != null) {
+        observer.addOnWindowFocusChangeListener(focusChangeWaker);
+      }
+      observers.add(observer);
+    }
+
+    void stopListening() {
+      if (listeningToActivities) {
+        activityLifecycleMonitor.removeLifecycleCallback(this);
+        listeningToActivities = false;
+      }
+      for (ViewTreeObserver observer : observers) {
+        if (observer.isAlive()) {
+          observer.removeOnPreDrawListener(this);
+          if (focusChangeWaker != null) {
+            observer.removeOnWindowFocusChangeListener(focusChangeWaker);
+          }
+        }
+      }
+      observers.clear();
+    }
+
+    void loopMainThreadForAtMost(long millisDelay) {
+      if (uiController instanceof WakeableUiController) {
+        ((WakeableUiController) uiController).loopMainThreadForAtMost(millisDelay);
+      } else {
+        uiController.loopMainThreadForAtLeast(millisDelay);
+      }
+    }
+
+    @Override
+    public void onActivityLifecycleChanged(Activity activity, Stage stage) {
+      wakeUp();
+    }
+
+    @Override
+    public boolean onPreDraw() {
+      wakeUp();
+      return true;
+    }
+
+    private void wakeUp() {
+      ((WakeableUiController) uiController).wakeUp();
+    }
+  }
+
+  /** Separate from {@link RootEventWaker}, window focus listeners are only available on API 18+. */
+  @TargetApi(18)
+  private static final class FocusChangeWaker implements OnWindowFocusChangeListener {
+    private final RootEventWaker waker;
+
+    FocusChangeWaker(RootEventWaker waker) {
+      this.waker = waker;
+    }
+
+    @Override
+    public void onWindowFocusChanged(boolean hasFocus) {
+      waker.wakeUp();
+    }
+  }
+
   private static class RootResults {
     private final List<Root> allRoots;
     private final List<Root> pickedRoots;
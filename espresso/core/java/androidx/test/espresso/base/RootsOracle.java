@@ -28,10 +28,13 @@ import com.google.common.collect.Lists;
 import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Locale;
 import javax.inject.Inject;
+import javax.inject.Singleton;
 
 /**
  * Provides access to all root views in an application.
@@ -44,8 +47,12 @@ import javax.inject.Inject;
  * handle a list of size 0 by assuming getWindow().getDecorView() on the currently resumed activity
  * is the sole root - this assumption will be correct often enough.
  *
+ * <p>The roots of the last call are kept, and handed back as long as the window manager still
+ * holds the same windows.
+ *
  * <p>Obviously, you need to be on the main thread to use this.
  */
+@Singleton
 final class RootsOracle implements ActiveRootLister {
 
   private static final String TAG = RootsOracle.class.getSimpleName();
@@ -62,6 +69,11 @@ final class RootsOracle implements ActiveRootLister {
   private Field viewsField;
   private Field paramsField;
 
+  // the window manager's lists at the time lastRoots were created, main thread only.
+  private List<View> lastViews = Collections.emptyList();
+  private List<LayoutParams> lastParams = Collections.emptyList();
+  private List<Root> lastRoots = Collections.emptyList();
+
   @Inject
   RootsOracle(Looper mainLooper) {
     this.mainLooper = mainLooper;
@@ -125,6 +137,10 @@ final class RootsOracle implements ActiveRootLister {
       return Lists.newArrayList();
     }
 
+    if (sameWindows(views, params)) {
+      return Lists.newArrayList(lastRoots);
+    }
+
     List<Root> roots = Lists.newArrayList();
     for (int i = views.size() - 1; i > -1; i--) {
       roots.add(
@@ -134,9 +150,25 @@ final class RootsOracle implements ActiveRootLister {
               .build());
     }
 
+    // The window manager updates its lists in place, keep copies to compare against.
+    lastViews = new ArrayList<>(views);
+    lastParams = new ArrayList<>(params);
+    lastRoots = Collections.unmodifiableList(new ArrayList<>(roots));
     return roots;
   }
 
+  private boolean sameWindows(List<View> views, List<LayoutParams> params) {
+    if (views.size() != lastViews.size() || params.size() != lastParams.size()) {
+      return false;
+    }
+    for (int i = 0; i < views.size(); i++) {
+      if (views.get(i) != lastViews.get(i) || params.get(i) != lastParams.get(i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
   private void initialize() {
     initialized = true;
     String accessClass =
@@ -0,0 +1,64 @@
+/*
+ * Copyright (C) 2021 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.test.espresso.base;
+
+import android.os.Bundle;
+import android.util.Log;
+import androidx.test.internal.runner.listener.InstrumentationRunListener;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+/**
+ * Sends the results of a test as an instrumentation status from {@code
+ * RunListener#testFinished}.
+ *
+ * <p>With the default, legacy order of run listeners, the runner reports the end of a test before
+ * the listeners passed with {@code -e listener} are told that the test finished. A status sent then
+ * would be attributed to the next test by instrumentation result parsers, or dropped. The status is
+ * therefore only sent when the runner notifies these listeners first, which is enabled with {@code
+ * -e newRunListenerMode true}.
+ */
+final class TestFinishedStatus {
+
+  private static final String TAG = "TestFinishedStatus";
+  private static final String ARGUMENT_NEW_RUN_LISTENER_MODE = "newRunListenerMode";
+
+  private TestFinishedStatus() {}
+
+  /**
+   * Sends the status through the instrumentation of the listener, if the end of the test was not
+   * reported yet.
+   *
+   * @return whether the status was sent
+   */
+  static boolean send(InstrumentationRunListener listener, int resultCode, Bundle status) {
+    if (listener.getInstrumentation() == null || !isNewRunListenerMode()) {
+      return false;
+    }
+    listener.sendStatus(resultCode, status);
+    return true;
+  }
+
+  private static boolean isNewRunListenerMode() {
+    try {
+      return Boolean.parseBoolean(
+          InstrumentationRegistry.getArguments().getString(ARGUMENT_NEW_RUN_LISTENER_MODE));
+    } catch (IllegalStateException e) {
+      Log.w(TAG, "No instrumentation arguments registered", e);
+      return false;
+    }
+  }
+}
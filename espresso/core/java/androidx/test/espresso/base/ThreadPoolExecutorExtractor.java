@@ -78,6 +78,52 @@ final class ThreadPoolExecutorExtractor {
     }
   }
 
+  /**
+   * Routes the tasks submitted to {@code AsyncTask.THREAD_POOL_EXECUTOR} through a {@link
+   * CountingExecutor}. Returns absent if the executor cannot be replaced.
+   */
+  public Optional<CountingExecutor> installCountingAsyncTaskExecutor() {
+    if (Build.VERSION.SDK_INT < 11) {
+      return Optional.absent();
+    }
+    return installCountingExecutor(ASYNC_TASK_CLASS_NAME, "async");
+  }
+
+  /**
+   * Routes the tasks submitted to {@code ModernAsyncTask.THREAD_POOL_EXECUTOR} through a {@link
+   * CountingExecutor}. Returns absent if there is no such executor or it cannot be replaced.
+   */
+  public Optional<CountingExecutor> installCountingCompatAsyncTaskExecutor() {
+    return installCountingExecutor(MODERN_ASYNC_TASK_CLASS_NAME, "compat async");
+  }
+
+  private Optional<CountingExecutor> installCountingExecutor(
+      final String className, String description) {
+    try {
+      return runOnMainThread(
+              new FutureTask<Optional<CountingExecutor>>(
+                  new Callable<Optional<CountingExecutor>>() {
+                    @Override
+                    public Optional<CountingExecutor> call() throws Exception {
+                      try {
+                        return CountingExecutor.install(
+                            Class.forName(className).getField(MODERN_ASYNC_TASK_FIELD_NAME));
+                      } catch (ClassNotFoundException cnfe) {
+                        return Optional.<CountingExecutor>absent();
+                      } catch (NoSuchFieldException nsfe) {
+                        return Optional.<CountingExecutor>absent();
+                      }
+                    }
+                  }))
+          .get();
+    } catch (InterruptedException ie) {
+      throw new RuntimeException(
+          "Interrupted while trying to replace the " + description + " task executor!", ie);
+    } catch (ExecutionException ee) {
+      throw new RuntimeException(ee.getCause());
+    }
+  }
+
   private <T> FutureTask<T> runOnMainThread(final FutureTask<T> futureToRun) {
     if (Looper.myLooper() != Looper.getMainLooper()) {
       final CountDownLatch latch = new CountDownLatch(1);
@@ -106,6 +152,14 @@ final class ThreadPoolExecutorExtractor {
     return futureToRun;
   }
 
+  /** Returns the thread pool behind a {@link CountingExecutor} installed by this class. */
+  private static ThreadPoolExecutor toThreadPool(Object executor) {
+    if (executor instanceof CountingExecutor) {
+      return ((CountingExecutor) executor).getPool();
+    }
+    return (ThreadPoolExecutor) executor;
+  }
+
   private static final Callable<Optional<ThreadPoolExecutor>> MODERN_ASYNC_TASK_EXTRACTOR =
       new Callable<Optional<ThreadPoolExecutor>>() {
         @Override
@@ -113,7 +167,7 @@ final class ThreadPoolExecutorExtractor {
           try {
             Class<?> modernClazz = Class.forName(MODERN_ASYNC_TASK_CLASS_NAME);
             Field executorField = modernClazz.getField(MODERN_ASYNC_TASK_FIELD_NAME);
-            return Optional.of((ThreadPoolExecutor) executorField.get(null));
+            return Optional.of(toThreadPool(executorField.get(null)));
           } catch (ClassNotFoundException cnfe) {
             return Optional.<ThreadPoolExecutor>absent();
           } catch (NoSuchFieldException nsfe) {
@@ -138,7 +192,7 @@ final class ThreadPoolExecutorExtractor {
             Field executorField =
                 LOAD_ASYNC_TASK_CLASS.call().getDeclaredField(LEGACY_ASYNC_TASK_FIELD_NAME);
             executorField.setAccessible(true);
-            return Optional.of((ThreadPoolExecutor) executorField.get(null));
+            return Optional.of(toThreadPool(executorField.get(null)));
           } catch (ClassNotFoundException cnfe) {
             return Optional.<ThreadPoolExecutor>absent();
           } catch (NoSuchFieldException nsfe) {
@@ -154,7 +208,7 @@ final class ThreadPoolExecutorExtractor {
           try {
             Field executorField =
                 LOAD_ASYNC_TASK_CLASS.call().getField(MODERN_ASYNC_TASK_FIELD_NAME);
-            return Optional.of((ThreadPoolExecutor) executorField.get(null));
+            return Optional.of(toThreadPool(executorField.get(null)));
           } catch (ClassNotFoundException cnfe) {
             return Optional.<ThreadPoolExecutor>absent();
           } catch (NoSuchFieldException nsfe) {
@@ -35,17 +35,22 @@ import android.view.MotionEvent;
 import androidx.test.espresso.IdlingPolicies;
 import androidx.test.espresso.IdlingPolicy;
 import androidx.test.espresso.InjectEventSecurityException;
+import androidx.test.espresso.InteractionPolicies;
 import androidx.test.espresso.UiController;
 import androidx.test.espresso.base.IdlingResourceRegistry.IdleNotificationCallback;
+import androidx.test.espresso.base.InteractionTrace.Phase;
 import com.google.common.annotations.VisibleForTesting;
-import com.google.common.collect.Iterables;
+import com.google.common.collect.Iterators;
 import com.google.common.collect.Lists;
+import com.google.common.collect.PeekingIterator;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import java.util.BitSet;
+import java.util.Collections;
 import java.util.EnumSet;
-import java.util.Iterator;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
@@ -59,7 +64,10 @@ import javax.inject.Singleton;
 /** Implementation of {@link UiController}. */
 @Singleton
 final class UiControllerImpl
-    implements InterruptableUiController, Handler.Callback, IdlingUiController {
+    implements InterruptableUiController,
+        Handler.Callback,
+        IdlingUiController,
+        WakeableUiController {
 
   private static final String TAG = UiControllerImpl.class.getSimpleName();
 
@@ -154,9 +162,38 @@ final class UiControllerImpl
   // only updated on main thread.
   private MainThreadInterrogation interrogation;
   private int generation = 0;
+  // the delayed signal of the current loopMainThreadForAtMost call, null when not waiting.
+  private SignalingTask<Void> wakeUpSignal;
   private IdleNotifier<Runnable> asyncIdle;
   private IdleNotifier<Runnable> compatIdle;
   private Provider<IdleNotifier<IdleNotificationCallback>> dynamicIdleProvider;
+  private final Provider<LooperIdleEngine> idleEngineProvider;
+  // only accessed on main thread.
+  private KeyCharacterMap keyCharacterMap;
+  private final Map<Character, KeyEvent[]> keyEventsByCharacter = new HashMap<>();
+
+  @VisibleForTesting
+  UiControllerImpl(
+      EventInjector eventInjector,
+      IdleNotifier<Runnable> asyncIdle,
+      IdleNotifier<Runnable> compatIdle,
+      Provider<IdleNotifier<IdleNotificationCallback>> dynamicIdle,
+      Looper mainLooper,
+      IdlingResourceRegistry idlingResourceRegistry) {
+    this(
+        eventInjector,
+        asyncIdle,
+        compatIdle,
+        dynamicIdle,
+        mainLooper,
+        idlingResourceRegistry,
+        new Provider<LooperIdleEngine>() {
+          @Override
+          public LooperIdleEngine get() {
+            return LooperIdleEngine.INTERROGATOR;
+          }
+        });
+  }
 
   @VisibleForTesting
   @Inject
@@ -166,7 +203,8 @@ final class UiControllerImpl
       @CompatAsyncTask IdleNotifier<Runnable> compatIdle,
       Provider<IdleNotifier<IdleNotificationCallback>> dynamicIdle,
       Looper mainLooper,
-      IdlingResourceRegistry idlingResourceRegistry) {
+      IdlingResourceRegistry idlingResourceRegistry,
+      Provider<LooperIdleEngine> idleEngineProvider) {
     this.eventInjector = checkNotNull(eventInjector);
     this.asyncIdle = checkNotNull(asyncIdle);
     this.compatIdle = checkNotNull(compatIdle);
@@ -174,6 +212,7 @@ final class UiControllerImpl
     this.dynamicIdleProvider = checkNotNull(dynamicIdle);
     this.mainLooper = checkNotNull(mainLooper);
     this.idlingResourceRegistry = checkNotNull(idlingResourceRegistry);
+    this.idleEngineProvider = checkNotNull(idleEngineProvider);
   }
 
   @SuppressWarnings("deprecation")
@@ -257,11 +296,12 @@ final class UiControllerImpl
   public boolean injectMotionEventSequence(final Iterable<MotionEvent> events)
       throws InjectEventSecurityException {
     checkNotNull(events);
-    checkState(!Iterables.isEmpty(events), "Expecting non-empty events to inject");
+    // iterated once, the events may be created and recycled as they are iterated.
+    final PeekingIterator<MotionEvent> mei = Iterators.peekingIterator(events.iterator());
+    checkState(mei.hasNext(), "Expecting non-empty events to inject");
     checkState(Looper.myLooper() == mainLooper, "Expecting to be on main thread!");
     initialize();
-    final Iterator<MotionEvent> mei = events.iterator();
-    final long downTime = Iterables.getFirst(events, null).getEventTime();
+    final long downTime = mei.peek().getEventTime();
     final long shift = SystemClock.uptimeMillis() - downTime;
     FutureTask<Boolean> injectTask =
         new SignalingTask<>(
@@ -322,13 +362,14 @@ final class UiControllerImpl
     }
 
     boolean eventInjected = false;
-    KeyCharacterMap keyCharacterMap = getKeyCharacterMap();
+    boolean batched = InteractionPolicies.isBatchedTextEntryEnabled();
 
     // TODO(b/80130875): Investigate why not use (as suggested in javadoc of
     // keyCharacterMap.getEvents):
     // http://developer.android.com/reference/android/view/KeyEvent.html#KeyEvent(long,
     // java.lang.String, int, int)
-    KeyEvent[] events = keyCharacterMap.getEvents(str.toCharArray());
+    KeyEvent[] events =
+        batched ? getCachedKeyEvents(str) : getKeyCharacterMap().getEvents(str.toCharArray());
     if (events == null) {
       throw new RuntimeException(
           String.format(
@@ -341,6 +382,10 @@ final class UiControllerImpl
 
     Log.d(TAG, String.format(Locale.ROOT, "Injecting string: \"%s\"", str));
 
+    if (batched) {
+      return injectKeyEventSequence(events);
+    }
+
     for (KeyEvent event : events) {
       checkNotNull(
           event,
@@ -376,6 +421,90 @@ final class UiControllerImpl
     return eventInjected;
   }
 
+  /**
+   * Returns the key events typing the given string, or null if a character cannot be typed. The
+   * events of every character are looked up once per controller.
+   */
+  private KeyEvent[] getCachedKeyEvents(String str) {
+    if (keyCharacterMap == null) {
+      keyCharacterMap = getKeyCharacterMap();
+    }
+    List<KeyEvent> events = Lists.newArrayListWithCapacity(str.length() * 2);
+    char[] character = new char[1];
+    for (int i = 0; i < str.length(); i++) {
+      character[0] = str.charAt(i);
+      KeyEvent[] characterEvents = keyEventsByCharacter.get(character[0]);
+      if (characterEvents == null) {
+        characterEvents = keyCharacterMap.getEvents(character);
+        if (characterEvents == null) {
+          return null;
+        }
+        keyEventsByCharacter.put(character[0], characterEvents);
+      }
+      Collections.addAll(events, characterEvents);
+    }
+    return events.toArray(new KeyEvent[0]);
+  }
+
+  /**
+   * Injects the given key events one after the other in a single task of the key event executor,
+   * instead of waiting for the application to idle between events.
+   */
+  private boolean injectKeyEventSequence(final KeyEvent[] events)
+      throws InjectEventSecurityException {
+    loopMainThreadUntilIdle();
+    FutureTask<Boolean> injectTask =
+        new SignalingTask<Boolean>(
+            new Callable<Boolean>() {
+              @Override
+              public Boolean call() throws Exception {
+                for (KeyEvent event : events) {
+                  boolean eventInjected = false;
+                  for (int attempts = 0; !eventInjected && attempts < 4; attempts++) {
+                    // the cached events have stale time stamps, see injectString.
+                    event = KeyEvent.changeTimeRepeat(event, SystemClock.uptimeMillis(), 0);
+                    eventInjected = eventInjector.injectKeyEvent(event);
+                  }
+                  if (!eventInjected) {
+                    Log.e(
+                        TAG,
+                        String.format(
+                            Locale.ROOT,
+                            "Failed to inject event for character (%c) with key code (%s)",
+                            event.getUnicodeChar(),
+                            event.getKeyCode()));
+                    return false;
+                  }
+                }
+                return true;
+              }
+            },
+            IdleCondition.KEY_INJECT_HAS_COMPLETED,
+            generation);
+
+    @SuppressWarnings("unused") // go/futurereturn-lsc
+    Future<?> possiblyIgnoredError = keyEventExecutor.submit(injectTask);
+
+    loopUntil(IdleCondition.KEY_INJECT_HAS_COMPLETED, dynamicIdleProvider.get());
+
+    try {
+      checkState(injectTask.isDone(), "Key injection was signaled - but it wasnt done.");
+      return injectTask.get();
+    } catch (ExecutionException ee) {
+      if (ee.getCause() instanceof InjectEventSecurityException) {
+        throw (InjectEventSecurityException) ee.getCause();
+      } else {
+        throw new RuntimeException(ee.getCause());
+      }
+    } catch (InterruptedException neverHappens) {
+      // we only call get() after done() is signaled.
+      // we should never block.
+      throw new RuntimeException("impossible.", neverHappens);
+    } finally {
+      loopMainThreadUntilIdle();
+    }
+  }
+
   @SuppressLint("InlinedApi")
   @VisibleForTesting
   @SuppressWarnings("deprecation")
@@ -401,6 +530,15 @@ final class UiControllerImpl
   public void loopMainThreadUntilIdle() {
     initialize();
     checkState(Looper.myLooper() == mainLooper, "Expecting to be on main thread!");
+    long traceStart = InteractionTrace.begin();
+    try {
+      loopUntilIdle();
+    } finally {
+      InteractionTrace.end(Phase.IDLE_WAIT, traceStart);
+    }
+  }
+
+  private void loopUntilIdle() {
     IdleNotifier<IdleNotificationCallback> dynamicIdle = dynamicIdleProvider.get();
     do {
       EnumSet<IdleCondition> condChecks = EnumSet.noneOf(IdleCondition.class);
@@ -469,12 +607,45 @@ final class UiControllerImpl
     loopMainThreadUntilIdle();
   }
 
+  @Override
+  public void loopMainThreadForAtMost(long millisDelay) {
+    initialize();
+
+    checkState(Looper.myLooper() == mainLooper, "Expecting to be on main thread!");
+    checkState(!IdleCondition.DELAY_HAS_PAST.isSignaled(conditionSet), "recursion detected!");
+    checkArgument(millisDelay > 0);
+
+    wakeUpSignal = new SignalingTask<>(NO_OP, IdleCondition.DELAY_HAS_PAST, generation);
+    controllerHandler.postAtTime(
+        wakeUpSignal, wakeUpSignal, SystemClock.uptimeMillis() + millisDelay);
+    try {
+      loopUntil(IdleCondition.DELAY_HAS_PAST, dynamicIdleProvider.get());
+    } finally {
+      controllerHandler.removeCallbacksAndMessages(wakeUpSignal);
+      wakeUpSignal = null;
+    }
+    loopMainThreadUntilIdle();
+  }
+
+  @Override
+  public void wakeUp() {
+    checkState(Looper.myLooper() == mainLooper, "Expecting to be on main thread!");
+    if (wakeUpSignal != null && !wakeUpSignal.isDone()) {
+      controllerHandler.removeCallbacksAndMessages(wakeUpSignal);
+      // raises the signal of the current generation, ending the wait.
+      wakeUpSignal.run();
+    }
+  }
+
   @Override
   public boolean handleMessage(Message msg) {
     if (!IdleCondition.handleMessage(msg, conditionSet, generation)) {
       Log.i(TAG, "Unknown message type: " + msg);
       return false;
     } else {
+      if (interrogation != null && msg.arg1 == generation) {
+        interrogation.conditionSignaled(msg.what);
+      }
       return true;
     }
   }
@@ -521,9 +692,11 @@ final class UiControllerImpl
       long start = SystemClock.uptimeMillis();
       long end =
           start + masterIdlePolicy.getIdleTimeoutUnit().toMillis(masterIdlePolicy.getIdleTimeout());
-      interrogation = new MainThreadInterrogation(conditions, conditionSet, end);
+      IdleWaitProfile profile =
+          IdlingPolicies.isIdleWaitProfilingEnabled() ? IdleWaitProfile.global() : null;
+      interrogation = new MainThreadInterrogation(conditions, conditionSet, end, profile);
 
-      InterrogationStatus result = Interrogator.loopAndInterrogate(interrogation);
+      InterrogationStatus result = idleEngineProvider.get().loopAndInterrogate(interrogation);
       if (InterrogationStatus.COMPLETED == result) {
         // did not time out, all conditions happy.
         return dynamicIdle;
@@ -582,6 +755,9 @@ final class UiControllerImpl
               masterIdlePolicy.getIdleTimeout(),
               masterIdlePolicy.getIdleTimeoutUnit().name()));
     } finally {
+      if (interrogation != null) {
+        interrogation.finishProfile();
+      }
       generation++;
       for (IdleCondition condition : conditions) {
         condition.reset(conditionSet);
@@ -613,14 +789,60 @@ final class UiControllerImpl
     private final long giveUpAtMs;
     private String lastMessage;
 
+    // null unless idle waits are being profiled.
+    private final IdleWaitProfile profile;
+    private long startNanos;
+    private long lastSignalNanos;
+
     private InterrogationStatus status = InterrogationStatus.COMPLETED;
     private int execCount = 0;
 
     MainThreadInterrogation(
-        EnumSet<IdleCondition> conditions, BitSet conditionSet, long giveUpAtMs) {
+        EnumSet<IdleCondition> conditions,
+        BitSet conditionSet,
+        long giveUpAtMs,
+        IdleWaitProfile profile) {
       this.conditions = conditions;
       this.conditionSet = conditionSet;
       this.giveUpAtMs = giveUpAtMs;
+      this.profile = profile;
+      if (profile != null) {
+        startNanos = lastSignalNanos = System.nanoTime();
+        profile.waitStarted();
+      }
+    }
+
+    /** Attributes the time until the given condition was signaled to that condition. */
+    void conditionSignaled(int what) {
+      if (profile != null) {
+        IdleCondition condition = IdleCondition.values()[what];
+        if (conditions.contains(condition)) {
+          lastSignalNanos = System.nanoTime();
+          profile.blocked(condition.name(), lastSignalNanos - startNanos);
+        }
+      }
+    }
+
+    /**
+     * Attributes the time left to the conditions that were not signaled, or to the main looper if
+     * they all were, and ends the wait.
+     */
+    void finishProfile() {
+      if (profile == null) {
+        return;
+      }
+      long now = System.nanoTime();
+      boolean allSignaled = true;
+      for (IdleCondition condition : conditions) {
+        if (!condition.isSignaled(conditionSet)) {
+          allSignaled = false;
+          profile.blocked(condition.name(), now - startNanos);
+        }
+      }
+      if (allSignaled) {
+        profile.blocked(IdleWaitProfile.MAIN_LOOPER, now - lastSignalNanos);
+      }
+      profile.waitFinished();
     }
 
     @Override
@@ -632,6 +854,9 @@ final class UiControllerImpl
         // This field is just for diagnosing Espresso test failures; suppress the error.
         lastMessage = "NPE calling message toString(): " + npe;
       }
+      if (profile != null) {
+        profile.dispatching(m);
+      }
     }
 
     @Override
@@ -646,11 +871,13 @@ final class UiControllerImpl
 
     @Override
     public boolean barrierUp() {
+      dispatched();
       return continueOrTimeout();
     }
 
     @Override
     public boolean queueEmpty() {
+      dispatched();
       if (conditionsMet()) {
         return false;
       }
@@ -659,11 +886,13 @@ final class UiControllerImpl
 
     @Override
     public boolean taskDueSoon() {
+      dispatched();
       return continueOrTimeout();
     }
 
     @Override
     public boolean taskDueLong() {
+      dispatched();
       if (conditionsMet()) {
         return false;
       }
@@ -672,10 +901,18 @@ final class UiControllerImpl
 
     @Override
     public boolean beforeTaskDispatch() {
+      dispatched();
       execCount++;
       return continueOrTimeout();
     }
 
+    /** Marks the end of the dispatch of the previous message, if any. */
+    private void dispatched() {
+      if (profile != null) {
+        profile.dispatched();
+      }
+    }
+
     private boolean continueOrTimeout() {
       if (InterrogationStatus.INTERRUPTED == status) {
         return false;
@@ -19,6 +19,7 @@ package androidx.test.espresso.base;
 import android.util.Log;
 import android.view.KeyEvent;
 import android.view.MotionEvent;
+import androidx.test.espresso.IdlingPolicies;
 import androidx.test.espresso.InjectEventSecurityException;
 import androidx.test.espresso.UiController;
 import androidx.test.internal.platform.ServiceLoaderWrapper;
@@ -46,6 +47,18 @@ public class UiControllerModule {
     }
   }
 
+  /**
+   * Selects how {@link UiControllerImpl} detects that the main looper is idle, see {@link
+   * IdlingPolicies#setMainLooperIdleHandlerEnabled(boolean)}. Not scoped, so that the policy can be
+   * changed between interactions.
+   */
+  @Provides
+  LooperIdleEngine provideLooperIdleEngine() {
+    return IdlingPolicies.isMainLooperIdleHandlerEnabled()
+        ? LooperIdleEngine.IDLE_HANDLER
+        : LooperIdleEngine.INTERROGATOR;
+  }
+
   private static class EspressoUiControllerAdapter implements InterruptableUiController {
     private final androidx.test.platform.ui.UiController platformUiController;
 
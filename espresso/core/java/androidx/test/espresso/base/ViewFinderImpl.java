@@ -21,11 +21,17 @@ import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Preconditions.checkState;
 
 import android.os.Looper;
+import android.util.Log;
 import android.view.View;
 import android.widget.AdapterView;
 import androidx.test.espresso.AmbiguousViewMatcherException;
+import androidx.test.espresso.InteractionPolicies;
 import androidx.test.espresso.NoMatchingViewException;
 import androidx.test.espresso.ViewFinder;
+import androidx.test.espresso.base.InteractionTrace.Phase;
+import androidx.test.espresso.matcher.IndexedViewMatchers;
+import androidx.test.espresso.matcher.ViewMatcherPlanner;
+import androidx.test.espresso.matcher.ViewMatcherPlanner.EvaluationProfile;
 import androidx.test.espresso.matcher.ViewMatchers;
 import androidx.test.espresso.util.EspressoOptional;
 import com.google.common.base.Joiner;
@@ -33,6 +39,7 @@ import com.google.common.base.Predicate;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Iterators;
 import com.google.common.collect.Lists;
+import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
@@ -40,14 +47,21 @@ import javax.inject.Inject;
 import javax.inject.Provider;
 import org.hamcrest.Matcher;
 
-/** Implementation of {@link ViewFinder}. */
-// TODO: in the future we may want to collect stats here about the size of the view
-// hierarchy, average matcher execution time, warn when matchers take too long to execute, etc.
+/**
+ * Implementation of {@link ViewFinder}.
+ *
+ * <p>Every lookup is recorded in {@link ViewLookupStats#global()}.
+ */
 public final class ViewFinderImpl implements ViewFinder {
+  private static final String TAG = "ViewFinderImpl";
 
   private final Matcher<View> viewMatcher;
   private final Provider<View> rootViewProvider;
 
+  // main thread only, reset by every lookup.
+  private int nodesVisited;
+  private int matcherEvaluations;
+
   @Inject
   ViewFinderImpl(Matcher<View> viewMatcher, Provider<View> rootViewProvider) {
     this.viewMatcher = viewMatcher;
@@ -57,10 +71,59 @@ public final class ViewFinderImpl implements ViewFinder {
   @Override
   public View getView() throws AmbiguousViewMatcherException, NoMatchingViewException {
     checkMainThread();
-    final Predicate<View> matcherPredicate =
-        new MatcherPredicateAdapter<View>(checkNotNull(viewMatcher));
+    checkNotNull(viewMatcher);
+    EvaluationProfile profile =
+        InteractionPolicies.isViewMatcherProfilingEnabled() ? new EvaluationProfile() : null;
+    Matcher<View> lookupMatcher =
+        profile != null || InteractionPolicies.isViewMatcherPlanningEnabled()
+            ? ViewMatcherPlanner.plan(viewMatcher, profile)
+            : viewMatcher;
 
+    nodesVisited = 0;
+    matcherEvaluations = 0;
+    long rootPickStart = System.nanoTime();
     View root = rootViewProvider.get();
+    long lookupStart = System.nanoTime();
+    // Root picking is traced on its own, see RootViewPicker.
+    long traceStart = InteractionTrace.begin();
+    try {
+      if (InteractionPolicies.isViewHierarchySnapshotEnabled()) {
+        return getViewFromSnapshot(root, lookupMatcher);
+      }
+      return getViewFromTraversal(root, lookupMatcher);
+    } finally {
+      long lookupEnd = System.nanoTime();
+      ViewLookupStats.global()
+          .record(
+              nodesVisited,
+              matcherEvaluations,
+              lookupEnd - lookupStart,
+              lookupStart - rootPickStart);
+      InteractionTrace.end(Phase.VIEW_FIND, traceStart);
+      if (profile != null) {
+        Log.i(
+            TAG,
+            String.format(
+                Locale.ROOT,
+                "Evaluated %s %d times in %.3f ms:\n%s",
+                viewMatcher,
+                profile.getEvaluationCount(),
+                profile.getEvaluationNanos() / 1e6,
+                profile.report()));
+      }
+    }
+  }
+
+  private View getViewFromTraversal(View root, Matcher<View> lookupMatcher) {
+    final Predicate<View> matcherPredicate =
+        new MatcherPredicateAdapter<View>(lookupMatcher) {
+          @Override
+          public boolean apply(View input) {
+            nodesVisited++;
+            matcherEvaluations++;
+            return super.apply(input);
+          }
+        };
     Iterator<View> matchedViewIterator =
         Iterables.filter(breadthFirstViewTraversal(root), matcherPredicate).iterator();
 
@@ -86,29 +149,78 @@ public final class ViewFinderImpl implements ViewFinder {
       List<View> adapterViews =
           Lists.newArrayList(
               Iterables.filter(breadthFirstViewTraversal(root), adapterViewPredicate).iterator());
-      if (adapterViews.isEmpty()) {
-        throw new NoMatchingViewException.Builder()
-            .withViewMatcher(viewMatcher)
-            .withRootView(root)
-            .build();
+      throw noMatchingViewException(root, adapterViews);
+    } else {
+      return matchedView;
+    }
+  }
+
+  private View getViewFromSnapshot(View root, Matcher<View> lookupMatcher) {
+    ViewHierarchySnapshot snapshot = ViewHierarchySnapshot.obtain(root);
+    if (!snapshot.isReused()) {
+      nodesVisited += snapshot.size();
+    }
+    List<View> matchedViews = findMatches(snapshot, lookupMatcher);
+    if (matchedViews.isEmpty() && snapshot.isReused()) {
+      // The hierarchy may have changed without a layout or draw pass, look again before failing.
+      snapshot = ViewHierarchySnapshot.capture(root);
+      nodesVisited += snapshot.size();
+      matchedViews = findMatches(snapshot, lookupMatcher);
+    }
+
+    if (matchedViews.isEmpty()) {
+      throw noMatchingViewException(root, snapshot.getAdapterViews());
+    }
+    if (matchedViews.size() > 1) {
+      throw new AmbiguousViewMatcherException.Builder()
+          .withViewMatcher(viewMatcher)
+          .withRootView(root)
+          .withView1(matchedViews.get(0))
+          .withView2(matchedViews.get(1))
+          .withOtherAmbiguousViews(
+              matchedViews.subList(2, matchedViews.size()).toArray(new View[0]))
+          .build();
+    }
+    return matchedViews.get(0);
+  }
+
+  private List<View> findMatches(ViewHierarchySnapshot snapshot, Matcher<View> lookupMatcher) {
+    List<View> candidates = IndexedViewMatchers.queryIndex(viewMatcher, snapshot);
+    if (candidates == null) {
+      candidates = snapshot.allViews();
+    }
+    List<View> matchedViews = new ArrayList<View>(2);
+    for (int i = 0, size = candidates.size(); i < size; i++) {
+      View candidate = candidates.get(i);
+      matcherEvaluations++;
+      if (lookupMatcher.matches(candidate)) {
+        matchedViews.add(candidate);
       }
+    }
+    return matchedViews;
+  }
 
-      String warning =
-          String.format(
-              Locale.ROOT,
-              "\n"
-                  + "If the target view is not part of the view hierarchy, you may need to use"
-                  + " Espresso.onData to load it from one of the following AdapterViews:%s",
-              Joiner.on("\n- ").join(adapterViews));
-      throw new NoMatchingViewException.Builder()
+  private NoMatchingViewException noMatchingViewException(View root, List<View> adapterViews) {
+    if (adapterViews.isEmpty()) {
+      return new NoMatchingViewException.Builder()
           .withViewMatcher(viewMatcher)
           .withRootView(root)
-          .withAdapterViews(adapterViews)
-          .withAdapterViewWarning(EspressoOptional.of(warning))
           .build();
-    } else {
-      return matchedView;
     }
+
+    String warning =
+        String.format(
+            Locale.ROOT,
+            "\n"
+                + "If the target view is not part of the view hierarchy, you may need to use"
+                + " Espresso.onData to load it from one of the following AdapterViews:%s",
+            Joiner.on("\n- ").join(adapterViews));
+    return new NoMatchingViewException.Builder()
+        .withViewMatcher(viewMatcher)
+        .withRootView(root)
+        .withAdapterViews(adapterViews)
+        .withAdapterViewWarning(EspressoOptional.of(warning))
+        .build();
   }
 
   private void checkMainThread() {
@@ -0,0 +1,234 @@
+/*
+ * Copyright (C) 2021 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.test.espresso.base;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import android.util.SparseArray;
+import android.view.View;
+import android.widget.AdapterView;
+import android.widget.TextView;
+import androidx.test.espresso.util.TreeIterables;
+import androidx.test.espresso.util.TreeIterables.ViewVisitor;
+import androidx.test.espresso.util.ViewHierarchyCache;
+import androidx.test.espresso.util.ViewHierarchyIndex;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An immutable capture of a view hierarchy, built in a single breadth-first pass and indexed by
+ * view id, class and text.
+ *
+ * <p>Snapshots of attached windows are cached per root view with {@link ViewHierarchyCache}. A
+ * cached snapshot is reused until the window goes through a layout, draw or scroll pass. Changes
+ * that do not cause such a pass (for example {@link View#setId(int)} on its own) are not detected,
+ * which is why callers re-capture the hierarchy before reporting that a view could not be found.
+ *
+ * <p>All methods must be called on the main thread.
+ */
+final class ViewHierarchySnapshot implements ViewHierarchyIndex {
+
+  private final View root;
+  private final View[] views;
+  private final List<View> allViews;
+  private final List<View> adapterViews;
+  private final SparseArray<Positions> positionsById = new SparseArray<Positions>();
+  private final Map<String, Positions> positionsByText = new HashMap<String, Positions>();
+  private final Positions transformedTextPositions = new Positions();
+  private final Map<Class<?>, Positions> positionsByClass = new HashMap<Class<?>, Positions>();
+  private final Map<Class<?>, List<View>> assignableCache = new HashMap<Class<?>, List<View>>();
+  private boolean reused;
+
+  /**
+   * Returns a snapshot of the hierarchy rooted at the given view, reusing the cached one if the
+   * window has not gone through a layout, draw or scroll pass since it was captured.
+   */
+  static ViewHierarchySnapshot obtain(View root) {
+    checkNotNull(root);
+    ViewHierarchySnapshot snapshot = ViewHierarchyCache.get(root, ViewHierarchySnapshot.class);
+    if (snapshot == null) {
+      return capture(root);
+    }
+    snapshot.reused = true;
+    return snapshot;
+  }
+
+  /** Captures the hierarchy rooted at the given view, replacing any cached snapshot. */
+  static ViewHierarchySnapshot capture(View root) {
+    checkNotNull(root);
+    ViewHierarchySnapshot snapshot = new ViewHierarchySnapshot(root);
+    ViewHierarchyCache.put(root, ViewHierarchySnapshot.class, snapshot);
+    return snapshot;
+  }
+
+  private ViewHierarchySnapshot(View root) {
+    this.root = root;
+
+    final List<View> collected = new ArrayList<View>();
+    final List<View> adapters = new ArrayList<View>();
+    TreeIterables.visitBreadthFirst(
+        root,
+        new ViewVisitor() {
+          @Override
+          public boolean visit(View view, int distanceFromRoot) {
+            index(view, collected.size());
+            collected.add(view);
+            if (view instanceof AdapterView) {
+              adapters.add(view);
+            }
+            return true;
+          }
+        });
+    this.views = collected.toArray(new View[collected.size()]);
+    this.allViews = Collections.unmodifiableList(Arrays.asList(views));
+    this.adapterViews = Collections.unmodifiableList(adapters);
+  }
+
+  private void index(View view, int position) {
+    int id = view.getId();
+    if (id != View.NO_ID) {
+      Positions byId = positionsById.get(id);
+      if (byId == null) {
+        byId = new Positions();
+        positionsById.put(id, byId);
+      }
+      byId.add(position);
+    }
+
+    Class<?> clazz = view.getClass();
+    Positions byClass = positionsByClass.get(clazz);
+    if (byClass == null) {
+      byClass = new Positions();
+      positionsByClass.put(clazz, byClass);
+    }
+    byClass.add(position);
+
+    if (view instanceof TextView) {
+      TextView textView = (TextView) view;
+      if (textView.getTransformationMethod() != null) {
+        // The displayed text may differ from getText(), leave it to the matcher to decide.
+        transformedTextPositions.add(position);
+      } else {
+        String text = textView.getText().toString();
+        Positions byText = positionsByText.get(text);
+        if (byText == null) {
+          byText = new Positions();
+          positionsByText.put(text, byText);
+        }
+        byText.add(position);
+      }
+    }
+  }
+
+  /** Returns the root view this snapshot was captured from. */
+  View getRoot() {
+    return root;
+  }
+
+  /** Returns true if this snapshot has been handed out by {@link #obtain} more than once. */
+  boolean isReused() {
+    return reused;
+  }
+
+  /** Returns the number of views in this snapshot. */
+  int size() {
+    return views.length;
+  }
+
+  /** Returns the {@link AdapterView AdapterViews} of this snapshot in breadth-first order. */
+  List<View> getAdapterViews() {
+    return adapterViews;
+  }
+
+  @Override
+  public List<View> allViews() {
+    return allViews;
+  }
+
+  @Override
+  public List<View> viewsWithId(int id) {
+    return toViews(positionsById.get(id));
+  }
+
+  @Override
+  public List<View> viewsWithText(String text) {
+    Positions byText = positionsByText.get(text);
+    if (byText == null) {
+      return toViews(transformedTextPositions);
+    }
+    return toViews(Positions.merge(byText, transformedTextPositions));
+  }
+
+  @Override
+  public List<View> viewsAssignableTo(Class<?> clazz) {
+    List<View> result = assignableCache.get(clazz);
+    if (result == null) {
+      Positions positions = new Positions();
+      for (Map.Entry<Class<?>, Positions> entry : positionsByClass.entrySet()) {
+        if (clazz.isAssignableFrom(entry.getKey())) {
+          positions = Positions.merge(positions, entry.getValue());
+        }
+      }
+      result = toViews(positions);
+      assignableCache.put(clazz, result);
+    }
+    return result;
+  }
+
+  private List<View> toViews(Positions positions) {
+    if (positions == null || positions.size == 0) {
+      return Collections.<View>emptyList();
+    }
+    View[] result = new View[positions.size];
+    for (int i = 0; i < positions.size; i++) {
+      result[i] = views[positions.values[i]];
+    }
+    return Collections.unmodifiableList(Arrays.asList(result));
+  }
+
+  /** An ascending list of breadth-first positions. */
+  private static final class Positions {
+    private int[] values = new int[4];
+    private int size;
+
+    void add(int position) {
+      if (size == values.length) {
+        values = Arrays.copyOf(values, size * 2);
+      }
+      values[size++] = position;
+    }
+
+    static Positions merge(Positions first, Positions second) {
+      Positions merged = new Positions();
+      merged.values = new int[Math.max(1, first.size + second.size)];
+      int i = 0;
+      int j = 0;
+      while (i < first.size || j < second.size) {
+        if (j == second.size || (i < first.size && first.values[i] < second.values[j])) {
+          merged.values[merged.size++] = first.values[i++];
+        } else {
+          merged.values[merged.size++] = second.values[j++];
+        }
+      }
+      return merged;
+    }
+  }
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright (C) 2021 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.test.espresso.base;
+
+import android.os.Bundle;
+import java.io.Serializable;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Aggregated statistics of the view lookups performed by {@link ViewFinderImpl}.
+ *
+ * <p>Every lookup records the number of views visited, the number of times the view matcher was
+ * evaluated, the time spent picking the root view and the time spent searching the hierarchy of
+ * that root. The figures are accumulated until {@link #drain()} is called, which {@link
+ * ViewLookupStatsListener} does once per test.
+ *
+ * <p>This is not part of the public API.
+ *
+ * @hide
+ */
+public final class ViewLookupStats {
+
+  static final String KEY_PREFIX = "espresso_view_lookup_";
+  static final String KEY_LOOKUPS = KEY_PREFIX + "count";
+  static final String KEY_NODES_VISITED = KEY_PREFIX + "nodes_visited";
+  static final String KEY_MAX_NODES_VISITED = KEY_PREFIX + "max_nodes_visited";
+  static final String KEY_MATCHER_EVALUATIONS = KEY_PREFIX + "matcher_evaluations";
+  static final String KEY_LOOKUP_MS = KEY_PREFIX + "lookup_ms";
+  static final String KEY_MAX_LOOKUP_MS = KEY_PREFIX + "max_lookup_ms";
+  static final String KEY_ROOT_PICK_MS = KEY_PREFIX + "root_pick_ms";
+
+  private static final ViewLookupStats GLOBAL = new ViewLookupStats();
+
+  private int lookups;
+  private long nodesVisited;
+  private int maxNodesVisited;
+  private long matcherEvaluations;
+  private long lookupNanos;
+  private long maxLookupNanos;
+  private long rootPickNanos;
+
+  ViewLookupStats() {}
+
+  /** Returns the statistics shared by all view lookups in this process. */
+  public static ViewLookupStats global() {
+    return GLOBAL;
+  }
+
+  synchronized void record(
+      int nodesVisited, int matcherEvaluations, long lookupNanos, long rootPickNanos) {
+    this.lookups++;
+    this.nodesVisited += nodesVisited;
+    this.maxNodesVisited = Math.max(this.maxNodesVisited, nodesVisited);
+    this.matcherEvaluations += matcherEvaluations;
+    this.lookupNanos += lookupNanos;
+    this.maxLookupNanos = Math.max(this.maxLookupNanos, lookupNanos);
+    this.rootPickNanos += rootPickNanos;
+  }
+
+  /** Returns a copy of the statistics recorded so far and resets them. */
+  public synchronized ViewLookupStats drain() {
+    ViewLookupStats copy = new ViewLookupStats();
+    copy.lookups = lookups;
+    copy.nodesVisited = nodesVisited;
+    copy.maxNodesVisited = maxNodesVisited;
+    copy.matcherEvaluations = matcherEvaluations;
+    copy.lookupNanos = lookupNanos;
+    copy.maxLookupNanos = maxLookupNanos;
+    copy.rootPickNanos = rootPickNanos;
+
+    lookups = 0;
+    nodesVisited = 0;
+    maxNodesVisited = 0;
+    matcherEvaluations = 0;
+    lookupNanos = 0;
+    maxLookupNanos = 0;
+    rootPickNanos = 0;
+    return copy;
+  }
+
+  public synchronized int getLookupCount() {
+    return lookups;
+  }
+
+  public synchronized long getNodesVisited() {
+    return nodesVisited;
+  }
+
+  public synchronized int getMaxNodesVisited() {
+    return maxNodesVisited;
+  }
+
+  public synchronized long getMatcherEvaluations() {
+    return matcherEvaluations;
+  }
+
+  public synchronized long getLookupNanos() {
+    return lookupNanos;
+  }
+
+  public synchronized long getMaxLookupNanos() {
+    return maxLookupNanos;
+  }
+
+  public synchronized long getRootPickNanos() {
+    return rootPickNanos;
+  }
+
+  /** Returns the statistics as metric name to value pairs, in a stable order. */
+  public synchronized Map<String, Serializable> toMetrics() {
+    Map<String, Serializable> metrics = new LinkedHashMap<>();
+    metrics.put(KEY_LOOKUPS, lookups);
+    metrics.put(KEY_NODES_VISITED, nodesVisited);
+    metrics.put(KEY_MAX_NODES_VISITED, maxNodesVisited);
+    metrics.put(KEY_MATCHER_EVALUATIONS, matcherEvaluations);
+    metrics.put(KEY_LOOKUP_MS, toMillis(lookupNanos));
+    metrics.put(KEY_MAX_LOOKUP_MS, toMillis(maxLookupNanos));
+    metrics.put(KEY_ROOT_PICK_MS, toMillis(rootPickNanos));
+    return metrics;
+  }
+
+  /** Adds the statistics to the given bundle, see {@link #toMetrics()}. */
+  public void writeTo(Bundle bundle) {
+    for (Map.Entry<String, Serializable> metric : toMetrics().entrySet()) {
+      bundle.putString(metric.getKey(), String.valueOf(metric.getValue()));
+    }
+  }
+
+  private static double toMillis(long nanos) {
+    return nanos / 1e6;
+  }
+
+  @Override
+  public synchronized String toString() {
+    return "ViewLookupStats" + toMetrics();
+  }
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright (C) 2021 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.test.espresso.base;
+
+import static androidx.test.internal.runner.listener.InstrumentationResultPrinter.REPORT_KEY_NAME_CLASS;
+import static androidx.test.internal.runner.listener.InstrumentationResultPrinter.REPORT_KEY_NAME_TEST;
+
+import android.os.Bundle;
+import androidx.test.internal.platform.util.TestOutputEmitter;
+import androidx.test.internal.runner.listener.InstrumentationRunListener;
+import org.junit.runner.Description;
+
+/**
+ * A <a href="http://junit.org/javadoc/latest/org/junit/runner/notification/RunListener.html"><code>
+ * RunListener</code></a> that reports the Espresso view lookup statistics of every test.
+ *
+ * <p>After each test that performed at least one view lookup, the {@link ViewLookupStats} of that
+ * test are added to the test output properties. They are also sent as an instrumentation status
+ * with code {@link #REPORT_VALUE_VIEW_LOOKUP_STATS}, alongside the class and method name of the
+ * test, but only if {@code -e newRunListenerMode true} is passed to the instrumentation as well. In
+ * the default order of listeners, the end of the test is already reported when this listener runs,
+ * so the status would be attributed to the next test.
+ *
+ * <p>Enable it by passing {@code -e listener androidx.test.espresso.base.ViewLookupStatsListener}
+ * to the instrumentation.
+ */
+public class ViewLookupStatsListener extends InstrumentationRunListener {
+
+  /**
+   * Status code of the view lookup statistics. Matches the "in progress" code, which
+   * instrumentation result parsers accept between the start and the end of a test. The keys of the
+   * statistics all start with {@code espresso_view_lookup_}.
+   */
+  public static final int REPORT_VALUE_VIEW_LOOKUP_STATS = 2;
+
+  @Override
+  public void testStarted(Description description) throws Exception {
+    // Discard the lookups of anything that ran in between tests.
+    ViewLookupStats.global().drain();
+  }
+
+  @Override
+  public void testFinished(Description description) throws Exception {
+    ViewLookupStats stats = ViewLookupStats.global().drain();
+    if (stats.getLookupCount() == 0) {
+      return;
+    }
+    Bundle status = new Bundle();
+    status.putString(REPORT_KEY_NAME_CLASS, description.getClassName());
+    status.putString(REPORT_KEY_NAME_TEST, description.getMethodName());
+    stats.writeTo(status);
+    TestFinishedStatus.send(this, REPORT_VALUE_VIEW_LOOKUP_STATS, status);
+    TestOutputEmitter.addOutputProperties(stats.toMetrics());
+  }
+}
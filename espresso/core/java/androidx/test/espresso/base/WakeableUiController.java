@@ -0,0 +1,44 @@
+/*
+ * Copyright (C) 2021 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.test.espresso.base;
+
+import androidx.test.espresso.UiController;
+
+/**
+ * Similar to {@link UiController} but with a bounded wait that can be ended early. For instance,
+ * {@link RootViewPicker} uses it to stop waiting as soon as a window or an activity it waits for
+ * shows up, rather than after a fixed delay.
+ *
+ * <p>This interface used for Espresso internals and shouldn't be called by external users.
+ */
+public interface WakeableUiController extends UiController {
+
+  /**
+   * Loops the main thread until {@link #wakeUp()} is called or the given delay has passed,
+   * whichever comes first, and then until the application is idle.
+   *
+   * @param millisDelay the maximum time to loop the main thread for before looping it until idle.
+   */
+  void loopMainThreadForAtMost(long millisDelay);
+
+  /**
+   * Ends the current {@link #loopMainThreadForAtMost(long)} wait. Does nothing if there is none.
+   *
+   * <p>Must be called on the main thread, typically from a listener invoked while looping it.
+   */
+  void wakeUp();
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright (C) 2021 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.test.espresso.matcher;
+
+import android.util.Log;
+import androidx.annotation.Nullable;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+import org.hamcrest.Matcher;
+import org.hamcrest.core.AllOf;
+import org.hamcrest.core.Is;
+
+/**
+ * Reads the components of hamcrest's core composite matchers, which do not expose them.
+ *
+ * <p>Every method returns null when the running hamcrest version does not have the expected
+ * structure, in which case callers must treat the matcher as opaque.
+ */
+final class HamcrestIntrospection {
+  private static final String TAG = "HamcrestIntrospection";
+
+  private static final Field ALL_OF_MATCHERS = getDeclaredFieldOrNull(AllOf.class, "matchers");
+  private static final Field IS_MATCHER = getDeclaredFieldOrNull(Is.class, "matcher");
+
+  private HamcrestIntrospection() {}
+
+  /** Returns the matchers combined by the given {@link AllOf}, in declaration order. */
+  @Nullable
+  static List<Matcher<?>> allOfComponents(AllOf<?> allOf) {
+    Object matchers = readField(ALL_OF_MATCHERS, allOf);
+    if (!(matchers instanceof Iterable)) {
+      return null;
+    }
+    List<Matcher<?>> components = new ArrayList<>();
+    for (Object component : (Iterable<?>) matchers) {
+      if (!(component instanceof Matcher)) {
+        return null;
+      }
+      components.add((Matcher<?>) component);
+    }
+    return components;
+  }
+
+  /** Returns the matcher decorated by the given {@link Is}. */
+  @Nullable
+  static Matcher<?> isDelegate(Is<?> is) {
+    Object delegate = readField(IS_MATCHER, is);
+    return delegate instanceof Matcher ? (Matcher<?>) delegate : null;
+  }
+
+  @Nullable
+  private static Object readField(@Nullable Field field, Object instance) {
+    if (field == null) {
+      return null;
+    }
+    try {
+      return field.get(instance);
+    } catch (IllegalAccessException e) {
+      Log.w(TAG, "Unable to read " + field, e);
+      return null;
+    }
+  }
+
+  @Nullable
+  private static Field getDeclaredFieldOrNull(Class<?> clazz, String name) {
+    try {
+      Field field = clazz.getDeclaredField(name);
+      field.setAccessible(true);
+      return field;
+    } catch (NoSuchFieldException | SecurityException e) {
+      Log.i(TAG, "Cannot introspect " + clazz.getName() + "." + name);
+      return null;
+    }
+  }
+}
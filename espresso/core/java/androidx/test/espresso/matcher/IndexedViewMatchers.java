@@ -0,0 +1,72 @@
+/*
+ * Copyright (C) 2021 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.test.espresso.matcher;
+
+import android.view.View;
+import androidx.annotation.Nullable;
+import androidx.test.espresso.util.IndexedViewQuery;
+import androidx.test.espresso.util.ViewHierarchyIndex;
+import java.util.List;
+import org.hamcrest.Matcher;
+import org.hamcrest.core.AllOf;
+import org.hamcrest.core.Is;
+
+/**
+ * Resolves the candidate views of a view matcher against a {@link ViewHierarchyIndex}.
+ *
+ * <p>Matchers created by {@link ViewMatchers#withId(int)}, {@link ViewMatchers#withText(String)}
+ * and {@link ViewMatchers#isAssignableFrom(Class)} are answered from the index directly. {@link
+ * AllOf} and {@link Is} compositions of these use the smallest candidate set of their components.
+ *
+ * <p>This is not part of the public API.
+ *
+ * @hide
+ */
+public final class IndexedViewMatchers {
+
+  private IndexedViewMatchers() {}
+
+  /**
+   * Returns a superset of the views in the index that may satisfy the given matcher, or {@code
+   * null} if the matcher cannot make use of the index.
+   */
+  @Nullable
+  public static List<View> queryIndex(Matcher<?> matcher, ViewHierarchyIndex index) {
+    if (matcher instanceof IndexedViewQuery) {
+      return ((IndexedViewQuery) matcher).queryIndex(index);
+    }
+    if (matcher instanceof Is) {
+      Matcher<?> delegate = HamcrestIntrospection.isDelegate((Is<?>) matcher);
+      return delegate == null ? null : queryIndex(delegate, index);
+    }
+    if (matcher instanceof AllOf) {
+      List<Matcher<?>> components = HamcrestIntrospection.allOfComponents((AllOf<?>) matcher);
+      if (components == null) {
+        return null;
+      }
+      List<View> narrowest = null;
+      for (Matcher<?> component : components) {
+        List<View> candidates = queryIndex(component, index);
+        if (candidates != null && (narrowest == null || candidates.size() < narrowest.size())) {
+          narrowest = candidates;
+        }
+      }
+      return narrowest;
+    }
+    return null;
+  }
+}
@@ -0,0 +1,377 @@
+/*
+ * Copyright (C) 2021 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.test.espresso.matcher;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import android.view.View;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import org.hamcrest.BaseMatcher;
+import org.hamcrest.Description;
+import org.hamcrest.Matcher;
+import org.hamcrest.core.AllOf;
+import org.hamcrest.core.Is;
+
+/**
+ * Reorders the components of {@link AllOf} view matchers so that cheap, selective matchers reject
+ * views before expensive ones are evaluated.
+ *
+ * <p>Matchers from {@link ViewMatchers} are classified by the work they do per view. Reordering is
+ * only done where it cannot change the outcome of a match: matchers of {@link ViewMatchers} check
+ * the type of the view themselves and have no side effects that affect other matchers, so they may
+ * be evaluated earlier than declared. Any other matcher may depend on the matchers declared before
+ * it (for example by casting the view), so it is always evaluated after all of them.
+ *
+ * <p>Planned matchers describe themselves, and describe mismatches, exactly like the original
+ * matcher.
+ *
+ * <p>This is not part of the public API.
+ *
+ * @hide
+ */
+public final class ViewMatcherPlanner {
+
+  /** The work done by a matcher for each view it is evaluated against, cheapest first. */
+  @VisibleForTesting
+  enum Cost {
+    /** Reads a field or a flag of the view. */
+    FIELD_READ,
+    /** Compares strings or resolves resources. */
+    STRING_COMPARE,
+    /** Computes the geometry of the view on screen. */
+    GEOMETRY,
+    /** Unknown matchers, assumed to be cheaper than walking the hierarchy. */
+    UNKNOWN,
+    /** Evaluates another matcher against the ancestors, siblings or descendants of the view. */
+    HIERARCHY_WALK
+  }
+
+  private ViewMatcherPlanner() {}
+
+  /** Returns a matcher equivalent to the given one which evaluates cheap components first. */
+  public static Matcher<View> plan(Matcher<View> matcher) {
+    return plan(matcher, null);
+  }
+
+  /**
+   * Returns a matcher equivalent to the given one which evaluates cheap components first, and
+   * records the number of evaluations and the time spent in each component into the profile.
+   */
+  @SuppressWarnings("unchecked") // planned components are only ever evaluated against views
+  public static Matcher<View> plan(Matcher<View> matcher, @Nullable EvaluationProfile profile) {
+    checkNotNull(matcher);
+    Matcher<?> planned = planComponent(matcher, profile);
+    return planned == matcher ? matcher : new PlannedMatcher(matcher, (Matcher<Object>) planned);
+  }
+
+  private static Matcher<?> planComponent(Matcher<?> matcher, @Nullable EvaluationProfile profile) {
+    List<Matcher<?>> components =
+        matcher instanceof AllOf ? HamcrestIntrospection.allOfComponents((AllOf<?>) matcher) : null;
+    if (components == null) {
+      return profile == null ? matcher : new ProfiledMatcher(matcher, profile.add(matcher));
+    }
+
+    int size = components.size();
+    List<Matcher<?>> planned = new ArrayList<>(size);
+    Cost[] costs = new Cost[size];
+    boolean[] known = new boolean[size];
+    for (int i = 0; i < size; i++) {
+      Matcher<?> component = components.get(i);
+      costs[i] = costOf(component);
+      known[i] = isKnown(component);
+      planned.add(planComponent(component, profile));
+    }
+
+    // Repeatedly pick the cheapest matcher that may be evaluated next. A known matcher can always
+    // be evaluated, an unknown matcher only once every matcher declared before it has been.
+    List<Matcher<?>> ordered = new ArrayList<>(size);
+    boolean[] scheduled = new boolean[size];
+    int firstUnscheduled = 0;
+    while (ordered.size() < size) {
+      int next = -1;
+      for (int i = firstUnscheduled; i < size; i++) {
+        if (scheduled[i] || (!known[i] && i != firstUnscheduled)) {
+          continue;
+        }
+        if (next == -1 || costs[i].compareTo(costs[next]) < 0) {
+          next = i;
+        }
+      }
+      scheduled[next] = true;
+      ordered.add(planned.get(next));
+      while (firstUnscheduled < size && scheduled[firstUnscheduled]) {
+        firstUnscheduled++;
+      }
+    }
+    return new OrderedAllOf(matcher, ordered);
+  }
+
+  @VisibleForTesting
+  static Cost costOf(Matcher<?> matcher) {
+    if (matcher instanceof Is) {
+      Matcher<?> delegate = HamcrestIntrospection.isDelegate((Is<?>) matcher);
+      return delegate == null ? Cost.UNKNOWN : costOf(delegate);
+    }
+    if (matcher instanceof AllOf) {
+      List<Matcher<?>> components = HamcrestIntrospection.allOfComponents((AllOf<?>) matcher);
+      if (components == null) {
+        return Cost.UNKNOWN;
+      }
+      Cost max = Cost.FIELD_READ;
+      for (Matcher<?> component : components) {
+        Cost cost = costOf(component);
+        if (cost.compareTo(max) > 0) {
+          max = cost;
+        }
+      }
+      return max;
+    }
+    if (matcher instanceof ViewMatchers.WithIdMatcher
+        || matcher instanceof ViewMatchers.IsAssignableFromMatcher
+        || matcher instanceof ViewMatchers.WithTagKeyMatcher
+        || matcher instanceof ViewMatchers.WithTagValueMatcher
+        || matcher instanceof ViewMatchers.IsEnabledMatcher
+        || matcher instanceof ViewMatchers.IsFocusableMatcher
+        || matcher instanceof ViewMatchers.IsFocusedMatcher
+        || matcher instanceof ViewMatchers.HasFocusMatcher
+        || matcher instanceof ViewMatchers.IsSelectedMatcher
+        || matcher instanceof ViewMatchers.IsClickableMatcher
+        || matcher instanceof ViewMatchers.WithCheckBoxStateMatcher
+        || matcher instanceof ViewMatchers.WithEffectiveVisibilityMatcher
+        || matcher instanceof ViewMatchers.WithAlphaMatcher
+        || matcher instanceof ViewMatchers.HasChildCountMatcher
+        || matcher instanceof ViewMatchers.HasMinimumChildCountMatcher
+        || matcher instanceof ViewMatchers.IsRootMatcher
+        || matcher instanceof ViewMatchers.WithParentIndexMatcher
+        || matcher instanceof ViewMatchers.WithInputTypeMatcher
+        || matcher instanceof ViewMatchers.IsJavascriptEnabledMatcher) {
+      return Cost.FIELD_READ;
+    }
+    if (matcher instanceof ViewMatchers.WithTextMatcher
+        || matcher instanceof ViewMatchers.WithClassNameMatcher
+        || matcher instanceof ViewMatchers.WithResourceNameMatcher
+        || matcher instanceof ViewMatchers.WithContentDescriptionFromIdMatcher
+        || matcher instanceof ViewMatchers.WithContentDescriptionMatcher
+        || matcher instanceof ViewMatchers.WithContentDescriptionTextMatcher
+        || matcher instanceof ViewMatchers.HasContentDescriptionMatcher
+        || matcher instanceof ViewMatchers.WithCharSequenceMatcher
+        || matcher instanceof ViewMatchers.WithHintMatcher
+        || matcher instanceof ViewMatchers.HasErrorTextMatcher
+        || matcher instanceof ViewMatchers.HasLinksMatcher
+        || matcher instanceof ViewMatchers.WithSpinnerTextIdMatcher
+        || matcher instanceof ViewMatchers.WithSpinnerTextMatcher
+        || matcher instanceof ViewMatchers.SupportsInputMethodsMatcher
+        || matcher instanceof ViewMatchers.HasImeActionMatcher) {
+      return Cost.STRING_COMPARE;
+    }
+    if (matcher instanceof ViewMatchers.IsDisplayedMatcher
+        || matcher instanceof ViewMatchers.IsDisplayingAtLeastMatcher) {
+      return Cost.GEOMETRY;
+    }
+    if (matcher instanceof ViewMatchers.HasDescendantMatcher
+        || matcher instanceof ViewMatchers.HasSiblingMatcher
+        || matcher instanceof ViewMatchers.IsDescendantOfAMatcher
+        || matcher instanceof ViewMatchers.WithParentMatcher
+        || matcher instanceof ViewMatchers.WithChildMatcher) {
+      return Cost.HIERARCHY_WALK;
+    }
+    return Cost.UNKNOWN;
+  }
+
+  /** Returns true if the matcher can safely be evaluated before the matchers declared before it. */
+  private static boolean isKnown(Matcher<?> matcher) {
+    if (matcher instanceof Is) {
+      Matcher<?> delegate = HamcrestIntrospection.isDelegate((Is<?>) matcher);
+      return delegate != null && isKnown(delegate);
+    }
+    if (matcher instanceof AllOf) {
+      List<Matcher<?>> components = HamcrestIntrospection.allOfComponents((AllOf<?>) matcher);
+      if (components == null) {
+        return false;
+      }
+      for (Matcher<?> component : components) {
+        if (!isKnown(component)) {
+          return false;
+        }
+      }
+      return true;
+    }
+    return costOf(matcher) != Cost.UNKNOWN;
+  }
+
+  /** Evaluates the planned matcher, but describes itself as the original one. */
+  private static final class PlannedMatcher extends BaseMatcher<View> {
+    private final Matcher<View> original;
+    private final Matcher<Object> planned;
+
+    private PlannedMatcher(Matcher<View> original, Matcher<Object> planned) {
+      this.original = original;
+      this.planned = planned;
+    }
+
+    @Override
+    public boolean matches(Object item) {
+      return planned.matches(item);
+    }
+
+    @Override
+    public void describeTo(Description description) {
+      original.describeTo(description);
+    }
+
+    @Override
+    public void describeMismatch(Object item, Description description) {
+      original.describeMismatch(item, description);
+    }
+  }
+
+  /** Evaluates components in the planned order, stopping at the first one that does not match. */
+  private static final class OrderedAllOf extends BaseMatcher<Object> {
+    private final Matcher<?> original;
+    private final Matcher<?>[] components;
+
+    private OrderedAllOf(Matcher<?> original, List<Matcher<?>> components) {
+      this.original = original;
+      this.components = components.toArray(new Matcher<?>[0]);
+    }
+
+    @Override
+    public boolean matches(Object item) {
+      for (Matcher<?> component : components) {
+        if (!component.matches(item)) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    @Override
+    public void describeTo(Description description) {
+      original.describeTo(description);
+    }
+
+    @Override
+    public void describeMismatch(Object item, Description description) {
+      original.describeMismatch(item, description);
+    }
+  }
+
+  /** Counts the evaluations of a matcher into an {@link EvaluationProfile.Entry}. */
+  private static final class ProfiledMatcher extends BaseMatcher<Object> {
+    private final Matcher<?> delegate;
+    private final EvaluationProfile.Entry entry;
+
+    private ProfiledMatcher(Matcher<?> delegate, EvaluationProfile.Entry entry) {
+      this.delegate = delegate;
+      this.entry = entry;
+    }
+
+    @Override
+    public boolean matches(Object item) {
+      long start = System.nanoTime();
+      boolean matches = delegate.matches(item);
+      entry.record(matches, System.nanoTime() - start);
+      return matches;
+    }
+
+    @Override
+    public void describeTo(Description description) {
+      delegate.describeTo(description);
+    }
+
+    @Override
+    public void describeMismatch(Object item, Description description) {
+      delegate.describeMismatch(item, description);
+    }
+  }
+
+  /**
+   * Per matcher evaluation counts and time, recorded by matchers planned with {@link
+   * #plan(Matcher, EvaluationProfile)}.
+   *
+   * <p>Not thread safe, matchers are only evaluated on the main thread.
+   */
+  public static final class EvaluationProfile {
+    private final List<Entry> entries = new ArrayList<>();
+
+    private Entry add(Matcher<?> matcher) {
+      Entry entry = new Entry(matcher, costOf(matcher));
+      entries.add(entry);
+      return entry;
+    }
+
+    /** Returns the total number of matcher evaluations recorded. */
+    public int getEvaluationCount() {
+      int count = 0;
+      for (Entry entry : entries) {
+        count += entry.evaluations;
+      }
+      return count;
+    }
+
+    /** Returns the total time spent in matchers, in nanoseconds. */
+    public long getEvaluationNanos() {
+      long nanos = 0;
+      for (Entry entry : entries) {
+        nanos += entry.nanos;
+      }
+      return nanos;
+    }
+
+    /** Returns one line per matcher with its cost, evaluations, matches and time spent. */
+    public String report() {
+      StringBuilder report = new StringBuilder();
+      for (Entry entry : entries) {
+        report.append(
+            String.format(
+                Locale.ROOT,
+                "%s [%s]: %d evaluations, %d matches, %.3f ms\n",
+                entry.matcher,
+                entry.cost,
+                entry.evaluations,
+                entry.matches,
+                entry.nanos / 1e6));
+      }
+      return report.toString();
+    }
+
+    private static final class Entry {
+      private final Matcher<?> matcher;
+      private final Cost cost;
+      private int evaluations;
+      private int matches;
+      private long nanos;
+
+      private Entry(Matcher<?> matcher, Cost cost) {
+        this.matcher = matcher;
+        this.cost = cost;
+      }
+
+      private void record(boolean matched, long elapsedNanos) {
+        evaluations++;
+        if (matched) {
+          matches++;
+        }
+        nanos += elapsedNanos;
+      }
+    }
+  }
+}
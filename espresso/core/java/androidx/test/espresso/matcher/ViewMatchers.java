@@ -48,9 +48,12 @@ import androidx.test.annotation.Beta;
 import androidx.test.espresso.remote.annotation.RemoteMsgConstructor;
 import androidx.test.espresso.remote.annotation.RemoteMsgField;
 import androidx.test.espresso.util.HumanReadables;
+import androidx.test.espresso.util.IndexedViewQuery;
+import androidx.test.espresso.util.ViewHierarchyIndex;
 import com.google.common.base.Predicate;
 import com.google.common.collect.Iterables;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Locale;
 import java.util.regex.Pattern;
 import junit.framework.AssertionFailedError;
@@ -237,7 +240,7 @@ public final class ViewMatchers {
    * @param id the resource id.
    */
   public static Matcher<View> withId(final int id) {
-    return withId(is(id));
+    return new WithIdMatcher(is(id), id);
   }
 
   /**
@@ -307,7 +310,7 @@ public final class ViewMatchers {
    * @param text {@link String} with the text to match
    */
   public static Matcher<View> withText(String text) {
-    return withText(is(text));
+    return new WithTextMatcher(is(text), text);
   }
 
   /**
@@ -687,17 +690,31 @@ public final class ViewMatchers {
     return new WithParentIndexMatcher(index);
   }
 
-  static final class WithIdMatcher extends TypeSafeDiagnosingMatcher<View> {
+  static final class WithIdMatcher extends TypeSafeDiagnosingMatcher<View>
+      implements IndexedViewQuery {
 
     @VisibleForTesting
     @RemoteMsgField(order = 0)
     Matcher<Integer> viewIdMatcher;
 
+    // Only known when created from a literal id, it is not sent to remote processes.
+    @Nullable private final Integer expectedId;
+
     private Resources resources;
 
     @RemoteMsgConstructor
     private WithIdMatcher(Matcher<Integer> integerMatcher) {
+      this(integerMatcher, null);
+    }
+
+    private WithIdMatcher(Matcher<Integer> integerMatcher, @Nullable Integer expectedId) {
       this.viewIdMatcher = integerMatcher;
+      this.expectedId = expectedId;
+    }
+
+    @Override
+    public List<View> queryIndex(ViewHierarchyIndex index) {
+      return expectedId == null ? null : index.viewsWithId(expectedId);
     }
 
     @SuppressWarnings("JdkObsolete") // java.util.regex.Matcher requires the use of StringBuffer
@@ -743,15 +760,29 @@ public final class ViewMatchers {
     }
   }
 
-  static final class WithTextMatcher extends BoundedDiagnosingMatcher<View, TextView> {
+  static final class WithTextMatcher extends BoundedDiagnosingMatcher<View, TextView>
+      implements IndexedViewQuery {
 
     @RemoteMsgField(order = 0)
     private final Matcher<String> stringMatcher;
 
+    // Only known when created from a literal string, it is not sent to remote processes.
+    @Nullable private final String expectedText;
+
     @RemoteMsgConstructor
     private WithTextMatcher(Matcher<String> stringMatcher) {
+      this(stringMatcher, null);
+    }
+
+    private WithTextMatcher(Matcher<String> stringMatcher, @Nullable String expectedText) {
       super(TextView.class);
       this.stringMatcher = stringMatcher;
+      this.expectedText = expectedText;
+    }
+
+    @Override
+    public List<View> queryIndex(ViewHierarchyIndex index) {
+      return expectedText == null ? null : index.viewsWithText(expectedText);
     }
 
     @Override
@@ -864,7 +895,8 @@ public final class ViewMatchers {
     }
   }
 
-  static final class IsAssignableFromMatcher extends TypeSafeDiagnosingMatcher<View> {
+  static final class IsAssignableFromMatcher extends TypeSafeDiagnosingMatcher<View>
+      implements IndexedViewQuery {
     @RemoteMsgField(order = 0)
     private final Class<?> clazz;
 
@@ -873,6 +905,11 @@ public final class ViewMatchers {
       this.clazz = checkNotNull(clazz);
     }
 
+    @Override
+    public List<View> queryIndex(ViewHierarchyIndex index) {
+      return index.viewsAssignableTo(clazz);
+    }
+
     @Override
     public void describeTo(Description description) {
       description.appendText("is assignable from class ").appendValue(clazz);
@@ -21,9 +21,11 @@ import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Preconditions.checkState;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.annotation.VisibleForTesting;
 import com.google.protobuf.Any;
 import com.google.protobuf.ByteString;
+import java.lang.reflect.Method;
 import java.util.Locale;
 
 /**
@@ -42,6 +44,7 @@ final class BuilderReflector {
 
   @VisibleForTesting final Object builderInstance;
   private final Class<?> builderType;
+  @Nullable private final RemoteMessageAccessors accessors;
 
   /**
    * Creates a new {@link BuilderReflector}.
@@ -51,7 +54,24 @@ final class BuilderReflector {
    *     Builder. It is used to create a new instance of the proto Builder.
    */
   BuilderReflector(@NonNull Class<?> builderType, @NonNull Class<?> protoType) {
+    this(builderType, protoType, null);
+  }
+
+  /**
+   * Creates a new {@link BuilderReflector} that invokes the Builder methods through the given
+   * accessors, when they hold a handle for the method.
+   *
+   * @param builderType the proto Builder type
+   * @param protoType the proto message type. This type must match the proto message type of the
+   *     Builder. It is used to create a new instance of the proto Builder.
+   * @param accessors the accessors resolved for the proto message type, or {@code null}
+   */
+  BuilderReflector(
+      @NonNull Class<?> builderType,
+      @NonNull Class<?> protoType,
+      @Nullable RemoteMessageAccessors accessors) {
     this.builderType = checkNotNull(builderType, "builderType cannot be null");
+    this.accessors = accessors;
     this.builderInstance = newBuilderInstance(checkNotNull(protoType, "protoType cannot be null"));
   }
 
@@ -67,7 +87,11 @@ final class BuilderReflector {
    */
   public BuilderReflector invokeAddAllAnyList(String methodSuffix, Object... methodParams) {
     return invokeMethod(
-        BUILDER_ADD_ALL_LIST_METHOD_FTD_NAME, methodSuffix, Iterable.class, methodParams);
+        accessors != null ? accessors.getAddAllSetter(methodSuffix) : null,
+        BUILDER_ADD_ALL_LIST_METHOD_FTD_NAME,
+        methodSuffix,
+        Iterable.class,
+        methodParams);
   }
 
   /**
@@ -81,7 +105,12 @@ final class BuilderReflector {
    * @return fluent BuilderReflector interface
    */
   public BuilderReflector invokeSetAnyValue(String methodSuffix, Object... methodParams) {
-    return invokeMethod(BUILDER_SET_VALUE_METHOD_FTD_NAME, methodSuffix, Any.class, methodParams);
+    return invokeMethod(
+        accessors != null ? accessors.getAnySetter(methodSuffix) : null,
+        BUILDER_SET_VALUE_METHOD_FTD_NAME,
+        methodSuffix,
+        Any.class,
+        methodParams);
   }
 
   /**
@@ -96,7 +125,11 @@ final class BuilderReflector {
    */
   public BuilderReflector invokeSetByteStringValue(String methodSuffix, Object... methodParams) {
     return invokeMethod(
-        BUILDER_SET_VALUE_METHOD_FTD_NAME, methodSuffix, ByteString.class, methodParams);
+        accessors != null ? accessors.getByteStringSetter(methodSuffix) : null,
+        BUILDER_SET_VALUE_METHOD_FTD_NAME,
+        methodSuffix,
+        ByteString.class,
+        methodParams);
   }
 
   /**
@@ -105,16 +138,28 @@ final class BuilderReflector {
    * @return a proto message of protoType
    */
   public Object invokeBuild() {
+    Method buildMethod = accessors != null ? accessors.getBuildMethod() : null;
+    if (buildMethod != null) {
+      return RemoteMessageAccessors.invoke(buildMethod, builderInstance);
+    }
     return new MethodInvocation(builderType, builderInstance, BUILDER_BUILD_METHOD_NAME)
         .invokeMethod();
   }
 
   private BuilderReflector invokeMethod(
-      String methodNameTpl, String methodSuffix, Class<?> type, Object... args) {
+      @Nullable Method method,
+      String methodNameTpl,
+      String methodSuffix,
+      Class<?> type,
+      Object... args) {
     checkState(
         args != null && args.length > 0,
         "args set on builder %s, cannot be null or empty",
         builderType);
+    if (method != null) {
+      RemoteMessageAccessors.invoke(method, builderInstance, args);
+      return this;
+    }
     new MethodInvocation(
             builderType,
             builderInstance,
@@ -125,6 +170,10 @@ final class BuilderReflector {
   }
 
   private Object newBuilderInstance(Class<?> protoType) {
+    Method newBuilderMethod = accessors != null ? accessors.getNewBuilderMethod() : null;
+    if (newBuilderMethod != null) {
+      return RemoteMessageAccessors.invoke(newBuilderMethod, null);
+    }
     return new MethodInvocation(protoType, protoType, NEW_BUILDER_METHOD_NAME).invokeMethod();
   }
 }
@@ -58,16 +58,16 @@ import androidx.test.internal.runner.tracker.UsageTrackerRegistry;
 import androidx.test.internal.runner.tracker.UsageTrackerRegistry.AxtVersions;
 import androidx.test.internal.util.ParcelableIBinder;
 import com.google.common.base.Throwables;
-import java.util.HashMap;
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CountDownLatch;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.FutureTask;
 import java.util.concurrent.TimeUnit;
 import org.hamcrest.Matcher;
 
@@ -107,6 +107,9 @@ public final class EspressoRemote implements RemoteInteraction {
   @VisibleForTesting static final int MSG_HANDLE_ESPRESSO_RESPONSE = 4;
   @VisibleForTesting static final int MSG_HANDLE_EMPTY_REQUEST = 5;
 
+  /** How long an interaction waits for a remote Espresso instance to start */
+  private static final long REMOTE_INSTANCE_DISCOVERY_TIMEOUT_MS = TimeUnit.SECONDS.toMillis(33);
+
   /** Represents whether the current instance is running in a remote process or not */
   private static volatile boolean isRemoteProcess;
 
@@ -179,6 +182,15 @@ public final class EspressoRemote implements RemoteInteraction {
     return isRemoteProcess;
   }
 
+  /**
+   * Returns {@code true} until {@link #init()} is called, since no other Espresso instance can
+   * discover this one before it registers with {@link InstrumentationConnection}.
+   */
+  @Override
+  public synchronized boolean isLocalOnly() {
+    return null == incomingHandler;
+  }
+
   @Override
   public synchronized Callable<Void> createRemoteCheckCallable(
       final Matcher<Root> rootMatcher,
@@ -247,18 +259,9 @@ public final class EspressoRemote implements RemoteInteraction {
     return new Callable<Void>() {
       @Override
       public Void call() throws InterruptedException {
-        long[] waitTimes = {
-          10, 50, 100, 500, TimeUnit.SECONDS.toMillis(2), TimeUnit.SECONDS.toMillis(30)
-        };
-
-        for (long waitTime : waitTimes) {
-          Log.i(TAG, "No remote Espresso instance - waiting: " + waitTime + "ms for one to start");
-          Thread.sleep(waitTime);
-
-          if (hasRemoteEspressoInstances()) {
-            runnable.run();
-            return null;
-          }
+        if (hasRemoteEspressoInstances() || awaitRemoteEspressoInstances()) {
+          runnable.run();
+          return null;
         }
         throw new NoRemoteEspressoInstanceException("No remote Espresso instances at this time.");
       }
@@ -278,7 +281,7 @@ public final class EspressoRemote implements RemoteInteraction {
     try {
       ResponseHolder responseHolder =
           sendMessageSynchronously(MSG_HANDLE_ESPRESSO_REQUEST, data, iBinders);
-      reportResults(responseHolder);
+      responseHolder.reportResults();
     } catch (InterruptedException ignore) {
       // ignore, already logged a warning
     }
@@ -301,8 +304,7 @@ public final class EspressoRemote implements RemoteInteraction {
     logDebugWithProcess(
         TAG, String.format(Locale.ROOT, "Sending sync msg [%s] with uuid [%s]", what, uuid));
 
-    CountDownLatch latch = new CountDownLatch(1);
-    ResponseHolder responseHolder = new ResponseHolder(latch);
+    ResponseHolder responseHolder = new ResponseHolder();
 
     Message msg = incomingHandler.getEspressoMessage(MSG_FORWARD_TO_REMOTE_ESPRESSO);
     msg.arg1 = what;
@@ -320,7 +322,7 @@ public final class EspressoRemote implements RemoteInteraction {
     incomingHandler.associateResponse(uuid, responseHolder);
     incomingHandler.sendMessage(msg);
     try {
-      latch.await();
+      responseHolder.await();
       return responseHolder;
     } catch (InterruptedException ie) {
       Log.w(
@@ -352,6 +354,21 @@ public final class EspressoRemote implements RemoteInteraction {
     }
   }
 
+  /**
+   * Waits for a remote Espresso instance to register with {@link InstrumentationConnection}. Not
+   * synchronized, so that responses and other interactions are not held up while waiting.
+   */
+  private static boolean awaitRemoteEspressoInstances() throws InterruptedException {
+    Log.i(
+        TAG,
+        "No remote Espresso instance - waiting up to "
+            + REMOTE_INSTANCE_DISCOVERY_TIMEOUT_MS
+            + "ms for one to start");
+    // This instance is registered as well
+    return instrumentationConnection.awaitClientsForType(
+        TYPE, 2, REMOTE_INSTANCE_DISCOVERY_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+  }
+
   private synchronized boolean hasRemoteEspressoInstances() {
     Set<Messenger> clientsForType = instrumentationConnection.getClientsForType(TYPE);
     // This instance should be ignored from the check
@@ -378,10 +395,14 @@ public final class EspressoRemote implements RemoteInteraction {
     RemoteWebMatchers.init(remoteDescriptorRegistry);
   }
 
-  private static void reportResults(ResponseHolder responseHolder) {
-    byte[] protoByteArray = responseHolder.getData().getByteArray(BUNDLE_KEY_PROTO);
+  /**
+   * Returns the failure reported by the given response, or {@code null} if the interaction
+   * succeeded.
+   */
+  private static RuntimeException getFailure(Bundle data) {
+    byte[] protoByteArray = data.getByteArray(BUNDLE_KEY_PROTO);
     if (null == protoByteArray) {
-      throw new IllegalStateException("Espresso remote response doesn't contain a valid response");
+      return new IllegalStateException("Espresso remote response doesn't contain a valid response");
     }
 
     try {
@@ -390,38 +411,84 @@ public final class EspressoRemote implements RemoteInteraction {
 
       if (Status.Error == interactionResponse.getStatus()) {
         if (!interactionResponse.hasRemoteError()) {
-          throw new IllegalStateException(
+          return new IllegalStateException(
               "Interaction response reported Status.Error, but no"
                   + "error message was attached to interaction response: "
                   + interactionResponse);
         }
-        throw new RemoteEspressoException(interactionResponse.getRemoteError().getDescription());
+        return new RemoteEspressoException(interactionResponse.getRemoteError().getDescription());
       }
-
+      return null;
     } catch (RemoteProtocolException re) {
       Log.e(TAG, "Could not parse Interaction response", re);
-      throw new RemoteEspressoException("Could not parse Interaction response", re);
+      return new RemoteEspressoException("Could not parse Interaction response", re);
     }
   }
 
+  /**
+   * Collects the responses of all remote Espresso instances a request was sent to.
+   *
+   * <p>The request completes with the first successful response. Failures are only reported once
+   * every remote Espresso instance responded.
+   */
   private static class ResponseHolder {
-    private final CountDownLatch latch;
-    private Bundle data = null;
-
-    public ResponseHolder(CountDownLatch latch) {
-      this.latch = latch;
+    private final CountDownLatch latch = new CountDownLatch(1);
+    private final List<RuntimeException> failures = new ArrayList<>();
+    private boolean requestSent;
+    private int pendingResponses;
+    private boolean succeeded;
+
+    /** Records that the request was sent to the given number of remote Espresso instances. */
+    synchronized void onRequestSent(int recipients) {
+      requestSent = true;
+      pendingResponses += recipients;
+      if (pendingResponses <= 0) {
+        latch.countDown();
+      }
     }
 
-    public void setData(Bundle data) {
-      this.data = data;
+    synchronized void onResponse(Bundle data) {
+      if (latch.getCount() == 0) {
+        // Already completed, the response of a slower remote Espresso instance is not needed.
+        return;
+      }
+      pendingResponses--;
+      RuntimeException failure = getFailure(data);
+      if (null == failure) {
+        succeeded = true;
+        latch.countDown();
+        return;
+      }
+      failures.add(failure);
+      if (requestSent && pendingResponses <= 0) {
+        latch.countDown();
+      }
     }
 
-    public Bundle getData() {
-      return data;
+    void await() throws InterruptedException {
+      latch.await();
     }
 
-    public CountDownLatch getLatch() {
-      return latch;
+    /** Throws the failures of the remote Espresso instances, unless one of them succeeded. */
+    synchronized void reportResults() {
+      if (succeeded) {
+        return;
+      }
+      if (failures.isEmpty()) {
+        throw new NoRemoteEspressoInstanceException("No remote Espresso instances at this time.");
+      }
+      if (failures.size() == 1) {
+        throw failures.get(0);
+      }
+      StringBuilder description =
+          new StringBuilder()
+              .append("All ")
+              .append(failures.size())
+              .append(" remote Espresso instances failed:");
+      for (int i = 0; i < failures.size(); i++) {
+        description.append("\n\n").append(i + 1).append(") ").append(failures.get(i).getMessage());
+      }
+      throw new RemoteEspressoException(description.toString(), failures.get(0));
     }
   }
 
@@ -430,9 +497,10 @@ public final class EspressoRemote implements RemoteInteraction {
     /**
      * Map containing latch {@link UUID}s to aid with message synchronization Note: This map should
      * be only modified {@link #associateResponse(UUID, ResponseHolder)} or {@link
-     * #disassociateResponse(UUID)}
+     * #disassociateResponse(UUID)}. It is modified by the requesting thread and read by this
+     * handler, so that a response is handed over without a round trip through the handler.
      */
-    private final Map<UUID, ResponseHolder> responses = new HashMap<>();
+    private final Map<UUID, ResponseHolder> responses = new ConcurrentHashMap<>();
 
     /** Target we publish for clients to send messages to IncomingHandler. */
     Messenger messengerHandler = new Messenger(this);
@@ -465,7 +533,7 @@ public final class EspressoRemote implements RemoteInteraction {
           break;
         case MSG_FORWARD_TO_REMOTE_ESPRESSO:
           logDebugWithProcess(TAG, "handleMessage: MSG_FORWARD_TO_REMOTE_ESPRESSO");
-          sendMsgToRemoteEspressos(msg.arg1, msg.getData());
+          forwardToRemoteEspressos(msg.arg1, msg.getData());
           break;
         case MSG_HANDLE_ESPRESSO_REQUEST:
           logDebugWithProcess(TAG, "handleMessage: MSG_HANDLE_ESPRESSO_REQUEST");
@@ -478,7 +546,9 @@ public final class EspressoRemote implements RemoteInteraction {
         case MSG_HANDLE_EMPTY_REQUEST:
           logDebugWithProcess(TAG, "handleMessage: MSG_HANDLE_EMPTY_REQUEST");
           // Nothing to do just send a response back.
-          sendMsgToRemoteEspressos(MSG_HANDLE_ESPRESSO_RESPONSE, msg.getData());
+          Message response = getEspressoMessage(MSG_HANDLE_ESPRESSO_RESPONSE);
+          response.setData(msg.getData());
+          sendResponse(msg.replyTo, response);
           break;
         default:
           Log.w(TAG, "Unknown message code received: " + msg.what);
@@ -486,50 +556,12 @@ public final class EspressoRemote implements RemoteInteraction {
       }
     }
 
-    private void associateResponse(final UUID latchId, final ResponseHolder response) {
-      FutureTask<Void> associationTask =
-          new FutureTask<>(
-              new Callable<Void>() {
-                @Override
-                public Void call() {
-                  responses.put(latchId, response);
-                  return null;
-                }
-              });
-      post(associationTask);
-
-      try {
-        associationTask.get();
-      } catch (InterruptedException e) {
-        // Shouldn't happen, always waiting for finish
-        throw new IllegalStateException(e);
-      } catch (ExecutionException e) {
-        // Shouldn't happen, just adding (key,value) to a map
-        throw new IllegalStateException(e.getCause());
-      }
+    private void associateResponse(UUID latchId, ResponseHolder response) {
+      responses.put(latchId, response);
     }
 
-    private void disassociateResponse(final UUID latchId) {
-      FutureTask<Void> disassociationTask =
-          new FutureTask<>(
-              new Callable<Void>() {
-                @Override
-                public Void call() {
-                  responses.remove(latchId);
-                  return null;
-                }
-              });
-      post(disassociationTask);
-
-      try {
-        disassociationTask.get();
-      } catch (InterruptedException e) {
-        // Shouldn't happen, always waiting for finish
-        throw new IllegalStateException(e);
-      } catch (ExecutionException e) {
-        // Shouldn't happen, just adding (key,value) to a map
-        throw new IllegalStateException(e.getCause());
-      }
+    private void disassociateResponse(UUID latchId) {
+      responses.remove(latchId);
     }
 
     private void doDie() {
@@ -561,19 +593,34 @@ public final class EspressoRemote implements RemoteInteraction {
       return msg;
     }
 
+    /**
+     * Sends a request to all remote Espresso instances at once, and tells the {@link
+     * ResponseHolder} of the request how many responses to expect.
+     */
+    private void forwardToRemoteEspressos(int what, Bundle data) {
+      int recipients = sendMsgToRemoteEspressos(what, data);
+      UUID uuid = (UUID) data.getSerializable(BUNDLE_KEY_UUID);
+      ResponseHolder response = null == uuid ? null : responses.get(uuid);
+      if (response != null) {
+        response.onRequestSent(recipients);
+      }
+    }
+
     /**
      * Send request to remote Espresso instances (if any).
      *
      * @param what User-defined message code so that the recipient can identify what this message is
      *     about.
      * @param data A Bundle of arbitrary data associated with this message
+     * @return the number of remote Espresso instances the message was sent to
      */
-    private void sendMsgToRemoteEspressos(int what, Bundle data) {
+    private int sendMsgToRemoteEspressos(int what, Bundle data) {
       logDebugWithProcess(TAG, "sendMsgToRemoteEspressos called");
 
       Message msg = getEspressoMessage(what);
       msg.setData(data);
 
+      int recipients = 0;
       Set<Messenger> remoteClients = instrumentationConnection.getClientsForType(TYPE);
       for (Messenger remoteEspresso : remoteClients) {
         if (messengerHandler.equals(remoteEspresso)) {
@@ -581,7 +628,9 @@ public final class EspressoRemote implements RemoteInteraction {
           continue;
         }
         try {
-          remoteEspresso.send(msg);
+          // Each remote Espresso instance gets its own copy, a message can only be queued once.
+          remoteEspresso.send(Message.obtain(msg));
+          recipients++;
         } catch (RemoteException e) {
           // In this case the remote process was terminated or crashed before we could
           // even do anything with it; there is nothing we can do other than unregister the
@@ -590,6 +639,7 @@ public final class EspressoRemote implements RemoteInteraction {
           instrumentationConnection.unregisterClient(TYPE, remoteEspresso);
         }
       }
+      return recipients;
     }
 
     /**
@@ -616,7 +666,11 @@ public final class EspressoRemote implements RemoteInteraction {
       InteractionResponse interactionResponse = executeRequest(data);
       resultData.putByteArray(BUNDLE_KEY_PROTO, interactionResponse.toProto().toByteArray());
       msg.setData(resultData);
+      sendResponse(caller, msg);
+    }
 
+    /** Sends a response back to the Espresso instance that sent the request. */
+    private void sendResponse(Messenger caller, Message msg) {
       try {
         caller.send(msg);
       } catch (RemoteException e) {
@@ -678,16 +732,16 @@ public final class EspressoRemote implements RemoteInteraction {
     private void handleEspressoResponse(Bundle data) {
       UUID uuid = (UUID) data.getSerializable(BUNDLE_KEY_UUID);
       logDebugWithProcess(TAG, "handleEspressoResponse for id: %s", uuid);
-      ResponseHolder response = responses.get(uuid);
+      ResponseHolder response = null == uuid ? null : responses.get(uuid);
       if (null == response) {
-        // TODO(b/32968974) Decide whether logging is sufficient
-        throw new IllegalStateException("Received a response from an unknown message: " + uuid);
+        // Requests complete with the first successful response, so the responses of the other
+        // remote Espresso instances may arrive after the request is gone.
+        Log.i(TAG, "Ignoring a response to a completed or unknown request: " + uuid);
+        return;
       }
 
-      // set the response to be handled on the instrumentation thread
-      response.setData(data);
-      // notify
-      response.getLatch().countDown();
+      // notify the waiting instrumentation thread
+      response.onResponse(data);
     }
   } // close IncomingHandler
 
@@ -29,12 +29,14 @@ import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.Arrays;
 import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
 
 /** Reflectively invokes a method of a declared instance. */
 final class MethodInvocation {
   private static final String TAG = "MethodInvocation";
   private static final Cache<MethodKey, Method> methodCache =
       CacheBuilder.newBuilder().maximumSize(256 /* LRU eviction after max size exceeded */).build();
+  private static final AtomicLong lookupCount = new AtomicLong();
 
   private final Class<?> clazz;
   @Nullable private final Object instance;
@@ -75,6 +77,7 @@ final class MethodInvocation {
 
   private static Method getMethodInternal(MethodKey methodKey, boolean declaredMethod)
       throws NoSuchMethodException {
+    lookupCount.incrementAndGet();
     Method method = methodCache.getIfPresent(methodKey);
     if (null == method) {
       logDebug(
@@ -105,6 +108,12 @@ final class MethodInvocation {
     methodCache.invalidateAll();
   }
 
+  /** Returns the number of methods looked up so far, whether they were cached or not. */
+  @VisibleForTesting
+  static long getLookupCount() {
+    return lookupCount.get();
+  }
+
   /**
    * Invokes a method declared in the target class
    *
@@ -34,6 +34,11 @@ public class NoopRemoteInteraction implements RemoteInteraction {
     return false;
   }
 
+  @Override
+  public boolean isLocalOnly() {
+    return true;
+  }
+
   @Override
   public Callable<Void> createRemoteCheckCallable(
       Matcher<Root> rootMatcher,
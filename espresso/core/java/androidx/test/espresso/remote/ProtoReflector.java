@@ -18,9 +18,11 @@ package androidx.test.espresso.remote;
 
 import static androidx.test.espresso.remote.ProtoUtils.capitalizeFirstChar;
 
+import androidx.annotation.Nullable;
 import com.google.protobuf.Any;
 import com.google.protobuf.ByteString;
 import com.google.protobuf.MessageLite;
+import java.lang.reflect.Method;
 import java.util.List;
 import java.util.Locale;
 
@@ -32,6 +34,7 @@ final class ProtoReflector {
 
   private final Class<?> protoType;
   private final MessageLite proto;
+  @Nullable private final RemoteMessageAccessors accessors;
 
   /**
    * Creates a new {@link BuilderReflector}.
@@ -41,8 +44,23 @@ final class ProtoReflector {
    *     {@link #protoType}.
    */
   public ProtoReflector(Class<?> protoType, MessageLite proto) {
+    this(protoType, proto, null);
+  }
+
+  /**
+   * Creates a new {@link ProtoReflector} that invokes the proto message getters through the given
+   * accessors, when they hold a handle for the getter.
+   *
+   * @param protoType the proto message type
+   * @param proto instance of a proto message. The runtime class of this instance must match the
+   *     {@link #protoType}.
+   * @param accessors the accessors resolved for the proto message type, or {@code null}
+   */
+  ProtoReflector(
+      Class<?> protoType, MessageLite proto, @Nullable RemoteMessageAccessors accessors) {
     this.protoType = protoType;
     this.proto = proto;
+    this.accessors = accessors;
   }
 
   /**
@@ -87,6 +105,10 @@ final class ProtoReflector {
 
   private <T> T invokeMethod(
       MessageLite messageLite, String methodNameTpl, String methodSuffix, Class<T> clazz) {
+    Method getter = accessors != null ? accessors.getProtoGetter(methodSuffix) : null;
+    if (getter != null) {
+      return clazz.cast(RemoteMessageAccessors.invoke(getter, messageLite));
+    }
     return clazz.cast(
         new MethodInvocation(
                 protoType,
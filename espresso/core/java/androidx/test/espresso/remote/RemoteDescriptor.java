@@ -48,6 +48,9 @@ public final class RemoteDescriptor {
   private final Class<?> protoBuilderType;
   private final Parser<?> protoParser;
 
+  // Resolved on first use, excluded from equals and hashCode
+  private volatile RemoteMessageAccessors accessors;
+
   private RemoteDescriptor(
       @NonNull Class<?> instanceType,
       @NonNull List<FieldDescriptor> instanceFieldDescriptorList,
@@ -120,6 +123,20 @@ public final class RemoteDescriptor {
     return instanceType.getName();
   }
 
+  /**
+   * @return the reflective handles used to serialize the instance type into its proto message and
+   *     back. They are resolved once, on first use, and kept for the lifetime of this descriptor.
+   */
+  RemoteMessageAccessors getAccessors() {
+    RemoteMessageAccessors result = accessors;
+    if (null == result) {
+      // Racing threads resolve equivalent handles, either of them can be kept
+      result = new RemoteMessageAccessors(this);
+      accessors = result;
+    }
+    return result;
+  }
+
   @Override
   public boolean equals(Object o) {
     if (this == o) {
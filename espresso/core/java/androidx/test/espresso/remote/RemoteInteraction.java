@@ -36,6 +36,14 @@ public interface RemoteInteraction {
   /** @return {@code true} if the current Espresso instance running in a remote process. */
   boolean isRemoteProcess();
 
+  /**
+   * @return {@code true} if interactions can never reach an Espresso instance running in another
+   *     process, in which case callers may skip creating and scheduling remote interactions.
+   */
+  default boolean isLocalOnly() {
+    return false;
+  }
+
   /**
    * Creates a callable to run Espresso check interaction on remote processes
    *
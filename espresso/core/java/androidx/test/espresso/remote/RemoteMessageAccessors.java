@@ -0,0 +1,270 @@
+/*
+ * Copyright (C) 2021 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.test.espresso.remote;
+
+import androidx.annotation.Nullable;
+import androidx.test.espresso.remote.annotation.RemoteMsgConstructor;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.protobuf.Any;
+import com.google.protobuf.ByteString;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Reflective handles used to serialize an instance described by a {@link RemoteDescriptor} into
+ * its proto message and back.
+ *
+ * <p>The handles are resolved once per {@link RemoteDescriptor}, see {@link
+ * RemoteDescriptor#getAccessors()}, and live as long as the descriptor. Handles that cannot be
+ * resolved are left out. Callers then fall back to looking up the member for every message, which
+ * reports the missing field, method or constructor.
+ */
+final class RemoteMessageAccessors {
+  @Nullable private final List<Field> instanceFields;
+  @Nullable private final Constructor<?> instanceConstructor;
+  @Nullable private final Constructor<?> remoteConstructor;
+  @Nullable private final Method newBuilderMethod;
+  @Nullable private final Method buildMethod;
+  private final Map<String, Method> anySetters;
+  private final Map<String, Method> byteStringSetters;
+  private final Map<String, Method> addAllSetters;
+  private final Map<String, Method> protoGetters;
+
+  RemoteMessageAccessors(RemoteDescriptor remoteDescriptor) {
+    Class<?> instanceType = remoteDescriptor.getInstanceType();
+    Class<?> protoType = remoteDescriptor.getProtoType();
+    Class<?> builderType = remoteDescriptor.getProtoBuilderClass();
+    List<FieldDescriptor> fieldDescriptors = remoteDescriptor.getInstanceFieldDescriptorList();
+
+    ImmutableList.Builder<Field> instanceFields = ImmutableList.builder();
+    Class<?>[] constructorTypes = new Class<?>[fieldDescriptors.size()];
+    ImmutableMap.Builder<String, Method> anySetters = ImmutableMap.builder();
+    ImmutableMap.Builder<String, Method> byteStringSetters = ImmutableMap.builder();
+    ImmutableMap.Builder<String, Method> addAllSetters = ImmutableMap.builder();
+    ImmutableMap.Builder<String, Method> protoGetters = ImmutableMap.builder();
+    boolean allFieldsFound = true;
+    for (int i = 0; i < fieldDescriptors.size(); i++) {
+      FieldDescriptor fieldDescriptor = fieldDescriptors.get(i);
+      String name = fieldDescriptor.fieldName;
+      String suffix = capitalizeFirstChar(name);
+      constructorTypes[i] = fieldDescriptor.fieldType;
+
+      Field field = findField(instanceType, name);
+      if (field != null) {
+        instanceFields.add(field);
+      } else {
+        allFieldsFound = false;
+      }
+      putIfFound(anySetters, name, findMethod(builderType, true, "set" + suffix, Any.class));
+      putIfFound(
+          byteStringSetters, name, findMethod(builderType, true, "set" + suffix, ByteString.class));
+      putIfFound(
+          addAllSetters, name, findMethod(builderType, true, "addAll" + suffix, Iterable.class));
+      String getterName =
+          Iterable.class.isAssignableFrom(fieldDescriptor.fieldType)
+              ? "get" + suffix + "List"
+              : "get" + suffix;
+      putIfFound(protoGetters, name, findMethod(protoType, true, getterName));
+    }
+
+    this.instanceFields = allFieldsFound ? instanceFields.build() : null;
+    this.instanceConstructor = findInstanceConstructor(instanceType, constructorTypes);
+    this.remoteConstructor =
+        findConstructor(remoteDescriptor.getRemoteType(), remoteDescriptor.getRemoteConstrTypes());
+    this.newBuilderMethod = findMethod(protoType, false, "newBuilder");
+    this.buildMethod = findMethod(builderType, false, "build");
+    this.anySetters = anySetters.build();
+    this.byteStringSetters = byteStringSetters.build();
+    this.addAllSetters = addAllSetters.build();
+    this.protoGetters = protoGetters.build();
+  }
+
+  /** @return the serialized fields of the instance type, in declared order, or {@code null} */
+  @Nullable
+  List<Field> getInstanceFields() {
+    return instanceFields;
+  }
+
+  /** @return the constructor that takes the serialized fields, or {@code null} */
+  @Nullable
+  Constructor<?> getInstanceConstructor() {
+    return instanceConstructor;
+  }
+
+  /** @return the constructor of the remote message type, or {@code null} */
+  @Nullable
+  Constructor<?> getRemoteConstructor() {
+    return remoteConstructor;
+  }
+
+  /** @return the static {@code newBuilder()} method of the proto message type, or {@code null} */
+  @Nullable
+  Method getNewBuilderMethod() {
+    return newBuilderMethod;
+  }
+
+  /** @return the {@code build()} method of the proto message builder type, or {@code null} */
+  @Nullable
+  Method getBuildMethod() {
+    return buildMethod;
+  }
+
+  /** @return the builder method that sets the {@link Any} value of a field, or {@code null} */
+  @Nullable
+  Method getAnySetter(String fieldName) {
+    return anySetters.get(fieldName);
+  }
+
+  /** @return the builder method that sets the {@link ByteString} of a field, or {@code null} */
+  @Nullable
+  Method getByteStringSetter(String fieldName) {
+    return byteStringSetters.get(fieldName);
+  }
+
+  /** @return the builder method that adds all values of a repeated field, or {@code null} */
+  @Nullable
+  Method getAddAllSetter(String fieldName) {
+    return addAllSetters.get(fieldName);
+  }
+
+  /** @return the proto message method that returns the value of a field, or {@code null} */
+  @Nullable
+  Method getProtoGetter(String fieldName) {
+    return protoGetters.get(fieldName);
+  }
+
+  /** Invokes the given method, reporting failures as {@link RemoteProtocolException}s. */
+  static Object invoke(Method method, @Nullable Object target, Object... args) {
+    try {
+      return method.invoke(target, args);
+    } catch (InvocationTargetException ite) {
+      throw new RemoteProtocolException(
+          String.format(
+              Locale.ROOT,
+              "Cannot invoke method %s with args [%s] on builder %s",
+              method,
+              Arrays.toString(args),
+              method.getDeclaringClass().getName()),
+          ite);
+    } catch (IllegalAccessException iae) {
+      throw new RemoteProtocolException(
+          String.format(
+              Locale.ROOT, "Cannot create instance of %s", method.getDeclaringClass().getName()),
+          iae);
+    }
+  }
+
+  /** Invokes the given constructor, reporting failures as {@link RemoteProtocolException}s. */
+  static Object newInstance(Constructor<?> constructor, Object... args) {
+    try {
+      return constructor.newInstance(args);
+    } catch (InvocationTargetException ite) {
+      throw new RemoteProtocolException(
+          String.format(
+              Locale.ROOT,
+              "Cannot invoke constructor %s with constructorParams [%s] on clazz %s",
+              constructor,
+              Arrays.toString(args),
+              constructor.getDeclaringClass().getName()),
+          ite);
+    } catch (IllegalAccessException | InstantiationException e) {
+      throw new RemoteProtocolException(
+          String.format(
+              Locale.ROOT,
+              "Cannot create instance of %s",
+              constructor.getDeclaringClass().getName()),
+          e);
+    }
+  }
+
+  private static void putIfFound(
+      ImmutableMap.Builder<String, Method> methods, String fieldName, @Nullable Method method) {
+    if (method != null) {
+      methods.put(fieldName, method);
+    }
+  }
+
+  @Nullable
+  private static Field findField(Class<?> clazz, String name) {
+    for (Class<?> type = clazz; type != null && type != Object.class; type = type.getSuperclass()) {
+      try {
+        Field field = type.getDeclaredField(name);
+        field.setAccessible(true);
+        return field;
+      } catch (NoSuchFieldException | SecurityException e) {
+        // try the superclass
+      }
+    }
+    return null;
+  }
+
+  @Nullable
+  private static Method findMethod(
+      Class<?> clazz, boolean declared, String name, Class<?>... parameterTypes) {
+    try {
+      Method method =
+          declared
+              ? clazz.getDeclaredMethod(name, parameterTypes)
+              : clazz.getMethod(name, parameterTypes);
+      method.setAccessible(true);
+      return method;
+    } catch (NoSuchMethodException | SecurityException e) {
+      return null;
+    }
+  }
+
+  @Nullable
+  private static Constructor<?> findInstanceConstructor(
+      Class<?> clazz, Class<?>[] parameterTypes) {
+    try {
+      for (Constructor<?> candidate : clazz.getDeclaredConstructors()) {
+        if (candidate.isAnnotationPresent(RemoteMsgConstructor.class)) {
+          candidate.setAccessible(true);
+          return candidate;
+        }
+      }
+    } catch (SecurityException se) {
+      return null;
+    }
+    return findConstructor(clazz, parameterTypes);
+  }
+
+  @Nullable
+  private static Constructor<?> findConstructor(Class<?> clazz, Class<?>[] parameterTypes) {
+    try {
+      Constructor<?> constructor = clazz.getConstructor(parameterTypes);
+      constructor.setAccessible(true);
+      return constructor;
+    } catch (NoSuchMethodException | SecurityException e) {
+      return null;
+    }
+  }
+
+  private static String capitalizeFirstChar(String name) {
+    if (name.isEmpty()) {
+      return name;
+    }
+    return name.substring(0, 1).toUpperCase(Locale.ENGLISH) + name.substring(1);
+  }
+}
@@ -20,6 +20,7 @@ import static androidx.test.internal.util.LogUtil.logDebug;
 import static com.google.common.base.Preconditions.checkNotNull;
 
 import android.os.Parcelable;
+import android.util.Log;
 import androidx.annotation.NonNull;
 import androidx.test.espresso.remote.annotation.RemoteMsgConstructor;
 import com.google.common.base.Function;
@@ -30,6 +31,7 @@ import com.google.protobuf.Any;
 import com.google.protobuf.ByteString;
 import com.google.protobuf.MessageLite;
 import java.io.Serializable;
+import java.lang.reflect.Constructor;
 import java.util.Arrays;
 import java.util.List;
 
@@ -101,8 +103,9 @@ final class RemoteMessageDeserializer implements EspressoRemoteMessage.From<Obje
     // along to the constructor of the target object
     List<Object> constructorParams = Lists.newArrayList();
     // Create a new proto reflector to interact with a proto msg
+    RemoteMessageAccessors accessors = remoteDescriptor.getAccessors();
     ProtoReflector protoReflector =
-        new ProtoReflector(remoteDescriptor.getProtoType(), messageLite);
+        new ProtoReflector(remoteDescriptor.getProtoType(), messageLite, accessors);
 
     List<FieldDescriptor> fieldDescriptorList = remoteDescriptor.getInstanceFieldDescriptorList();
 
@@ -148,6 +151,11 @@ final class RemoteMessageDeserializer implements EspressoRemoteMessage.From<Obje
     // Reflectively create the instance and return it
     Object instance = null;
     try {
+      Constructor<?> constructor = accessors.getInstanceConstructor();
+      if (constructor != null) {
+        instance = RemoteMessageAccessors.newInstance(constructor, constructorParams.toArray());
+        return instance;
+      }
       Class<?>[] constructorTypes = new Class<?>[fieldDescriptorList.size()];
       Lists.transform(
               fieldDescriptorList,
@@ -165,15 +173,18 @@ final class RemoteMessageDeserializer implements EspressoRemoteMessage.From<Obje
                   remoteDescriptor.getInstanceType(), RemoteMsgConstructor.class, constructorTypes)
               .invokeConstructor(constructorParams.toArray());
     } finally {
-      logDebug(
-          TAG,
-          "proto: %s, createdInstance %s, instanceType: %s, constructorParams: [%s], "
-              + "available constructors: %s",
-          messageLite.getClass().getSimpleName(),
-          instance,
-          remoteDescriptor.getInstanceType(),
-          Joiner.on(",").join(constructorParams),
-          Arrays.toString(remoteDescriptor.getInstanceType().getConstructors()));
+      // Only describe the parameters and constructors when they are logged
+      if (Log.isLoggable(TAG, Log.DEBUG)) {
+        logDebug(
+            TAG,
+            "proto: %s, createdInstance %s, instanceType: %s, constructorParams: [%s], "
+                + "available constructors: %s",
+            messageLite.getClass().getSimpleName(),
+            instance,
+            remoteDescriptor.getInstanceType(),
+            Joiner.on(",").join(constructorParams),
+            Arrays.toString(remoteDescriptor.getInstanceType().getConstructors()));
+      }
     }
     return instance;
   }
@@ -22,6 +22,7 @@ import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Preconditions.checkState;
 
 import android.os.Parcelable;
+import android.util.Log;
 import androidx.annotation.NonNull;
 import com.google.common.base.Function;
 import com.google.common.collect.Lists;
@@ -71,6 +72,7 @@ final class RemoteMessageSerializer implements EspressoRemoteMessage.To<MessageL
   private final List<FieldDescriptor> fieldDescriptorList;
   private final Class<?> builderType;
   private final Class<?> protoType;
+  private final RemoteMessageAccessors accessors;
 
   /**
    * Creates a {@link RemoteMessageSerializer}
@@ -88,6 +90,7 @@ final class RemoteMessageSerializer implements EspressoRemoteMessage.To<MessageL
     this.fieldDescriptorList = remoteDescriptor.getInstanceFieldDescriptorList();
     this.builderType = remoteDescriptor.getProtoBuilderClass();
     this.protoType = remoteDescriptor.getProtoType();
+    this.accessors = remoteDescriptor.getAccessors();
   }
 
   /** {@inheritDoc} */
@@ -97,21 +100,23 @@ final class RemoteMessageSerializer implements EspressoRemoteMessage.To<MessageL
   }
 
   private MessageLite toProtoInternal() {
-    List<Field> targetFields = null;
+    List<Field> targetFields = accessors.getInstanceFields();
     try {
-      // Filter a class declared fields based on field descriptor names
-      targetFields =
-          getFilteredFieldList(
-              instance.getClass(),
-              Lists.transform(
-                  fieldDescriptorList,
-                  new Function<FieldDescriptor, String>() {
-                    @Override
-                    public String apply(FieldDescriptor fieldDescriptor) {
-                      // Transform fieldDescriptorList into a new list which contains field names
-                      return fieldDescriptor.fieldName;
-                    }
-                  }));
+      if (null == targetFields) {
+        // Filter a class declared fields based on field descriptor names
+        targetFields =
+            getFilteredFieldList(
+                instance.getClass(),
+                Lists.transform(
+                    fieldDescriptorList,
+                    new Function<FieldDescriptor, String>() {
+                      @Override
+                      public String apply(FieldDescriptor fieldDescriptor) {
+                        // Transform fieldDescriptorList into a new list which contains field names
+                        return fieldDescriptor.fieldName;
+                      }
+                    }));
+      }
       return createProtoFromTargetFields(targetFields, instance);
     } catch (Exception e) {
       if ((e instanceof RemoteProtocolException)) {
@@ -119,23 +124,26 @@ final class RemoteMessageSerializer implements EspressoRemoteMessage.To<MessageL
       }
       throw new RemoteProtocolException("Error", e);
     } finally {
-      logDebug(
-          TAG,
-          "instance type: %s, protoType: %s, declaredFields %s total: %s, "
-              + "targetFields %s total: %s",
-          instance.getClass(),
-          protoType,
-          instance.getClass().getDeclaredFields().length,
-          Arrays.toString(instance.getClass().getDeclaredFields()),
-          targetFields.size(),
-          targetFields);
+      // Only list the declared fields when they are logged
+      if (Log.isLoggable(TAG, Log.DEBUG)) {
+        logDebug(
+            TAG,
+            "instance type: %s, protoType: %s, declaredFields %s total: %s, "
+                + "targetFields %s total: %s",
+            instance.getClass(),
+            protoType,
+            instance.getClass().getDeclaredFields().length,
+            Arrays.toString(instance.getClass().getDeclaredFields()),
+            targetFields.size(),
+            targetFields);
+      }
     }
   }
 
   private MessageLite createProtoFromTargetFields(List<Field> instanceTargetFields, Object instance)
       throws IllegalAccessException {
     // Create a new builder reflector to interact with a proto builder
-    BuilderReflector builderReflector = new BuilderReflector(builderType, protoType);
+    BuilderReflector builderReflector = new BuilderReflector(builderType, protoType, accessors);
 
     // Iterate through all the filtered instance fields
     for (Field targetField : instanceTargetFields) {
@@ -23,6 +23,7 @@ import androidx.annotation.NonNull;
 import androidx.test.espresso.remote.EspressoRemoteMessage.To;
 import com.google.protobuf.Any;
 import com.google.protobuf.MessageLite;
+import java.lang.reflect.Constructor;
 
 /** Converts a type T into its {@link Any} proto message representation. */
 final class TypeToAnyConverter<T> implements Converter<T, Any> {
@@ -50,10 +51,17 @@ final class TypeToAnyConverter<T> implements Converter<T, Any> {
   @SuppressWarnings("unchecked") // safe covariant cast, missing type arguments for generic class
   private MessageLite createProtoMsgForInstanceType(T instance, RemoteDescriptor remoteDescriptor) {
     Class<?> remoteType = remoteDescriptor.getRemoteType();
-    To<MessageLite> remoteMessage =
-        (To<MessageLite>)
-            new ConstructorInvocation(remoteType, null, remoteDescriptor.getRemoteConstrTypes())
-                .invokeConstructor(instance);
+    Constructor<?> remoteConstructor = remoteDescriptor.getAccessors().getRemoteConstructor();
+    To<MessageLite> remoteMessage;
+    if (remoteConstructor != null) {
+      remoteMessage =
+          (To<MessageLite>) RemoteMessageAccessors.newInstance(remoteConstructor, instance);
+    } else {
+      remoteMessage =
+          (To<MessageLite>)
+              new ConstructorInvocation(remoteType, null, remoteDescriptor.getRemoteConstrTypes())
+                  .invokeConstructor(instance);
+    }
     MessageLite remoteProtoMsg = remoteMessage.toProto();
     checkState(remoteDescriptor.getProtoType() == remoteProtoMsg.getClass());
     return remoteProtoMsg;
@@ -16,8 +16,6 @@
 
 package androidx.test.espresso.util;
 
-import static androidx.test.espresso.util.TreeIterables.depthFirstViewTraversalWithDistance;
-
 import android.content.res.Resources;
 import android.database.Cursor;
 import android.os.Build;
@@ -29,16 +27,11 @@ import android.view.inputmethod.EditorInfo;
 import android.view.inputmethod.InputConnection;
 import android.widget.Checkable;
 import android.widget.TextView;
-import androidx.test.espresso.util.TreeIterables.ViewAndDistance;
-import com.google.common.base.Function;
-import com.google.common.base.Joiner;
 import com.google.common.base.MoreObjects;
 import com.google.common.base.MoreObjects.ToStringHelper;
 import com.google.common.base.Preconditions;
-import com.google.common.base.Strings;
-import com.google.common.collect.Iterables;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Locale;
 
 /** Text converters for various Android objects. */
 public final class HumanReadables {
@@ -48,6 +41,11 @@ public final class HumanReadables {
   /**
    * Prints out an error message feature the view hierarchy starting at the rootView.
    *
+   * <p>Views stop being described once the message exceeds the limit set with {@code
+   * InteractionPolicies.setFailureMessageViewHierarchyLimit}. The remaining views are then only
+   * counted and, if enabled with {@code InteractionPolicies.setViewHierarchyOutputFilesEnabled},
+   * the whole hierarchy is written to a test output file whose name is included in the message.
+   *
    * @param rootView the root of the hierarchy tree to print out.
    * @param problemViews list of the views that you would like to point out are causing the error
    *     message or null, if you want to skip this feature.
@@ -56,6 +54,7 @@ public final class HumanReadables {
    * @param problemViewSuffix the message to append to the view description in the tree printout.
    *     Required if problemViews is supplied. Otherwise, null is acceptable.
    * @return a string for human consumption.
+   * @see ViewHierarchyCapture
    */
   public static String getViewHierarchyErrorMessage(
       View rootView,
@@ -63,36 +62,8 @@ public final class HumanReadables {
       String errorHeader,
       final String problemViewSuffix) {
     Preconditions.checkArgument(problemViews == null || problemViewSuffix != null);
-    StringBuilder errorMessage = new StringBuilder(errorHeader);
-    if (problemViewSuffix != null) {
-      errorMessage.append(
-          String.format(
-              Locale.ROOT, "\nProblem views are marked with '%s' below.", problemViewSuffix));
-    }
-
-    String viewHierarchyDump =
-        Joiner.on("\n|\n")
-            .join(
-                Iterables.transform(
-                    depthFirstViewTraversalWithDistance(rootView),
-                    new Function<ViewAndDistance, String>() {
-                      @Override
-                      public String apply(ViewAndDistance viewAndDistance) {
-                        String formatString = "+%s%s ";
-                        if (problemViews != null
-                            && problemViews.contains(viewAndDistance.getView())) {
-                          formatString += problemViewSuffix;
-                        }
-                        return String.format(
-                            Locale.ROOT,
-                            formatString,
-                            Strings.padStart(">", viewAndDistance.getDistanceFromRoot() + 1, '-'),
-                            HumanReadables.describe(viewAndDistance.getView()));
-                      }
-                    }));
-
-    errorMessage.append("\n\nView Hierarchy:\n").append(viewHierarchyDump);
-    return errorMessage.toString();
+    return ViewHierarchyCapture.of(rootView, problemViews)
+        .getErrorMessage(errorHeader, problemViewSuffix);
   }
 
   public static String describe(Cursor c) {
@@ -155,33 +126,42 @@ public final class HumanReadables {
     if (null == v) {
       return "null";
     }
-    ToStringHelper helper = MoreObjects.toStringHelper(v).add("id", v.getId());
+    return capture(v).toString();
+  }
+
+  /**
+   * Reads the properties of the view that {@link #describe(View)} prints out. Must be called on the
+   * thread of the view, the returned description may be formatted on any thread.
+   */
+  static ViewDescription capture(View v) {
+    ViewDescription description =
+        new ViewDescription(v.getClass().getSimpleName()).add("id", v.getId());
     if (v.getId() != -1 && v.getResources() != null && !isViewIdGenerated(v.getId())) {
       try {
-        helper.add("res-name", v.getResources().getResourceEntryName(v.getId()));
+        description.add("res-name", v.getResources().getResourceEntryName(v.getId()));
       } catch (Resources.NotFoundException ignore) {
         // Do nothing.
       }
     }
     if (null != v.getContentDescription()) {
-      helper.add("desc", v.getContentDescription());
+      description.add("desc", v.getContentDescription());
     }
 
     switch (v.getVisibility()) {
       case View.GONE:
-        helper.add("visibility", "GONE");
+        description.add("visibility", "GONE");
         break;
       case View.INVISIBLE:
-        helper.add("visibility", "INVISIBLE");
+        description.add("visibility", "INVISIBLE");
         break;
       case View.VISIBLE:
-        helper.add("visibility", "VISIBLE");
+        description.add("visibility", "VISIBLE");
         break;
       default:
-        helper.add("visibility", v.getVisibility());
+        description.add("visibility", v.getVisibility());
     }
 
-    helper
+    description
         .add("width", v.getWidth())
         .add("height", v.getHeight())
         .add("has-focus", v.hasFocus())
@@ -198,63 +178,60 @@ public final class HumanReadables {
 
     if (null != v.getRootView()) {
       // pretty much only true in unit-tests.
-      helper.add("root-is-layout-requested", v.getRootView().isLayoutRequested());
+      description.add("root-is-layout-requested", v.getRootView().isLayoutRequested());
     }
 
     EditorInfo ei = new EditorInfo();
     InputConnection ic = v.onCreateInputConnection(ei);
     boolean hasInputConnection = ic != null;
-    helper.add("has-input-connection", hasInputConnection);
+    description.add("has-input-connection", hasInputConnection);
     if (hasInputConnection) {
-      StringBuilder sb = new StringBuilder();
-      sb.append("[");
-      Printer p = new StringBuilderPrinter(sb);
-      ei.dump(p, "");
-      sb.append("]");
-      helper.add("editor-info", sb.toString().replace("\n", " "));
+      // Dumped when the description is formatted.
+      description.add("editor-info", ei);
     }
 
     if (Build.VERSION.SDK_INT > 10) {
-      helper.add("x", v.getX()).add("y", v.getY());
+      description.add("x", v.getX()).add("y", v.getY());
     }
 
     if (v instanceof TextView) {
-      innerDescribe((TextView) v, helper);
+      innerDescribe((TextView) v, description);
     }
     if (v instanceof Checkable) {
-      innerDescribe((Checkable) v, helper);
+      innerDescribe((Checkable) v, description);
     }
     if (v instanceof ViewGroup) {
-      innerDescribe((ViewGroup) v, helper);
+      innerDescribe((ViewGroup) v, description);
     }
-    return helper.toString();
+    return description;
   }
 
-  private static void innerDescribe(TextView textBox, ToStringHelper helper) {
+  private static void innerDescribe(TextView textBox, ViewDescription description) {
     if (null != textBox.getText()) {
-      helper.add("text", textBox.getText());
+      description.add("text", textBox.getText());
     }
 
     if (null != textBox.getError()) {
-      helper.add("error-text", textBox.getError());
+      description.add("error-text", textBox.getError());
     }
 
     if (null != textBox.getHint()) {
-      helper.add("hint", textBox.getHint());
+      description.add("hint", textBox.getHint());
     }
 
-    helper.add("input-type", textBox.getInputType());
-    helper.add("ime-target", textBox.isInputMethodTarget());
-    helper.add("has-links", textBox.getUrls().length > 0);
+    description.add("input-type", textBox.getInputType());
+    description.add("ime-target", textBox.isInputMethodTarget());
+    description.add("has-links", textBox.getUrls().length > 0);
   }
 
-  private static void innerDescribe(Checkable checkable, ToStringHelper helper) {
-    helper.add("is-checked", checkable.isChecked());
+  private static void innerDescribe(Checkable checkable, ViewDescription description) {
+    description.add("is-checked", checkable.isChecked());
   }
 
-  private static void innerDescribe(ViewGroup viewGroup, ToStringHelper helper) {
-    helper.add("child-count", viewGroup.getChildCount());
+  private static void innerDescribe(ViewGroup viewGroup, ViewDescription description) {
+    description.add("child-count", viewGroup.getChildCount());
   }
+
   /**
    * IDs generated by {@link View#generateViewId} will fail if used as a resource ID in attempted
    * resources lookups. This now logs an error in API 28, causing test failures. This method is
@@ -264,4 +241,46 @@ public final class HumanReadables {
   private static boolean isViewIdGenerated(int id) {
     return (id & 0xFF000000) == 0 && (id & 0x00FFFFFF) != 0;
   }
+
+  /**
+   * The properties of a view, read on the thread of the view. Values that may change or are not
+   * safe to read on another thread are converted to strings when they are added.
+   */
+  static final class ViewDescription {
+    private final String className;
+    private final List<String> names = new ArrayList<>();
+    private final List<Object> values = new ArrayList<>();
+
+    ViewDescription(String className) {
+      this.className = className;
+    }
+
+    ViewDescription add(String name, Object value) {
+      names.add(name);
+      if (value instanceof Number || value instanceof Boolean || value instanceof EditorInfo) {
+        values.add(value);
+      } else {
+        values.add(String.valueOf(value));
+      }
+      return this;
+    }
+
+    @Override
+    public String toString() {
+      ToStringHelper helper = MoreObjects.toStringHelper(className);
+      for (int i = 0; i < names.size(); i++) {
+        Object value = values.get(i);
+        if (value instanceof EditorInfo) {
+          StringBuilder sb = new StringBuilder();
+          sb.append("[");
+          Printer p = new StringBuilderPrinter(sb);
+          ((EditorInfo) value).dump(p, "");
+          sb.append("]");
+          value = sb.toString().replace("\n", " ");
+        }
+        helper.add(names.get(i), value);
+      }
+      return helper.toString();
+    }
+  }
 }
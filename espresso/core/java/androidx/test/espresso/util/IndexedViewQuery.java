@@ -0,0 +1,37 @@
+/*
+ * Copyright (C) 2021 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.test.espresso.util;
+
+import android.view.View;
+import java.util.List;
+
+/**
+ * Implemented by view matchers that can narrow down their candidates using a {@link
+ * ViewHierarchyIndex} instead of being evaluated against every view of the hierarchy.
+ *
+ * <p>This is not part of the public API.
+ *
+ * @hide
+ */
+public interface IndexedViewQuery {
+
+  /**
+   * Returns the views that may satisfy this matcher, or {@code null} if the index cannot be used to
+   * narrow down the candidates.
+   */
+  List<View> queryIndex(ViewHierarchyIndex index);
+}
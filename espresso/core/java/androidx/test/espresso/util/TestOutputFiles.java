@@ -0,0 +1,89 @@
+/*
+ * Copyright (C) 2021 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.test.espresso.util;
+
+import android.util.Log;
+import androidx.test.services.storage.TestStorage;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+
+/**
+ * Writes text files to the test outputs through {@link TestStorage}.
+ *
+ * <p>This is not part of the public API.
+ *
+ * @hide
+ */
+public final class TestOutputFiles {
+
+  private static final String TAG = "TestOutputFiles";
+
+  /** Writes the content of a test output file. */
+  public interface Content {
+    void writeTo(Writer writer) throws IOException;
+  }
+
+  private TestOutputFiles() {}
+
+  /**
+   * Returns a test output file name made of the given parts, separated by dashes, with every
+   * character that is not safe in a file name replaced by an underscore.
+   */
+  public static String fileName(String extension, String... parts) {
+    StringBuilder name = new StringBuilder();
+    for (String part : parts) {
+      if (name.length() > 0) {
+        name.append('-');
+      }
+      name.append(part);
+    }
+    return name.toString().replaceAll("[^A-Za-z0-9._-]", "_") + extension;
+  }
+
+  /**
+   * Writes the given content, encoded as UTF-8, to a new test output file.
+   *
+   * @return whether the file was written. Failures are logged, most likely the test storage
+   *     service is not installed.
+   */
+  public static boolean write(String outputFileName, Content content) {
+    Writer writer = null;
+    try {
+      writer =
+          new BufferedWriter(
+              new OutputStreamWriter(
+                  new TestStorage().openOutputFile(outputFileName), Charset.forName("UTF-8")));
+      content.writeTo(writer);
+      writer.flush();
+      return true;
+    } catch (IOException | RuntimeException e) {
+      Log.w(TAG, "Could not write the test output file " + outputFileName, e);
+      return false;
+    } finally {
+      if (writer != null) {
+        try {
+          writer.close();
+        } catch (IOException ignored) {
+          // Do nothing.
+        }
+      }
+    }
+  }
+}
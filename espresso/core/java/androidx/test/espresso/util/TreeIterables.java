@@ -21,15 +21,13 @@ import static com.google.common.base.Preconditions.checkNotNull;
 import android.view.View;
 import android.view.ViewGroup;
 import com.google.common.annotations.VisibleForTesting;
-import com.google.common.base.Function;
 import com.google.common.collect.AbstractIterator;
-import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import java.util.ArrayDeque;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 
@@ -44,8 +42,6 @@ import java.util.Map;
  * <p>Only public methods of this utility class are considered public API of the test framework.
  */
 public final class TreeIterables {
-  private static final TreeViewer<View> VIEW_TREE_VIEWER = new ViewTreeViewer();
-
   private TreeIterables() {}
 
   /**
@@ -57,18 +53,24 @@ public final class TreeIterables {
    * @return An iterable of ViewAndDistance containing the view tree in a depth first order with the
    *     distance of a given node from the root.
    */
-  public static Iterable<ViewAndDistance> depthFirstViewTraversalWithDistance(View root) {
-    final DistanceRecordingTreeViewer<View> distanceRecorder =
-        new DistanceRecordingTreeViewer<View>(root, VIEW_TREE_VIEWER);
-
-    return Iterables.transform(
-        depthFirstTraversal(root, distanceRecorder),
-        new Function<View, ViewAndDistance>() {
+  public static Iterable<ViewAndDistance> depthFirstViewTraversalWithDistance(final View root) {
+    checkNotNull(root);
+    return new Iterable<ViewAndDistance>() {
+      @Override
+      public Iterator<ViewAndDistance> iterator() {
+        final ViewTreeCursor cursor = ViewTreeCursor.depthFirst(root);
+        return new AbstractIterator<ViewAndDistance>() {
           @Override
-          public ViewAndDistance apply(View view) {
-            return new ViewAndDistance(view, distanceRecorder.getDistance(view));
+          protected ViewAndDistance computeNext() {
+            View next = cursor.next();
+            if (next == null) {
+              return endOfData();
+            }
+            return new ViewAndDistance(next, cursor.depth());
           }
-        });
+        };
+      }
+    };
   }
 
   /**
@@ -79,7 +81,8 @@ public final class TreeIterables {
    * @param root the non-null, root view.
    */
   public static Iterable<View> depthFirstViewTraversal(View root) {
-    return depthFirstTraversal(root, VIEW_TREE_VIEWER);
+    checkNotNull(root);
+    return new ViewTraversalIterable(root, TraversalStrategy.DEPTH_FIRST);
   }
 
   /**
@@ -90,7 +93,44 @@ public final class TreeIterables {
    * @param root the non-null, root view.
    */
   public static Iterable<View> breadthFirstViewTraversal(View root) {
-    return breadthFirstTraversal(root, VIEW_TREE_VIEWER);
+    checkNotNull(root);
+    return new ViewTraversalIterable(root, TraversalStrategy.BREADTH_FIRST);
+  }
+
+  /**
+   * Visits the provided view and its children in the same order as {@link
+   * #depthFirstViewTraversal(View)}, without allocating per visited view.
+   *
+   * <p>This is not part of the public API.
+   *
+   * @param root the non-null, root view.
+   * @param visitor called for each view until it returns false.
+   * @hide
+   */
+  public static void visitDepthFirst(View root, ViewVisitor visitor) {
+    visit(ViewTreeCursor.depthFirst(checkNotNull(root)), checkNotNull(visitor));
+  }
+
+  /**
+   * Visits the provided view and its children in the same order as {@link
+   * #breadthFirstViewTraversal(View)}, without allocating per visited view.
+   *
+   * <p>This is not part of the public API.
+   *
+   * @param root the non-null, root view.
+   * @param visitor called for each view until it returns false.
+   * @hide
+   */
+  public static void visitBreadthFirst(View root, ViewVisitor visitor) {
+    visit(ViewTreeCursor.breadthFirst(checkNotNull(root)), checkNotNull(visitor));
+  }
+
+  private static void visit(ViewTreeCursor cursor, ViewVisitor visitor) {
+    for (View view = cursor.next(); view != null; view = cursor.next()) {
+      if (!visitor.visit(view, cursor.depth())) {
+        return;
+      }
+    }
   }
 
   /**
@@ -121,6 +161,32 @@ public final class TreeIterables {
     return new TreeTraversalIterable<T>(root, TraversalStrategy.BREADTH_FIRST, viewer);
   }
 
+  /** Presents a view hierarchy as an Iterable of views in a given traversal order. */
+  private static class ViewTraversalIterable implements Iterable<View> {
+    private final View root;
+    private final TraversalStrategy traversalStrategy;
+
+    private ViewTraversalIterable(View root, TraversalStrategy traversalStrategy) {
+      this.root = root;
+      this.traversalStrategy = traversalStrategy;
+    }
+
+    @Override
+    public Iterator<View> iterator() {
+      final ViewTreeCursor cursor =
+          traversalStrategy == TraversalStrategy.DEPTH_FIRST
+              ? ViewTreeCursor.depthFirst(root)
+              : ViewTreeCursor.breadthFirst(root);
+      return new AbstractIterator<View>() {
+        @Override
+        protected View computeNext() {
+          View next = cursor.next();
+          return next == null ? endOfData() : next;
+        }
+      };
+    }
+  }
+
   /** Converts a tree into an Iterable of the tree's nodes presented in a given traversal order. */
   private static class TreeTraversalIterable<T> implements Iterable<T> {
     private final T root;
@@ -136,7 +202,7 @@ public final class TreeIterables {
 
     @Override
     public Iterator<T> iterator() {
-      final LinkedList<T> nodes = Lists.newLinkedList();
+      final ArrayDeque<T> nodes = new ArrayDeque<T>();
       nodes.add(root);
       return new AbstractIterator<T>() {
         @Override
@@ -156,20 +222,24 @@ public final class TreeIterables {
   private enum TraversalStrategy {
     BREADTH_FIRST() {
       @Override
-      <T> void combineNewChildren(LinkedList<T> nodes, Collection<T> newChildren) {
+      <T> void combineNewChildren(ArrayDeque<T> nodes, Collection<T> newChildren) {
         nodes.addAll(newChildren);
       }
     },
     DEPTH_FIRST() {
       @Override
-      <T> void combineNewChildren(LinkedList<T> nodes, Collection<T> newChildren) {
-        nodes.addAll(0, newChildren);
+      @SuppressWarnings("unchecked") // the array only holds elements of newChildren
+      <T> void combineNewChildren(ArrayDeque<T> nodes, Collection<T> newChildren) {
+        Object[] children = newChildren.toArray();
+        for (int i = children.length - 1; i >= 0; i--) {
+          nodes.addFirst((T) children[i]);
+        }
       }
     };
 
-    abstract <T> void combineNewChildren(LinkedList<T> nodes, Collection<T> newChildren);
+    abstract <T> void combineNewChildren(ArrayDeque<T> nodes, Collection<T> newChildren);
 
-    <T> T next(LinkedList<T> nodes) {
+    <T> T next(ArrayDeque<T> nodes) {
       return nodes.removeFirst();
     }
   }
@@ -256,6 +326,26 @@ public final class TreeIterables {
     Collection<T> children(T instance);
   }
 
+  /**
+   * Receives the views of a hierarchy from {@link #visitDepthFirst(View, ViewVisitor)} and {@link
+   * #visitBreadthFirst(View, ViewVisitor)}.
+   *
+   * <p>This is not part of the public API.
+   *
+   * @hide
+   */
+  public interface ViewVisitor {
+
+    /**
+     * Called for each view of the traversal.
+     *
+     * @param view the visited view.
+     * @param distanceFromRoot the number of edges between the root and the visited view.
+     * @return true to continue the traversal, false to stop it.
+     */
+    boolean visit(View view, int distanceFromRoot);
+  }
+
   /** Represents the distance a given view is from the root view. */
   public static class ViewAndDistance {
     private final View view;
@@ -0,0 +1,275 @@
+/*
+ * Copyright (C) 2021 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.test.espresso.util;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import android.graphics.Rect;
+import android.view.View;
+import androidx.test.espresso.util.TreeIterables.ViewVisitor;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The screen bounds of the views of a hierarchy, computed once and indexed for spatial queries.
+ *
+ * <p>Bounds are kept in a single primitive array, four values per view in breadth-first order, and
+ * are only computed for the views that are asked for. Overlap queries go through a uniform grid
+ * that covers the bounds of every view, built on the first query, so that they only look at the
+ * views of the cells the queried rectangle touches.
+ *
+ * <p>Indexes of attached windows are cached per root view with {@link ViewHierarchyCache} and
+ * reused until the window goes through a layout, draw or scroll pass.
+ *
+ * <p>All methods must be called on the main thread.
+ *
+ * <p>This is not part of the public API.
+ *
+ * @hide
+ */
+public final class ViewGeometryIndex {
+
+  // Number of grid cells along each axis.
+  private static final int GRID_SIZE = 16;
+  private static final int LEFT = 0;
+  private static final int TOP = 1;
+  private static final int RIGHT = 2;
+  private static final int BOTTOM = 3;
+
+  private final View root;
+  private final View[] views;
+  private final List<View> allViews;
+  private final Map<View, Integer> positions = new IdentityHashMap<View, Integer>();
+  private final int[] bounds;
+  private final boolean[] measured;
+  private final int[] location = new int[2];
+
+  private int gridLeft;
+  private int gridTop;
+  private int cellWidth;
+  private int cellHeight;
+  private int[][] cells;
+  private int[] cellSizes;
+  private int[] lastQuery;
+  private int queryCount;
+
+  /**
+   * Returns the index of the hierarchy rooted at the given view, reusing the cached one if the
+   * window has not gone through a layout, draw or scroll pass since it was built.
+   */
+  public static ViewGeometryIndex obtain(View root) {
+    checkNotNull(root);
+    ViewGeometryIndex index = ViewHierarchyCache.get(root, ViewGeometryIndex.class);
+    if (index == null) {
+      index = new ViewGeometryIndex(root);
+      ViewHierarchyCache.put(root, ViewGeometryIndex.class, index);
+    }
+    return index;
+  }
+
+  private ViewGeometryIndex(View root) {
+    this.root = root;
+    final List<View> collected = new ArrayList<View>();
+    TreeIterables.visitBreadthFirst(
+        root,
+        new ViewVisitor() {
+          @Override
+          public boolean visit(View view, int distanceFromRoot) {
+            positions.put(view, collected.size());
+            collected.add(view);
+            return true;
+          }
+        });
+    this.views = collected.toArray(new View[collected.size()]);
+    this.allViews = Collections.unmodifiableList(Arrays.asList(views));
+    this.bounds = new int[views.length * 4];
+    this.measured = new boolean[views.length];
+  }
+
+  /** Returns the root view this index was built from. */
+  public View getRoot() {
+    return root;
+  }
+
+  /** Returns every view of the hierarchy in breadth-first order. */
+  public List<View> allViews() {
+    return allViews;
+  }
+
+  /** Returns true if the given view is part of the indexed hierarchy. */
+  public boolean contains(View view) {
+    return positions.containsKey(view);
+  }
+
+  /**
+   * Sets outBounds to the bounds of the given view on the screen, as given by {@link
+   * View#getLocationOnScreen(int[])}, {@link View#getWidth()} and {@link View#getHeight()}.
+   *
+   * @throws IllegalArgumentException if the view is not part of the indexed hierarchy.
+   */
+  public void getScreenBounds(View view, Rect outBounds) {
+    Integer position = positions.get(view);
+    checkArgument(position != null, "%s is not part of the indexed hierarchy", view);
+    int offset = measure(position);
+    outBounds.set(
+        bounds[offset + LEFT],
+        bounds[offset + TOP],
+        bounds[offset + RIGHT],
+        bounds[offset + BOTTOM]);
+  }
+
+  /**
+   * Returns the views whose screen bounds intersect the given rectangle, in breadth-first order.
+   * Views and rectangles without an area never intersect.
+   */
+  public List<View> viewsOverlapping(Rect screenBounds) {
+    if (screenBounds.isEmpty()) {
+      return Collections.<View>emptyList();
+    }
+    buildGrid();
+    int firstColumn = column(screenBounds.left);
+    int lastColumn = column(screenBounds.right - 1);
+    int firstRow = row(screenBounds.top);
+    int lastRow = row(screenBounds.bottom - 1);
+    queryCount++;
+    int[] matched = new int[4];
+    int matchedSize = 0;
+    for (int row = firstRow; row <= lastRow; row++) {
+      for (int column = firstColumn; column <= lastColumn; column++) {
+        int cell = row * GRID_SIZE + column;
+        for (int i = 0; i < cellSizes[cell]; i++) {
+          int position = cells[cell][i];
+          if (lastQuery[position] == queryCount) {
+            continue;
+          }
+          lastQuery[position] = queryCount;
+          int offset = position * 4;
+          if (bounds[offset + LEFT] < screenBounds.right
+              && screenBounds.left < bounds[offset + RIGHT]
+              && bounds[offset + TOP] < screenBounds.bottom
+              && screenBounds.top < bounds[offset + BOTTOM]) {
+            if (matchedSize == matched.length) {
+              matched = Arrays.copyOf(matched, matchedSize * 2);
+            }
+            matched[matchedSize++] = position;
+          }
+        }
+      }
+    }
+    Arrays.sort(matched, 0, matchedSize);
+    View[] result = new View[matchedSize];
+    for (int i = 0; i < matchedSize; i++) {
+      result[i] = views[matched[i]];
+    }
+    return Collections.unmodifiableList(Arrays.asList(result));
+  }
+
+  /**
+   * Returns the views, other than the given one, whose screen bounds intersect the screen bounds
+   * of the given view, in breadth-first order. This includes its ancestors and descendants.
+   *
+   * @throws IllegalArgumentException if the view is not part of the indexed hierarchy.
+   */
+  public List<View> viewsOverlapping(View view) {
+    Rect viewBounds = new Rect();
+    getScreenBounds(view, viewBounds);
+    List<View> overlapping = new ArrayList<View>(viewsOverlapping(viewBounds));
+    overlapping.remove(view);
+    return Collections.unmodifiableList(overlapping);
+  }
+
+  /** Computes the bounds of the view at the given position, returns their offset in bounds. */
+  private int measure(int position) {
+    int offset = position * 4;
+    if (!measured[position]) {
+      View view = views[position];
+      view.getLocationOnScreen(location);
+      bounds[offset + LEFT] = location[0];
+      bounds[offset + TOP] = location[1];
+      bounds[offset + RIGHT] = location[0] + view.getWidth();
+      bounds[offset + BOTTOM] = location[1] + view.getHeight();
+      measured[position] = true;
+    }
+    return offset;
+  }
+
+  private void buildGrid() {
+    if (cells != null) {
+      return;
+    }
+    int left = Integer.MAX_VALUE;
+    int top = Integer.MAX_VALUE;
+    int right = Integer.MIN_VALUE;
+    int bottom = Integer.MIN_VALUE;
+    for (int position = 0; position < views.length; position++) {
+      int offset = measure(position);
+      left = Math.min(left, bounds[offset + LEFT]);
+      top = Math.min(top, bounds[offset + TOP]);
+      right = Math.max(right, bounds[offset + RIGHT]);
+      bottom = Math.max(bottom, bounds[offset + BOTTOM]);
+    }
+    gridLeft = left;
+    gridTop = top;
+    cellWidth = Math.max(1, (right - left + GRID_SIZE - 1) / GRID_SIZE);
+    cellHeight = Math.max(1, (bottom - top + GRID_SIZE - 1) / GRID_SIZE);
+    cells = new int[GRID_SIZE * GRID_SIZE][];
+    cellSizes = new int[GRID_SIZE * GRID_SIZE];
+    lastQuery = new int[views.length];
+
+    for (int position = 0; position < views.length; position++) {
+      int offset = position * 4;
+      if (bounds[offset + LEFT] >= bounds[offset + RIGHT]
+          || bounds[offset + TOP] >= bounds[offset + BOTTOM]) {
+        // Views without an area do not overlap anything.
+        continue;
+      }
+      int lastColumn = column(bounds[offset + RIGHT] - 1);
+      int lastRow = row(bounds[offset + BOTTOM] - 1);
+      for (int row = row(bounds[offset + TOP]); row <= lastRow; row++) {
+        for (int column = column(bounds[offset + LEFT]); column <= lastColumn; column++) {
+          add(row * GRID_SIZE + column, position);
+        }
+      }
+    }
+  }
+
+  private void add(int cell, int position) {
+    if (cells[cell] == null) {
+      cells[cell] = new int[4];
+    } else if (cellSizes[cell] == cells[cell].length) {
+      cells[cell] = Arrays.copyOf(cells[cell], cellSizes[cell] * 2);
+    }
+    cells[cell][cellSizes[cell]++] = position;
+  }
+
+  private int column(int x) {
+    return clamp((x - gridLeft) / cellWidth);
+  }
+
+  private int row(int y) {
+    return clamp((y - gridTop) / cellHeight);
+  }
+
+  private static int clamp(int cell) {
+    return Math.max(0, Math.min(GRID_SIZE - 1, cell));
+  }
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright (C) 2021 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.test.espresso.util;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import android.view.View;
+import android.view.ViewTreeObserver;
+import java.lang.ref.WeakReference;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Caches values computed from the view hierarchy of a window until the window goes through a
+ * layout, draw or scroll pass, any of which may change the hierarchy or move its views.
+ *
+ * <p>The passes are tracked through the {@link ViewTreeObserver} of the root view. Its listeners
+ * are only registered while a value is cached for the window, and removed on the first pass, when
+ * the cached values are dropped. Values of roots that are not attached to a window are not
+ * cached, since nothing would tell when they become stale.
+ *
+ * <p>All methods must be called on the main thread.
+ *
+ * <p>This is not part of the public API.
+ *
+ * @hide
+ */
+public final class ViewHierarchyCache {
+
+  private static final Map<View, WeakReference<Tracker>> trackers =
+      new WeakHashMap<View, WeakReference<Tracker>>();
+
+  private ViewHierarchyCache() {}
+
+  /**
+   * Returns the value of the given type cached for the hierarchy rooted at the given view, or null
+   * if there is none or the window has gone through a layout, draw or scroll pass since it was
+   * cached.
+   */
+  public static <T> T get(View root, Class<T> type) {
+    checkNotNull(root);
+    WeakReference<Tracker> ref = trackers.get(root);
+    Tracker tracker = ref == null ? null : ref.get();
+    if (tracker == null || !tracker.observer.isAlive()) {
+      return null;
+    }
+    return type.cast(tracker.values.get(type));
+  }
+
+  /**
+   * Caches the value of the given type for the hierarchy rooted at the given view, replacing any
+   * previous one. Does nothing if the root is not attached to a window.
+   */
+  public static <T> void put(View root, Class<T> type, T value) {
+    checkNotNull(root);
+    checkNotNull(value);
+    if (root.getWindowToken() == null) {
+      return;
+    }
+    WeakReference<Tracker> ref = trackers.get(root);
+    Tracker tracker = ref == null ? null : ref.get();
+    if (tracker == null || !tracker.observer.isAlive()) {
+      tracker = new Tracker(root);
+      trackers.put(root, new WeakReference<Tracker>(tracker));
+    }
+    tracker.put(type, value);
+  }
+
+  /**
+   * Holds the values cached for a window, and listens to its passes only while it holds any. It
+   * is only referenced weakly, and strongly by the observer while it is listening.
+   */
+  private static final class Tracker
+      implements ViewTreeObserver.OnGlobalLayoutListener,
+          ViewTreeObserver.OnPreDrawListener,
+          ViewTreeObserver.OnScrollChangedListener {
+    private final WeakReference<View> root;
+    private final ViewTreeObserver observer;
+    private final Map<Class<?>, Object> values = new HashMap<Class<?>, Object>();
+
+    Tracker(View root) {
+      this.root = new WeakReference<View>(root);
+      this.observer = root.getViewTreeObserver();
+    }
+
+    void put(Class<?> type, Object value) {
+      if (values.isEmpty()) {
+        observer.addOnGlobalLayoutListener(this);
+        observer.addOnPreDrawListener(this);
+        observer.addOnScrollChangedListener(this);
+      }
+      values.put(type, value);
+    }
+
+    @SuppressWarnings("deprecation") // removeOnGlobalLayoutListener requires API 16.
+    private void invalidate() {
+      values.clear();
+      // the listeners move to the observer of the window when the root is attached again.
+      View root = this.root.get();
+      ViewTreeObserver current = root == null ? observer : root.getViewTreeObserver();
+      if (current.isAlive()) {
+        current.removeGlobalOnLayoutListener(this);
+        current.removeOnPreDrawListener(this);
+        current.removeOnScrollChangedListener(this);
+      }
+    }
+
+    @Override
+    public void onGlobalLayout() {
+      invalidate();
+    }
+
+    @Override
+    public boolean onPreDraw() {
+      invalidate();
+      return true;
+    }
+
+    @Override
+    public void onScrollChanged() {
+      invalidate();
+    }
+  }
+}
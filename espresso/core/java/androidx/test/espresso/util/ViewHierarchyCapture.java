@@ -0,0 +1,169 @@
+/*
+ * Copyright (C) 2021 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.test.espresso.util;
+
+import static androidx.test.espresso.util.TreeIterables.depthFirstViewTraversalWithDistance;
+
+import android.view.View;
+import androidx.test.espresso.util.HumanReadables.ViewDescription;
+import androidx.test.espresso.util.TreeIterables.ViewAndDistance;
+import com.google.common.base.Preconditions;
+import com.google.common.base.Strings;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * The properties of every view in a hierarchy, read on the main thread, that can be formatted into
+ * an error message on any thread. Reading the properties is much cheaper than formatting them, so
+ * exceptions capture the hierarchy when they are created and only format it when their message is
+ * requested.
+ *
+ * <p>This is not part of the public API.
+ *
+ * @hide
+ */
+public final class ViewHierarchyCapture {
+
+  private static final String VIEW_SEPARATOR = "\n|\n";
+
+  private final List<CapturedView> views;
+  private final boolean hasProblemViews;
+
+  private ViewHierarchyCapture(List<CapturedView> views, boolean hasProblemViews) {
+    this.views = views;
+    this.hasProblemViews = hasProblemViews;
+  }
+
+  /**
+   * Captures the view hierarchy starting at the rootView. Must be called on the main thread.
+   *
+   * @param rootView the root of the hierarchy tree to capture.
+   * @param problemViews list of the views that should be pointed out in the error message or null,
+   *     if you want to skip this feature.
+   */
+  public static ViewHierarchyCapture of(View rootView, List<View> problemViews) {
+    List<CapturedView> views = new ArrayList<>();
+    for (ViewAndDistance viewAndDistance : depthFirstViewTraversalWithDistance(rootView)) {
+      View view = viewAndDistance.getView();
+      views.add(
+          new CapturedView(
+              viewAndDistance.getDistanceFromRoot(),
+              problemViews != null && problemViews.contains(view),
+              HumanReadables.capture(view)));
+    }
+    return new ViewHierarchyCapture(views, problemViews != null);
+  }
+
+  /**
+   * Formats an error message featuring the captured view hierarchy, see {@link
+   * HumanReadables#getViewHierarchyErrorMessage}.
+   *
+   * @param errorHeader the header of the error message (should contain the description of why the
+   *     error is happening).
+   * @param problemViewSuffix the message to append to the view description in the tree printout.
+   *     Required if problem views were captured. Otherwise, null is acceptable.
+   * @return a string for human consumption.
+   */
+  public String getErrorMessage(String errorHeader, String problemViewSuffix) {
+    Preconditions.checkArgument(!hasProblemViews || problemViewSuffix != null);
+    StringBuilder errorMessage = new StringBuilder(errorHeader);
+    if (problemViewSuffix != null) {
+      errorMessage.append(
+          String.format(
+              Locale.ROOT, "\nProblem views are marked with '%s' below.", problemViewSuffix));
+    }
+
+    errorMessage.append("\n\nView Hierarchy:\n");
+    int limit = ViewHierarchyDumps.getMessageLimit();
+    int describedViews = 0;
+    while (describedViews < views.size() && errorMessage.length() < limit) {
+      if (describedViews > 0) {
+        errorMessage.append(VIEW_SEPARATOR);
+      }
+      errorMessage.append(describe(views.get(describedViews), problemViewSuffix));
+      describedViews++;
+    }
+
+    int omittedViews = views.size() - describedViews;
+    if (omittedViews > 0) {
+      if (describedViews > 0) {
+        errorMessage.append(VIEW_SEPARATOR);
+      }
+      errorMessage.append(String.format(Locale.ROOT, "... %d more views", omittedViews));
+      if (ViewHierarchyDumps.isOutputFilesEnabled()) {
+        String outputFileName = writeViewHierarchy(errorHeader, problemViewSuffix);
+        if (outputFileName != null) {
+          errorMessage
+              .append(", full hierarchy written to test output file ")
+              .append(outputFileName);
+        }
+      }
+    }
+    return errorMessage.toString();
+  }
+
+  private static String describe(CapturedView view, String problemViewSuffix) {
+    String formatString = "+%s%s ";
+    if (view.isProblemView) {
+      formatString += problemViewSuffix;
+    }
+    return String.format(
+        Locale.ROOT,
+        formatString,
+        Strings.padStart(">", view.distanceFromRoot + 1, '-'),
+        view.description);
+  }
+
+  /**
+   * Streams the whole hierarchy to a new test output file, view by view, so that its description
+   * is never held in memory at once.
+   *
+   * @return the name of the file, or null if it could not be written.
+   */
+  private String writeViewHierarchy(String errorHeader, String problemViewSuffix) {
+    String outputFileName = ViewHierarchyDumps.nextOutputFileName();
+    boolean written =
+        TestOutputFiles.write(
+            outputFileName,
+            writer -> {
+              writer.write(errorHeader);
+              writer.write("\n\nView Hierarchy:\n");
+              boolean first = true;
+              for (CapturedView view : views) {
+                if (!first) {
+                  writer.write(VIEW_SEPARATOR);
+                }
+                first = false;
+                writer.write(describe(view, problemViewSuffix));
+              }
+            });
+    return written ? outputFileName : null;
+  }
+
+  private static final class CapturedView {
+    final int distanceFromRoot;
+    final boolean isProblemView;
+    final ViewDescription description;
+
+    CapturedView(int distanceFromRoot, boolean isProblemView, ViewDescription description) {
+      this.distanceFromRoot = distanceFromRoot;
+      this.isProblemView = isProblemView;
+      this.description = description;
+    }
+  }
+}
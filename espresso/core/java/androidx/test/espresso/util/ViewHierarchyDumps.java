@@ -0,0 +1,73 @@
+/*
+ * Copyright (C) 2021 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.test.espresso.util;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Settings of the view hierarchy dumps that {@link ViewHierarchyCapture} includes in failure
+ * messages. Exposed to users through {@code androidx.test.espresso.InteractionPolicies}.
+ *
+ * <p>This is not part of the public API.
+ *
+ * @hide
+ */
+public final class ViewHierarchyDumps {
+
+  private static final AtomicInteger dumpCount = new AtomicInteger();
+
+  private static volatile int messageLimit = Integer.MAX_VALUE;
+  private static volatile boolean outputFilesEnabled = false;
+
+  private ViewHierarchyDumps() {}
+
+  /**
+   * Sets the number of characters after which no more views are described in a failure message.
+   */
+  public static void setMessageLimit(int maxChars) {
+    checkArgument(maxChars >= 0, "maxChars must be >= 0, got %s", maxChars);
+    messageLimit = maxChars;
+  }
+
+  public static int getMessageLimit() {
+    return messageLimit;
+  }
+
+  /**
+   * Sets whether hierarchies that do not fit in a failure message are written in full to a test
+   * output file.
+   */
+  public static void setOutputFilesEnabled(boolean enabled) {
+    outputFilesEnabled = enabled;
+  }
+
+  public static boolean isOutputFilesEnabled() {
+    return outputFilesEnabled;
+  }
+
+  /** Returns the name of the next test output file to write a view hierarchy to. */
+  static String nextOutputFileName() {
+    return String.format(
+        Locale.ROOT,
+        "view-hierarchy-%d-%d.txt",
+        System.currentTimeMillis(),
+        dumpCount.incrementAndGet());
+  }
+}
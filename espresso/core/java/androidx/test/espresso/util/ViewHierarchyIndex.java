@@ -0,0 +1,48 @@
+/*
+ * Copyright (C) 2021 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.test.espresso.util;
+
+import android.view.View;
+import java.util.List;
+
+/**
+ * A read only index over a captured view hierarchy.
+ *
+ * <p>Lookups return candidates in breadth-first order. Candidates are a superset of the views that
+ * satisfy the lookup: callers must still run their matcher over every returned view.
+ *
+ * <p>This is not part of the public API.
+ *
+ * @hide
+ */
+public interface ViewHierarchyIndex {
+
+  /** Returns every view of the hierarchy in breadth-first order. */
+  List<View> allViews();
+
+  /** Returns the views whose {@link View#getId()} is equal to the given id. */
+  List<View> viewsWithId(int id);
+
+  /**
+   * Returns the {@link android.widget.TextView TextViews} whose text is equal to the given text,
+   * along with every {@link android.widget.TextView} that applies a transformation to its text.
+   */
+  List<View> viewsWithText(String text);
+
+  /** Returns the views that are instances of the given class or one of its subclasses. */
+  List<View> viewsAssignableTo(Class<?> clazz);
+}
@@ -0,0 +1,165 @@
+/*
+ * Copyright (C) 2021 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.test.espresso.util;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import android.view.View;
+import android.view.ViewGroup;
+import java.util.Arrays;
+
+/**
+ * Walks a view hierarchy one view at a time, reading children through {@link
+ * ViewGroup#getChildAt(int)} only when they are reached.
+ *
+ * <p>Apart from growing its backing arrays, a cursor does not allocate while walking the hierarchy,
+ * which makes it suitable for hot paths that visit thousands of views per interaction.
+ */
+abstract class ViewTreeCursor {
+  private static final int INITIAL_CAPACITY = 16;
+
+  int depth = -1;
+
+  /** Creates a cursor which visits views in pre-order: a parent, then each child subtree. */
+  static ViewTreeCursor depthFirst(View root) {
+    return new DepthFirst(checkNotNull(root));
+  }
+
+  /** Creates a cursor which visits views level by level. */
+  static ViewTreeCursor breadthFirst(View root) {
+    return new BreadthFirst(checkNotNull(root));
+  }
+
+  /** Returns the next view of the traversal, or null once every view has been visited. */
+  abstract View next();
+
+  /** Returns the distance from the root of the view last returned by {@link #next()}. */
+  final int depth() {
+    return depth;
+  }
+
+  /**
+   * Keeps a stack of parents along with the index of the next child to visit in each of them. The
+   * depth of a view is the size of the stack at the time it is reached.
+   */
+  private static final class DepthFirst extends ViewTreeCursor {
+    private View root;
+    private ViewGroup[] parents = new ViewGroup[INITIAL_CAPACITY];
+    private int[] nextChildIndices = new int[INITIAL_CAPACITY];
+    private int stackSize;
+
+    DepthFirst(View root) {
+      this.root = root;
+    }
+
+    @Override
+    View next() {
+      if (root != null) {
+        View first = root;
+        root = null;
+        return visit(first, 0);
+      }
+      while (stackSize > 0) {
+        int top = stackSize - 1;
+        ViewGroup parent = parents[top];
+        int childIndex = nextChildIndices[top];
+        if (childIndex < parent.getChildCount()) {
+          nextChildIndices[top] = childIndex + 1;
+          return visit(
+              checkNotNull(parent.getChildAt(childIndex), "Null items not allowed!"), stackSize);
+        }
+        parents[top] = null;
+        stackSize = top;
+      }
+      return null;
+    }
+
+    private View visit(View view, int viewDepth) {
+      depth = viewDepth;
+      if (view instanceof ViewGroup) {
+        if (stackSize == parents.length) {
+          parents = Arrays.copyOf(parents, stackSize * 2);
+          nextChildIndices = Arrays.copyOf(nextChildIndices, stackSize * 2);
+        }
+        parents[stackSize] = (ViewGroup) view;
+        nextChildIndices[stackSize] = 0;
+        stackSize++;
+      }
+      return view;
+    }
+  }
+
+  /**
+   * Keeps a ring buffer of views waiting to be visited along with their depths. The children of a
+   * view are only read when the view itself is visited.
+   */
+  private static final class BreadthFirst extends ViewTreeCursor {
+    private View[] queue = new View[INITIAL_CAPACITY];
+    private int[] depths = new int[INITIAL_CAPACITY];
+    private int head;
+    private int size;
+
+    BreadthFirst(View root) {
+      enqueue(root, 0);
+    }
+
+    @Override
+    View next() {
+      if (size == 0) {
+        return null;
+      }
+      View view = queue[head];
+      int viewDepth = depths[head];
+      queue[head] = null;
+      head = (head + 1) & (queue.length - 1);
+      size--;
+      if (view instanceof ViewGroup) {
+        ViewGroup group = (ViewGroup) view;
+        for (int i = 0, childCount = group.getChildCount(); i < childCount; i++) {
+          enqueue(checkNotNull(group.getChildAt(i), "Null items not allowed!"), viewDepth + 1);
+        }
+      }
+      depth = viewDepth;
+      return view;
+    }
+
+    private void enqueue(View view, int viewDepth) {
+      if (size == queue.length) {
+        grow();
+      }
+      int tail = (head + size) & (queue.length - 1);
+      queue[tail] = view;
+      depths[tail] = viewDepth;
+      size++;
+    }
+
+    /** Doubles the capacity of the ring buffer, unwrapping it so that it starts at index 0. */
+    private void grow() {
+      int capacity = queue.length;
+      View[] newQueue = new View[capacity * 2];
+      int[] newDepths = new int[capacity * 2];
+      int firstPart = capacity - head;
+      System.arraycopy(queue, head, newQueue, 0, firstPart);
+      System.arraycopy(queue, 0, newQueue, firstPart, head);
+      System.arraycopy(depths, head, newDepths, 0, firstPart);
+      System.arraycopy(depths, 0, newDepths, firstPart, head);
+      queue = newQueue;
+      depths = newDepths;
+      head = 0;
+    }
+  }
+}
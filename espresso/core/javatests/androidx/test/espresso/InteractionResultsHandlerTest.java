@@ -84,6 +84,29 @@ public class InteractionResultsHandlerTest {
     }
   }
 
+  @Test
+  public void verifySingleResultIsReturned() {
+    ListenableFuture<String> task = TEST_EXECUTOR_1.submit(() -> "result");
+    assertThat(InteractionResultsHandler.gatherResult(task), is("result"));
+  }
+
+  @Test
+  public void verifySingleFailureIsUnwrapped() {
+    NoActivityResumedException expectedException =
+        new NoActivityResumedException("Runnable Exception");
+    ListenableFuture<Void> task =
+        TEST_EXECUTOR_1.submit(
+            () -> {
+              throw expectedException;
+            });
+    try {
+      InteractionResultsHandler.gatherResult(task);
+      fail("Expected to throw an exception");
+    } catch (NoActivityResumedException e) {
+      assertThat(e, is(expectedException));
+    }
+  }
+
   @Test
   public void firstSuccessfulInteractionShouldCancelAllOthers() throws Throwable {
     CountDownLatch latch1 = new CountDownLatch(1);
@@ -20,13 +20,16 @@ import static androidx.test.core.app.ApplicationProvider.getApplicationContext;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.nullValue;
 
 import android.view.View;
+import android.widget.FrameLayout;
 import androidx.test.ext.junit.runners.AndroidJUnit4;
 import androidx.test.filters.SmallTest;
 import org.hamcrest.Matcher;
 import org.hamcrest.StringDescription;
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -46,6 +49,11 @@ public class NoMatchingViewExceptionTest {
     alwaysFailingMatcher = nullValue(View.class);
   }
 
+  @After
+  public void tearDown() {
+    InteractionPolicies.setFailureMessageViewHierarchyLimit(Integer.MAX_VALUE);
+  }
+
   @Test
   public void exceptionContainsMatcherDescription() {
     StringBuilder matcherDescription = new StringBuilder();
@@ -69,6 +77,43 @@ public class NoMatchingViewExceptionTest {
     assertThat("wrong view matcher description", viewMatcherDescription, equalTo("null"));
   }
 
+  @Test
+  public void exceptionViewHierarchyLimit() {
+    FrameLayout root = new FrameLayout(getApplicationContext());
+    for (int i = 0; i < 10; i++) {
+      root.addView(new View(getApplicationContext()));
+    }
+    InteractionPolicies.setFailureMessageViewHierarchyLimit(0);
+    String exceptionMessage =
+        new NoMatchingViewException.Builder()
+            .withViewMatcher(alwaysFailingMatcher)
+            .withRootView(root)
+            .build()
+            .getMessage();
+
+    assertThat(exceptionMessage, not(containsString("FrameLayout{")));
+    assertThat(exceptionMessage, containsString("... 11 more views"));
+  }
+
+  @Test
+  public void exceptionDescribesViewsAsCapturedOnCreation() throws Exception {
+    final NoMatchingViewException exception = createException();
+    testView.setId(1);
+    final String[] otherThreadMessage = new String[1];
+    Thread otherThread =
+        new Thread() {
+          @Override
+          public void run() {
+            otherThreadMessage[0] = exception.getMessage();
+          }
+        };
+    otherThread.start();
+    otherThread.join();
+
+    assertThat(otherThreadMessage[0], containsString("{id=0,"));
+    assertThat(exception.getMessage(), equalTo(otherThreadMessage[0]));
+  }
+
   private NoMatchingViewException createException() {
     return new NoMatchingViewException.Builder()
         .withViewMatcher(alwaysFailingMatcher)
@@ -0,0 +1,200 @@
+/*
+ * Copyright (C) 2021 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.test.espresso;
+
+import static androidx.test.platform.app.InstrumentationRegistry.getInstrumentation;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import android.os.IBinder;
+import android.util.Log;
+import android.view.KeyEvent;
+import android.view.MotionEvent;
+import android.view.View;
+import androidx.test.espresso.base.InterruptableUiController;
+import androidx.test.espresso.matcher.RootMatchers;
+import androidx.test.espresso.remote.NoopRemoteInteraction;
+import androidx.test.espresso.remote.RemoteInteraction;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.filters.LargeTest;
+import androidx.test.internal.platform.os.ControlledLooper;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import org.hamcrest.Matcher;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * Measures the overhead Espresso adds to each interaction, with and without remote Espresso
+ * instances to fan out to.
+ *
+ * <p>The view lookup and the assertion do no work, so the reported time per check is the cost of
+ * scheduling the interaction and gathering its result. Timings depend on the device and are only
+ * logged, the test asserts that no remote interaction is sent when there can be no remote Espresso.
+ */
+@LargeTest
+@RunWith(AndroidJUnit4.class)
+public class ViewInteractionBenchmarkTest {
+  private static final String TAG = "ViewInteractionBenchmark";
+  private static final int CHECKS = 2000;
+
+  private final ViewAssertion noopAssertion =
+      new ViewAssertion() {
+        @Override
+        public void check(View view, NoMatchingViewException noViewFoundException) {}
+      };
+
+  private ListeningExecutorService remoteExecutor;
+  private View targetView;
+
+  @Before
+  public void setUp() {
+    remoteExecutor = MoreExecutors.listeningDecorator(Executors.newCachedThreadPool());
+    targetView = new View(getInstrumentation().getContext());
+  }
+
+  @After
+  public void tearDown() {
+    remoteExecutor.shutdownNow();
+  }
+
+  @Test
+  public void checkOverhead() {
+    CountingRemoteInteraction localOnlyRemote = new CountingRemoteInteraction(true);
+    CountingRemoteInteraction multiProcessRemote = new CountingRemoteInteraction(false);
+    ViewInteraction localOnly = createInteraction(localOnlyRemote);
+    ViewInteraction multiProcess = createInteraction(multiProcessRemote);
+
+    // Warm up, so that class loading and JIT compilation are not counted.
+    measure(localOnly);
+    measure(multiProcess);
+
+    long localOnlyNanos = measure(localOnly);
+    long multiProcessNanos = measure(multiProcess);
+    Log.i(
+        TAG,
+        String.format(
+            Locale.ROOT,
+            "%d checks: local only %dns per check, with remote instances %dns per check",
+            CHECKS,
+            localOnlyNanos,
+            multiProcessNanos));
+    assertThat(localOnlyRemote.remoteChecks.get(), is(0));
+    assertThat(multiProcessRemote.remoteChecks.get(), is(2 * CHECKS));
+  }
+
+  private long measure(ViewInteraction interaction) {
+    long start = System.nanoTime();
+    for (int i = 0; i < CHECKS; i++) {
+      interaction.check(noopAssertion);
+    }
+    return (System.nanoTime() - start) / CHECKS;
+  }
+
+  private ViewInteraction createInteraction(RemoteInteraction remoteInteraction) {
+    return new ViewInteraction(
+        new NoopUiController(),
+        new ViewFinder() {
+          @Override
+          public View getView() {
+            return targetView;
+          }
+        },
+        MoreExecutors.directExecutor(),
+        new FailureHandler() {
+          @Override
+          public void handle(Throwable error, Matcher<View> viewMatcher) {
+            throw new AssertionError(error);
+          }
+        },
+        is(targetView),
+        new AtomicReference<>(RootMatchers.DEFAULT),
+        new AtomicReference<>(false),
+        remoteInteraction,
+        remoteExecutor,
+        ControlledLooper.NO_OP_CONTROLLED_LOOPER);
+  }
+
+  /**
+   * Counts the remote checks created. Unless local only, behaves like a multi-process setup whose
+   * remote processes never respond: remote interactions wait until they are cancelled, which
+   * happens once the local interaction succeeded.
+   */
+  private static final class CountingRemoteInteraction extends NoopRemoteInteraction {
+    final AtomicInteger remoteChecks = new AtomicInteger();
+    private final boolean localOnly;
+
+    CountingRemoteInteraction(boolean localOnly) {
+      this.localOnly = localOnly;
+    }
+
+    @Override
+    public boolean isLocalOnly() {
+      return localOnly;
+    }
+
+    @Override
+    public Callable<Void> createRemoteCheckCallable(
+        Matcher<Root> rootMatcher,
+        Matcher<View> viewMatcher,
+        Map<String, IBinder> iBinders,
+        ViewAssertion viewAssertion) {
+      remoteChecks.incrementAndGet();
+      return new Callable<Void>() {
+        @Override
+        public Void call() throws InterruptedException {
+          Thread.sleep(Long.MAX_VALUE);
+          return null;
+        }
+      };
+    }
+  }
+
+  private static final class NoopUiController implements InterruptableUiController {
+    @Override
+    public boolean injectMotionEvent(MotionEvent event) {
+      return true;
+    }
+
+    @Override
+    public boolean injectKeyEvent(KeyEvent event) {
+      return true;
+    }
+
+    @Override
+    public boolean injectString(String str) {
+      return true;
+    }
+
+    @Override
+    public void loopMainThreadUntilIdle() {}
+
+    @Override
+    public void loopMainThreadForAtLeast(long millisDelay) {}
+
+    @Override
+    public void interruptEspressoTasks() {}
+  }
+}
@@ -32,6 +32,9 @@ import static org.junit.Assert.fail;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyMap;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.mockito.MockitoAnnotations.initMocks;
@@ -61,6 +64,7 @@ import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.hamcrest.MockitoHamcrest;
@@ -208,6 +212,81 @@ public class ViewInteractionTest {
     verify(mockAssertion).check(targetView, null);
   }
 
+  @Test
+  public void verifyBatchRunsStepsInOrder() {
+    when(mockViewFinder.getView()).thenReturn(targetView);
+    initWithViewInteraction();
+    testInteraction.perform(
+        new InteractionBatch().check(mockAssertion).perform(mockAction).check(mockAssertion));
+    InOrder inOrder = inOrder(mockAssertion, mockAction);
+    inOrder.verify(mockAssertion).check(targetView, null);
+    inOrder.verify(mockAction).perform(mockUiController, targetView);
+    inOrder.verify(mockAssertion).check(targetView, null);
+    // The root and the target view are selected again for every step.
+    verify(mockViewFinder, times(3)).getView();
+  }
+
+  @Test
+  public void verifyBatchStopsAtFirstFailure() {
+    RuntimeException exceptionToRaise = new RuntimeException("testBatchStopsAtFirstFailure");
+    when(mockViewFinder.getView()).thenReturn(targetView);
+    doThrow(exceptionToRaise).when(mockAction).perform(mockUiController, targetView);
+    initWithViewInteraction();
+    try {
+      testInteraction.perform(new InteractionBatch().perform(mockAction).check(mockAssertion));
+      fail("Should propagate exception stored in view operation!");
+    } catch (RuntimeException re) {
+      assertThat(re, is(exceptionToRaise));
+      verify(mockAssertion, never()).check(targetView, null);
+    }
+  }
+
+  @Test
+  public void verifyBatchViolatingConstraints() {
+    actionConstraint = not(viewMatcher);
+    when(mockViewFinder.getView()).thenReturn(targetView);
+    initWithViewInteraction();
+    try {
+      testInteraction.perform(new InteractionBatch().perform(mockAction));
+      fail("should propagate constraint violation!");
+    } catch (RuntimeException re) {
+      if (!PerformException.class.isAssignableFrom(re.getClass())) {
+        throw re;
+      }
+    }
+  }
+
+  @Test
+  public void verifyBatchChecksMissingView() {
+    NoMatchingViewException missingView =
+        new NoMatchingViewException.Builder()
+            .withViewMatcher(viewMatcher)
+            .withRootView(rootView)
+            .build();
+    when(mockViewFinder.getView()).thenThrow(missingView);
+    initWithViewInteraction();
+    testInteraction.perform(new InteractionBatch().check(mockAssertion));
+    verify(mockAssertion).check(null, missingView);
+  }
+
+  @Test
+  public void verifyBatchWithSuccessfulRemoteInteraction() {
+    initWithRunPerformWithSuccessfulRemoteInteraction();
+    initWithRunCheckWithSuccessfulRemoteInteraction();
+    initWithViewInteraction();
+
+    testInteraction.perform(new InteractionBatch().perform(mockAction).check(mockAssertion));
+    verify(mockRemoteInteraction).isRemoteProcess();
+    // noinspection unchecked
+    verify(mockRemoteInteraction)
+        .createRemotePerformCallable(
+            any(Matcher.class), any(Matcher.class), anyMap(), any(ViewAction.class));
+    // noinspection unchecked
+    verify(mockRemoteInteraction)
+        .createRemoteCheckCallable(
+            any(Matcher.class), any(Matcher.class), anyMap(), any(ViewAssertion.class));
+  }
+
   @Test
   public void verifyInRootUpdatesRef() {
     initWithViewInteraction();
@@ -252,6 +331,23 @@ public class ViewInteractionTest {
     verify(customFailureHandler).handle(exceptionToRaise, viewMatcher);
   }
 
+  @Test
+  public void verifyLocalOnlyCheckSkipsRemoteInteraction() {
+    when(mockViewFinder.getView()).thenReturn(targetView);
+    when(mockRemoteInteraction.isRemoteProcess()).thenReturn(false);
+    when(mockRemoteInteraction.isLocalOnly()).thenReturn(true);
+    initWithViewInteraction();
+    testInteraction.check(mockAssertion).perform(mockAction);
+    verify(mockAssertion).check(targetView, null);
+    verify(mockAction).perform(mockUiController, targetView);
+    verify(mockRemoteInteraction, never())
+        .createRemoteCheckCallable(
+            any(Matcher.class), any(Matcher.class), anyMap(), any(ViewAssertion.class));
+    verify(mockRemoteInteraction, never())
+        .createRemotePerformCallable(
+            any(Matcher.class), any(Matcher.class), anyMap(), any(ViewAction.class));
+  }
+
   @Test
   public void verifySuccessfulCheckWithFailingRemoteInteraction() {
     Callable<Void> failingRemoteInteraction =
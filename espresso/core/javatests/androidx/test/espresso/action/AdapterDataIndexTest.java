@@ -0,0 +1,115 @@
+/*
+ * Copyright (C) 2021 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.test.espresso.action;
+
+import static androidx.test.platform.app.InstrumentationRegistry.getInstrumentation;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+
+import android.content.Context;
+import android.widget.ArrayAdapter;
+import android.widget.ListView;
+import androidx.test.annotation.UiThreadTest;
+import androidx.test.espresso.action.AdapterViewProtocol.AdaptedData;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.filters.SmallTest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.hamcrest.BaseMatcher;
+import org.hamcrest.Description;
+import org.hamcrest.Matcher;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/** Unit tests for {@link AdapterDataIndex}. */
+@SmallTest
+@RunWith(AndroidJUnit4.class)
+public class AdapterDataIndexTest {
+
+  private final AdapterViewProtocol protocol = AdapterViewProtocols.standardProtocol();
+  private ListView list;
+  private ArrayAdapter<String> adapter;
+  private int evaluations;
+
+  @Before
+  public void setUp() {
+    Context context = getInstrumentation().getTargetContext();
+    list = new ListView(context);
+    adapter =
+        new ArrayAdapter<>(
+            context,
+            android.R.layout.simple_list_item_1,
+            new ArrayList<>(Arrays.asList("one", "two", "three")));
+  }
+
+  @Test
+  @UiThreadTest
+  public void noAdapter() {
+    assertThat(AdapterDataIndex.obtain(list, protocol), is(nullValue()));
+  }
+
+  @Test
+  @UiThreadTest
+  public void adaptedDataReusedUntilDataSetChanged() {
+    list.setAdapter(adapter);
+    List<AdaptedData> data = AdapterDataIndex.obtain(list, protocol).getData();
+    assertThat(data.size(), is(3));
+    assertThat(AdapterDataIndex.obtain(list, protocol).getData(), sameInstance(data));
+
+    adapter.add("four");
+    List<AdaptedData> changed = AdapterDataIndex.obtain(list, protocol).getData();
+    assertThat(changed.size(), is(4));
+    assertThat(changed.get(3).getData(), is((Object) "four"));
+  }
+
+  @Test
+  @UiThreadTest
+  public void lookupWithSameMatcherNotEvaluatedAgain() {
+    list.setAdapter(adapter);
+    Matcher<Object> two = countingEqualTo("two");
+    List<AdaptedData> matched = AdapterDataIndex.obtain(list, protocol).lookup(two);
+    assertThat(matched.size(), is(1));
+    assertThat(matched.get(0).getData(), is((Object) "two"));
+    assertThat(evaluations, is(3));
+
+    assertThat(AdapterDataIndex.obtain(list, protocol).lookup(two), sameInstance(matched));
+    assertThat(evaluations, is(3));
+
+    adapter.remove("one");
+    assertThat(AdapterDataIndex.obtain(list, protocol).lookup(two).size(), is(1));
+    assertThat(evaluations, is(5));
+  }
+
+  private Matcher<Object> countingEqualTo(final Object expected) {
+    return new BaseMatcher<Object>() {
+      @Override
+      public boolean matches(Object item) {
+        evaluations++;
+        return expected.equals(item);
+      }
+
+      @Override
+      public void describeTo(Description description) {
+        description.appendValue(expected);
+      }
+    };
+  }
+}
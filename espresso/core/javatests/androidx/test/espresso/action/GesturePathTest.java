@@ -0,0 +1,148 @@
+/*
+ * Copyright (C) 2021 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.test.espresso.action;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+
+import android.view.MotionEvent;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.filters.SmallTest;
+import java.util.Iterator;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/** Unit tests for {@link GesturePath}. */
+@SmallTest
+@RunWith(AndroidJUnit4.class)
+public class GesturePathTest {
+
+  private static final float DELTA = 0.001f;
+
+  @Test
+  public void singlePointer() {
+    GesturePath path =
+        new GesturePath.Builder()
+            .addPointer(new float[] {0, 0}, new float[] {120, 240})
+            .withDuration(100)
+            .withMoveCount(2)
+            .build();
+    Iterator<MotionEvent> events = path.events(1000).iterator();
+
+    assertEvent(events.next(), MotionEvent.ACTION_DOWN, 1000, 0, 0);
+    assertEvent(events.next(), MotionEvent.ACTION_MOVE, 1050, 30, 60);
+    assertEvent(events.next(), MotionEvent.ACTION_MOVE, 1100, 60, 120);
+    assertEvent(events.next(), MotionEvent.ACTION_UP, 1150, 120, 240);
+    assertFalse(events.hasNext());
+  }
+
+  @Test
+  public void pinch() {
+    GesturePath path =
+        new GesturePath.Builder()
+            .addPointer(new float[] {100, 100}, new float[] {0, 0})
+            .addPointer(new float[] {200, 200}, new float[] {300, 300})
+            .withDuration(30)
+            .withMoveCount(3)
+            .build();
+    Iterator<MotionEvent> events = path.events(0).iterator();
+
+    MotionEvent down = events.next();
+    assertEquals(MotionEvent.ACTION_DOWN, down.getActionMasked());
+    assertEquals(1, down.getPointerCount());
+
+    MotionEvent pointerDown = events.next();
+    assertEquals(MotionEvent.ACTION_POINTER_DOWN, pointerDown.getActionMasked());
+    assertEquals(1, pointerDown.getActionIndex());
+    assertEquals(2, pointerDown.getPointerCount());
+    assertEquals(200f, pointerDown.getX(1), DELTA);
+
+    for (int i = 1; i <= 3; i++) {
+      MotionEvent move = events.next();
+      assertEquals(MotionEvent.ACTION_MOVE, move.getActionMasked());
+      assertEquals(2, move.getPointerCount());
+      assertEquals(i * 10, move.getEventTime());
+      assertEquals(100 - i * 20f, move.getX(0), DELTA);
+      assertEquals(200 + i * 20f, move.getX(1), DELTA);
+      assertEquals(1, move.getPointerId(1));
+    }
+
+    MotionEvent pointerUp = events.next();
+    assertEquals(MotionEvent.ACTION_POINTER_UP, pointerUp.getActionMasked());
+    assertEquals(1, pointerUp.getActionIndex());
+    assertEquals(300f, pointerUp.getX(1), DELTA);
+    assertEquals(40, pointerUp.getEventTime());
+
+    MotionEvent up = events.next();
+    assertEquals(MotionEvent.ACTION_UP, up.getActionMasked());
+    assertEquals(1, up.getPointerCount());
+    assertEquals(0f, up.getX(), DELTA);
+    assertFalse(events.hasNext());
+  }
+
+  @Test
+  public void recycle_recyclesLastEventOfEveryIterator() {
+    GesturePath.Events events =
+        new GesturePath.Builder()
+            .addPointer(new float[] {0, 0}, new float[] {10, 10})
+            .withMoveCount(1)
+            .build()
+            .events(0);
+    MotionEvent first = events.iterator().next();
+    Iterator<MotionEvent> iterator = events.iterator();
+    MotionEvent last = null;
+    while (iterator.hasNext()) {
+      last = iterator.next();
+    }
+
+    events.recycle();
+
+    assertRecycled(first);
+    assertRecycled(last);
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void recycle_endsIteration() {
+    GesturePath.Events events =
+        new GesturePath.Builder()
+            .addPointer(new float[] {0, 0}, new float[] {10, 10})
+            .build()
+            .events(0);
+    Iterator<MotionEvent> iterator = events.iterator();
+    iterator.next();
+
+    events.recycle();
+    iterator.next();
+  }
+
+  private static void assertRecycled(MotionEvent event) {
+    try {
+      event.recycle();
+      fail("Expected " + event + " to be recycled already");
+    } catch (RuntimeException expected) {
+      // recycled twice.
+    }
+  }
+
+  private static void assertEvent(MotionEvent event, int action, long time, float x, float y) {
+    assertEquals(action, event.getActionMasked());
+    assertEquals(time, event.getEventTime());
+    assertEquals(x, event.getX(), DELTA);
+    assertEquals(y, event.getY(), DELTA);
+  }
+}
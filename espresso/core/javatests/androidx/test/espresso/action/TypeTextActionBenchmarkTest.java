@@ -0,0 +1,155 @@
+/*
+ * Copyright (C) 2021 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.test.espresso.action;
+
+import static androidx.test.espresso.Espresso.onView;
+import static androidx.test.espresso.action.ViewActions.clearText;
+import static androidx.test.espresso.action.ViewActions.typeText;
+import static androidx.test.espresso.assertion.ViewAssertions.matches;
+import static androidx.test.espresso.matcher.ViewMatchers.withId;
+import static androidx.test.espresso.matcher.ViewMatchers.withText;
+import static org.junit.Assert.assertEquals;
+
+import android.os.SystemClock;
+import android.text.Editable;
+import android.text.TextWatcher;
+import android.util.Log;
+import android.widget.EditText;
+import androidx.test.espresso.InteractionPolicies;
+import androidx.test.ext.junit.rules.ActivityScenarioRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.filters.LargeTest;
+import androidx.test.filters.SdkSuppress;
+import androidx.test.ui.app.R;
+import androidx.test.ui.app.SendActivity;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * Compares how {@link TypeTextAction} types a long string with key events injected one at a time,
+ * with batched key events and through the input connection of the view.
+ *
+ * <p>Asserts the number of text changes the application sees in each mode, and only logs the
+ * characters typed per second, since wall-clock timings depend on the device.
+ */
+@LargeTest
+@RunWith(AndroidJUnit4.class)
+public class TypeTextActionBenchmarkTest {
+  private static final String TAG = "TypeTextActionBenchmark";
+  private static final String TEXT =
+      "The quick brown fox jumps over the lazy dog. 0123456789 THE QUICK BROWN FOX JUMPS OVER"
+          + " THE LAZY DOG! the quick brown fox jumps over the lazy dog? 9876543210 The Quick"
+          + " Brown Fox Jumps Over The Lazy Dog.";
+  private static final int COMMIT_CHUNK_LENGTH = 64;
+
+  private final AtomicInteger textChanges = new AtomicInteger();
+
+  @Rule
+  public ActivityScenarioRule<SendActivity> rule = new ActivityScenarioRule<>(SendActivity.class);
+
+  @Before
+  public void setUp() {
+    rule.getScenario()
+        .onActivity(
+            activity ->
+                ((EditText) activity.findViewById(R.id.send_data_to_call_edit_text))
+                    .addTextChangedListener(
+                        new TextWatcher() {
+                          @Override
+                          public void beforeTextChanged(
+                              CharSequence s, int start, int count, int after) {}
+
+                          @Override
+                          public void onTextChanged(
+                              CharSequence s, int start, int before, int count) {
+                            if (count > 0) {
+                              textChanges.incrementAndGet();
+                            }
+                          }
+
+                          @Override
+                          public void afterTextChanged(Editable s) {}
+                        }));
+  }
+
+  @After
+  public void tearDown() {
+    InteractionPolicies.setBatchedTextEntryEnabled(false);
+    InteractionPolicies.setInputConnectionTextEntryEnabled(false);
+  }
+
+  @Test
+  public void typeLongText_keyEvents() {
+    warmUp();
+    double charsPerSecond = measure();
+    assertEquals(TEXT.length(), textChanges.get());
+    log("key events", charsPerSecond);
+  }
+
+  @Test
+  public void typeLongText_batchedKeyEvents() {
+    InteractionPolicies.setBatchedTextEntryEnabled(true);
+    warmUp();
+    double charsPerSecond = measure();
+    // every key event is still delivered on its own.
+    assertEquals(TEXT.length(), textChanges.get());
+    log("batched key events", charsPerSecond);
+  }
+
+  @Test
+  @SdkSuppress(minSdkVersion = 24)
+  public void typeLongText_inputConnection() {
+    InteractionPolicies.setInputConnectionTextEntryEnabled(true);
+    warmUp();
+    double charsPerSecond = measure();
+    int chunks = (TEXT.length() + COMMIT_CHUNK_LENGTH - 1) / COMMIT_CHUNK_LENGTH;
+    assertEquals(chunks, textChanges.get());
+    log("input connection", charsPerSecond);
+  }
+
+  /** Types the text once, so that class loading and key character map lookups are not counted. */
+  private void warmUp() {
+    measure();
+  }
+
+  /** Types the text and returns the number of characters typed per second. */
+  private double measure() {
+    onView(withId(R.id.send_data_to_call_edit_text)).perform(clearText());
+    textChanges.set(0);
+    long start = SystemClock.uptimeMillis();
+    onView(withId(R.id.send_data_to_call_edit_text)).perform(typeText(TEXT));
+    long elapsedMillis = Math.max(1, SystemClock.uptimeMillis() - start);
+    onView(withId(R.id.send_data_to_call_edit_text)).check(matches(withText(TEXT)));
+    return TEXT.length() * 1000.0 / elapsedMillis;
+  }
+
+  private static void log(String mode, double charsPerSecond) {
+    Log.i(
+        TAG,
+        String.format(
+            Locale.ROOT,
+            "%d characters, %s: %.1f characters per second",
+            TEXT.length(),
+            mode,
+            charsPerSecond));
+  }
+}
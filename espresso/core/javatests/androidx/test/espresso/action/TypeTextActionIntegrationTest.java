@@ -31,12 +31,15 @@ import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.is;
 import static org.junit.rules.ExpectedException.none;
 
+import androidx.test.espresso.InteractionPolicies;
 import androidx.test.espresso.PerformException;
 import androidx.test.ext.junit.rules.ActivityScenarioRule;
 import androidx.test.ext.junit.runners.AndroidJUnit4;
 import androidx.test.filters.LargeTest;
+import androidx.test.filters.SdkSuppress;
 import androidx.test.ui.app.R;
 import androidx.test.ui.app.SendActivity;
+import org.junit.After;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
@@ -52,6 +55,12 @@ public class TypeTextActionIntegrationTest {
   @Rule
   public ActivityScenarioRule<SendActivity> rule = new ActivityScenarioRule<>(SendActivity.class);
 
+  @After
+  public void tearDown() {
+    InteractionPolicies.setBatchedTextEntryEnabled(false);
+    InteractionPolicies.setInputConnectionTextEntryEnabled(false);
+  }
+
   @Test
   public void typeTextActionPerform() {
     onView(withId(is(R.id.send_data_to_call_edit_text))).perform(typeText("Hello!"));
@@ -77,6 +86,27 @@ public class TypeTextActionIntegrationTest {
                     "Hello World How Are You Today? I have alot of text to type.Jolly good!")));
   }
 
+  @Test
+  public void typeTextWithBatchedKeyEvents() {
+    InteractionPolicies.setBatchedTextEntryEnabled(true);
+    onView(withId(is(R.id.send_data_to_call_edit_text))).perform(typeText("Hello World!"));
+    onView(withId(is(R.id.send_data_to_call_edit_text)))
+        .perform(typeTextIntoFocusedView(" Hello again!"));
+    onView(withId(is(R.id.send_data_to_call_edit_text)))
+        .check(matches(withText("Hello World! Hello again!")));
+  }
+
+  @Test
+  @SdkSuppress(minSdkVersion = 24)
+  public void typeTextThroughInputConnection() {
+    InteractionPolicies.setInputConnectionTextEntryEnabled(true);
+    onView(withId(is(R.id.send_data_to_call_edit_text))).perform(typeText("Hello World!"));
+    onView(withId(is(R.id.send_data_to_call_edit_text)))
+        .perform(typeTextIntoFocusedView(" Hello again!"));
+    onView(withId(is(R.id.send_data_to_call_edit_text)))
+        .check(matches(withText("Hello World! Hello again!")));
+  }
+
   /**
    * Test only passes if run in isolation. Unless Gradle supports a single instrumentation per test
    * this test is ignored"
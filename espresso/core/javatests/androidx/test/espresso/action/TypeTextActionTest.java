@@ -18,25 +18,41 @@ package androidx.test.espresso.action;
 
 import static androidx.test.core.app.ApplicationProvider.getApplicationContext;
 import static org.hamcrest.CoreMatchers.not;
+import static org.junit.Assert.fail;
 import static org.junit.rules.ExpectedException.none;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.isA;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.mockito.MockitoAnnotations.initMocks;
 
 import androidx.annotation.NonNull;
+import android.content.Context;
 import android.view.MotionEvent;
 import android.view.View;
+import android.view.inputmethod.EditorInfo;
+import android.view.inputmethod.InputConnection;
 import androidx.test.espresso.InjectEventSecurityException;
+import androidx.test.espresso.InteractionPolicies;
 import androidx.test.espresso.PerformException;
 import androidx.test.espresso.UiController;
 import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.filters.SdkSuppress;
 import androidx.test.filters.SmallTest;
+import com.google.common.base.Strings;
+import javax.annotation.Nullable;
 import org.hamcrest.CustomTypeSafeMatcher;
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
 import org.junit.runner.RunWith;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 
 /** Unit tests for {@link TypeTextAction}. */
@@ -45,6 +61,7 @@ import org.mockito.Mock;
 public class TypeTextActionTest {
   @Rule public ExpectedException expectedException = none();
   @Mock private UiController mockUiController;
+  @Mock private InputConnection mockInputConnection;
 
   private View view;
 
@@ -56,6 +73,11 @@ public class TypeTextActionTest {
     view = new View(getApplicationContext());
   }
 
+  @After
+  public void tearDown() {
+    InteractionPolicies.setInputConnectionTextEntryEnabled(false);
+  }
+
   @Test
   public void typeTextActionPerform() throws InjectEventSecurityException {
     String stringToBeTyped = "Hello!";
@@ -91,6 +113,102 @@ public class TypeTextActionTest {
     typeTextAction.perform(mockUiController, view);
   }
 
+  @Test
+  @SdkSuppress(minSdkVersion = 24)
+  public void inputConnectionTextEntry_commitsTextAndClosesConnection()
+      throws InjectEventSecurityException {
+    InteractionPolicies.setInputConnectionTextEntryEnabled(true);
+    when(mockInputConnection.commitText("Hello!", 1)).thenReturn(true);
+
+    new TypeTextAction("Hello!", false)
+        .perform(mockUiController, new FocusedView(getApplicationContext(), mockInputConnection));
+
+    InOrder inOrder = inOrder(mockInputConnection, mockUiController);
+    inOrder.verify(mockInputConnection).commitText("Hello!", 1);
+    inOrder.verify(mockUiController).loopMainThreadUntilIdle();
+    inOrder.verify(mockInputConnection).closeConnection();
+    verify(mockUiController, never()).injectString(anyString());
+  }
+
+  @Test
+  @SdkSuppress(minSdkVersion = 24)
+  public void inputConnectionTextEntry_longTextCommittedInChunks() {
+    InteractionPolicies.setInputConnectionTextEntryEnabled(true);
+    String stringToBeTyped = Strings.repeat("a", 150);
+    when(mockInputConnection.commitText(anyString(), anyInt())).thenReturn(true);
+
+    new TypeTextAction(stringToBeTyped, false)
+        .perform(mockUiController, new FocusedView(getApplicationContext(), mockInputConnection));
+
+    InOrder inOrder = inOrder(mockInputConnection);
+    inOrder.verify(mockInputConnection, times(2)).commitText(Strings.repeat("a", 64), 1);
+    inOrder.verify(mockInputConnection).commitText(Strings.repeat("a", 22), 1);
+    inOrder.verify(mockInputConnection).closeConnection();
+    verify(mockUiController, times(3)).loopMainThreadUntilIdle();
+  }
+
+  @Test
+  @SdkSuppress(minSdkVersion = 24)
+  public void inputConnectionTextEntry_commitFailed_closesConnection() {
+    InteractionPolicies.setInputConnectionTextEntryEnabled(true);
+    when(mockInputConnection.commitText("Hello!", 1)).thenReturn(false);
+
+    try {
+      new TypeTextAction("Hello!", false)
+          .perform(
+              mockUiController, new FocusedView(getApplicationContext(), mockInputConnection));
+      fail("Expected a PerformException");
+    } catch (PerformException expected) {
+      verify(mockInputConnection).closeConnection();
+    }
+  }
+
+  @Test
+  public void inputConnectionTextEntry_noInputConnection_fallsBackToKeyEvents()
+      throws InjectEventSecurityException {
+    InteractionPolicies.setInputConnectionTextEntryEnabled(true);
+    when(mockUiController.injectString("Hello!")).thenReturn(true);
+
+    new TypeTextAction("Hello!", false)
+        .perform(mockUiController, new FocusedView(getApplicationContext(), null));
+
+    verify(mockUiController).injectString("Hello!");
+  }
+
+  @Test
+  @SdkSuppress(maxSdkVersion = 23)
+  public void inputConnectionTextEntry_beforeApi24_fallsBackToKeyEvents()
+      throws InjectEventSecurityException {
+    InteractionPolicies.setInputConnectionTextEntryEnabled(true);
+    when(mockUiController.injectString("Hello!")).thenReturn(true);
+
+    new TypeTextAction("Hello!", false)
+        .perform(mockUiController, new FocusedView(getApplicationContext(), mockInputConnection));
+
+    verify(mockUiController).injectString("Hello!");
+    verify(mockInputConnection, never()).commitText(anyString(), anyInt());
+  }
+
+  /** A view that reports itself as focused and returns the given input connection. */
+  private static final class FocusedView extends View {
+    @Nullable private final InputConnection inputConnection;
+
+    FocusedView(Context context, @Nullable InputConnection inputConnection) {
+      super(context);
+      this.inputConnection = inputConnection;
+    }
+
+    @Override
+    public View findFocus() {
+      return this;
+    }
+
+    @Override
+    public InputConnection onCreateInputConnection(EditorInfo outAttrs) {
+      return inputConnection;
+    }
+  }
+
   @NonNull
   private static CustomTypeSafeMatcher<Throwable> instanceOfInjectEventSecurityException() {
     return new CustomTypeSafeMatcher<Throwable>("instanceof InjectEventSecurityException") {
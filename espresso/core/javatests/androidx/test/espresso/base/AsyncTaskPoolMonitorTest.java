@@ -209,4 +209,71 @@ public class AsyncTaskPoolMonitorTest {
     assertTrue(notificationLatch.await(1, TimeUnit.SECONDS));
     assertTrue(monitor.isIdleNow());
   }
+
+  @Test
+  public void countingExecutor_notifiesWhenLastTaskFinishes() throws Exception {
+    CountingExecutor countingExecutor = new CountingExecutor(testThreadPool);
+    monitor = new AsyncTaskPoolMonitor(countingExecutor);
+    assertTrue(monitor.isIdleNow());
+
+    final CountDownLatch runLatch = new CountDownLatch(1);
+    final CountDownLatch exitLatch = new CountDownLatch(1);
+    countingExecutor.execute(
+        new Runnable() {
+          @Override
+          public void run() {
+            runLatch.countDown();
+            try {
+              exitLatch.await();
+            } catch (InterruptedException ie) {
+              throw new RuntimeException(ie);
+            }
+          }
+        });
+    assertTrue(runLatch.await(1, TimeUnit.SECONDS));
+    assertFalse(monitor.isIdleNow());
+
+    final CountDownLatch notificationLatch = new CountDownLatch(1);
+    monitor.notifyWhenIdle(
+        new Runnable() {
+          @Override
+          public void run() {
+            notificationLatch.countDown();
+          }
+        });
+    // no blocking tasks were placed on the pool.
+    assertTrue(testThreadPool.getQueue().isEmpty());
+    assertFalse(notificationLatch.await(10, TimeUnit.MILLISECONDS));
+    exitLatch.countDown();
+    assertTrue(notificationLatch.await(1, TimeUnit.SECONDS));
+    assertTrue(monitor.isIdleNow());
+  }
+
+  @Test
+  public void countingExecutor_waitsForUncountedTasks() throws Exception {
+    final CountDownLatch runLatch = new CountDownLatch(1);
+    final CountDownLatch exitLatch = new CountDownLatch(1);
+    @SuppressWarnings({"unused", "nullness"}) // go/futurereturn-lsc
+    Future<?> possiblyIgnoredError =
+        testThreadPool.submit(
+            new Runnable() {
+              @Override
+              public void run() {
+                runLatch.countDown();
+                try {
+                  exitLatch.await();
+                } catch (InterruptedException ie) {
+                  throw new RuntimeException(ie);
+                }
+              }
+            });
+    assertTrue(runLatch.await(1, TimeUnit.SECONDS));
+
+    monitor = new AsyncTaskPoolMonitor(new CountingExecutor(testThreadPool));
+    assertFalse(monitor.isIdleNow());
+    exitLatch.countDown();
+    testThreadPool.shutdown();
+    assertTrue(testThreadPool.awaitTermination(1, TimeUnit.SECONDS));
+    assertTrue(monitor.isIdleNow());
+  }
 }
@@ -0,0 +1,108 @@
+/*
+ * Copyright (C) 2021 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.test.espresso.base;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.filters.SmallTest;
+import com.google.common.base.Optional;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/** Unit tests for {@link CountingExecutor}. */
+@SmallTest
+@RunWith(AndroidJUnit4.class)
+public class CountingExecutorTest {
+
+  private static final ThreadPoolExecutor POOL =
+      new ThreadPoolExecutor(1, 1, 1, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>());
+
+  @SuppressWarnings("unused") // replaced reflectively
+  private static Executor executor = POOL;
+
+  @SuppressWarnings("unused") // replaced reflectively
+  private static ThreadPoolExecutor typedExecutor = POOL;
+
+  @After
+  public void tearDown() {
+    executor = POOL;
+  }
+
+  @Test
+  public void install() throws Exception {
+    Optional<CountingExecutor> installed =
+        CountingExecutor.install(CountingExecutorTest.class.getDeclaredField("executor"));
+    assertTrue(installed.isPresent());
+    assertThat(executor, sameInstance((Executor) installed.get()));
+    assertThat(installed.get().getPool(), sameInstance(POOL));
+
+    // installing again returns the same executor.
+    assertThat(
+        CountingExecutor.install(CountingExecutorTest.class.getDeclaredField("executor")).get(),
+        sameInstance(installed.get()));
+  }
+
+  @Test
+  public void install_fieldTypeTooNarrow() throws Exception {
+    assertFalse(
+        CountingExecutor.install(CountingExecutorTest.class.getDeclaredField("typedExecutor"))
+            .isPresent());
+    assertThat(typedExecutor, sameInstance(POOL));
+  }
+
+  @Test
+  public void rejectedTaskIsNotPending() {
+    ThreadPoolExecutor pool =
+        new ThreadPoolExecutor(1, 1, 1, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>());
+    pool.shutdown();
+    CountingExecutor countingExecutor = new CountingExecutor(pool);
+    try {
+      countingExecutor.execute(
+          new Runnable() {
+            @Override
+            public void run() {}
+          });
+      fail("Expected RejectedExecutionException");
+    } catch (RejectedExecutionException expected) {
+      // expected.
+    }
+    assertThat(countingExecutor.getPendingTaskCount(), is(0));
+
+    final AtomicBoolean isIdle = new AtomicBoolean(false);
+    countingExecutor.notifyWhenIdle(
+        new Runnable() {
+          @Override
+          public void run() {
+            isIdle.set(true);
+          }
+        });
+    assertTrue(isIdle.get());
+  }
+}
@@ -31,6 +31,7 @@ import androidx.test.filters.LargeTest;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
 import java.util.List;
+import java.util.Locale;
 import java.util.concurrent.Callable;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.FutureTask;
@@ -45,6 +46,8 @@ import org.junit.runner.RunWith;
 @LargeTest
 @RunWith(AndroidJUnit4.class)
 public class IdlingResourceRegistryTest {
+  private static final String TAG = "IdlingResourceRegistryTest";
+  private static final int STRESS_RESOURCE_COUNT = 5000;
 
   private IdlingResourceRegistry registry;
   private Handler handler;
@@ -258,6 +261,78 @@ public class IdlingResourceRegistryTest {
     }
   }
 
+  @Test
+  public void allResourcesAreIdle_busyResourcesAreNotPolled() throws Exception {
+    CountingIdlingResource busy = new CountingIdlingResource("busy");
+    registry.registerResources(Lists.newArrayList(busy));
+    // Polled once, when registered.
+    assertEquals(1, busy.isIdleNowCalls);
+    for (int i = 0; i < 3; i++) {
+      FutureTask<Boolean> resourcesIdle = createIdleCheckTask(registry);
+      handler.post(resourcesIdle);
+      assertFalse(resourcesIdle.get());
+    }
+    assertEquals(1, busy.isIdleNowCalls);
+
+    busy.forceIdleNow();
+    FutureTask<Boolean> resourcesIdle = createIdleCheckTask(registry);
+    handler.post(resourcesIdle);
+    assertTrue(resourcesIdle.get());
+  }
+
+  @Test
+  public void allResourcesAreIdle_thousandsOfResources() throws Exception {
+    List<CountingIdlingResource> resources = Lists.newArrayList();
+    for (int i = 0; i < STRESS_RESOURCE_COUNT; i++) {
+      resources.add(new CountingIdlingResource("r" + i));
+    }
+    long start = System.nanoTime();
+    assertTrue(registry.registerResources(resources));
+    long registered = System.nanoTime();
+
+    int checks = 0;
+    for (CountingIdlingResource resource : resources) {
+      FutureTask<Boolean> resourcesIdle = createIdleCheckTask(registry);
+      handler.post(resourcesIdle);
+      assertFalse(resourcesIdle.get());
+      checks++;
+      resource.forceIdleNow();
+    }
+    long busyChecksDone = System.nanoTime();
+
+    FutureTask<Boolean> resourcesIdle = createIdleCheckTask(registry);
+    handler.post(resourcesIdle);
+    assertTrue(resourcesIdle.get());
+    long idleCheckDone = System.nanoTime();
+
+    // Each resource was polled once when registered, once when the last busy resource went idle
+    // and once by the final check. The checks in between never polled a busy resource.
+    for (CountingIdlingResource resource : resources) {
+      assertEquals(resource.getName(), 3, resource.isIdleNowCalls);
+    }
+
+    Log.i(
+        TAG,
+        String.format(
+            Locale.ROOT,
+            "%d resources: registered in %d us, %d us per busy check, idle check in %d us",
+            STRESS_RESOURCE_COUNT,
+            (registered - start) / 1000,
+            (busyChecksDone - registered) / checks / 1000,
+            (idleCheckDone - busyChecksDone) / 1000));
+
+    long unregisterStart = System.nanoTime();
+    assertTrue(registry.unregisterResources(resources));
+    Log.i(
+        TAG,
+        String.format(
+            Locale.ROOT,
+            "%d resources: unregistered in %d us",
+            STRESS_RESOURCE_COUNT,
+            (System.nanoTime() - unregisterStart) / 1000));
+    assertTrue(registry.getResources().isEmpty());
+  }
+
   @Test
   public void notifyWhenAllResourcesAreIdle_success() throws InterruptedException {
     final CountDownLatch busyWarningLatch = new CountDownLatch(4);
@@ -512,6 +587,21 @@ public class IdlingResourceRegistryTest {
     assertTrue(registry.getResources().contains(newReg));
   }
 
+  /** Counts how often it is polled. */
+  private static class CountingIdlingResource extends OnDemandIdlingResource {
+    private volatile int isIdleNowCalls;
+
+    CountingIdlingResource(String name) {
+      super(name);
+    }
+
+    @Override
+    public boolean isIdleNow() {
+      isIdleNowCalls++;
+      return super.isIdleNow();
+    }
+  }
+
   private FutureTask<Boolean> createIdleCheckTask(final IdlingResourceRegistry registry) {
     Callable<Boolean> isIdle =
         new Callable<Boolean>() {
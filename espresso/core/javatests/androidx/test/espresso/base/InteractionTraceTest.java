@@ -0,0 +1,125 @@
+/*
+ * Copyright (C) 2021 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.test.espresso.base;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+
+import androidx.test.espresso.InteractionPolicies;
+import androidx.test.espresso.base.InteractionTrace.Phase;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.filters.SmallTest;
+import java.io.IOException;
+import java.io.StringWriter;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/** Unit tests for {@link InteractionTrace}. */
+@SmallTest
+@RunWith(AndroidJUnit4.class)
+public class InteractionTraceTest {
+
+  @After
+  public void tearDown() {
+    InteractionPolicies.setInteractionTracingEnabled(false);
+    InteractionTrace.global().clear();
+  }
+
+  @Test
+  public void nothingRecordedWhenDisabled() {
+    InteractionTrace.global().clear();
+    long start = InteractionTrace.begin();
+    InteractionTrace.end(Phase.PERFORM, start);
+    assertThat(start, is(0L));
+    assertThat(InteractionTrace.global().getSpanCount(), is(0));
+  }
+
+  @Test
+  public void recordsSpansWhenEnabled() {
+    InteractionPolicies.setInteractionTracingEnabled(true);
+    InteractionTrace.global().clear();
+    long start = InteractionTrace.begin();
+    InteractionTrace.end(Phase.PERFORM, start);
+    assertThat(InteractionTrace.global().getSpanCount(), is(1));
+  }
+
+  @Test
+  public void oldestSpansOverwritten() throws IOException, JSONException {
+    InteractionTrace trace = new InteractionTrace(2);
+    trace.record(Phase.ROOT_PICK, 1000, 1000, 1);
+    trace.record(Phase.VIEW_FIND, 2000, 1000, 1);
+    trace.record(Phase.PERFORM, 3000, 1500, 1);
+    assertThat(trace.getSpanCount(), is(2));
+    assertThat(trace.getDroppedCount(), is(1L));
+
+    JSONArray events = writeChromeTrace(trace).getJSONArray("traceEvents");
+    // The enclosing span comes first, followed by the spans oldest first.
+    assertThat(events.getJSONObject(1).getString("name"), is("Find view"));
+    assertThat(events.getJSONObject(2).getString("name"), is("Perform action"));
+    assertThat(events.getJSONObject(2).getDouble("ts"), is(3.0));
+    assertThat(events.getJSONObject(2).getDouble("dur"), is(1.5));
+  }
+
+  @Test
+  public void writesChromeTraceEvents() throws IOException, JSONException {
+    InteractionTrace trace = new InteractionTrace(8);
+    trace.record(Phase.IDLE_WAIT, 2000, 3000, Thread.currentThread().getId());
+
+    JSONObject json = writeChromeTrace(trace);
+    JSONArray events = json.getJSONArray("traceEvents");
+    JSONObject test = events.getJSONObject(0);
+    assertThat(test.getString("name"), is("test \"name\""));
+    assertThat(test.getString("ph"), is("X"));
+    assertThat(test.getDouble("ts"), is(1.0));
+    assertThat(test.getDouble("dur"), is(9.0));
+
+    JSONObject span = events.getJSONObject(1);
+    assertThat(span.getString("name"), is("Wait for idle"));
+    assertThat(span.getString("cat"), is("espresso"));
+    assertThat(span.getLong("tid"), is(Thread.currentThread().getId()));
+
+    JSONObject threadName = events.getJSONObject(2);
+    assertThat(threadName.getString("ph"), is("M"));
+    assertThat(
+        threadName.getJSONObject("args").getString("name"), is(Thread.currentThread().getName()));
+    assertThat(json.getJSONObject("otherData").getLong("droppedSpans"), is(0L));
+  }
+
+  @Test
+  public void clearDiscardsSpans() throws IOException {
+    InteractionTrace trace = new InteractionTrace(8);
+    trace.record(Phase.ASSERT, 2000, 3000, 1);
+    trace.clear();
+    assertThat(trace.getSpanCount(), is(0));
+    StringWriter writer = new StringWriter();
+    trace.writeChromeTrace(writer, "test", 1000, 10000);
+    assertThat(writer.toString(), not(containsString("Check assertion")));
+  }
+
+  private static JSONObject writeChromeTrace(InteractionTrace trace)
+      throws IOException, JSONException {
+    StringWriter writer = new StringWriter();
+    trace.writeChromeTrace(writer, "test \"name\"", 1000, 10000);
+    return new JSONObject(writer.toString());
+  }
+}
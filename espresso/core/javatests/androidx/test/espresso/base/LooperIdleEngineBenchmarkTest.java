@@ -0,0 +1,210 @@
+/*
+ * Copyright (C) 2021 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.test.espresso.base;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.Assert.assertTrue;
+
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Message;
+import android.util.Log;
+import androidx.test.espresso.base.Interrogator.InterrogationHandler;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.filters.LargeTest;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * Compares {@link LooperIdleEngine#INTERROGATOR} and {@link LooperIdleEngine#IDLE_HANDLER} while
+ * looping a thread that is kept busy by a chain of short tasks, like an animating application.
+ *
+ * <p>Reports the time until the loop returns, the time between the last task and the return of the
+ * loop, and how often the queue was interrogated.
+ */
+@LargeTest
+@RunWith(AndroidJUnit4.class)
+public class LooperIdleEngineBenchmarkTest {
+  private static final String TAG = "LooperIdleEngineBenchmark";
+  private static final int CHAINED_TASKS = 5000;
+  private static final int ITERATIONS = 10;
+
+  private HandlerThread looperThread;
+  private Handler handler;
+
+  @Before
+  public void setUp() {
+    looperThread = new HandlerThread(TAG);
+    looperThread.start();
+    handler = new Handler(looperThread.getLooper());
+  }
+
+  @After
+  public void tearDown() {
+    looperThread.quit();
+  }
+
+  @Test
+  public void busyQueue() throws Exception {
+    // Warm up, so that class loading and JIT compilation are not counted.
+    measure(LooperIdleEngine.INTERROGATOR);
+    measure(LooperIdleEngine.IDLE_HANDLER);
+
+    Measurement interrogator = measure(LooperIdleEngine.INTERROGATOR);
+    Measurement idleHandler = measure(LooperIdleEngine.IDLE_HANDLER);
+    Log.i(
+        TAG,
+        String.format(
+            Locale.ROOT,
+            "%d chained tasks: interrogator %s, idle handler %s",
+            CHAINED_TASKS,
+            interrogator,
+            idleHandler));
+    assertThat(interrogator.interrogations, is(CHAINED_TASKS + 1));
+    assertThat(idleHandler.interrogations, lessThan(interrogator.interrogations));
+  }
+
+  private Measurement measure(final LooperIdleEngine engine) throws InterruptedException {
+    final AtomicReference<Measurement> result = new AtomicReference<>();
+    final CountDownLatch done = new CountDownLatch(1);
+    handler.post(
+        new Runnable() {
+          @Override
+          public void run() {
+            long totalNanos = 0;
+            long drainLatencyNanos = 0;
+            int interrogations = 0;
+            for (int i = 0; i < ITERATIONS; i++) {
+              ChainedTask task = new ChainedTask(CHAINED_TASKS);
+              handler.post(task);
+              long start = System.nanoTime();
+              interrogations += engine.loopAndInterrogate(new UntilEmpty());
+              long end = System.nanoTime();
+              assertThat(task.remaining, is(0));
+              totalNanos += end - start;
+              drainLatencyNanos += end - task.lastRunNanos;
+            }
+            result.set(
+                new Measurement(
+                    totalNanos / ITERATIONS,
+                    drainLatencyNanos / ITERATIONS,
+                    interrogations / ITERATIONS));
+            done.countDown();
+          }
+        });
+    assertTrue(engine + " did not return", done.await(30, TimeUnit.SECONDS));
+    return result.get();
+  }
+
+  /** Keeps the queue busy by re-posting itself. */
+  private final class ChainedTask implements Runnable {
+    private int remaining;
+    private long lastRunNanos;
+
+    ChainedTask(int remaining) {
+      this.remaining = remaining;
+    }
+
+    @Override
+    public void run() {
+      lastRunNanos = System.nanoTime();
+      if (--remaining > 0) {
+        handler.post(this);
+      }
+    }
+  }
+
+  /** Stops once the queue is empty, counting how often the queue was interrogated. */
+  private static final class UntilEmpty implements InterrogationHandler<Integer> {
+    private int interrogations;
+
+    @Override
+    public boolean queueEmpty() {
+      interrogations++;
+      return false;
+    }
+
+    @Override
+    public boolean taskDueSoon() {
+      interrogations++;
+      return true;
+    }
+
+    @Override
+    public boolean taskDueLong() {
+      interrogations++;
+      return false;
+    }
+
+    @Override
+    public boolean barrierUp() {
+      interrogations++;
+      return true;
+    }
+
+    @Override
+    public boolean beforeTaskDispatch() {
+      return true;
+    }
+
+    @Override
+    public void quitting() {}
+
+    @Override
+    public void setMessage(Message m) {}
+
+    @Override
+    public String getMessage() {
+      return null;
+    }
+
+    @Override
+    public Integer get() {
+      return interrogations;
+    }
+  }
+
+  private static class Measurement {
+    private final long nanos;
+    private final long drainLatencyNanos;
+    private final int interrogations;
+
+    Measurement(long nanos, long drainLatencyNanos, int interrogations) {
+      this.nanos = nanos;
+      this.drainLatencyNanos = drainLatencyNanos;
+      this.interrogations = interrogations;
+    }
+
+    @Override
+    public String toString() {
+      return String.format(
+          Locale.ROOT,
+          "%d us total / %d us after the last task / %d interrogations",
+          nanos / 1000,
+          drainLatencyNanos / 1000,
+          interrogations);
+    }
+  }
+}
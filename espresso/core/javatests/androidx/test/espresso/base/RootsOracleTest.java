@@ -0,0 +1,77 @@
+/*
+ * Copyright (C) 2021 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.test.espresso.base;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+
+import android.app.Dialog;
+import android.os.Looper;
+import androidx.test.core.app.ActivityScenario;
+import androidx.test.espresso.Root;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.filters.MediumTest;
+import androidx.test.ui.app.SendActivity;
+import java.util.List;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/** Unit tests for {@link RootsOracle}. */
+@MediumTest
+@RunWith(AndroidJUnit4.class)
+public class RootsOracleTest {
+
+  @Test
+  public void unchangedWindowsReuseRoots() {
+    try (ActivityScenario<SendActivity> scenario = ActivityScenario.launch(SendActivity.class)) {
+      scenario.onActivity(
+          activity -> {
+            RootsOracle oracle = new RootsOracle(Looper.getMainLooper());
+            List<Root> first = oracle.listActiveRoots();
+            List<Root> second = oracle.listActiveRoots();
+            assertThat(second.size(), is(first.size()));
+            for (int i = 0; i < first.size(); i++) {
+              assertThat(second.get(i), sameInstance(first.get(i)));
+            }
+          });
+    }
+  }
+
+  @Test
+  public void addedWindowListedAsNewRoot() {
+    try (ActivityScenario<SendActivity> scenario = ActivityScenario.launch(SendActivity.class)) {
+      scenario.onActivity(
+          activity -> {
+            RootsOracle oracle = new RootsOracle(Looper.getMainLooper());
+            List<Root> before = oracle.listActiveRoots();
+
+            Dialog dialog = new Dialog(activity);
+            dialog.show();
+            try {
+              List<Root> after = oracle.listActiveRoots();
+              assertThat(after.size(), is(before.size() + 1));
+              // The dialog is the top most window, it comes first.
+              assertThat(
+                  after.get(0).getDecorView(), sameInstance(dialog.getWindow().getDecorView()));
+            } finally {
+              dialog.dismiss();
+            }
+          });
+    }
+  }
+}
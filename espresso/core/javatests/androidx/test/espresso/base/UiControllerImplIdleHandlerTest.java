@@ -0,0 +1,32 @@
+/*
+ * Copyright (C) 2021 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.test.espresso.base;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.filters.LargeTest;
+import org.junit.runner.RunWith;
+
+/** Runs the {@link UiControllerImplTest} tests with {@link LooperIdleEngine#IDLE_HANDLER}. */
+@LargeTest
+@RunWith(AndroidJUnit4.class)
+public class UiControllerImplIdleHandlerTest extends UiControllerImplTest {
+
+  @Override
+  LooperIdleEngine getLooperIdleEngine() {
+    return LooperIdleEngine.IDLE_HANDLER;
+  }
+}
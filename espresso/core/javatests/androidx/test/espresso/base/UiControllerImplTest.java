@@ -25,16 +25,22 @@ import android.os.Build;
 import android.os.Handler;
 import android.os.Looper;
 import android.os.Message;
+import android.os.SystemClock;
 import android.util.Log;
+import androidx.test.espresso.IdlingPolicies;
 import androidx.test.espresso.IdlingResourceTimeoutException;
 import androidx.test.espresso.base.IdlingResourceRegistry.IdleNotificationCallback;
 import androidx.test.ext.junit.runners.AndroidJUnit4;
 import androidx.test.filters.LargeTest;
 import com.google.common.collect.Lists;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 import javax.inject.Provider;
 import org.junit.After;
@@ -129,7 +135,18 @@ public class UiControllerImplTest {
               }
             },
             testThread.getLooper(),
-            idlingResourceRegistry));
+            idlingResourceRegistry,
+            new Provider<LooperIdleEngine>() {
+              @Override
+              public LooperIdleEngine get() {
+                return getLooperIdleEngine();
+              }
+            }));
+  }
+
+  /** Returns the engine the {@link UiControllerImpl} under test loops the main thread with. */
+  LooperIdleEngine getLooperIdleEngine() {
+    return LooperIdleEngine.INTERROGATOR;
   }
 
   @After
@@ -199,6 +216,60 @@ public class UiControllerImplTest {
     }
   }
 
+  @Test
+  public void loopForAtMost_wokenUp() throws Exception {
+    final CountDownLatch latch = new CountDownLatch(1);
+    final AtomicLong elapsed = new AtomicLong();
+    assertTrue(
+        testThread
+            .getHandler()
+            .post(
+                new Runnable() {
+                  @Override
+                  public void run() {
+                    testThread
+                        .getHandler()
+                        .postDelayed(
+                            new Runnable() {
+                              @Override
+                              public void run() {
+                                uiController.get().wakeUp();
+                              }
+                            },
+                            100);
+                    long start = SystemClock.uptimeMillis();
+                    uiController.get().loopMainThreadForAtMost(10000);
+                    elapsed.set(SystemClock.uptimeMillis() - start);
+                    latch.countDown();
+                  }
+                }));
+    assertTrue("Never woken up", latch.await(5, TimeUnit.SECONDS));
+    assertTrue("Woken up too early: " + elapsed.get(), elapsed.get() >= 100);
+  }
+
+  @Test
+  public void loopForAtMost_notWokenUp() throws Exception {
+    final CountDownLatch latch = new CountDownLatch(1);
+    final AtomicLong elapsed = new AtomicLong();
+    assertTrue(
+        testThread
+            .getHandler()
+            .post(
+                new Runnable() {
+                  @Override
+                  public void run() {
+                    // not waiting yet, should be ignored.
+                    uiController.get().wakeUp();
+                    long start = SystemClock.uptimeMillis();
+                    uiController.get().loopMainThreadForAtMost(500);
+                    elapsed.set(SystemClock.uptimeMillis() - start);
+                    latch.countDown();
+                  }
+                }));
+    assertTrue("Never returned", latch.await(5, TimeUnit.SECONDS));
+    assertTrue("Returned too early: " + elapsed.get(), elapsed.get() >= 500);
+  }
+
   @Test
   public void loopForAtLeast() throws Exception {
     final CountDownLatch latch = new CountDownLatch(2);
@@ -378,6 +449,110 @@ public class UiControllerImplTest {
     assertTrue("App should be idle.", latch.await(5, TimeUnit.SECONDS));
   }
 
+  @Test
+  public void loopMainThreadUntilIdle_profilesIdlingResource() throws InterruptedException {
+    IdlingPolicies.setIdleWaitProfilingEnabled(true);
+    IdleWaitProfile.global().drain();
+    try {
+      OnDemandIdlingResource fakeResource = new OnDemandIdlingResource("FakeResource");
+      idlingResourceRegistry.registerResources(Lists.newArrayList(fakeResource));
+      final CountDownLatch latch = new CountDownLatch(1);
+      assertTrue(
+          testThread
+              .getHandler()
+              .post(
+                  new Runnable() {
+                    @Override
+                    public void run() {
+                      uiController.get().loopMainThreadUntilIdle();
+                      latch.countDown();
+                    }
+                  }));
+      assertFalse(
+          "Should not have stopped looping the main thread yet!",
+          latch.await(1, TimeUnit.SECONDS));
+      fakeResource.forceIdleNow();
+      assertTrue("App should be idle.", latch.await(5, TimeUnit.SECONDS));
+
+      IdleWaitProfile profile = IdleWaitProfile.global().drain();
+      assertTrue(profile.getWaitCount() > 0);
+      Map<String, Long> blockers = profile.getBlockerNanos();
+      assertTrue(blockers.toString(), blockers.containsKey("DYNAMIC_TASKS_HAVE_IDLED"));
+      Long resourceNanos = blockers.get("idling-resource:FakeResource");
+      assertTrue(blockers.toString(), resourceNanos != null);
+      assertTrue(resourceNanos >= TimeUnit.SECONDS.toNanos(1));
+      assertFalse(profile.getMessageNanos().isEmpty());
+    } finally {
+      IdlingPolicies.setIdleWaitProfilingEnabled(false);
+    }
+  }
+
+  @Test
+  public void loopMainThreadUntilIdle_thousandsOfIdlingResources() throws InterruptedException {
+    final List<OnDemandIdlingResource> resources = Lists.newArrayList();
+    for (int i = 0; i < 2000; i++) {
+      resources.add(new OnDemandIdlingResource("FakeResource" + i));
+    }
+    idlingResourceRegistry.registerResources(resources);
+    final CountDownLatch latch = new CountDownLatch(1);
+    final AtomicLong idleAt = new AtomicLong();
+    assertTrue(
+        testThread
+            .getHandler()
+            .post(
+                new Runnable() {
+                  @Override
+                  public void run() {
+                    Log.i(TAG, "Hijacking thread and looping it.");
+                    uiController.get().loopMainThreadUntilIdle();
+                    idleAt.set(System.nanoTime());
+                    latch.countDown();
+                  }
+                }));
+    assertFalse(
+        "Should not have stopped looping the main thread yet!", latch.await(1, TimeUnit.SECONDS));
+    for (int i = 0; i < resources.size() - 1; i++) {
+      resources.get(i).forceIdleNow();
+    }
+    assertFalse(
+        "Should not have stopped looping the main thread yet!", latch.await(1, TimeUnit.SECONDS));
+    long lastTransition = System.nanoTime();
+    resources.get(resources.size() - 1).forceIdleNow();
+    assertTrue("App should be idle.", latch.await(5, TimeUnit.SECONDS));
+    Log.i(
+        TAG,
+        String.format(
+            Locale.ROOT,
+            "%d idling resources: idle %d us after the last transition",
+            resources.size(),
+            (idleAt.get() - lastTransition) / 1000));
+
+    // All resources are idle now, time a loop that has nothing to wait for.
+    final CountDownLatch idleLatch = new CountDownLatch(1);
+    final AtomicLong idleLoopNanos = new AtomicLong();
+    assertTrue(
+        testThread
+            .getHandler()
+            .post(
+                new Runnable() {
+                  @Override
+                  public void run() {
+                    long start = System.nanoTime();
+                    uiController.get().loopMainThreadUntilIdle();
+                    idleLoopNanos.set(System.nanoTime() - start);
+                    idleLatch.countDown();
+                  }
+                }));
+    assertTrue("App should be idle.", idleLatch.await(5, TimeUnit.SECONDS));
+    Log.i(
+        TAG,
+        String.format(
+            Locale.ROOT,
+            "%d idle idling resources: loopMainThreadUntilIdle took %d us",
+            resources.size(),
+            idleLoopNanos.get() / 1000));
+  }
+
   @Test
   public void loopMainThreadUntilIdle_multipleIdlingResources() throws InterruptedException {
     OnDemandIdlingResource fakeResource1 = new OnDemandIdlingResource("FakeResource1");
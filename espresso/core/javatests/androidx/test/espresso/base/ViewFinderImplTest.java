@@ -16,8 +16,13 @@
 
 package androidx.test.espresso.base;
 
+import static androidx.test.espresso.matcher.ViewMatchers.isAssignableFrom;
+import static androidx.test.espresso.matcher.ViewMatchers.withId;
+import static androidx.test.espresso.matcher.ViewMatchers.withText;
 import static androidx.test.platform.app.InstrumentationRegistry.getInstrumentation;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.hamcrest.Matchers.nullValue;
 import static org.hamcrest.Matchers.sameInstance;
@@ -29,11 +34,13 @@ import android.widget.RelativeLayout;
 import android.widget.TextView;
 import androidx.test.annotation.UiThreadTest;
 import androidx.test.espresso.AmbiguousViewMatcherException;
+import androidx.test.espresso.InteractionPolicies;
 import androidx.test.espresso.NoMatchingViewException;
 import androidx.test.espresso.ViewFinder;
 import androidx.test.ext.junit.runners.AndroidJUnit4;
 import androidx.test.filters.MediumTest;
 import javax.inject.Provider;
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
@@ -62,6 +69,7 @@ public class ViewFinderImplTest {
     testView = new RelativeLayout(mTargetContext);
     child1 = new TextView(mTargetContext);
     child1.setId(1);
+    ((TextView) child1).setText("child1");
     child2 = new TextView(mTargetContext);
     child2.setId(2);
     child3 = new TextView(mTargetContext);
@@ -91,6 +99,11 @@ public class ViewFinderImplTest {
         };
   }
 
+  @After
+  public void tearDown() throws Exception {
+    InteractionPolicies.setViewHierarchySnapshotEnabled(false);
+  }
+
   @Test
   @UiThreadTest
   public void getViewPresent() {
@@ -114,10 +127,60 @@ public class ViewFinderImplTest {
     finder.getView();
   }
 
+  @Test
+  @UiThreadTest
+  public void getView_recordsLookupStats() {
+    ViewLookupStats.global().drain();
+    ViewFinder finder = new ViewFinderImpl(sameInstance(nestedChild), testViewProvider);
+    finder.getView();
+    ViewLookupStats stats = ViewLookupStats.global().drain();
+    assertThat(stats.getLookupCount(), is(1));
+    // The root, its five children and the nested child.
+    assertThat(stats.getNodesVisited(), is(7L));
+    assertThat(stats.getMatcherEvaluations(), is(7L));
+    assertThat(ViewLookupStats.global().getLookupCount(), is(0));
+  }
+
   @Test
   public void find_offUiThread() {
     ViewFinder finder = new ViewFinderImpl(sameInstance(nestedChild), testViewProvider);
     expectedException.expect(IllegalStateException.class);
     finder.getView();
   }
+
+  @Test
+  @UiThreadTest
+  public void getViewPresent_withSnapshot() {
+    InteractionPolicies.setViewHierarchySnapshotEnabled(true);
+    ViewFinder finder = new ViewFinderImpl(withId(5), testViewProvider);
+    assertThat(finder.getView(), sameInstance(nestedChild));
+  }
+
+  @Test
+  @UiThreadTest
+  public void getViewPresent_withSnapshotAndCompositeMatcher() {
+    InteractionPolicies.setViewHierarchySnapshotEnabled(true);
+    ViewFinder finder =
+        new ViewFinderImpl(
+            allOf(isAssignableFrom(TextView.class), withText("child1")), testViewProvider);
+    assertThat(finder.getView(), sameInstance(child1));
+  }
+
+  @Test
+  @UiThreadTest
+  public void getView_missingWithSnapshot() {
+    InteractionPolicies.setViewHierarchySnapshotEnabled(true);
+    ViewFinder finder = new ViewFinderImpl(withId(42), testViewProvider);
+    expectedException.expect(NoMatchingViewException.class);
+    finder.getView();
+  }
+
+  @Test
+  @UiThreadTest
+  public void getView_multipleWithSnapshot() {
+    InteractionPolicies.setViewHierarchySnapshotEnabled(true);
+    ViewFinder finder = new ViewFinderImpl(isAssignableFrom(TextView.class), testViewProvider);
+    expectedException.expect(AmbiguousViewMatcherException.class);
+    finder.getView();
+  }
 }
@@ -0,0 +1,130 @@
+/*
+ * Copyright (C) 2021 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.test.espresso.base;
+
+import static androidx.test.platform.app.InstrumentationRegistry.getInstrumentation;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+
+import android.content.Context;
+import android.text.method.PasswordTransformationMethod;
+import android.view.View;
+import android.widget.Button;
+import android.widget.LinearLayout;
+import android.widget.ListView;
+import android.widget.TextView;
+import androidx.test.annotation.UiThreadTest;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.filters.SmallTest;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/** Unit tests for {@link ViewHierarchySnapshot}. */
+@SmallTest
+@RunWith(AndroidJUnit4.class)
+public class ViewHierarchySnapshotTest {
+
+  private LinearLayout root;
+  private TextView text1;
+  private Button button;
+  private LinearLayout nested;
+  private TextView text2;
+  private TextView password;
+  private ListView list;
+
+  @Before
+  public void setUp() {
+    Context context = getInstrumentation().getTargetContext();
+    root = new LinearLayout(context);
+    text1 = new TextView(context);
+    text1.setId(1);
+    text1.setText("hello");
+    button = new Button(context);
+    button.setId(2);
+    // Themes may make buttons all caps, which would put them in every text lookup.
+    button.setTransformationMethod(null);
+    nested = new LinearLayout(context);
+    text2 = new TextView(context);
+    text2.setId(1);
+    text2.setText("hello");
+    password = new TextView(context);
+    password.setText("secret");
+    password.setTransformationMethod(PasswordTransformationMethod.getInstance());
+    list = new ListView(context);
+    nested.addView(text2);
+    nested.addView(password);
+    nested.addView(list);
+    root.addView(text1);
+    root.addView(nested);
+    root.addView(button);
+  }
+
+  @Test
+  @UiThreadTest
+  public void allViews_breadthFirstOrder() {
+    ViewHierarchySnapshot snapshot = ViewHierarchySnapshot.obtain(root);
+    assertThat(
+        snapshot.allViews(),
+        contains(
+            (View) root, (View) text1, (View) nested, (View) button, text2, password, list));
+    assertThat(snapshot.size(), is(7));
+  }
+
+  @Test
+  @UiThreadTest
+  public void viewsWithId() {
+    ViewHierarchySnapshot snapshot = ViewHierarchySnapshot.obtain(root);
+    assertThat(snapshot.viewsWithId(1), contains((View) text1, (View) text2));
+    assertThat(snapshot.viewsWithId(2), contains((View) button));
+    assertThat(snapshot.viewsWithId(3), empty());
+  }
+
+  @Test
+  @UiThreadTest
+  public void viewsWithText_includesTransformedText() {
+    ViewHierarchySnapshot snapshot = ViewHierarchySnapshot.obtain(root);
+    assertThat(
+        snapshot.viewsWithText("hello"), contains((View) text1, (View) text2, (View) password));
+    assertThat(snapshot.viewsWithText("missing"), contains((View) password));
+  }
+
+  @Test
+  @UiThreadTest
+  public void viewsAssignableTo() {
+    ViewHierarchySnapshot snapshot = ViewHierarchySnapshot.obtain(root);
+    assertThat(
+        snapshot.viewsAssignableTo(TextView.class),
+        contains((View) text1, (View) button, (View) text2, (View) password));
+    assertThat(snapshot.viewsAssignableTo(Button.class), contains((View) button));
+  }
+
+  @Test
+  @UiThreadTest
+  public void adapterViews() {
+    assertThat(ViewHierarchySnapshot.obtain(root).getAdapterViews(), contains((View) list));
+  }
+
+  @Test
+  @UiThreadTest
+  public void detachedHierarchy_neverReused() {
+    ViewHierarchySnapshot.obtain(root);
+    assertThat(ViewHierarchySnapshot.obtain(root).isReused(), is(false));
+  }
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright (C) 2021 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.test.espresso.matcher;
+
+import static androidx.test.core.app.ApplicationProvider.getApplicationContext;
+import static androidx.test.espresso.matcher.MatcherTestUtils.getDescription;
+import static androidx.test.espresso.matcher.ViewMatchers.hasDescendant;
+import static androidx.test.espresso.matcher.ViewMatchers.isDisplayed;
+import static androidx.test.espresso.matcher.ViewMatchers.withId;
+import static androidx.test.espresso.matcher.ViewMatchers.withText;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import android.view.View;
+import androidx.test.espresso.matcher.ViewMatcherPlanner.Cost;
+import androidx.test.espresso.matcher.ViewMatcherPlanner.EvaluationProfile;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.filters.SmallTest;
+import java.util.ArrayList;
+import java.util.List;
+import org.hamcrest.BaseMatcher;
+import org.hamcrest.Description;
+import org.hamcrest.Matcher;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/** Unit tests for {@link ViewMatcherPlanner}. */
+@SmallTest
+@RunWith(AndroidJUnit4.class)
+public class ViewMatcherPlannerTest {
+
+  private final List<String> evaluations = new ArrayList<>();
+  private View view;
+
+  @Before
+  public void setUp() {
+    view = new View(getApplicationContext());
+    view.setId(5);
+  }
+
+  @Test
+  public void costOf() {
+    assertThat(ViewMatcherPlanner.costOf(withId(1)), is(Cost.FIELD_READ));
+    assertThat(ViewMatcherPlanner.costOf(is(withId(1))), is(Cost.FIELD_READ));
+    assertThat(ViewMatcherPlanner.costOf(withText("text")), is(Cost.STRING_COMPARE));
+    assertThat(ViewMatcherPlanner.costOf(isDisplayed()), is(Cost.GEOMETRY));
+    assertThat(ViewMatcherPlanner.costOf(hasDescendant(withId(1))), is(Cost.HIERARCHY_WALK));
+    assertThat(ViewMatcherPlanner.costOf(recording("custom")), is(Cost.UNKNOWN));
+    assertThat(ViewMatcherPlanner.costOf(allOf(withId(1), isDisplayed())), is(Cost.GEOMETRY));
+  }
+
+  @Test
+  public void cheapMatcherEvaluatedFirst() {
+    EvaluationProfile profile = new EvaluationProfile();
+    Matcher<View> planned =
+        ViewMatcherPlanner.plan(allOf(hasDescendant(withId(1)), isDisplayed(), withId(6)), profile);
+    assertFalse(planned.matches(view));
+    // Only withId(6) was evaluated, it rejected the view.
+    assertThat(profile.getEvaluationCount(), is(1));
+  }
+
+  @Test
+  public void unknownMatchersKeepTheirPosition() {
+    Matcher<View> planned =
+        ViewMatcherPlanner.plan(allOf(recording("first"), withId(5), recording("second")));
+    assertTrue(planned.matches(view));
+    assertThat(evaluations, contains("first", "second"));
+  }
+
+  @Test
+  public void knownMatchersMayOvertakeUnknownMatchers() {
+    Matcher<View> planned =
+        ViewMatcherPlanner.plan(allOf(recording("first"), withId(6), recording("second")));
+    assertFalse(planned.matches(view));
+    assertThat(evaluations, empty());
+  }
+
+  @Test
+  public void describesAsOriginalMatcher() {
+    Matcher<View> original = allOf(isDisplayed(), withId(5));
+    Matcher<View> planned = ViewMatcherPlanner.plan(original, new EvaluationProfile());
+    assertThat(getDescription(planned), is(getDescription(original)));
+  }
+
+  @Test
+  public void nonCompositeMatcherReturnedAsIs() {
+    Matcher<View> original = withId(5);
+    assertTrue(ViewMatcherPlanner.plan(original) == original);
+  }
+
+  private Matcher<View> recording(final String name) {
+    return new BaseMatcher<View>() {
+      @Override
+      public boolean matches(Object item) {
+        evaluations.add(name);
+        return true;
+      }
+
+      @Override
+      public void describeTo(Description description) {
+        description.appendText(name);
+      }
+    };
+  }
+}
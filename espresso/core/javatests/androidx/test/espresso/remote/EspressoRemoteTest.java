@@ -23,7 +23,9 @@ import static androidx.test.espresso.matcher.ViewMatchers.withText;
 import static androidx.test.espresso.remote.EspressoRemote.BUNDLE_KEY_PROTO;
 import static junit.framework.Assert.assertTrue;
 import static junit.framework.Assert.fail;
+import static org.hamcrest.CoreMatchers.containsString;
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
 import static org.junit.Assert.assertEquals;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -191,6 +193,55 @@ public class EspressoRemoteTest {
     }
   }
 
+  @Test
+  public void verifySuccessOfAnyRemoteEspressoIsReturned() {
+    final EspressoRemote espressoRemote = new EspressoRemote(mockedInstrumentation);
+    espressoRemote.init();
+
+    Set<Messenger> clients = new HashSet<>();
+    clients.add(createRemoteEspresso(espressoRemote, false));
+    clients.add(createRemoteEspresso(espressoRemote, true));
+    clients.add(createRemoteEspresso(espressoRemote, false));
+    when(mockedInstrumentation.getClientsForType(EspressoRemote.TYPE)).thenReturn(clients);
+
+    espressoRemote.initiateRemoteCall("TBDProto".getBytes(), null);
+  }
+
+  @Test
+  public void verifyFailuresOfAllRemoteEspressosAreReported() {
+    final EspressoRemote espressoRemote = new EspressoRemote(mockedInstrumentation);
+    espressoRemote.init();
+
+    Set<Messenger> clients = new HashSet<>();
+    clients.add(createRemoteEspresso(espressoRemote, false));
+    clients.add(createRemoteEspresso(espressoRemote, false));
+    when(mockedInstrumentation.getClientsForType(EspressoRemote.TYPE)).thenReturn(clients);
+
+    try {
+      espressoRemote.initiateRemoteCall(null, null);
+      fail("Expected RemoteEspressoException to be thrown");
+    } catch (RemoteEspressoException e) {
+      assertThat(e.getMessage(), containsString("All 2 remote Espresso instances failed"));
+    }
+  }
+
+  @Test
+  public void verifyRequestWithoutRemoteEspressoFails() {
+    final EspressoRemote espressoRemote = new EspressoRemote(mockedInstrumentation);
+    espressoRemote.init();
+
+    Set<Messenger> clients = new HashSet<>();
+    clients.add(espressoRemote.incomingHandler.messengerHandler);
+    when(mockedInstrumentation.getClientsForType(EspressoRemote.TYPE)).thenReturn(clients);
+
+    try {
+      espressoRemote.initiateRemoteCall(null, null);
+      fail("Expected NoRemoteEspressoInstanceException to be thrown");
+    } catch (NoRemoteEspressoInstanceException e) {
+      // expected
+    }
+  }
+
   @Test
   public void verifyInterruptedRequest_followsUpWithEmptyRequest() {
     final EspressoRemote espressoRemote = new EspressoRemote(mockedInstrumentation);
@@ -247,6 +298,39 @@ public class EspressoRemoteTest {
     handlerThread.getLooper().quit();
   }
 
+  /**
+   * Creates a messenger representing another remote Espresso, which responds to one request,
+   * either successfully or with an error.
+   */
+  private static Messenger createRemoteEspresso(
+      final EspressoRemote espressoRemote, final boolean succeed) {
+    HandlerThread handlerThread = new HandlerThread("OtherEspresso");
+    handlerThread.start();
+    Handler handler =
+        new Handler(handlerThread.getLooper()) {
+          @Override
+          public void handleMessage(Message msg) {
+            assertEquals(EspressoRemote.MSG_HANDLE_ESPRESSO_REQUEST, msg.what);
+            if (succeed) {
+              // mimic a response
+              msg.what = EspressoRemote.MSG_HANDLE_ESPRESSO_RESPONSE;
+              Bundle resultData = msg.getData();
+              resultData.putByteArray(
+                  BUNDLE_KEY_PROTO,
+                  InteractionResultProto.newBuilder().setOk(true).build().toByteArray());
+              msg.setData(resultData);
+            } else {
+              // the request can't be parsed, which is reported back as an error
+              msg.getData().remove(BUNDLE_KEY_PROTO);
+            }
+            espressoRemote.incomingHandler.handleMessage(msg);
+
+            getLooper().quit();
+          }
+        };
+    return new Messenger(handler);
+  }
+
   @Test
   public void remoteInteractionStrategy_addsViewActionBinders_fromBundle() {
     Matcher viewMatcherMock = Mockito.mock(Matcher.class);
@@ -0,0 +1,93 @@
+/*
+ * Copyright (C) 2021 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.test.espresso.remote;
+
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+import androidx.test.espresso.proto.TestProtos.MultipleFieldClassTestProto;
+import androidx.test.espresso.remote.TestTypes.MultipleFieldClass;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.filters.SmallTest;
+import java.lang.reflect.Field;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/** Tests for {@link RemoteMessageAccessors} */
+@RunWith(AndroidJUnit4.class)
+@SmallTest
+public class RemoteMessageAccessorsTest {
+
+  private RemoteDescriptor remoteDescriptor;
+
+  @Before
+  public void initRegistry() {
+    remoteDescriptor =
+        RemoteDescriptorRegistryInitializer.init().argForInstanceType(MultipleFieldClass.class);
+  }
+
+  @Test
+  public void accessorsAreResolvedOncePerDescriptor() {
+    assertThat(remoteDescriptor.getAccessors(), sameInstance(remoteDescriptor.getAccessors()));
+  }
+
+  @Test
+  public void resolvesInstanceFieldsInDeclaredOrder() throws NoSuchFieldException {
+    Class<?> type = MultipleFieldClass.class;
+    Field[] expected = {
+      type.getDeclaredField("aByte"),
+      type.getDeclaredField("anInt"),
+      type.getDeclaredField("aLong"),
+      type.getDeclaredField("aString"),
+      type.getDeclaredField("anyRegisteredType"),
+      type.getDeclaredField("anyTypeIterable")
+    };
+    assertThat(remoteDescriptor.getAccessors().getInstanceFields(), contains(expected));
+  }
+
+  @Test
+  public void resolvesConstructorsAndProtoMethods() throws NoSuchMethodException {
+    RemoteMessageAccessors accessors = remoteDescriptor.getAccessors();
+    assertThat(
+        accessors.getInstanceConstructor().getDeclaringClass(),
+        equalTo((Object) MultipleFieldClass.class));
+    assertThat(
+        accessors.getRemoteConstructor().getDeclaringClass(),
+        equalTo((Object) remoteDescriptor.getRemoteType()));
+    assertThat(
+        accessors.getNewBuilderMethod(),
+        equalTo(MultipleFieldClassTestProto.class.getMethod("newBuilder")));
+    assertThat(
+        accessors.getProtoGetter("anyTypeIterable"),
+        equalTo(MultipleFieldClassTestProto.class.getDeclaredMethod("getAnyTypeIterableList")));
+    assertThat(
+        accessors.getProtoGetter("aString"),
+        equalTo(MultipleFieldClassTestProto.class.getDeclaredMethod("getAString")));
+  }
+
+  @Test
+  public void unresolvedHandlesAreNull() {
+    RemoteMessageAccessors accessors = remoteDescriptor.getAccessors();
+    assertThat(accessors.getAnySetter("aString"), is(nullValue()));
+    assertThat(accessors.getProtoGetter("noSuchField"), is(nullValue()));
+  }
+}
@@ -0,0 +1,196 @@
+/*
+ * Copyright (C) 2021 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.test.espresso.remote;
+
+import static androidx.test.espresso.assertion.ViewAssertions.matches;
+import static androidx.test.espresso.matcher.ViewMatchers.withId;
+import static androidx.test.espresso.remote.TestTypes.A_TEST_TYPE1;
+import static androidx.test.espresso.remote.TestTypes.A_TEST_TYPE2;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import android.util.Log;
+import androidx.test.espresso.Root;
+import androidx.test.espresso.action.RemoteViewActions;
+import androidx.test.espresso.action.ViewActions;
+import androidx.test.espresso.assertion.RemoteViewAssertions;
+import androidx.test.espresso.matcher.RemoteHamcrestCoreMatchers13;
+import androidx.test.espresso.matcher.RemoteViewMatchers;
+import androidx.test.espresso.proto.TestProtos.MultipleFieldClassTestProto;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.filters.LargeTest;
+import com.google.common.collect.ImmutableList;
+import com.google.protobuf.Any;
+import com.google.protobuf.ByteString;
+import com.google.protobuf.MessageLite;
+import java.util.List;
+import java.util.Locale;
+import org.hamcrest.Matcher;
+import org.hamcrest.StringDescription;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * Measures the cost of serializing and deserializing remote interaction messages.
+ *
+ * <p>The reported times include the proto encoding, so they are the cost per message an
+ * interaction pays for every remote Espresso instance it is forwarded to. Timings depend on the
+ * device and are only logged; the tests assert what is deterministic: that messages survive the
+ * round trip, and how many reflective method lookups they take.
+ */
+@LargeTest
+@RunWith(AndroidJUnit4.class)
+public class RemoteMessageBenchmarkTest {
+  private static final String TAG = "RemoteMessageBenchmark";
+  private static final int MESSAGES = 2000;
+  // newBuilder, six setters and build, then six getters.
+  private static final int LOOKUPS_PER_MESSAGE = 14;
+
+  private RemoteDescriptorRegistry remoteDescriptorRegistry;
+  private Matcher<Root> rootMatcher;
+
+  @Before
+  public void initRegistry() {
+    remoteDescriptorRegistry = RemoteDescriptorRegistry.getInstance();
+    remoteDescriptorRegistry.clear();
+    RemoteDescriptorRegistryInitializer.init(remoteDescriptorRegistry);
+    RemoteHamcrestCoreMatchers13.init(remoteDescriptorRegistry);
+    RemoteViewMatchers.init(remoteDescriptorRegistry);
+    RemoteViewActions.init(remoteDescriptorRegistry);
+    RemoteViewAssertions.init(remoteDescriptorRegistry);
+    rootMatcher = new StubRootMatcher();
+  }
+
+  @Test
+  public void interactionRequestRoundTrip() {
+    InteractionRequest actionRequest =
+        new InteractionRequest.Builder()
+            .setRootMatcher(rootMatcher)
+            .setViewMatcher(withId(123))
+            .setViewAction(ViewActions.click())
+            .build();
+    InteractionRequest assertionRequest =
+        new InteractionRequest.Builder()
+            .setRootMatcher(rootMatcher)
+            .setViewMatcher(withId(123))
+            .setViewAssertion(matches(withId(123)))
+            .build();
+
+    assertRoundTrip(actionRequest);
+    assertRoundTrip(assertionRequest);
+
+    // Warm up, so that class loading and JIT compilation are not counted.
+    measureRoundTrip(actionRequest);
+    measureRoundTrip(assertionRequest);
+
+    long actionNanos = measureRoundTrip(actionRequest);
+    long assertionNanos = measureRoundTrip(assertionRequest);
+    Log.i(
+        TAG,
+        String.format(
+            Locale.ROOT,
+            "%d round trips: view action %dns per message, view assertion %dns per message",
+            MESSAGES,
+            actionNanos,
+            assertionNanos));
+  }
+
+  @Test
+  public void accessorsAvoidReflectiveLookups() {
+    RemoteDescriptor remoteDescriptor =
+        remoteDescriptorRegistry.argForInstanceType(TestTypes.MultipleFieldClass.class);
+    RemoteMessageAccessors accessors = remoteDescriptor.getAccessors();
+    List<Any> anyList =
+        ImmutableList.of(
+            TypeProtoConverters.typeToAny(A_TEST_TYPE1, remoteDescriptorRegistry),
+            TypeProtoConverters.typeToAny(A_TEST_TYPE2, remoteDescriptorRegistry));
+    Any any = TypeProtoConverters.typeToAny(A_TEST_TYPE1, remoteDescriptorRegistry);
+    ByteString byteString = TypeProtoConverters.typeToByteString("aString");
+
+    // Warm up, so that class loading and JIT compilation are not counted.
+    measureReflectors(null, anyList, any, byteString);
+    measureReflectors(accessors, anyList, any, byteString);
+
+    long lookupsBefore = MethodInvocation.getLookupCount();
+    long lookupNanos = measureReflectors(null, anyList, any, byteString);
+    long lookups = MethodInvocation.getLookupCount() - lookupsBefore;
+    lookupsBefore = MethodInvocation.getLookupCount();
+    long accessorNanos = measureReflectors(accessors, anyList, any, byteString);
+    long accessorLookups = MethodInvocation.getLookupCount() - lookupsBefore;
+    Log.i(
+        TAG,
+        String.format(
+            Locale.ROOT,
+            "%d messages: reflective lookup %dns per message, accessors %dns per message",
+            MESSAGES,
+            lookupNanos,
+            accessorNanos));
+    assertThat(lookups, is((long) LOOKUPS_PER_MESSAGE * MESSAGES));
+    assertThat(accessorLookups, is(0L));
+  }
+
+  private static void assertRoundTrip(InteractionRequest request) {
+    InteractionRequest decoded = roundTrip(request);
+    assertThat(decoded.toProto(), is(request.toProto()));
+    assertThat(
+        StringDescription.toString(decoded.getViewMatcher()),
+        is(StringDescription.toString(request.getViewMatcher())));
+  }
+
+  private static InteractionRequest roundTrip(InteractionRequest request) {
+    byte[] bytes = request.toProto().toByteArray();
+    return new InteractionRequest.Builder().setRequestProto(bytes).build();
+  }
+
+  private long measureRoundTrip(InteractionRequest request) {
+    long start = System.nanoTime();
+    for (int i = 0; i < MESSAGES; i++) {
+      roundTrip(request);
+    }
+    return (System.nanoTime() - start) / MESSAGES;
+  }
+
+  private long measureReflectors(
+      RemoteMessageAccessors accessors, List<Any> anyList, Any any, ByteString byteString) {
+    long start = System.nanoTime();
+    for (int i = 0; i < MESSAGES; i++) {
+      MessageLite proto =
+          (MessageLite)
+              new BuilderReflector(
+                      MultipleFieldClassTestProto.Builder.class,
+                      MultipleFieldClassTestProto.class,
+                      accessors)
+                  .invokeSetByteStringValue("aByte", byteString)
+                  .invokeSetByteStringValue("anInt", byteString)
+                  .invokeSetByteStringValue("aLong", byteString)
+                  .invokeSetByteStringValue("aString", byteString)
+                  .invokeSetAnyValue("anyRegisteredType", any)
+                  .invokeAddAllAnyList("anyTypeIterable", anyList)
+                  .invokeBuild();
+      ProtoReflector protoReflector =
+          new ProtoReflector(MultipleFieldClassTestProto.class, proto, accessors);
+      protoReflector.getByteStringValue("aByte");
+      protoReflector.getByteStringValue("anInt");
+      protoReflector.getByteStringValue("aLong");
+      protoReflector.getByteStringValue("aString");
+      protoReflector.getAnyValue("anyRegisteredType");
+      protoReflector.getAnyList("anyTypeIterable");
+    }
+    return (System.nanoTime() - start) / MESSAGES;
+  }
+}
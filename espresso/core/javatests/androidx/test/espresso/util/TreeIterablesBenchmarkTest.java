@@ -0,0 +1,198 @@
+/*
+ * Copyright (C) 2021 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.test.espresso.util;
+
+import static androidx.test.platform.app.InstrumentationRegistry.getInstrumentation;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+import android.content.Context;
+import android.os.Debug;
+import android.util.Log;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.FrameLayout;
+import androidx.test.espresso.util.TreeIterables.ViewTreeViewer;
+import androidx.test.espresso.util.TreeIterables.ViewVisitor;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.filters.LargeTest;
+import java.util.Locale;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * Compares the allocations and run time of the specialised view traversals with the generic {@link
+ * TreeIterables.TreeViewer} based traversals they replaced.
+ */
+@LargeTest
+@RunWith(AndroidJUnit4.class)
+public class TreeIterablesBenchmarkTest {
+  private static final String TAG = "TreeIterablesBenchmark";
+  private static final int FAN_OUT = 6;
+  private static final int DEPTH = 4;
+  private static final int ITERATIONS = 20;
+
+  private static final ViewVisitor NO_OP_VISITOR =
+      new ViewVisitor() {
+        @Override
+        public boolean visit(View view, int distanceFromRoot) {
+          return true;
+        }
+      };
+
+  private View root;
+  private int viewCount;
+
+  @Before
+  public void setUp() {
+    root = createHierarchy(getInstrumentation().getTargetContext(), DEPTH);
+    viewCount = 0;
+    for (View unused : TreeIterables.breadthFirstViewTraversal(root)) {
+      viewCount++;
+    }
+  }
+
+  @Test
+  public void breadthFirst() {
+    Measurement generic =
+        measure(
+            new Runnable() {
+              @Override
+              public void run() {
+                consume(TreeIterables.breadthFirstTraversal(root, new ViewTreeViewer()));
+              }
+            });
+    Measurement iterable =
+        measure(
+            new Runnable() {
+              @Override
+              public void run() {
+                consume(TreeIterables.breadthFirstViewTraversal(root));
+              }
+            });
+    Measurement visitor =
+        measure(
+            new Runnable() {
+              @Override
+              public void run() {
+                TreeIterables.visitBreadthFirst(root, NO_OP_VISITOR);
+              }
+            });
+    report("breadth first", generic, iterable, visitor);
+  }
+
+  @Test
+  public void depthFirst() {
+    Measurement generic =
+        measure(
+            new Runnable() {
+              @Override
+              public void run() {
+                consume(TreeIterables.depthFirstTraversal(root, new ViewTreeViewer()));
+              }
+            });
+    Measurement iterable =
+        measure(
+            new Runnable() {
+              @Override
+              public void run() {
+                consume(TreeIterables.depthFirstViewTraversal(root));
+              }
+            });
+    Measurement visitor =
+        measure(
+            new Runnable() {
+              @Override
+              public void run() {
+                TreeIterables.visitDepthFirst(root, NO_OP_VISITOR);
+              }
+            });
+    report("depth first", generic, iterable, visitor);
+  }
+
+  private void report(
+      String traversal, Measurement generic, Measurement iterable, Measurement visitor) {
+    Log.i(
+        TAG,
+        String.format(
+            Locale.ROOT,
+            "%s over %d views: generic %s, iterable %s, visitor %s",
+            traversal,
+            viewCount,
+            generic,
+            iterable,
+            visitor));
+    // Allocation counting is not supported by every runtime, only compare when it is.
+    if (generic.allocations > 0) {
+      assertThat(iterable.allocations, lessThan(generic.allocations));
+      assertThat(visitor.allocations, lessThanOrEqualTo(iterable.allocations));
+    }
+  }
+
+  private void consume(Iterable<View> traversal) {
+    int count = 0;
+    for (View unused : traversal) {
+      count++;
+    }
+    assertThat(count, is(viewCount));
+  }
+
+  private static Measurement measure(Runnable traversal) {
+    // Warm up, so that class loading and JIT compilation are not counted.
+    for (int i = 0; i < ITERATIONS; i++) {
+      traversal.run();
+    }
+    Debug.resetThreadAllocCount();
+    Debug.startAllocCounting();
+    long start = System.nanoTime();
+    for (int i = 0; i < ITERATIONS; i++) {
+      traversal.run();
+    }
+    long elapsed = System.nanoTime() - start;
+    Debug.stopAllocCounting();
+    return new Measurement(Debug.getThreadAllocCount() / ITERATIONS, elapsed / ITERATIONS);
+  }
+
+  private static View createHierarchy(Context context, int depth) {
+    if (depth == 0) {
+      return new View(context);
+    }
+    ViewGroup group = new FrameLayout(context);
+    for (int i = 0; i < FAN_OUT; i++) {
+      group.addView(createHierarchy(context, depth - 1));
+    }
+    return group;
+  }
+
+  private static class Measurement {
+    private final int allocations;
+    private final long nanos;
+
+    Measurement(int allocations, long nanos) {
+      this.allocations = allocations;
+      this.nanos = nanos;
+    }
+
+    @Override
+    public String toString() {
+      return String.format(Locale.ROOT, "%d allocations / %d us", allocations, nanos / 1000);
+    }
+  }
+}
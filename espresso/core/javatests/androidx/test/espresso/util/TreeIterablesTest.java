@@ -16,6 +16,7 @@
 
 package androidx.test.espresso.util;
 
+import static androidx.test.platform.app.InstrumentationRegistry.getInstrumentation;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.allOf;
@@ -23,8 +24,14 @@ import static org.hamcrest.Matchers.hasEntry;
 import static org.hamcrest.Matchers.is;
 import static org.junit.rules.ExpectedException.none;
 
+import android.content.Context;
+import android.view.View;
+import android.widget.FrameLayout;
 import androidx.test.espresso.util.TreeIterables.DistanceRecordingTreeViewer;
 import androidx.test.espresso.util.TreeIterables.TreeViewer;
+import androidx.test.espresso.util.TreeIterables.ViewAndDistance;
+import androidx.test.espresso.util.TreeIterables.ViewTreeViewer;
+import androidx.test.espresso.util.TreeIterables.ViewVisitor;
 import androidx.test.ext.junit.runners.AndroidJUnit4;
 import androidx.test.filters.SmallTest;
 import com.google.common.base.Function;
@@ -33,6 +40,7 @@ import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
@@ -242,4 +250,93 @@ public class TreeIterablesTest {
         allOf(hasEntry("a", 0), hasEntry("b", 1), hasEntry("c", 2), hasEntry("d", 3)));
     assertThat(distancesByData.size(), is(4));
   }
+
+  @Test
+  public void viewTraversals_matchGenericTraversals() {
+    View root = inflate(complexTree, getInstrumentation().getTargetContext());
+    assertThat(
+        Lists.newArrayList(TreeIterables.depthFirstViewTraversal(root)),
+        is(
+            (List<View>)
+                Lists.newArrayList(
+                    TreeIterables.depthFirstTraversal(root, new ViewTreeViewer()))));
+    assertThat(
+        Lists.newArrayList(TreeIterables.breadthFirstViewTraversal(root)),
+        is(
+            (List<View>)
+                Lists.newArrayList(
+                    TreeIterables.breadthFirstTraversal(root, new ViewTreeViewer()))));
+  }
+
+  @Test
+  public void viewTraversalWithDistance() {
+    View root = inflate(complexTree, getInstrumentation().getTargetContext());
+    List<String> traversal = Lists.newArrayList();
+    for (ViewAndDistance entry : TreeIterables.depthFirstViewTraversalWithDistance(root)) {
+      traversal.add(entry.getView().getTag() + ":" + entry.getDistanceFromRoot());
+    }
+    assertThat(
+        traversal,
+        is(
+            (List<String>)
+                Lists.newArrayList(
+                    "a:0", "b:1", "c:2", "d:3", "e:3", "f:4", "g:2", "h:2", "i:3", "j:4", "k:5",
+                    "l:1", "m:1", "n:1", "o:2", "p:3", "q:3")));
+  }
+
+  @Test
+  public void visitBreadthFirst_stopsWhenVisitorReturnsFalse() {
+    View root = inflate(complexTree, getInstrumentation().getTargetContext());
+    final List<String> visited = new ArrayList<>();
+    TreeIterables.visitBreadthFirst(
+        root,
+        new ViewVisitor() {
+          @Override
+          public boolean visit(View view, int distanceFromRoot) {
+            visited.add(view.getTag() + ":" + distanceFromRoot);
+            return !"c".equals(view.getTag());
+          }
+        });
+    assertThat(
+        visited,
+        is((List<String>) Lists.newArrayList("a:0", "b:1", "l:1", "m:1", "n:1", "c:2")));
+  }
+
+  @Test
+  public void visitDepthFirst_visitsEveryView() {
+    View root = inflate(complexTree, getInstrumentation().getTargetContext());
+    final List<Object> visited = new ArrayList<>();
+    TreeIterables.visitDepthFirst(
+        root,
+        new ViewVisitor() {
+          @Override
+          public boolean visit(View view, int distanceFromRoot) {
+            visited.add(view.getTag());
+            return true;
+          }
+        });
+    assertThat(
+        visited,
+        is(
+            (List<Object>)
+                Lists.<Object>newArrayList(
+                    "a", "b", "c", "d", "e", "f", "g", "h", "i", "j", "k", "l", "m", "n", "o", "p",
+                    "q")));
+  }
+
+  /** Creates a view hierarchy mirroring the given tree, tagging each view with its data. */
+  private static View inflate(TestElement element, Context context) {
+    View view;
+    if (element.children.isEmpty()) {
+      view = new View(context);
+    } else {
+      FrameLayout group = new FrameLayout(context);
+      for (TestElement child : element.children) {
+        group.addView(inflate(child, context));
+      }
+      view = group;
+    }
+    view.setTag(element.data);
+    return view;
+  }
 }
@@ -0,0 +1,158 @@
+/*
+ * Copyright (C) 2021 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.test.espresso.util;
+
+import static androidx.test.platform.app.InstrumentationRegistry.getInstrumentation;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.junit.rules.ExpectedException.none;
+
+import android.content.Context;
+import android.graphics.Rect;
+import android.view.View;
+import android.widget.FrameLayout;
+import androidx.test.annotation.UiThreadTest;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.filters.SmallTest;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.runner.RunWith;
+
+/** Unit tests for {@link ViewGeometryIndex}. */
+@SmallTest
+@RunWith(AndroidJUnit4.class)
+public class ViewGeometryIndexTest {
+
+  @Rule public ExpectedException expectedException = none();
+
+  private FrameLayout root;
+  private FrameLayout container;
+  private View topLeft;
+  private View topRight;
+  private View center;
+  private View bottomRight;
+  private View empty;
+
+  @Before
+  public void setUp() {
+    Context context = getInstrumentation().getTargetContext();
+    root = new FrameLayout(context);
+    container = new FrameLayout(context);
+    topLeft = new View(context);
+    topRight = new View(context);
+    center = new View(context);
+    bottomRight = new View(context);
+    empty = new View(context);
+
+    root.addView(topLeft);
+    root.addView(container);
+    container.addView(center);
+    container.addView(bottomRight);
+    root.addView(topRight);
+    root.addView(empty);
+
+    root.layout(0, 0, 400, 400);
+    topLeft.layout(0, 0, 100, 100);
+    topRight.layout(300, 0, 400, 100);
+    container.layout(100, 100, 400, 400);
+    // Relative to the container.
+    center.layout(0, 0, 100, 100);
+    bottomRight.layout(200, 200, 300, 300);
+    empty.layout(150, 150, 150, 150);
+  }
+
+  @Test
+  @UiThreadTest
+  public void allViews_breadthFirst() {
+    ViewGeometryIndex index = ViewGeometryIndex.obtain(root);
+    assertThat(index.getRoot(), is((View) root));
+    assertThat(
+        index.allViews(), contains(root, topLeft, container, topRight, empty, center, bottomRight));
+  }
+
+  @Test
+  @UiThreadTest
+  public void getScreenBounds() {
+    ViewGeometryIndex index = ViewGeometryIndex.obtain(root);
+    Rect bounds = new Rect();
+
+    index.getScreenBounds(center, bounds);
+    assertThat(bounds, is(offset(100, 100, 200, 200)));
+    index.getScreenBounds(bottomRight, bounds);
+    assertThat(bounds, is(offset(300, 300, 400, 400)));
+  }
+
+  @Test
+  @UiThreadTest
+  public void getScreenBounds_unknownView() {
+    ViewGeometryIndex index = ViewGeometryIndex.obtain(container);
+    assertThat(index.contains(topLeft), is(false));
+
+    expectedException.expect(IllegalArgumentException.class);
+    index.getScreenBounds(topLeft, new Rect());
+  }
+
+  @Test
+  @UiThreadTest
+  public void viewsOverlapping_rect() {
+    ViewGeometryIndex index = ViewGeometryIndex.obtain(root);
+
+    assertThat(
+        index.viewsOverlapping(offset(50, 50, 150, 150)),
+        contains(root, topLeft, container, center));
+    assertThat(index.viewsOverlapping(offset(350, 50, 360, 60)), contains(root, topRight));
+  }
+
+  @Test
+  @UiThreadTest
+  public void viewsOverlapping_touchingEdgesDoNotOverlap() {
+    ViewGeometryIndex index = ViewGeometryIndex.obtain(root);
+
+    assertThat(index.viewsOverlapping(topLeft), contains(root));
+    assertThat(index.viewsOverlapping(offset(100, 0, 300, 100)), contains(root));
+  }
+
+  @Test
+  @UiThreadTest
+  public void viewsOverlapping_view() {
+    ViewGeometryIndex index = ViewGeometryIndex.obtain(root);
+
+    assertThat(index.viewsOverlapping(center), contains(root, container));
+    assertThat(index.viewsOverlapping(container), contains(root, center, bottomRight));
+  }
+
+  @Test
+  @UiThreadTest
+  public void viewsOverlapping_emptyBounds() {
+    ViewGeometryIndex index = ViewGeometryIndex.obtain(root);
+
+    assertThat(index.viewsOverlapping(empty), empty());
+    assertThat(index.viewsOverlapping(offset(150, 150, 150, 250)), empty());
+  }
+
+  /** Returns the given bounds, relative to the root, in screen coordinates. */
+  private Rect offset(int left, int top, int right, int bottom) {
+    int[] location = new int[2];
+    root.getLocationOnScreen(location);
+    return new Rect(
+        left + location[0], top + location[1], right + location[0], bottom + location[1]);
+  }
+}
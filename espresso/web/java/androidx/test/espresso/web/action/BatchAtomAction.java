@@ -0,0 +1,181 @@
+/*
+ * Copyright (C) 2021 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.test.espresso.web.action;
+
+import static androidx.test.espresso.matcher.ViewMatchers.isJavascriptEnabled;
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+import android.os.Build;
+import android.os.Looper;
+import android.view.View;
+import android.webkit.WebView;
+import androidx.test.espresso.PerformException;
+import androidx.test.espresso.UiController;
+import androidx.test.espresso.ViewAction;
+import androidx.test.espresso.web.model.Atom;
+import androidx.test.espresso.web.model.ElementReference;
+import androidx.test.espresso.web.model.Evaluation;
+import androidx.test.espresso.web.model.WindowReference;
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.SettableFuture;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import javax.annotation.Nullable;
+import org.hamcrest.Matcher;
+
+/**
+ * A ViewAction which causes several Atoms to be evaluated within a webview, in order, with a
+ * single Javascript evaluation.
+ *
+ * <p>Unlike a sequence of {@link AtomAction}s, the atoms are evaluated in the same Javascript
+ * task: the page cannot load new content or run timers in between them. Do not batch atoms that
+ * trigger a navigation with atoms that depend on its result.
+ *
+ * <p>An atom that fails only fails its own {@link Evaluation}, the atoms after it are still
+ * evaluated. Like AtomAction, BatchAtomAction is stateful, and the caller must call {@link #get()}
+ * to ensure that the action has completed.
+ */
+public final class BatchAtomAction implements ViewAction {
+  private final SettableFuture<List<Evaluation>> futureEvals = SettableFuture.create();
+  final List<Atom<?>> atoms;
+  @Nullable final WindowReference window;
+  @Nullable final ElementReference element;
+
+  /**
+   * Creates a BatchAtomAction.
+   *
+   * @param atoms the atoms to execute, in order
+   * @param window (optional/nullable) the window context to execute on.
+   * @param element (optional/nullable) the element to execute on.
+   */
+  public BatchAtomAction(
+      List<? extends Atom<?>> atoms,
+      @Nullable WindowReference window,
+      @Nullable ElementReference element) {
+    checkArgument(!atoms.isEmpty(), "Need at least one atom!");
+    this.atoms = ImmutableList.copyOf(atoms);
+    this.window = window;
+    this.element = element;
+  }
+
+  @Override
+  public Matcher<View> getConstraints() {
+    return isJavascriptEnabled();
+  }
+
+  @Override
+  public String getDescription() {
+    return String.format(
+        "Evaluate %s Atoms: %s in window: %s with element: %s",
+        atoms.size(), atoms, window, element);
+  }
+
+  @Override
+  public void perform(UiController controller, View view) {
+    WebView webView = (WebView) view;
+    if (Build.VERSION.SDK_INT >= 23 && !webView.isHardwareAccelerated()) {
+      throw new PerformException.Builder()
+          .withViewDescription(webView.toString())
+          .withCause(
+              new RuntimeException("Hardware acceleration is not supported on current device"))
+          .build();
+    }
+    List<String> scripts = new ArrayList<>(atoms.size());
+    List<List<Object>> arguments = new ArrayList<>(atoms.size());
+    for (Atom<?> atom : atoms) {
+      scripts.add(checkNotNull(atom.getScript()));
+      arguments.add(checkNotNull(atom.getArguments(element)));
+    }
+    final ListenableFuture<List<Evaluation>> localEvals =
+        JavascriptEvaluation.evaluateBatch(webView, scripts, arguments, window);
+    localEvals.addListener(
+        new Runnable() {
+          @Override
+          public void run() {
+            try {
+              futureEvals.set(localEvals.get());
+            } catch (ExecutionException ee) {
+              futureEvals.setException(ee.getCause());
+            } catch (InterruptedException ie) {
+              futureEvals.setException(ie);
+            }
+          }
+        },
+        MoreExecutors.directExecutor());
+  }
+
+  /**
+   * Returns a Future of the evaluations of the atoms, in order. Espresso's public API cannot have
+   * guava types in its method signatures, so return Future instead of ListenableFuture.
+   */
+  public Future<List<Evaluation>> getFuture() {
+    return futureEvals;
+  }
+
+  /** Blocks until the atoms have completed execution. */
+  public List<Evaluation> get() throws ExecutionException, InterruptedException {
+    checkState(Looper.myLooper() != Looper.getMainLooper(), "On main thread!");
+    return checkEvaluationCount(futureEvals.get());
+  }
+
+  /** Blocks until the atoms have completed execution with a configurable timeout. */
+  public List<Evaluation> get(long val, TimeUnit unit)
+      throws ExecutionException, InterruptedException, TimeoutException {
+    checkState(Looper.myLooper() != Looper.getMainLooper(), "On main thread!");
+    return checkEvaluationCount(futureEvals.get(val, unit));
+  }
+
+  /**
+   * Transforms the evaluations returned by {@link #get()} with their atoms, in order.
+   *
+   * @throws RuntimeException naming the first atom which cannot transform its evaluation (for
+   *     example because the evaluation reports a Javascript error).
+   */
+  public List<Object> transform(List<Evaluation> evaluations) {
+    checkEvaluationCount(evaluations);
+    List<Object> results = new ArrayList<>(atoms.size());
+    for (int i = 0; i < atoms.size(); i++) {
+      Atom<?> atom = atoms.get(i);
+      try {
+        results.add(atom.transform(evaluations.get(i)));
+      } catch (RuntimeException re) {
+        throw new RuntimeException(
+            String.format(
+                "Atom %s of %s: %s failed: %s", i + 1, atoms.size(), atom, re.getMessage()),
+            re);
+      }
+    }
+    return results;
+  }
+
+  private List<Evaluation> checkEvaluationCount(List<Evaluation> evaluations) {
+    checkState(
+        evaluations.size() == atoms.size(),
+        "Got %s evaluations for %s atoms",
+        evaluations.size(),
+        atoms.size());
+    return evaluations;
+  }
+}
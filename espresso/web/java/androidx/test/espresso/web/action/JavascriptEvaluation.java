@@ -16,6 +16,7 @@
 
 package androidx.test.espresso.web.action;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.util.concurrent.Futures.transform;
@@ -40,6 +41,7 @@ import com.google.common.util.concurrent.AsyncFunction;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.MoreExecutors;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.ExecutionException;
@@ -61,6 +63,13 @@ final class JavascriptEvaluation {
           return ModelCodec.decodeEvaluation(in);
         }
       };
+  private static final Function<String, List<Evaluation>> DECODE_EVALUATIONS =
+      new Function<String, List<Evaluation>>() {
+        @Override
+        public List<Evaluation> apply(String in) {
+          return ModelCodec.decodeEvaluations(in);
+        }
+      };
 
   private static final int SANITIZER_SYNC = 1;
   private static final Handler MAIN_HANDLER =
@@ -117,6 +126,46 @@ final class JavascriptEvaluation {
     return parsedEvaluation;
   }
 
+  /**
+   * Evaluates several scripts on a given WebView, in order, with a single evaluation.
+   *
+   * <p>The WebView is sanitized once, as in {@link #evaluate}, and all scripts are evaluated in
+   * the same Javascript task, so the page cannot change in between them. The returned Future
+   * contains one evaluation per script, in the order of the scripts. A script that throws only
+   * fails its own evaluation.
+   */
+  static ListenableFuture<List<Evaluation>> evaluateBatch(
+      final WebView view,
+      final List<String> scripts,
+      final List<List<Object>> arguments,
+      @Nullable final WindowReference window) {
+    checkArgument(
+        scripts.size() == arguments.size(),
+        "Got %s scripts but %s argument lists",
+        scripts.size(),
+        arguments.size());
+    final List<UnpreparedScript> unprepared = new ArrayList<>(scripts.size());
+    for (int i = 0; i < scripts.size(); i++) {
+      unprepared.add(new UnpreparedScript(view, scripts.get(i), arguments.get(i), window));
+    }
+    SanitizerTask sanitizer =
+        new SanitizerTask(new UnpreparedScript(view, "", Collections.emptyList(), window));
+    view.post(sanitizer);
+    ListenableFuture<PreparedScript> preparedScript =
+        transform(
+            sanitizer,
+            new Function<UnpreparedScript, PreparedScript>() {
+              @Override
+              public PreparedScript apply(UnpreparedScript sane) {
+                return SCRIPT_PREPARER.applyBatch(view, unprepared, window);
+              }
+            },
+            directExecutor());
+    ListenableFuture<String> rawEvaluation =
+        transformAsync(preparedScript, RAW_EVALUATOR, directExecutor());
+    return transform(rawEvaluation, DECODE_EVALUATIONS, directExecutor());
+  }
+
   /** Ensures the WebView meetings minimum sanity guidelines. */
   private static class SanitizerTask extends AbstractFuture<UnpreparedScript> implements Runnable {
     // Defines as a JavaScript function to avoid the "unsafe_eval" error when strict CSP is defined.
@@ -318,12 +367,50 @@ final class JavascriptEvaluation {
     @Override
     public PreparedScript apply(UnpreparedScript unprepared) {
       StringBuilder atomized = atomize(unprepared.script, unprepared.args, unprepared.window);
+      return prepare(unprepared.view, atomized);
+    }
+
+    /**
+     * Prepares a single script that evaluates the given scripts in order and returns the array of
+     * their results. The atoms are only inlined once, whatever the number of scripts.
+     */
+    PreparedScript applyBatch(
+        WebView view, List<UnpreparedScript> scripts, @Nullable WindowReference windowReference) {
+      int guessedSize = EvaluationAtom.EXECUTE_SCRIPT_ANDROID.length() + 1024;
+      if (windowReference != null) {
+        guessedSize += EvaluationAtom.GET_ELEMENT_ANDROID.length();
+      }
+      for (UnpreparedScript unprepared : scripts) {
+        guessedSize += unprepared.script.length() + 64;
+      }
+      StringBuilder toExecute = new StringBuilder(guessedSize);
+      appendWindow(toExecute, windowReference);
+      toExecute
+          .append("var my_exec = (")
+          .append(EvaluationAtom.EXECUTE_SCRIPT_ANDROID)
+          .append(");var my_results = [];");
+      for (UnpreparedScript unprepared : scripts) {
+        toExecute.append("my_results.push(my_exec(");
+        appendScript(toExecute, unprepared.script);
+        toExecute
+            .append(",")
+            .append(ModelCodec.encode(unprepared.args))
+            .append(",")
+            .append(false) // Conduits get the whole array stringified at once.
+            .append(",")
+            .append("my_wind));");
+      }
+      toExecute.append(conduitize ? "return JSON.stringify(my_results);" : "return my_results;");
+      return prepare(view, wrapInFunction(toExecute));
+    }
+
+    private PreparedScript prepare(WebView view, StringBuilder atomized) {
       Conduit conduit = null;
       if (conduitize) {
         conduit = JavaScriptBridge.makeConduit();
         atomized = conduit.wrapScriptInConduit(atomized).insert(0, "javascript:");
       }
-      return new PreparedScript(unprepared.view, atomized.toString(), conduit);
+      return new PreparedScript(view, atomized.toString(), conduit);
     }
 
     private StringBuilder atomize(
@@ -332,7 +419,22 @@ final class JavascriptEvaluation {
       if (windowReference != null) {
         guessedSize += EvaluationAtom.GET_ELEMENT_ANDROID.length();
       }
-      StringBuilder toExecute = new StringBuilder(guessedSize).append("var my_wind = ");
+      StringBuilder toExecute = new StringBuilder(guessedSize);
+      appendWindow(toExecute, windowReference);
+      toExecute.append("return (").append(EvaluationAtom.EXECUTE_SCRIPT_ANDROID).append(")(");
+      appendScript(toExecute, script);
+      toExecute
+          .append(",")
+          .append(ModelCodec.encode(args))
+          .append(",")
+          .append(conduitize) // JSON.stringify at webdriver level. Necessary for conduits.
+          .append(",")
+          .append("my_wind)");
+      return wrapInFunction(toExecute);
+    }
+
+    private void appendWindow(StringBuilder toExecute, @Nullable WindowReference windowReference) {
+      toExecute.append("var my_wind = ");
       if (windowReference != null) {
         toExecute
             .append("(")
@@ -343,22 +445,16 @@ final class JavascriptEvaluation {
       } else {
         toExecute.append("null;");
       }
-      toExecute.append("return (").append(EvaluationAtom.EXECUTE_SCRIPT_ANDROID).append(")(");
+    }
+
+    private void appendScript(StringBuilder toExecute, String script) {
       if (isFunctionDefinition(script)) {
         // Simply passes the script in if it's a JavaScript function.
         toExecute.append(script);
       } else {
         // The script defines a function body.
-        toExecute = escapeAndQuote(toExecute, script);
+        escapeAndQuote(toExecute, script);
       }
-      toExecute
-          .append(",")
-          .append(ModelCodec.encode(args))
-          .append(",")
-          .append(conduitize) // JSON.stringify at webdriver level. Necessary for conduits.
-          .append(",")
-          .append("my_wind)");
-      return wrapInFunction(toExecute);
     }
 
     private StringBuilder wrapInFunction(StringBuilder script) {
@@ -76,6 +76,29 @@ public final class ModelCodec {
     }
   }
 
+  /** Transforms a JSON array string to a list of evaluations, in the order of the array. */
+  public static List<Evaluation> decodeEvaluations(String json) {
+    Object obj = decode(json);
+    if (obj instanceof List) {
+      List<Evaluation> evaluations = Lists.newArrayList();
+      for (Object element : (List<?>) obj) {
+        if (!(element instanceof Evaluation)) {
+          throw new IllegalArgumentException(
+              String.format(
+                  "Document: \"%s\" has an element that did not decode to an evaluation: \"%s\"",
+                  json, element));
+        }
+        evaluations.add((Evaluation) element);
+      }
+      return evaluations;
+    } else {
+      throw new IllegalArgumentException(
+          String.format(
+              "Document: \"%s\" did not decode to a list of evaluations. Instead: \"%s\"",
+              json, obj));
+    }
+  }
+
   /** Encodes a Java Object into a JSON string. */
   public static String encode(Object javaObject) {
     checkNotNull(javaObject);
@@ -30,6 +30,7 @@ import androidx.test.espresso.ViewAction;
 import androidx.test.espresso.remote.annotation.RemoteMsgConstructor;
 import androidx.test.espresso.remote.annotation.RemoteMsgField;
 import androidx.test.espresso.web.action.AtomAction;
+import androidx.test.espresso.web.action.BatchAtomAction;
 import androidx.test.espresso.web.action.EnableJavascriptAction;
 import androidx.test.espresso.web.assertion.WebAssertion;
 import androidx.test.espresso.web.model.Atom;
@@ -39,7 +40,9 @@ import androidx.test.internal.platform.util.TestOutputEmitter;
 import androidx.test.internal.runner.tracker.UsageTrackerRegistry;
 import androidx.test.internal.runner.tracker.UsageTrackerRegistry.AxtVersions;
 import java.io.Serializable;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
@@ -281,6 +284,25 @@ public final class Web {
       return new WebInteraction<E>(viewMatcher, newResult, window, element, false, timeout);
     }
 
+    /**
+     * Executes the provided atoms, in order, within the current context (the combination of Window
+     * and Element References).
+     *
+     * <p>All atoms are evaluated with a single round trip to the WebView, which is much faster
+     * than calling {@link #perform} once per atom. The atoms are evaluated in the same Javascript
+     * task though, so the page cannot load new content in between them: do not batch an atom that
+     * causes a navigation with atoms that depend on it.
+     *
+     * <p>This method blocks until all atoms return. Every atom is evaluated even if an earlier one
+     * fails, after which this method throws an exception naming the first atom that failed. The
+     * results of the atoms, in order, are available via get.
+     */
+    public WebInteraction<List<Object>> performAll(Atom<?>... atoms) {
+      List<Object> newResults = doEvalBatch(Arrays.asList(atoms), window, element);
+      return new WebInteraction<List<Object>>(
+          viewMatcher, newResults, window, element, false, timeout);
+    }
+
     /**
      * Evaluates the given WebAssertion.
      *
@@ -322,6 +344,33 @@ public final class Web {
       }
     }
 
+    private List<Object> doEvalBatch(
+        List<Atom<?>> atoms, WindowReference window, ElementReference elem) {
+      checkArgument(!atoms.isEmpty(), "Need an atom!");
+
+      BatchAtomAction batchAction = new BatchAtomAction(atoms, window, elem);
+      onView(viewMatcher).perform(batchAction);
+      try {
+        if (timeout == Timeout.NONE) {
+          return batchAction.transform(batchAction.get());
+        } else {
+          return batchAction.transform(batchAction.get(timeout.timeout, timeout.unit));
+        }
+      } catch (ExecutionException ee) {
+        onView(viewMatcher).perform(new ExceptionPropagator(ee.getCause()));
+        return null; // always throws.
+      } catch (InterruptedException ie) {
+        onView(viewMatcher).perform(new ExceptionPropagator(ie));
+        return null; // always throws.
+      } catch (TimeoutException te) {
+        onView(viewMatcher).perform(new ExceptionPropagator(te));
+        return null; // always throws.
+      } catch (RuntimeException re) {
+        onView(viewMatcher).perform(new ExceptionPropagator(re));
+        return null; // always throws.
+      }
+    }
+
     /** Returns the result of a prior call to perform or check. */
     public R get() {
       checkState(!brandNew, "Perform or Check never called on this WebInteraction!");
@@ -22,9 +22,11 @@ import static androidx.test.espresso.matcher.ViewMatchers.isAssignableFrom;
 import static androidx.test.espresso.web.assertion.WebViewAssertions.webContent;
 import static androidx.test.espresso.web.matcher.DomMatchers.elementById;
 import static androidx.test.espresso.web.matcher.DomMatchers.withTextContent;
+import static androidx.test.espresso.web.model.Atoms.castOrDie;
 import static androidx.test.espresso.web.model.Atoms.script;
 import static androidx.test.espresso.web.sugar.Web.onWebView;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.instanceOf;
 import static org.junit.Assert.fail;
@@ -124,6 +126,41 @@ public class JavaScriptExecutionActionTest {
     }
   }
 
+  @Test
+  public void testJavaScriptExecution_Batch() {
+    assertThat(
+        onWebView(isAssignableFrom(WebView.class))
+            .performAll(
+                script("document.getElementById('input').value = 'stuff'"),
+                script("return document.getElementById('input').value;", castOrDie(String.class)),
+                script("return 'done';", castOrDie(String.class)))
+            .get()
+            .subList(1, 3),
+        contains((Object) "stuff", "done"));
+  }
+
+  @Test
+  public void testJavaScriptExecution_BatchWithBadCommand() {
+    try {
+      onWebView(isAssignableFrom(WebView.class))
+          .performAll(
+              script("document.getElementById('input').value = 'stuff'"),
+              script("rubbish"),
+              script("document.getElementById('input').value = 'more stuff'"));
+      fail("Previous command should have failed.");
+    } catch (RuntimeException expected) {
+      assertThat(expected.getMessage(), containsString("Atom 2 of 3"));
+      assertThat(expected.getMessage(), containsString("rubbish is not defined"));
+    }
+    // The atom after the failed one was evaluated as well.
+    assertThat(
+        onWebView(isAssignableFrom(WebView.class))
+            .perform(
+                script("return document.getElementById('input').value;", castOrDie(String.class)))
+            .get(),
+        containsString("more stuff"));
+  }
+
   @Test
   public void testJavaScriptExecution_Timeout() {
     try {
@@ -111,6 +111,30 @@ public class ModelCodecTest {
     assertEquals(eval, ModelCodec.decodeEvaluation(ModelCodec.encode(eval)));
   }
 
+  @Test
+  public void testDecodeEvaluations() {
+    Map<String, Object> payload = Maps.newHashMap();
+    payload.put("message", "Error!");
+    List<Evaluation> evals = Lists.newArrayList();
+    evals.add(new Evaluation.Builder().setValue("Hello World").setStatus(0).build());
+    evals.add(
+        new Evaluation.Builder().setValue(payload).setMessage("Error!").setStatus(13).build());
+    evals.add(new Evaluation.Builder().setValue(true).setStatus(0).build());
+    assertEquals(evals, ModelCodec.decodeEvaluations(ModelCodec.encode(evals)));
+  }
+
+  @Test
+  public void testDecodeEvaluations_notAnEvaluation() {
+    List<Object> values = Lists.newArrayList();
+    values.add(new Evaluation.Builder().setValue("Hello World").setStatus(0).build());
+    values.add("foo");
+    try {
+      ModelCodec.decodeEvaluations(ModelCodec.encode(values));
+      fail("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException expected) {
+    }
+  }
+
   @Test
   public void testEncodeDecodeJSONAble() {
     ModelCodec.addDeJSONFactory(GoodJSONAble.DeJSONizer);
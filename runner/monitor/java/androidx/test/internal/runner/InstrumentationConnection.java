@@ -257,6 +257,30 @@ public class InstrumentationConnection {
     return incomingHandler.getClientsForType(type);
   }
 
+  /**
+   * Blocks until at least the given number of clients of the same type are registered, including
+   * clients of the current process. Returns as soon as a registration brings the number of clients
+   * up to {@code count}.
+   *
+   * @param type the type of the client
+   * @param count the number of clients to wait for
+   * @param timeout the maximum time to wait
+   * @param unit the time unit of the {@code timeout} argument
+   * @return {@code true} if enough clients are registered, {@code false} if the timeout elapsed
+   *     first
+   * @throws InterruptedException if the current thread is interrupted while waiting
+   */
+  public boolean awaitClientsForType(String type, int count, long timeout, TimeUnit unit)
+      throws InterruptedException {
+    IncomingHandler handler;
+    synchronized (this) {
+      checkState(incomingHandler != null, "Instrumentation Connection in not yet initialized");
+      handler = incomingHandler;
+    }
+    // Wait outside of the lock, so that clients can still be registered meanwhile.
+    return handler.awaitClientsForType(type, count, unit.toNanos(timeout));
+  }
+
   /**
    * Un-register a client and notify all other clients of the same type if needed.
    *
@@ -324,6 +348,12 @@ public class InstrumentationConnection {
      */
     private final Map<UUID, CountDownLatch> latches = new HashMap<>();
 
+    /**
+     * Number of registered clients of each unique client type. Mirrors {@link #typedClients} for
+     * threads waiting on client registration, and is guarded by itself.
+     */
+    private final Map<String, Integer> clientCounts = new HashMap<>();
+
     public IncomingHandler(Looper looper) {
       super(looper);
       if (Looper.getMainLooper() == looper || Looper.myLooper() == looper) {
@@ -491,6 +521,10 @@ public class InstrumentationConnection {
       sendMessageToOtherInstr(MSG_REMOVE_INSTRUMENTATION, null);
       otherInstrumentations.clear();
       typedClients.clear();
+      synchronized (clientCounts) {
+        clientCounts.clear();
+        clientCounts.notifyAll();
+      }
       logDebugWithProcess(TAG, "quitting looper...");
       getLooper().quit();
       logDebugWithProcess(TAG, "finishing instrumentation...");
@@ -621,15 +655,13 @@ public class InstrumentationConnection {
       Set<Messenger> clientSet = typedClients.get(type);
 
       if (null == clientSet) {
-        // Add the new client
         clientSet = new HashSet<>();
-        clientSet.add(client);
         typedClients.put(type, clientSet);
-        return;
       }
 
       // Add the new client
       clientSet.add(client);
+      updateClientCount(type);
     }
 
     private void unregisterClient(String type, Messenger client) {
@@ -660,6 +692,40 @@ public class InstrumentationConnection {
       if (clientSet.isEmpty()) {
         typedClients.remove(type);
       }
+      updateClientCount(type);
+    }
+
+    /** Publishes the number of clients of the given type and wakes up any waiting thread. */
+    private void updateClientCount(String type) {
+      Set<Messenger> clientSet = typedClients.get(type);
+      synchronized (clientCounts) {
+        if (null == clientSet) {
+          clientCounts.remove(type);
+        } else {
+          clientCounts.put(type, clientSet.size());
+        }
+        clientCounts.notifyAll();
+      }
+    }
+
+    private boolean awaitClientsForType(String type, int count, long timeoutNanos)
+        throws InterruptedException {
+      long deadline = System.nanoTime() + timeoutNanos;
+      synchronized (clientCounts) {
+        while (getClientCount(type) < count) {
+          long remainingNanos = deadline - System.nanoTime();
+          if (remainingNanos <= 0) {
+            return false;
+          }
+          TimeUnit.NANOSECONDS.timedWait(clientCounts, remainingNanos);
+        }
+        return true;
+      }
+    }
+
+    private int getClientCount(String type) {
+      Integer clientCount = clientCounts.get(type);
+      return null == clientCount ? 0 : clientCount;
     }
 
     private void instrBinderDied(Messenger instrMessenger) {
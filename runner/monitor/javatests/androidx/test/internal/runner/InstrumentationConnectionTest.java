@@ -367,6 +367,35 @@ public class InstrumentationConnectionTest {
     assertNull(instrumentationConnection.incomingHandler);
   }
 
+  @Test
+  public void verifyAwaitClientsOfType() throws InterruptedException {
+    instrumentationConnection.init(mockedInstrumentation, mockedFinisher);
+    final Messenger client1 = new Messenger(new Handler(Looper.getMainLooper()));
+    final Messenger client2 = new Messenger(new Handler(Looper.getMainLooper()));
+    final String clientType = "6";
+
+    instrumentationConnection.registerClient(clientType, client1);
+    assertTrue(
+        instrumentationConnection.awaitClientsForType(clientType, 1, 1, TimeUnit.SECONDS));
+    assertFalse(
+        instrumentationConnection.awaitClientsForType(clientType, 2, 50, TimeUnit.MILLISECONDS));
+
+    // register the second client while waiting for it
+    new Thread(
+            new Runnable() {
+              @Override
+              public void run() {
+                instrumentationConnection.registerClient(clientType, client2);
+              }
+            })
+        .start();
+    assertTrue(
+        instrumentationConnection.awaitClientsForType(clientType, 2, 1, TimeUnit.SECONDS));
+
+    instrumentationConnection.terminate();
+    assertNull(instrumentationConnection.incomingHandler);
+  }
+
   @Test
   public void verifyActivityFinisher() {
     instrumentationConnection.init(mockedInstrumentation, mockedFinisher);